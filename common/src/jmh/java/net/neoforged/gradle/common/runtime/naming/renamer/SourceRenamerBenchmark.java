@@ -0,0 +1,144 @@
+package net.neoforged.gradle.common.runtime.naming.renamer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Compares the {@link ScanningSourceRenamer} with the {@link RegexBasedSourceRenamer} over all source files of a jar.
+ * <p>
+ * Pass a decompiled Minecraft source jar with {@code -p sources=/path/to/sources.jar}, every SRG name in it is mapped
+ * to a new name. Without a source jar, a generated set of source files is used.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class SourceRenamerBenchmark {
+
+    private static final Pattern SRG_NAME = Pattern.compile("func_\\d+_[a-zA-Z_]+|m_\\d+_|field_\\d+_[a-zA-Z_]+|f_\\d+_|p_\\w+_\\d+_|p_\\d+_");
+
+    @Param({""})
+    public String sources;
+
+    @Param({"false", "true"})
+    public boolean javadocs;
+
+    private List<byte[]> files;
+    private RegexBasedSourceRenamer regex;
+    private ScanningSourceRenamer scanning;
+
+    @Setup
+    public void setup() throws IOException {
+        files = sources.isEmpty() ? generateSources() : readSources(sources);
+
+        final Map<String, String> names = new HashMap<>();
+        final Map<String, String> docs = new HashMap<>();
+        for (byte[] file : files) {
+            final Matcher matcher = SRG_NAME.matcher(new String(file, StandardCharsets.UTF_8));
+            while (matcher.find()) {
+                names.put(matcher.group(), "renamed" + names.size());
+                if (names.size() % 10 == 0)
+                    docs.put(matcher.group(), "Documentation of " + matcher.group());
+            }
+        }
+
+        regex = new RegexBasedSourceRenamer() {
+            @Override
+            public Map<String, String> getNames() {
+                return names;
+            }
+
+            @Override
+            public Map<String, String> getDocs() {
+                return docs;
+            }
+        };
+        scanning = new ScanningSourceRenamer() {
+            @Override
+            public Map<String, String> getNames() {
+                return names;
+            }
+
+            @Override
+            public Map<String, String> getDocs() {
+                return docs;
+            }
+        };
+    }
+
+    @Benchmark
+    public void regex(Blackhole blackhole) throws IOException {
+        for (byte[] file : files) {
+            blackhole.consume(regex.rename(file, javadocs, true));
+        }
+    }
+
+    @Benchmark
+    public void scanning(Blackhole blackhole) throws IOException {
+        for (byte[] file : files) {
+            blackhole.consume(scanning.rename(file, javadocs, true));
+        }
+    }
+
+    private static List<byte[]> readSources(String jar) throws IOException {
+        final List<byte[]> files = new ArrayList<>();
+        try (ZipFile zip = new ZipFile(jar)) {
+            for (ZipEntry entry : Collections.list(zip.entries())) {
+                if (!entry.getName().endsWith(".java"))
+                    continue;
+
+                try (InputStream stream = zip.getInputStream(entry)) {
+                    files.add(stream.readAllBytes());
+                }
+            }
+        }
+        return files;
+    }
+
+    private static List<byte[]> generateSources() {
+        final List<byte[]> files = new ArrayList<>();
+        for (int file = 0; file < 500; file++) {
+            final StringBuilder source = new StringBuilder();
+            source.append("package net.minecraft.world;\n\n");
+            source.append("public class Generated").append(file).append(" {\n");
+            for (int member = 0; member < 40; member++) {
+                final int id = file * 100 + member;
+                source.append("   private int f_").append(id).append("_;\n");
+                source.append("\n   @Override\n");
+                source.append("   public void m_").append(id).append("_(int p_").append(id).append("_1_, float p_").append(id).append("_2_) {\n");
+                source.append("      this.f_").append(id).append("_ = p_").append(id).append("_1_ + (int) p_").append(id).append("_2_;\n");
+                source.append("      list.forEach((p_").append(id).append("_3_) -> this.m_").append(id).append("_(p_").append(id).append("_3_, 1.0F));\n");
+                source.append("   }\n");
+            }
+            source.append("}\n");
+            files.add(source.toString().getBytes(StandardCharsets.UTF_8));
+        }
+        return files;
+    }
+}
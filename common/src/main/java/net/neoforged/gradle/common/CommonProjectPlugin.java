@@ -19,6 +19,13 @@ import net.neoforged.gradle.common.runtime.definition.CommonRuntimeDefinition;
 import net.neoforged.gradle.common.runtime.extensions.RuntimesExtension;
 import net.neoforged.gradle.common.runtime.naming.OfficialNamingChannelConfigurator;
 import net.neoforged.gradle.common.services.caching.CachedExecutionService;
+import net.neoforged.gradle.common.services.hashing.FileHashIndexService;
+import net.neoforged.gradle.common.services.mappings.CompiledMappingCacheService;
+import net.neoforged.gradle.common.services.artifacts.MinecraftArtifactRegistryService;
+import net.neoforged.gradle.common.services.metadata.MinecraftMetadataService;
+import net.neoforged.gradle.common.services.runtime.RuntimeRegistryService;
+import net.neoforged.gradle.common.services.tools.ToolDaemonService;
+import net.neoforged.gradle.common.services.tools.ToolResolutionService;
 import net.neoforged.gradle.common.tasks.CleanCache;
 import net.neoforged.gradle.common.tasks.DisplayMappingsLicenseTask;
 import net.neoforged.gradle.common.util.ConfigurationUtils;
@@ -69,6 +76,13 @@ public class CommonProjectPlugin implements Plugin<Project> {
 
         //Register the services
         CachedExecutionService.register(project);
+        ToolDaemonService.register(project);
+        ToolResolutionService.register(project);
+        MinecraftMetadataService.register(project);
+        MinecraftArtifactRegistryService.register(project);
+        RuntimeRegistryService.register(project);
+        FileHashIndexService.register(project);
+        CompiledMappingCacheService.register(project);
 
         // Apply both the idea and eclipse IDE plugins
         project.getPluginManager().apply(IdeaPlugin.class);
@@ -1,14 +1,15 @@
 package net.neoforged.gradle.common.extensions;
 
 import com.google.common.collect.ImmutableMap;
-import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
 import net.minecraftforge.gdi.ConfigurableDSLElement;
+import net.neoforged.gradle.common.services.artifacts.MinecraftArtifactRegistryService;
+import net.neoforged.gradle.common.services.hashing.FileHashIndexService;
+import net.neoforged.gradle.common.services.metadata.MinecraftMetadataService;
 import net.neoforged.gradle.common.tasks.MinecraftVersionManifestFileCacheProvider;
 import net.neoforged.gradle.common.util.FileCacheUtils;
 import net.neoforged.gradle.common.util.FileDownloadingUtils;
 import net.neoforged.gradle.common.util.MinecraftArtifactType;
-import net.neoforged.gradle.common.util.SerializationUtils;
+import net.neoforged.gradle.common.util.VersionJson;
 import net.neoforged.gradle.dsl.common.extensions.MinecraftArtifactCache;
 import net.neoforged.gradle.dsl.common.tasks.WithOutput;
 import net.neoforged.gradle.dsl.common.util.CacheFileSelector;
@@ -26,43 +27,19 @@ import org.jetbrains.annotations.NotNull;
 import javax.inject.Inject;
 import java.io.File;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.URL;
 import java.util.EnumMap;
 import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 
 public abstract class MinecraftArtifactCacheExtension implements ConfigurableDSLElement<MinecraftArtifactCache>, MinecraftArtifactCache {
 
     private final Project project;
     private final Map<CacheFileSelector, File> cacheFiles;
 
-    private static final class TaskKey{
-        private final Project project;
-        private final String gameVersion;
-        private final DistributionType type;
-
-        private TaskKey(Project project, String gameVersion, DistributionType type) {
-            this.project = project;
-            this.gameVersion = gameVersion;
-            this.type = type;
-        }
-        
-        @Override
-        public boolean equals(Object o) {
-            if (this == o) return true;
-            if (o == null || getClass() != o.getClass()) return false;
-            TaskKey taskKey = (TaskKey) o;
-            return Objects.equals(project, taskKey.project) && Objects.equals(gameVersion, taskKey.gameVersion) && type == taskKey.type;
-        }
-        
-        @Override
-        public int hashCode() {
-            return Objects.hash(project, gameVersion, type);
-        }
-    }
-    private final Map<TaskKey, Map<GameArtifact, TaskProvider<? extends WithOutput>>> tasks = new ConcurrentHashMap<>();
-
     @Inject
     public MinecraftArtifactCacheExtension(Project project) {
         this.project = project;
@@ -89,20 +66,18 @@ public abstract class MinecraftArtifactCacheExtension implements ConfigurableDSL
     @Override
     @NotNull
     public final Map<GameArtifact, TaskProvider<? extends WithOutput>> cacheGameVersionTasks(final Project project, String gameVersion, final DistributionType side) {
-        final MinecraftVersionAndUrl resolvedVersion = resolveVersion(gameVersion);
-
-        final TaskKey key = new TaskKey(project, resolvedVersion.getVersion(), side);
-
-        return tasks.computeIfAbsent(key, k -> {
+        //The version is not resolved against the launcher metadata here, the tasks do that when they run, so that configuration does not download anything
+        //The tasks are shared by all projects of the build, the registry creates them in the root project
+        return MinecraftArtifactRegistryService.register(project).get().getTasks(project, gameVersion, side, owner -> {
             final Map<GameArtifact, TaskProvider<? extends WithOutput>> results = new EnumMap<>(GameArtifact.class);
 
-            final TaskProvider<MinecraftVersionManifestFileCacheProvider> manifest = FileCacheUtils.createVersionManifestFileCacheProvidingTask(project, resolvedVersion);
+            final TaskProvider<MinecraftVersionManifestFileCacheProvider> manifest = FileCacheUtils.createVersionManifestFileCacheProvidingTask(owner, gameVersion);
             
             GameArtifact.VERSION_MANIFEST.doWhenRequired(side, () -> results.put(GameArtifact.VERSION_MANIFEST, manifest));
-            GameArtifact.CLIENT_JAR.doWhenRequired(side, () -> results.put(GameArtifact.CLIENT_JAR, FileCacheUtils.createArtifactFileCacheProvidingTask(project, resolvedVersion.getVersion(), DistributionType.CLIENT, MinecraftArtifactType.EXECUTABLE, manifest, results.values())));
-            GameArtifact.SERVER_JAR.doWhenRequired(side, () -> results.put(GameArtifact.SERVER_JAR, FileCacheUtils.createArtifactFileCacheProvidingTask(project, resolvedVersion.getVersion(), DistributionType.SERVER, MinecraftArtifactType.EXECUTABLE, manifest, results.values())));
-            GameArtifact.CLIENT_MAPPINGS.doWhenRequired(side, () -> results.put(GameArtifact.CLIENT_MAPPINGS, FileCacheUtils.createArtifactFileCacheProvidingTask(project, resolvedVersion.getVersion(), DistributionType.CLIENT, MinecraftArtifactType.MAPPINGS, manifest, results.values())));
-            GameArtifact.SERVER_MAPPINGS.doWhenRequired(side, () -> results.put(GameArtifact.SERVER_MAPPINGS, FileCacheUtils.createArtifactFileCacheProvidingTask(project, resolvedVersion.getVersion(), DistributionType.SERVER, MinecraftArtifactType.MAPPINGS, manifest, results.values())));
+            GameArtifact.CLIENT_JAR.doWhenRequired(side, () -> results.put(GameArtifact.CLIENT_JAR, FileCacheUtils.createArtifactFileCacheProvidingTask(owner, gameVersion, DistributionType.CLIENT, MinecraftArtifactType.EXECUTABLE, manifest, results.values())));
+            GameArtifact.SERVER_JAR.doWhenRequired(side, () -> results.put(GameArtifact.SERVER_JAR, FileCacheUtils.createArtifactFileCacheProvidingTask(owner, gameVersion, DistributionType.SERVER, MinecraftArtifactType.EXECUTABLE, manifest, results.values())));
+            GameArtifact.CLIENT_MAPPINGS.doWhenRequired(side, () -> results.put(GameArtifact.CLIENT_MAPPINGS, FileCacheUtils.createArtifactFileCacheProvidingTask(owner, gameVersion, DistributionType.CLIENT, MinecraftArtifactType.MAPPINGS, manifest, results.values())));
+            GameArtifact.SERVER_MAPPINGS.doWhenRequired(side, () -> results.put(GameArtifact.SERVER_MAPPINGS, FileCacheUtils.createArtifactFileCacheProvidingTask(owner, gameVersion, DistributionType.SERVER, MinecraftArtifactType.MAPPINGS, manifest, results.values())));
 
             return results;
         });
@@ -123,24 +98,28 @@ public abstract class MinecraftArtifactCacheExtension implements ConfigurableDSL
     }
 
     public final File cacheVersionManifest(MinecraftVersionAndUrl resolvedVersion) {
-        final CacheFileSelector cacheFileSelector = CacheFileSelector.forVersionJson(resolvedVersion.getVersion());
-        return this.cacheFiles.computeIfAbsent(cacheFileSelector, selector -> downloadVersionManifestToCache(project, getCacheDirectory().get().getAsFile(), resolvedVersion.getVersion()));
+        //Resolves the launcher metadata first, so that the download of the manifest does not resolve another file while it holds its lock
+        this.cacheLauncherMetadata();
+
+        return this.resolve(CacheFileSelector.forVersionJson(resolvedVersion.getVersion()), cacheDirectory -> downloadVersionManifestToCache(project, cacheDirectory, resolvedVersion.getVersion()));
     }
 
     @Override
     public final File cacheVersionArtifact(String gameVersion, DistributionType side) {
         final MinecraftVersionAndUrl resolvedVersion = resolveVersion(gameVersion);
 
-        final CacheFileSelector cacheFileSelector = CacheFileSelector.forVersionJar(resolvedVersion.getVersion(), side.getName());
-        return this.cacheFiles.computeIfAbsent(cacheFileSelector, selector -> downloadVersionArtifactToCache(project, getCacheDirectory().get().getAsFile(), resolvedVersion.getVersion(), side));
+        this.cacheVersionManifest(resolvedVersion);
+
+        return this.resolve(CacheFileSelector.forVersionJar(resolvedVersion.getVersion(), side.getName()), cacheDirectory -> downloadVersionArtifactToCache(project, cacheDirectory, resolvedVersion.getVersion(), side));
     }
 
     @Override
     public final File cacheVersionMappings(@NotNull String gameVersion, DistributionType side) {
         final MinecraftVersionAndUrl resolvedVersion = resolveVersion(gameVersion);
 
-        final CacheFileSelector cacheFileSelector = CacheFileSelector.forVersionMappings(resolvedVersion.getVersion(), side.getName());
-        return this.cacheFiles.computeIfAbsent(cacheFileSelector, selector -> downloadVersionMappingsToCache(project, getCacheDirectory().get().getAsFile(), resolvedVersion.getVersion(), side));
+        this.cacheVersionManifest(resolvedVersion);
+
+        return this.resolve(CacheFileSelector.forVersionMappings(resolvedVersion.getVersion(), side.getName()), cacheDirectory -> downloadVersionMappingsToCache(project, cacheDirectory, resolvedVersion.getVersion(), side));
     }
 
     @Override
@@ -150,29 +129,41 @@ public abstract class MinecraftArtifactCacheExtension implements ConfigurableDSL
 
     @Override
     public final File cache(final String url, final CacheFileSelector selector) {
-        return this.cacheFiles.computeIfAbsent(selector, cacheKey -> downloadJsonToCache(project, url, getCacheDirectory().getAsFile().get(), selector));
+        return this.resolve(selector, cacheDirectory -> downloadJsonToCache(project, url, cacheDirectory, selector));
     }
 
-    private File downloadVersionManifestToCache(Project project, final File cacheDirectory, final String minecraftVersion) {
-        final File manifestFile = new File(new File(cacheDirectory, CacheFileSelector.launcherMetadata().getCacheDirectory()), CacheFileSelector.launcherMetadata().getCacheFileName());
+    /**
+     * Resolves the given file of the cache through the artifact registry, which downloads each file once per build for all projects.
+     * The download must not resolve other files of the cache, those have to be resolved before.
+     */
+    private File resolve(final CacheFileSelector selector, final Function<File, File> download) {
+        final File cached = this.cacheFiles.get(selector);
+        if (cached != null) {
+            return cached;
+        }
 
-        String url = null;
+        final File cacheDirectory = getCacheDirectory().get().getAsFile();
+        final File target = new File(new File(cacheDirectory, selector.getCacheDirectory()), selector.getCacheFileName());
+        final File resolved = MinecraftArtifactRegistryService.register(project).get().resolve(target, () -> download.apply(cacheDirectory));
+        this.cacheFiles.putIfAbsent(selector, resolved);
+        return resolved;
+    }
 
-        JsonObject json = SerializationUtils.fromJson(manifestFile, JsonObject.class);
+    private File downloadVersionManifestToCache(Project project, final File cacheDirectory, final String minecraftVersion) {
+        final File manifestFile = new File(new File(cacheDirectory, CacheFileSelector.launcherMetadata().getCacheDirectory()), CacheFileSelector.launcherMetadata().getCacheFileName());
 
-        for (JsonElement e : json.getAsJsonArray("versions")) {
-            String v = e.getAsJsonObject().get("id").getAsString();
-            if (Objects.equals(minecraftVersion, "+") || v.equals(minecraftVersion)) {
-                url = e.getAsJsonObject().get("url").getAsString();
-                break;
-            }
+        final MinecraftVersionAndUrl version;
+        try {
+            version = MinecraftMetadataService.register(project).get().getLauncherManifest(manifestFile).find(minecraftVersion);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read the launcher metadata: %s".formatted(manifestFile), e);
         }
 
-        if (url == null) {
+        if (version == null) {
             throw new IllegalStateException("Could not find the correct version json for version: " + minecraftVersion);
         }
 
-        return downloadJsonToCache(project, url, cacheDirectory, CacheFileSelector.forVersionJson(minecraftVersion));
+        return downloadJsonToCache(project, version.getUrl(), cacheDirectory, CacheFileSelector.forVersionJson(minecraftVersion));
     }
 
     private File downloadVersionArtifactToCache(final Project project, final File cacheDirectory, String minecraftVersion, final DistributionType side) {
@@ -203,19 +194,19 @@ public abstract class MinecraftArtifactCacheExtension implements ConfigurableDSL
         final File versionManifestFile = this.cacheVersionManifest(minecraftVersionAndUrl);
 
         try {
-            JsonObject json = SerializationUtils.fromJson(versionManifestFile, JsonObject.class);
+            final VersionJson versionJson = MinecraftMetadataService.register(project).get().getVersionJson(versionManifestFile);
 
-            JsonObject artifactInfo = json.getAsJsonObject("downloads").getAsJsonObject(artifact);
-            String url = artifactInfo.get("url").getAsString();
-            String hash = artifactInfo.get("sha1").getAsString();
-            String version = json.getAsJsonObject().get("id").getAsString();
+            final VersionJson.Download artifactInfo = Objects.requireNonNull(versionJson.getDownloads(), "The version json does not list any downloads").get(artifact);
+            String url = artifactInfo.getUrl().toString();
+            String hash = artifactInfo.getSha1();
+            String version = versionJson.getId();
 
             final FileDownloadingUtils.DownloadInfo info = new FileDownloadingUtils.DownloadInfo(url, hash, "jar", version, artifact);
 
             final File cacheFile = new File(new File(cacheDirectory, cacheFileSelector.getCacheDirectory()), cacheFileSelector.getCacheFileName());
 
             if (cacheFile.exists()) {
-                final String fileHash = HashFunction.SHA1.hash(cacheFile);
+                final String fileHash = HashFunction.SHA1.hash(cacheFile, FileHashIndexService.register(project).get().getIndex());
                 if (fileHash.equals(hash)) {
                     return cacheFile;
                 }
@@ -242,15 +233,17 @@ public abstract class MinecraftArtifactCacheExtension implements ConfigurableDSL
     public MinecraftVersionAndUrl resolveVersion(final String gameVersion) {
         final File launcherMetadata = this.cacheLauncherMetadata();
 
-        JsonObject json = SerializationUtils.fromJson(launcherMetadata, JsonObject.class);
-
-        for (JsonElement e : json.getAsJsonArray("versions")) {
-            if (gameVersion.equals("+") || e.getAsJsonObject().get("id").getAsString().equals(gameVersion)) {
-                return new MinecraftVersionAndUrl(e.getAsJsonObject().get("id").getAsString(), e.getAsJsonObject().get("url").getAsString());
-            }
+        final MinecraftVersionAndUrl version;
+        try {
+            version = MinecraftMetadataService.register(project).get().getLauncherManifest(launcherMetadata).find(gameVersion);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read the launcher metadata: %s".formatted(launcherMetadata), e);
         }
 
-        throw new IllegalStateException("Could not find the correct version json.");
+        if (version == null) {
+            throw new IllegalStateException("Could not find the correct version json.");
+        }
+        return version;
     }
 
     public Provider<MinecraftVersionAndUrl> resolveVersion(Provider<String> gameVersion) {
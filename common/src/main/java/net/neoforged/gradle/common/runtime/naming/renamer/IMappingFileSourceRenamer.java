@@ -21,7 +21,10 @@
 package net.neoforged.gradle.common.runtime.naming.renamer;
 
 import net.minecraftforge.srgutils.IMappingFile;
+import net.neoforged.gradle.util.CompiledMappingCache;
+import net.neoforged.gradle.util.IMappingFileUtils;
 import org.gradle.api.tasks.Nested;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.File;
 import java.io.IOException;
@@ -29,9 +32,11 @@ import java.util.Collections;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
-public class IMappingFileSourceRenamer extends RegexBasedSourceRenamer {
+public class IMappingFileSourceRenamer extends ScanningSourceRenamer {
 
-    private final Map<String, String> names;
+    //Built from mapping files which are not kept, so the names are the only source of the table, and released once it exists
+    @Nullable
+    private volatile Map<String, String> names;
     private final Map<String, String> docs;
 
     private IMappingFileSourceRenamer(Map<String, String> names, Map<String, String> docs) {
@@ -39,9 +44,9 @@ public class IMappingFileSourceRenamer extends RegexBasedSourceRenamer {
         this.docs = docs;
     }
 
-    public static IMappingFileSourceRenamer from(File clientFile, final File serverFile) throws IOException {
-        IMappingFile pg_client = IMappingFile.load(clientFile);
-        IMappingFile pg_server = IMappingFile.load(serverFile);
+    public static IMappingFileSourceRenamer from(File clientFile, final File serverFile, @Nullable final CompiledMappingCache cache) throws IOException {
+        IMappingFile pg_client = IMappingFileUtils.load(clientFile, cache);
+        IMappingFile pg_server = IMappingFileUtils.load(serverFile, cache);
 
         return from(pg_client, pg_server);
     }
@@ -84,6 +89,10 @@ public class IMappingFileSourceRenamer extends RegexBasedSourceRenamer {
     @Override
     @Nested
     public Map<String, String> getNames() {
+        final Map<String, String> names = this.names;
+        if (names == null) {
+            throw new IllegalStateException("The names were released once they were looked up");
+        }
         return names;
     }
 
@@ -92,4 +101,9 @@ public class IMappingFileSourceRenamer extends RegexBasedSourceRenamer {
     public Map<String, String> getDocs() {
         return docs;
     }
+
+    @Override
+    protected void releaseNames() {
+        names = null;
+    }
 }
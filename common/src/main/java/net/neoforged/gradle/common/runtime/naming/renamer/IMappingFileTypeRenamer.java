@@ -1,7 +1,9 @@
 package net.neoforged.gradle.common.runtime.naming.renamer;
 
+import net.neoforged.gradle.util.CompiledMappingCache;
 import net.neoforged.gradle.util.IMappingFileUtils;
 import net.minecraftforge.srgutils.IMappingFile;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.ByteArrayInputStream;
 import java.io.File;
@@ -13,8 +15,8 @@ import java.util.Objects;
 
 public class IMappingFileTypeRenamer implements ITypeRenamer {
 
-    public static ITypeRenamer from(final File clientFile, final File serverFile) throws IOException {
-        return new IMappingFileTypeRenamer(IMappingFile.load(clientFile), IMappingFile.load(serverFile));
+    public static ITypeRenamer from(final File clientFile, final File serverFile, @Nullable final CompiledMappingCache cache) throws IOException {
+        return new IMappingFileTypeRenamer(IMappingFileUtils.load(clientFile, cache), IMappingFileUtils.load(serverFile, cache));
     }
 
     public static ITypeRenamer from(final IMappingFile clientMappings, final IMappingFile serverMappings) {
@@ -5,6 +5,7 @@ import java.io.IOException;
 /**
  * Defines a renamer which renames a source file or parts of it.
  * Generally source renamers only support renaming source files which have unique, type, field and method names.
+ * Source renamers must be thread-safe, as source files are renamed concurrently.
  */
 public interface ISourceRenamer {
     /**
@@ -0,0 +1,439 @@
+package net.neoforged.gradle.common.runtime.naming.renamer;
+
+import net.neoforged.gradle.util.JavadocAdder;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.api.tasks.Nested;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+
+/**
+ * A source renamer which produces the same output as the {@link RegexBasedSourceRenamer}, but finds the SRG names
+ * with a hand written scanner in a single pass over the source file, instead of splitting the file into lines and
+ * running a regex over each of them.
+ * <p>
+ * Javadoc injection and the detection of lambda parameters still use the patterns of the {@link RegexBasedSourceRenamer},
+ * but only for the few lines which could possibly match them. The patterns are matched against the range of the line in the source file,
+ * so lines are never copied out of it.
+ * <p>
+ * The names are looked up in a {@link SrgNameTable} which is built by {@link #createNameTable()} on first use,
+ * so that looking up a name does not allocate. Once the table exists, {@link #releaseNames()} lets the renamer drop its map of names,
+ * which only still serves as the task input.
+ */
+public abstract class ScanningSourceRenamer implements ISourceRenamer {
+    private static final Logger LOGGER = Logging.getLogger(ScanningSourceRenamer.class);
+
+    @Nullable
+    private transient volatile SrgNameTable nameTable;
+
+    public byte[] rename(byte[] classFile, boolean javadocs) throws IOException {
+        return rename(classFile, javadocs, true, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public byte[] rename(byte[] classFile, boolean javadocs, boolean lambdas) throws IOException {
+        return rename(classFile, javadocs, lambdas, StandardCharsets.UTF_8);
+    }
+
+    public byte[] rename(byte[] classFile, boolean javadocs, boolean lambdas, Charset sourceFileCharset) throws IOException {
+        final String data = new String(classFile, sourceFileCharset);
+
+        // Return early on empty files
+        if (data.isEmpty())
+            return new byte[0];
+
+        final SrgNameTable blacklist = lambdas ? null : collectLambdaParameters(data);
+        final StringBuilder output = new StringBuilder(data.length() + data.length() / 8);
+        final JavadocInjector injector = javadocs ? new JavadocInjector(output) : null;
+
+        //Line terminators are normalized to the system line separator, just like the regex based renamer does.
+        int lineStart = 0;
+        while (true) {
+            final int lineEnd = lineEnd(data, lineStart);
+            if (injector != null) {
+                injector.beforeLine(data, lineStart, lineEnd);
+            }
+
+            rename(data, lineStart, lineEnd, blacklist, output);
+            if (lineEnd == data.length())
+                break;
+
+            output.append(RegexBasedSourceRenamer.NEWLINE);
+            lineStart = lineEnd + (data.charAt(lineEnd) == '\r' && lineEnd + 1 < data.length() && data.charAt(lineEnd + 1) == '\n' ? 2 : 1);
+        }
+
+        return output.toString().getBytes(sourceFileCharset);
+    }
+
+    private static int lineEnd(String data, int from) {
+        for (int i = from; i < data.length(); i++) {
+            final char c = data.charAt(i);
+            if (c == '\n' || c == '\r')
+                return i;
+        }
+        return data.length();
+    }
+
+    /*
+     * The lambda parameters are kept in a table of their own, so that checking whether a name is one of them does not allocate either.
+     */
+    private static SrgNameTable collectLambdaParameters(String data) {
+        final SrgNameTable.Builder blacklist = new SrgNameTable.Builder();
+        int lineStart = 0;
+        while (lineStart <= data.length()) {
+            final int lineEnd = lineEnd(data, lineStart);
+            if (contains(data, lineStart, lineEnd, ") ->")) {
+                final Matcher m = RegexBasedSourceRenamer.LAMBDA_DECL.matcher(data).region(lineStart, lineEnd);
+                if (m.find()) {
+                    for (String parameter : m.group("args").split(", ")) {
+                        blacklist.put(parameter, parameter);
+                    }
+                }
+            }
+            lineStart = lineEnd + 1;
+        }
+        return blacklist.build();
+    }
+
+    private void rename(String data, int start, int end, @Nullable SrgNameTable blacklist, StringBuilder output) {
+        int copied = start;
+        int i = start;
+        while (i < end) {
+            final int matchEnd = matchSrg(data, i, end);
+            if (matchEnd < 0) {
+                i++;
+                continue;
+            }
+
+            output.append(data, copied, i);
+            appendMapped(data, i, matchEnd, blacklist, output);
+            copied = matchEnd;
+            i = matchEnd;
+        }
+        output.append(data, copied, end);
+    }
+
+    /**
+     * Matches {@code [fF]unc_\d+_[a-zA-Z_]+|m_\d+_|[fF]ield_\d+_[a-zA-Z_]+|f_\d+_|p_\w+_\d+_|p_\d+_} at the given position,
+     * with the same precedence as the regex engine.
+     *
+     * @return The end of the match, or -1 if there is no match at the given position.
+     */
+    private static int matchSrg(String data, int i, int end) {
+        final char c = data.charAt(i);
+        if (c == 'f' || c == 'F') {
+            if (startsWith(data, i + 1, end, "unc_"))
+                return letters(data, digitsAndUnderscore(data, i + 5, end), end);
+            if (startsWith(data, i + 1, end, "ield_"))
+                return letters(data, digitsAndUnderscore(data, i + 6, end), end);
+            if (c == 'f' && startsWith(data, i + 1, end, "_"))
+                return digitsAndUnderscore(data, i + 2, end);
+            return -1;
+        }
+        if (c == 'm') {
+            return startsWith(data, i + 1, end, "_") ? digitsAndUnderscore(data, i + 2, end) : -1;
+        }
+        if (c == 'p') {
+            if (!startsWith(data, i + 1, end, "_"))
+                return -1;
+
+            //p_\w+_\d+_ : the word characters are matched greedily, so the last possible separator wins.
+            final int wordStart = i + 2;
+            int wordEnd = wordStart;
+            while (wordEnd < end && isWordCharacter(data.charAt(wordEnd)))
+                wordEnd++;
+            for (int separator = wordEnd - 1; separator > wordStart; separator--) {
+                if (data.charAt(separator) == '_') {
+                    final int match = digitsAndUnderscore(data, separator + 1, end);
+                    if (match >= 0)
+                        return match;
+                }
+            }
+
+            return digitsAndUnderscore(data, wordStart, end);
+        }
+        return -1;
+    }
+
+    /**
+     * Matches {@code \d+_} at the given position.
+     */
+    private static int digitsAndUnderscore(String data, int i, int end) {
+        int position = i;
+        while (position < end && isDigit(data.charAt(position)))
+            position++;
+        if (position == i || position >= end || data.charAt(position) != '_')
+            return -1;
+        return position + 1;
+    }
+
+    /**
+     * Matches {@code [a-zA-Z_]+} at the given position, if the previous part of the pattern matched.
+     */
+    private static int letters(String data, int i, int end) {
+        if (i < 0)
+            return -1;
+        int position = i;
+        while (position < end && isLetterOrUnderscore(data.charAt(position)))
+            position++;
+        return position == i ? -1 : position;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isLetterOrUnderscore(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || c == '_';
+    }
+
+    private static boolean isWordCharacter(char c) {
+        return isLetterOrUnderscore(c) || isDigit(c);
+    }
+
+    private static boolean startsWith(String data, int i, int end, String prefix) {
+        return i + prefix.length() <= end && data.startsWith(prefix, i);
+    }
+
+    private static boolean contains(String data, int start, int end, String needle) {
+        for (int i = start; i + needle.length() <= end; i++) {
+            if (data.startsWith(needle, i))
+                return true;
+        }
+        return false;
+    }
+
+    private static boolean contains(String data, int start, int end, char needle) {
+        for (int i = start; i < end; i++) {
+            if (data.charAt(i) == needle)
+                return true;
+        }
+        return false;
+    }
+
+    /*
+     * There are certain times, such as Mixin Accessors that we wish to have the name of this method with the first character upper case.
+     */
+    private void appendMapped(String data, int start, int end, @Nullable SrgNameTable blacklist, StringBuilder output) {
+        if (blacklist != null && blacklist.get(data, start, end, false) != null) {
+            output.append(data, start, end);
+            return;
+        }
+
+        final boolean cap = data.charAt(start) == 'F';
+        final String mapped = getNameTable().get(data, start, end, cap);
+        if (mapped == null) {
+            output.append(data, start, end);
+        } else if (cap) {
+            final char first = mapped.charAt(0);
+            if (first < 128) {
+                output.append(Character.toUpperCase(first));
+            } else {
+                output.append(mapped.substring(0, 1).toUpperCase(Locale.ROOT));
+            }
+            output.append(mapped, 1, mapped.length());
+        } else {
+            output.append(mapped);
+        }
+    }
+
+    private SrgNameTable getNameTable() {
+        SrgNameTable table = nameTable;
+        if (table == null) {
+            synchronized (this) {
+                table = nameTable;
+                if (table == null) {
+                    table = createNameTable();
+                    nameTable = table;
+                    releaseNames();
+                }
+            }
+        }
+        return table;
+    }
+
+    /**
+     * Creates the table the names are looked up in, which happens once per renamer.
+     * Renamers which can read their names from their mapping source again should build the table from it, instead of from {@link #getNames()}.
+     *
+     * @return The table of names.
+     */
+    protected SrgNameTable createNameTable() {
+        return SrgNameTable.of(getNames());
+    }
+
+    /**
+     * Called once the table of names was created, after which the names are only looked up in the table.
+     * The names of a renamer are a task input, which Gradle fingerprints before the task runs, so they are not needed anymore.
+     */
+    protected void releaseNames() {
+    }
+
+    /**
+     * Injects the javadocs the same way the {@link RegexBasedSourceRenamer} does, directly into the output.
+     * Only lines which could be a package, class, method or field declaration, or the end of a class, are handed to the patterns.
+     */
+    private final class JavadocInjector {
+        private final StringBuilder output;
+        private final Deque<InnerClass> innerClasses = new ArrayDeque<>();
+        private int[] lineStarts = new int[256];
+        private int lines = 0;
+        private String _package = ""; //default package
+        private boolean enabled = true;
+
+        private JavadocInjector(StringBuilder output) {
+            this.output = output;
+        }
+
+        private void beforeLine(String data, int start, int end) {
+            final int firstNonWhitespace = skip(data, start, end, " \t\n\u000B\f\r");
+            if (startsWith(data, firstNonWhitespace, end, "package")) {
+                final Matcher m = RegexBasedSourceRenamer.PACKAGE_DECL.matcher(data).region(start, end);
+                if (m.find())
+                    _package = m.group("name") + ".";
+            }
+
+            if (enabled && mightMatch(data, start, end)) {
+                enabled = inject(data, start, end);
+            }
+
+            addLineStart(output.length());
+        }
+
+        private boolean mightMatch(String data, int start, int end) {
+            final boolean indented = startsWith(data, start, end, "   ") || startsWith(data, start, end, "\t");
+            if (indented && (contains(data, start, end, '(') || contains(data, start, end, "f_") || contains(data, start, end, "field_")))
+                return true;
+            if (contains(data, start, end, "class ") || contains(data, start, end, "interface ") || contains(data, start, end, "enum "))
+                return true;
+
+            final int firstNonIndent = skip(data, start, end, " \t");
+            return firstNonIndent < end && data.charAt(firstNonIndent) == '}';
+        }
+
+        /*
+         * The default anchoring and opaque bounds of the matcher regions make the patterns see the line just like a copy of it.
+         */
+        private boolean inject(String data, int start, int end) {
+            // constructors
+            Matcher matcher = RegexBasedSourceRenamer.CONSTRUCTOR_JAVADOC_PATTERN.matcher(data).region(start, end);
+            boolean isConstructor = matcher.find() && !innerClasses.isEmpty() && innerClasses.peek().name().contains(matcher.group("name"));
+            // methods
+            if (!isConstructor)
+                matcher = RegexBasedSourceRenamer.METHOD_JAVADOC_PATTERN.matcher(data).region(start, end);
+
+            if (isConstructor || matcher.find()) {
+                String name = isConstructor ? "<init>" : matcher.group("name");
+                String javadoc = getDocs().get(name);
+                if (javadoc == null && !innerClasses.isEmpty() && !name.startsWith("func_") && !name.startsWith("m_")) {
+                    javadoc = getDocs().get(innerClasses.peek().name() + '#' + name);
+                }
+                if (javadoc != null)
+                    insertAboveAnnotations(JavadocAdder.buildJavadoc(matcher.group("indent"), javadoc, true));
+
+                return true;
+            }
+
+            // fields
+            matcher = RegexBasedSourceRenamer.FIELD_JAVADOC_PATTERN.matcher(data).region(start, end);
+            if (matcher.find()) {
+                String name = matcher.group("name");
+                String javadoc = getDocs().get(name);
+                if (javadoc == null && !innerClasses.isEmpty() && !name.startsWith("field_") && !name.startsWith("f_")) {
+                    javadoc = getDocs().get(innerClasses.peek().name() + '#' + name);
+                }
+                if (javadoc != null)
+                    insertAboveAnnotations(JavadocAdder.buildJavadoc(matcher.group("indent"), javadoc, false));
+
+                return true;
+            }
+
+            //classes
+            matcher = RegexBasedSourceRenamer.CLASS_JAVADOC_PATTERN.matcher(data).region(start, end);
+            if (matcher.find()) {
+                String currentClass = (innerClasses.isEmpty() ? _package : innerClasses.peek().name() + "$") + matcher.group("name");
+                innerClasses.push(new InnerClass(currentClass, matcher.group("indent").length()));
+                String javadoc = getDocs().get(currentClass);
+                if (javadoc != null)
+                    insertAboveAnnotations(JavadocAdder.buildJavadoc(matcher.group("indent"), javadoc, true));
+
+                return true;
+            }
+
+            //detect curly braces for inner class stacking/end identification
+            matcher = RegexBasedSourceRenamer.CLOSING_CURLY_BRACE.matcher(data).region(start, end);
+            if (matcher.find()) {
+                if (!innerClasses.isEmpty()) {
+                    int len = matcher.group("indent").length();
+                    if (len == innerClasses.peek().indent()) {
+                        innerClasses.pop();
+                    } else if (len < innerClasses.peek().indent()) {
+                        LOGGER.warn("Failed to properly track class blocks around class %s:%d".formatted(innerClasses.peek().name(), lines + 1));
+                        return false;
+                    }
+                }
+            }
+
+            return true;
+        }
+
+        /**
+         * Inserts the given javadoc as a line of its own, above the annotations which directly precede the current line.
+         */
+        private void insertAboveAnnotations(String javadoc) {
+            int index = lines;
+            while (index > 0 && isAnnotation(index - 1))
+                index--;
+
+            final int offset = index == lines ? output.length() : lineStarts[index];
+            final String inserted = javadoc + RegexBasedSourceRenamer.NEWLINE;
+            output.insert(offset, inserted);
+
+            addLineStart(0);
+            System.arraycopy(lineStarts, index, lineStarts, index + 1, lines - 1 - index);
+            lineStarts[index] = offset;
+            for (int i = index + 1; i < lines; i++)
+                lineStarts[i] += inserted.length();
+        }
+
+        private boolean isAnnotation(int line) {
+            final int end = line + 1 < lines ? lineStarts[line + 1] - RegexBasedSourceRenamer.NEWLINE.length() : output.length() - RegexBasedSourceRenamer.NEWLINE.length();
+            for (int i = lineStarts[line]; i < end; i++) {
+                final char c = output.charAt(i);
+                if (c > ' ')
+                    return c == '@';
+            }
+            return false;
+        }
+
+        private void addLineStart(int start) {
+            if (lines == lineStarts.length)
+                lineStarts = Arrays.copyOf(lineStarts, lines * 2);
+            lineStarts[lines++] = start;
+        }
+
+        private static int skip(String data, int start, int end, String characters) {
+            int i = start;
+            while (i < end && characters.indexOf(data.charAt(i)) >= 0)
+                i++;
+            return i;
+        }
+    }
+
+    private record InnerClass(String name, int indent) {}
+
+    @Nested
+    public abstract Map<String, String> getNames();
+
+    @Nested
+    public abstract Map<String, String> getDocs();
+}
@@ -0,0 +1,258 @@
+package net.neoforged.gradle.common.runtime.naming.renamer;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A compact, read-only lookup table of SRG names, which resolves names directly from a range of characters without allocating.
+ * <p>
+ * Names of the numeric forms {@code m_<id>_}, {@code f_<id>_} and {@code p_<id>_} are stored in open addressing tables
+ * keyed on the primitive id, which make up the bulk of modern mapping sets.
+ * All other names (for example {@code func_<id>_<name>} or {@code p_<id>_<index>_}) are stored in an open addressing table
+ * keyed on their characters.
+ */
+public final class SrgNameTable {
+
+    private static final int MAX_ID_DIGITS = 9;
+
+    private final IdTable methods;
+    private final IdTable fields;
+    private final IdTable parameters;
+    private final NameTable others;
+
+    private SrgNameTable(IdTable methods, IdTable fields, IdTable parameters, NameTable others) {
+        this.methods = methods;
+        this.fields = fields;
+        this.parameters = parameters;
+        this.others = others;
+    }
+
+    /**
+     * Builds a table from the given names.
+     *
+     * @param names The names, mapped from the SRG name to the mapped name.
+     * @return The table.
+     */
+    public static SrgNameTable of(Map<String, String> names) {
+        final Builder builder = new Builder();
+        names.forEach(builder::put);
+        return builder.build();
+    }
+
+    /**
+     * Collects the names of a table straight from a mapping source, without a map of all names.
+     * The tables are only sized and filled once all names are known.
+     */
+    public static final class Builder {
+        private final List<String> srgs = new ArrayList<>();
+        private final List<String> names = new ArrayList<>();
+
+        /**
+         * Adds a name, replacing an earlier name of the same SRG name.
+         *
+         * @param srg The SRG name.
+         * @param name The mapped name.
+         * @return This builder.
+         */
+        public Builder put(String srg, String name) {
+            srgs.add(srg);
+            names.add(name);
+            return this;
+        }
+
+        /**
+         * @return The table of all names added so far.
+         */
+        public SrgNameTable build() {
+            int methodCount = 0, fieldCount = 0, parameterCount = 0, otherCount = 0;
+            for (String srg : srgs) {
+                switch (numericKind(srg, 0, srg.length())) {
+                    case 'm' -> methodCount++;
+                    case 'f' -> fieldCount++;
+                    case 'p' -> parameterCount++;
+                    default -> otherCount++;
+                }
+            }
+
+            final IdTable methods = new IdTable(methodCount);
+            final IdTable fields = new IdTable(fieldCount);
+            final IdTable parameters = new IdTable(parameterCount);
+            final NameTable others = new NameTable(otherCount);
+            for (int i = 0; i < srgs.size(); i++) {
+                final String srg = srgs.get(i);
+                final String name = names.get(i);
+                switch (numericKind(srg, 0, srg.length())) {
+                    case 'm' -> methods.put(id(srg, 0, srg.length()), name);
+                    case 'f' -> fields.put(id(srg, 0, srg.length()), name);
+                    case 'p' -> parameters.put(id(srg, 0, srg.length()), name);
+                    default -> others.put(srg, name);
+                }
+            }
+
+            return new SrgNameTable(methods, fields, parameters, others);
+        }
+    }
+
+    /**
+     * Looks up the mapped name of the SRG name in the given range of characters.
+     *
+     * @param data The characters to read the SRG name from.
+     * @param start The start of the SRG name, inclusive.
+     * @param end The end of the SRG name, exclusive.
+     * @param lowerFirst Whether the first character of the SRG name should be looked up as if it was lower case.
+     * @return The mapped name, or null if the SRG name is not mapped.
+     */
+    @Nullable
+    public String get(CharSequence data, int start, int end, boolean lowerFirst) {
+        final char kind = lowerFirst ? 0 : numericKind(data, start, end);
+        return switch (kind) {
+            case 'm' -> methods.get(id(data, start, end));
+            case 'f' -> fields.get(id(data, start, end));
+            case 'p' -> parameters.get(id(data, start, end));
+            default -> others.get(data, start, end, lowerFirst);
+        };
+    }
+
+    /**
+     * @return The kind of numeric SRG name in the given range ({@code m}, {@code f} or {@code p}), or zero if it is not a numeric SRG name.
+     */
+    private static char numericKind(CharSequence data, int start, int end) {
+        final int digits = end - start - 3;
+        if (digits < 1 || digits > MAX_ID_DIGITS)
+            return 0;
+
+        final char kind = data.charAt(start);
+        if ((kind != 'm' && kind != 'f' && kind != 'p') || data.charAt(start + 1) != '_' || data.charAt(end - 1) != '_')
+            return 0;
+
+        //Leading zeros would make different names share an id.
+        if (digits > 1 && data.charAt(start + 2) == '0')
+            return 0;
+
+        for (int i = start + 2; i < end - 1; i++) {
+            final char c = data.charAt(i);
+            if (c < '0' || c > '9')
+                return 0;
+        }
+        return kind;
+    }
+
+    private static int id(CharSequence data, int start, int end) {
+        int id = 0;
+        for (int i = start + 2; i < end - 1; i++) {
+            id = id * 10 + (data.charAt(i) - '0');
+        }
+        return id;
+    }
+
+    private static int capacity(int size) {
+        return Math.max(4, Integer.highestOneBit(Math.max(1, size) * 2 - 1) << 1);
+    }
+
+    /**
+     * An open addressing table from primitive ids to names.
+     */
+    private static final class IdTable {
+        private static final int EMPTY = -1;
+
+        private final int[] ids;
+        private final String[] names;
+        private final int mask;
+        private final int shift;
+
+        private IdTable(int size) {
+            final int capacity = capacity(size);
+            this.ids = new int[capacity];
+            this.names = new String[capacity];
+            this.mask = capacity - 1;
+            //Keep the log2(capacity) highest bits of the product, which are the best mixed ones
+            this.shift = Integer.numberOfLeadingZeros(capacity) + 1;
+            Arrays.fill(ids, EMPTY);
+        }
+
+        private void put(int id, String name) {
+            int slot = slot(id);
+            while (ids[slot] != EMPTY && ids[slot] != id)
+                slot = (slot + 1) & mask;
+            ids[slot] = id;
+            names[slot] = name;
+        }
+
+        @Nullable
+        private String get(int id) {
+            int slot = slot(id);
+            while (ids[slot] != EMPTY) {
+                if (ids[slot] == id)
+                    return names[slot];
+                slot = (slot + 1) & mask;
+            }
+            return null;
+        }
+
+        private int slot(int id) {
+            return (id * 0x9E3779B9) >>> shift;
+        }
+    }
+
+    /**
+     * An open addressing table from names to names, which compares the keys directly against the looked up characters.
+     */
+    private static final class NameTable {
+        private final String[] keys;
+        private final String[] names;
+        private final int[] hashes;
+        private final int mask;
+
+        private NameTable(int size) {
+            final int capacity = capacity(size);
+            this.keys = new String[capacity];
+            this.names = new String[capacity];
+            this.hashes = new int[capacity];
+            this.mask = capacity - 1;
+        }
+
+        private void put(String key, String name) {
+            final int hash = key.hashCode();
+            int slot = hash & mask;
+            while (keys[slot] != null && !keys[slot].equals(key))
+                slot = (slot + 1) & mask;
+            keys[slot] = key;
+            names[slot] = name;
+            hashes[slot] = hash;
+        }
+
+        @Nullable
+        private String get(CharSequence data, int start, int end, boolean lowerFirst) {
+            final char first = lowerFirst ? Character.toLowerCase(data.charAt(start)) : data.charAt(start);
+
+            //Same as String#hashCode, so that it matches the hash of the keys.
+            int hash = first;
+            for (int i = start + 1; i < end; i++) {
+                hash = 31 * hash + data.charAt(i);
+            }
+
+            int slot = hash & mask;
+            while (keys[slot] != null) {
+                if (hashes[slot] == hash && matches(keys[slot], first, data, start, end))
+                    return names[slot];
+                slot = (slot + 1) & mask;
+            }
+            return null;
+        }
+
+        private static boolean matches(String key, char first, CharSequence data, int start, int end) {
+            if (key.length() != end - start || key.charAt(0) != first)
+                return false;
+
+            for (int i = 1; i < key.length(); i++) {
+                if (key.charAt(i) != data.charAt(start + i))
+                    return false;
+            }
+            return true;
+        }
+    }
+}
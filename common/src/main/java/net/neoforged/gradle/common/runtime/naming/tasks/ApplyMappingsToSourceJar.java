@@ -22,28 +22,37 @@ package net.neoforged.gradle.common.runtime.naming.tasks;
 
 import net.neoforged.gradle.common.services.caching.CachedExecutionService;
 import net.neoforged.gradle.common.services.caching.jobs.ICacheableJob;
-import net.neoforged.gradle.util.FileUtils;
 import net.neoforged.gradle.common.runtime.naming.renamer.ISourceRenamer;
 import net.neoforged.gradle.common.runtime.tasks.DefaultRuntime;
-import org.apache.commons.io.IOUtils;
+import net.neoforged.gradle.util.ZipArchive;
+import net.neoforged.gradle.util.ZipRewriter;
 import org.gradle.api.file.RegularFileProperty;
 import org.gradle.api.provider.Property;
 import org.gradle.api.services.ServiceReference;
 import org.gradle.api.tasks.*;
 
-import java.io.FileOutputStream;
-import java.io.InputStream;
-import java.util.Enumeration;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipFile;
-import java.util.zip.ZipOutputStream;
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 
 @CacheableTask
 public abstract class ApplyMappingsToSourceJar extends DefaultRuntime {
 
+    /**
+     * The amount of renamed entries which may be pending per worker thread, before the writer waits for the oldest one.
+     * This bounds the memory used by the reorder buffer.
+     */
+    private static final int PENDING_ENTRIES_PER_THREAD = 4;
+
     public ApplyMappingsToSourceJar() {
         getRemapJavadocs().convention(false);
+        getParallelism().convention(Runtime.getRuntime().availableProcessors());
     }
 
     @ServiceReference(CachedExecutionService.NAME)
@@ -60,23 +69,16 @@ public abstract class ApplyMappingsToSourceJar extends DefaultRuntime {
 
     protected final void apply() throws Exception {
         final ISourceRenamer renamer = getSourceRenamer().get();
-        try (ZipFile zin = new ZipFile(getInput().get().getAsFile())) {
-            try (FileOutputStream fos = new FileOutputStream(getOutput().get().getAsFile());
-                 ZipOutputStream out = new ZipOutputStream(fos)) {
-
-                final Enumeration<? extends ZipEntry> entries = zin.entries();
-                while(entries.hasMoreElements()) {
-                    final ZipEntry entry = entries.nextElement();
-                    out.putNextEntry(FileUtils.getStableEntry(entry.getName()));
-                    if (!entry.getName().endsWith(".java")) {
-                        IOUtils.copy(zin.getInputStream(entry), out);
-                    } else {
-                        final InputStream inputStream = zin.getInputStream(entry);
-                        final byte[] toRemap = IOUtils.toByteArray(inputStream);
-                        inputStream.close();
-                        out.write(renamer.rename(toRemap, getRemapJavadocs().getOrElse(false), getRemapLambdas().getOrElse(true)));
-                    }
-                    out.closeEntry();
+        final int parallelism = Math.max(1, getParallelism().get());
+        final boolean remapJavadocs = getRemapJavadocs().getOrElse(false);
+        final boolean remapLambdas = getRemapLambdas().getOrElse(true);
+
+        try (ZipArchive zin = ZipArchive.open(getInput().get().getAsFile())) {
+            try (ZipRewriter out = new ZipRewriter(getOutput().get().getAsFile())) {
+                if (parallelism == 1) {
+                    applySerial(zin, out, renamer, remapJavadocs, remapLambdas);
+                } else {
+                    applyParallel(zin, out, renamer, remapJavadocs, remapLambdas, parallelism);
                 }
             }
         }
@@ -84,6 +86,65 @@ public abstract class ApplyMappingsToSourceJar extends DefaultRuntime {
         getLogger().debug("Applying mappings to source jar complete");
     }
 
+    private static void applySerial(ZipArchive zin, ZipRewriter out, ISourceRenamer renamer, boolean remapJavadocs, boolean remapLambdas) throws IOException {
+        for (ZipArchive.Entry entry : zin.getEntries()) {
+            if (!entry.getName().endsWith(".java")) {
+                out.copy(zin, entry, ZipRewriter.STABLE_TIME);
+            } else {
+                out.write(entry.getName(), rename(zin, entry, renamer, remapJavadocs, remapLambdas));
+            }
+        }
+    }
+
+    /**
+     * Renames the source files concurrently, while writing the entries in the same order as {@link #applySerial},
+     * so that the output is identical.
+     * Renamed entries are kept in a bounded reorder buffer until all entries before them are written.
+     */
+    private static void applyParallel(ZipArchive zin, ZipRewriter out, ISourceRenamer renamer, boolean remapJavadocs, boolean remapLambdas, int parallelism) throws Exception {
+        final ExecutorService executor = new ForkJoinPool(parallelism);
+        try {
+            final Deque<PendingEntry> pending = new ArrayDeque<>();
+            final int maxPending = parallelism * PENDING_ENTRIES_PER_THREAD;
+
+            for (ZipArchive.Entry entry : zin.getEntries()) {
+                final Future<byte[]> renamed = entry.getName().endsWith(".java") ?
+                        executor.submit(() -> rename(zin, entry, renamer, remapJavadocs, remapLambdas)) :
+                        null;
+                pending.add(new PendingEntry(entry, renamed));
+
+                if (pending.size() >= maxPending) {
+                    write(zin, out, pending.poll());
+                }
+            }
+
+            while (!pending.isEmpty()) {
+                write(zin, out, pending.poll());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void write(ZipArchive zin, ZipRewriter out, PendingEntry pending) throws Exception {
+        if (pending.renamed() == null) {
+            out.copy(zin, pending.entry(), ZipRewriter.STABLE_TIME);
+        } else {
+            try {
+                out.write(pending.entry().getName(), pending.renamed().get());
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof Exception exception) {
+                    throw exception;
+                }
+                throw e;
+            }
+        }
+    }
+
+    private static byte[] rename(ZipArchive zin, ZipArchive.Entry entry, ISourceRenamer renamer, boolean remapJavadocs, boolean remapLambdas) throws IOException {
+        return renamer.rename(zin.read(entry), remapJavadocs, remapLambdas);
+    }
+
     @InputFile
     @PathSensitive(PathSensitivity.NONE)
     public abstract RegularFileProperty getInput();
@@ -99,4 +160,14 @@ public abstract class ApplyMappingsToSourceJar extends DefaultRuntime {
 
     @Internal
     public abstract Property<ISourceRenamer> getSourceRenamer();
+
+    /**
+     * The amount of threads used to rename source files, a value of one renames all files on the task thread.
+     * Defaults to the amount of available processors.
+     * The output does not depend on this value.
+     */
+    @Internal
+    public abstract Property<Integer> getParallelism();
+
+    private record PendingEntry(ZipArchive.Entry entry, @Nullable Future<byte[]> renamed) {}
 }
@@ -24,7 +24,7 @@ public abstract class ApplyOfficialMappingsToCompiledJar extends DefaultExecute
     public ApplyOfficialMappingsToCompiledJar() {
         super();
 
-        getExecutingJar().set(ToolUtilities.resolveTool(getProject(), Constants.FART));
+        getExecutingJar().fileProvider(ToolUtilities.resolveToolLazily(getProject(), Constants.FART));
         getProgramArguments().set(getShouldReverseMappings().map(shouldReverse -> {
             final List<String> result = Lists.newArrayList(RenameConstants.DEFAULT_PROGRAMM_ARGS);
             if (shouldReverse) {
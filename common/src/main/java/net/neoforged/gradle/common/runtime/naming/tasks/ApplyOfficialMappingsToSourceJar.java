@@ -1,9 +1,11 @@
 package net.neoforged.gradle.common.runtime.naming.tasks;
 
+import net.neoforged.gradle.common.services.mappings.CompiledMappingCacheService;
 import net.neoforged.gradle.util.TransformerUtils;
 import net.neoforged.gradle.common.runtime.naming.renamer.IMappingFileSourceRenamer;
 import org.gradle.api.file.RegularFileProperty;
 import org.gradle.api.provider.Property;
+import org.gradle.api.services.ServiceReference;
 import org.gradle.api.tasks.CacheableTask;
 import org.gradle.api.tasks.Input;
 import org.gradle.api.tasks.InputFile;
@@ -18,7 +20,7 @@ public abstract class ApplyOfficialMappingsToSourceJar extends ApplyMappingsToSo
         getSourceRenamer().convention(
                 getClientMappingsFile().flatMap(clientMappings ->
                         getServerMappingsFile().map(TransformerUtils.guard(serverMappings ->
-                                IMappingFileSourceRenamer.from(clientMappings.getAsFile(), serverMappings.getAsFile()))))
+                                IMappingFileSourceRenamer.from(clientMappings.getAsFile(), serverMappings.getAsFile(), getMappingCache().get().getCache()))))
         );
         getRemapLambdas().convention(true);
         getSourceRenamer().finalizeValueOnRead();
@@ -27,6 +29,9 @@ public abstract class ApplyOfficialMappingsToSourceJar extends ApplyMappingsToSo
     @Input
     public abstract Property<Boolean> getRemapLambdas();
 
+    @ServiceReference(CompiledMappingCacheService.NAME)
+    public abstract Property<CompiledMappingCacheService> getMappingCache();
+
     @InputFile
     @PathSensitive(PathSensitivity.NONE)
     @Optional
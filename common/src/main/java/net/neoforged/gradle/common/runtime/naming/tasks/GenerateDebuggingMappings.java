@@ -1,13 +1,15 @@
 package net.neoforged.gradle.common.runtime.naming.tasks;
 
+import net.neoforged.gradle.common.services.mappings.CompiledMappingCacheService;
 import net.neoforged.gradle.dsl.common.util.DistributionType;
 import net.neoforged.gradle.util.FileUtils;
-import net.neoforged.gradle.util.TransformerUtils;
+import net.neoforged.gradle.util.IMappingFileUtils;
 import net.neoforged.gradle.common.runtime.tasks.DefaultRuntime;
 import net.neoforged.gradle.common.util.CacheableIMappingFile;
 import net.neoforged.gradle.dsl.common.extensions.MinecraftArtifactCache;
 import net.minecraftforge.srgutils.IMappingFile;
 import org.gradle.api.provider.Property;
+import org.gradle.api.provider.Provider;
 import org.gradle.api.tasks.Input;
 import org.gradle.api.tasks.TaskAction;
 import org.jetbrains.annotations.NotNull;
@@ -24,11 +26,11 @@ import java.util.zip.ZipOutputStream;
 public abstract class GenerateDebuggingMappings extends DefaultRuntime {
 
     public GenerateDebuggingMappings() {
+        final Provider<CompiledMappingCacheService> mappingCache = CompiledMappingCacheService.register(getProject());
         getMappingsFile().convention(getMinecraftVersion()
                 .map(minecraftVersion -> getProject().getExtensions().getByType(MinecraftArtifactCache.class)
                         .cacheVersionMappings(minecraftVersion, DistributionType.CLIENT))
-                .map(TransformerUtils.guard(IMappingFile::load))
-                .map(CacheableIMappingFile::new));
+                .map(file -> new CacheableIMappingFile(IMappingFileUtils.load(file, mappingCache.get().getCache()), mappingCache.get().getCache())));
 
         getOutputFileName().convention("mappings.zip");
     }
@@ -18,7 +18,7 @@ import org.gradle.api.tasks.PathSensitivity;
 public abstract class UnapplyOfficialMappingsToCompiledJar extends DefaultExecute {
 
     public UnapplyOfficialMappingsToCompiledJar() {
-        getExecutingJar().set(ToolUtilities.resolveTool(getProject(), Constants.SPECIALSOURCE));
+        getExecutingJar().fileProvider(ToolUtilities.resolveToolLazily(getProject(), Constants.SPECIALSOURCE));
         getProgramArguments().set(Lists.newArrayList("--in-jar", "{input}", "--out-jar", "{output}", "--srg-in", "{mappings}", "--live", "-r"));
         getMappings().fileProvider(getMinecraftVersion().map(minecraftVersion -> getProject().getExtensions().getByType(MinecraftArtifactCache.class).cacheVersionMappings(minecraftVersion, DistributionType.CLIENT)));
 
@@ -22,7 +22,7 @@ public abstract class BinaryAccessTransformer extends DefaultExecute {
 
         setDescription("Runs the access transformer on the decompiled sources.");
 
-        getExecutingJar().set(ToolUtilities.resolveTool(getProject(), Constants.ACCESSTRANSFORMER));
+        getExecutingJar().fileProvider(ToolUtilities.resolveToolLazily(getProject(), Constants.ACCESSTRANSFORMER));
         getRuntimeProgramArguments().convention(
                 getInputFile().map(inputFile -> {
                             final List<String> args = Lists.newArrayList();
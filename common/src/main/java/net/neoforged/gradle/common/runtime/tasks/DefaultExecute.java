@@ -1,8 +1,12 @@
 package net.neoforged.gradle.common.runtime.tasks;
 
+import net.neoforged.gradle.common.runtime.tasks.action.ExecuteToolAction;
 import net.neoforged.gradle.common.services.caching.CachedExecutionService;
 import net.neoforged.gradle.common.services.caching.jobs.ICacheableJob;
+import net.neoforged.gradle.common.services.tools.ToolDaemonService;
 import net.neoforged.gradle.dsl.common.tasks.Execute;
+import net.neoforged.gradle.dsl.common.util.LoggerOutputStream;
+import net.neoforged.gradle.util.ToolDaemonPool;
 import net.neoforged.gradle.util.TransformerUtils;
 import org.gradle.api.provider.ListProperty;
 import org.gradle.api.provider.Property;
@@ -10,15 +14,56 @@ import org.gradle.api.provider.Provider;
 import org.gradle.api.services.ServiceReference;
 import org.gradle.api.tasks.CacheableTask;
 import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.Internal;
 import org.gradle.api.tasks.TaskAction;
+import org.gradle.workers.WorkQueue;
+import org.gradle.workers.WorkerExecutor;
 
+import javax.inject.Inject;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.jar.Attributes;
 import java.util.jar.JarFile;
+import java.util.stream.Collectors;
 
 @CacheableTask
 public abstract class DefaultExecute extends DefaultRuntime implements Execute {
 
+    public static final String EXECUTION_PROPERTY_PREFIX = "net.neoforged.gradle.execution.";
+    public static final String EXECUTION_MODE_PROPERTY = EXECUTION_PROPERTY_PREFIX + "mode";
+
+    /**
+     * Defines how the tool of an execute task is run.
+     */
+    public enum ExecutionMode {
+        /**
+         * Forks a new JVM for every execution, with the jvm arguments and working directory of the task.
+         */
+        FORK,
+        /**
+         * Runs the tool in a Gradle worker process, which is kept warm and reused by later executions with the same java executable and jvm arguments.
+         * The working directory of the task is not applied, so only tools which receive absolute paths are compatible.
+         */
+        PROCESS_ISOLATION,
+        /**
+         * Runs the tool inside the Gradle daemon, in an isolated class loader.
+         * The jvm arguments, java version and working directory of the task are not applied.
+         */
+        CLASSLOADER_ISOLATION,
+        /**
+         * Runs the tool in a NeoGradle tool daemon, which is kept warm and reused by later executions, also of later builds, with the same tool,
+         * java executable and jvm arguments.
+         * The working directory of the task is not applied, so only tools which receive absolute paths are compatible.
+         */
+        DAEMON
+    }
+
     public DefaultExecute() {
         super();
 
@@ -37,6 +82,10 @@ public abstract class DefaultExecute extends DefaultRuntime implements Execute {
         getMultiRuntimeArguments().convention(getMultiArguments().AsMap());
 
         getLogLevel().convention(LogLevel.ERROR);
+
+        getExecutionMode().convention(getProviderFactory().gradleProperty(EXECUTION_MODE_PROPERTY)
+                .map(mode -> ExecutionMode.valueOf(mode.toUpperCase(Locale.ROOT)))
+                .orElse(ExecutionMode.FORK));
     }
 
     @ServiceReference(CachedExecutionService.NAME)
@@ -47,10 +96,87 @@ public abstract class DefaultExecute extends DefaultRuntime implements Execute {
         getCacheService().get()
                         .cached(
                                 this,
-                                ICacheableJob.Default.file(getOutput(), this::doExecute)
+                                ICacheableJob.Default.file(getOutput(), this::doExecuteTool)
                         ).execute();
     }
 
+    private void doExecuteTool() throws Exception {
+        final ExecutionMode mode = getExecutionMode().get();
+        if (mode == ExecutionMode.FORK) {
+            doExecute();
+            return;
+        }
+
+        final List<String> jvmArgs = applyVariableSubstitutions(getJvmArguments()).get();
+        final List<String> programArgs = applyVariableSubstitutions(getRuntimeProgramArguments()).get();
+
+        final File outputFile = ensureFileWorkspaceReady(getOutput());
+        final File logFile = ensureFileWorkspaceReady(getLogFile());
+        final File consoleLogFile = ensureFileWorkspaceReady(getConsoleLogFile().get());
+
+        try (PrintWriter writer = new PrintWriter(new FileOutputStream(consoleLogFile))) {
+            writer.println("Execution Mode:    " + mode);
+            writer.println("JVM Args:          " + (mode == ExecutionMode.CLASSLOADER_ISOLATION ? "<not applied>" : quote(jvmArgs)));
+            writer.println("Run Args:          " + quote(programArgs));
+            writer.println("JVM:               " + (mode == ExecutionMode.CLASSLOADER_ISOLATION ? "<Gradle daemon>" : getExecutablePath().get()));
+            writer.println("Classpath:         " + getExecutingJar().get().getAsFile().getAbsolutePath());
+            writer.println("Main Class:        " + getMainClass().get());
+            writer.println("Program log file:  " + logFile.getAbsolutePath());
+            writer.println("Output file:       " + outputFile.getAbsolutePath());
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to write the console log file: %s".formatted(consoleLogFile), e);
+        }
+
+        if (mode == ExecutionMode.DAEMON) {
+            final ToolDaemonPool.Key key = ToolDaemonPool.Key.of(List.of(getExecutingJar().get().getAsFile()), getExecutablePath().get(), jvmArgs);
+            //Like a forked tool, the standard output only ends up in the console log when the log level allows it
+            final File standardOutput = LogLevel.WARN.ordinal() > getLogLevel().get().ordinal() ? consoleLogFile : null;
+            try (OutputStream errorOutput = new LoggerOutputStream(getLogger(), getLogLevel().get())) {
+                getToolDaemonService().get().getPool().execute(key, getMainClass().get(), programArgs, standardOutput, errorOutput);
+            }
+            return;
+        }
+
+        final WorkQueue queue;
+        if (mode == ExecutionMode.CLASSLOADER_ISOLATION) {
+            queue = getWorkerExecutor().classLoaderIsolation(spec -> spec.getClasspath().from(getExecutingJar()));
+        } else {
+            queue = getWorkerExecutor().processIsolation(spec -> {
+                spec.getClasspath().from(getExecutingJar());
+                spec.forkOptions(options -> {
+                    options.setExecutable(getExecutablePath().get());
+                    options.setJvmArgs(jvmArgs);
+                });
+            });
+        }
+
+        queue.submit(ExecuteToolAction.class, params -> {
+            params.getMainClass().set(getMainClass());
+            params.getArguments().set(programArgs);
+            params.getConsoleLogFile().set(consoleLogFile);
+            params.getLogLevel().set(getLogLevel());
+        });
+        queue.await();
+    }
+
+    private static String quote(List<String> values) {
+        return values.stream().map(value -> '"' + value + '"').collect(Collectors.joining(", "));
+    }
+
+    @Inject
+    protected abstract WorkerExecutor getWorkerExecutor();
+
+    @ServiceReference(ToolDaemonService.NAME)
+    public abstract Property<ToolDaemonService> getToolDaemonService();
+
+    /**
+     * Defines how the tool is run, defaults to forking a new JVM for every execution.
+     * The default can be changed with the {@value #EXECUTION_MODE_PROPERTY} gradle property.
+     * The output does not depend on this value, for tools which are compatible with the chosen mode.
+     */
+    @Internal
+    public abstract Property<ExecutionMode> getExecutionMode();
+
     @Input
     public abstract Property<String> getConsoleLogFileName();
 
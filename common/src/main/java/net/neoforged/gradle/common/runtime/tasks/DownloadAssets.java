@@ -1,9 +1,13 @@
 package net.neoforged.gradle.common.runtime.tasks;
 
 import com.google.common.collect.Maps;
+import net.neoforged.gradle.common.runtime.tasks.action.DownloadAssetsAction;
 import net.neoforged.gradle.common.runtime.tasks.action.DownloadFileAction;
 import net.neoforged.gradle.common.services.caching.CachedExecutionService;
+import net.neoforged.gradle.common.services.caching.jobs.ExpectedFile;
 import net.neoforged.gradle.common.services.caching.jobs.ICacheableJob;
+import net.neoforged.gradle.common.services.hashing.FileHashIndexService;
+import net.neoforged.gradle.common.services.metadata.MinecraftMetadataService;
 import net.neoforged.gradle.common.util.FileCacheUtils;
 import net.neoforged.gradle.common.util.SerializationUtils;
 import net.neoforged.gradle.common.util.VersionJson;
@@ -18,6 +22,7 @@ import org.gradle.api.provider.Property;
 import org.gradle.api.provider.Provider;
 import org.gradle.api.services.ServiceReference;
 import org.gradle.api.tasks.*;
+import org.gradle.api.tasks.options.Option;
 import org.gradle.workers.WorkQueue;
 import org.gradle.workers.WorkerExecutor;
 import org.jetbrains.annotations.NotNull;
@@ -25,12 +30,18 @@ import org.jetbrains.annotations.NotNull;
 import javax.inject.Inject;
 import java.io.File;
 import java.io.IOException;
+import java.util.List;
 import java.util.Map;
 
 @SuppressWarnings({"UnstableApiUsage"})
 @CacheableTask
 public abstract class DownloadAssets extends DefaultTask implements WithWorkspace {
 
+    public static final String ASSETS_PROPERTY_PREFIX = "net.neoforged.gradle.assets.";
+    public static final String CONCURRENCY_PROPERTY = ASSETS_PROPERTY_PREFIX + "concurrency";
+
+    public static final String VERIFIED_INDEX_FILE_NAME = "verified-objects.bin";
+
     private final Provider<Directory> assetsCache;
     private final Provider<Directory> assetsObjects;
 
@@ -42,9 +53,15 @@ public abstract class DownloadAssets extends DefaultTask implements WithWorkspac
         getAssetIndexFileName().convention(getAssetIndex().map(index -> index + ".json"));
         getAssetIndexTargetFile().convention(getRegularFileInAssetsDirectory(getAssetIndexFileName().map(name -> "indexes/" + name)));
         getAssetIndexFile().convention(getAssetIndexTargetFile());
-        getVersionJson().convention(getVersionJsonFile().map(TransformerUtils.guard(file -> VersionJson.get(file.getAsFile()))));
+        getVersionJson().convention(getVersionJsonFile().map(TransformerUtils.guard(file -> getMetadataService().get().getVersionJson(file.getAsFile()))));
         getAssetRepository().convention("https://resources.download.minecraft.net/");
         getIsOffline().convention(getProject().getGradle().getStartParameter().isOffline());
+        getVerifyAssets().convention(false);
+        getConcurrency().convention(getProject().getProviders().gradleProperty(CONCURRENCY_PROPERTY).map(Integer::parseInt).orElse(16));
+
+        //A verification has to read the assets, which neither the up-to-date check nor the build cache do
+        getOutputs().upToDateWhen(task -> !getVerifyAssets().get());
+        getOutputs().doNotCacheIf("The content of all assets is verified", task -> getVerifyAssets().get());
     }
 
     public static @NotNull Provider<Directory> getAssetsDirectory(final Project project) {
@@ -67,6 +84,12 @@ public abstract class DownloadAssets extends DefaultTask implements WithWorkspac
     @ServiceReference(CachedExecutionService.NAME)
     public abstract Property<CachedExecutionService> getCache();
 
+    @ServiceReference(MinecraftMetadataService.NAME)
+    public abstract Property<MinecraftMetadataService> getMetadataService();
+
+    @ServiceReference(FileHashIndexService.NAME)
+    public abstract Property<FileHashIndexService> getFileHashIndex();
+
     @TaskAction
     public void run() throws IOException {
         getCache().get()
@@ -75,7 +98,7 @@ public abstract class DownloadAssets extends DefaultTask implements WithWorkspac
                         ICacheableJob.Initial.file("assetIndex", getAssetIndexFile(), this::downloadAssetIndex)
                 )
                 .withStage(
-                        ICacheableJob.Initial.directory("assets", assetsObjects, this::downloadAssets)
+                        ICacheableJob.SharedStore.directory("assets", assetsObjects, getVerifyAssets().get(), this::downloadAssets)
                 )
                 .execute();
     }
@@ -86,6 +109,7 @@ public abstract class DownloadAssets extends DefaultTask implements WithWorkspac
 
         final WorkQueue executor = getWorkerExecutor().noIsolation();
         executor.submit(DownloadFileAction.class, params -> {
+            params.getFileHashIndex().set(getFileHashIndex());
             params.getUrl().set(assetIndexData.getUrl().toString());
             params.getShouldValidateHash().set(true);
             params.getSha1().set(assetIndexData.getSha1());
@@ -98,29 +122,29 @@ public abstract class DownloadAssets extends DefaultTask implements WithWorkspac
         return null;
     }
 
-    private Void downloadAssets() {
+    private List<ExpectedFile> downloadAssets() {
         final AssetIndex assetIndex = SerializationUtils.fromJson(getAssetIndexFile().getAsFile().get(), AssetIndex.class);
+        final List<Asset> assets = assetIndex.getObjects().values().stream().distinct().toList();
 
+        //All assets are downloaded by a single work item, which shares its connections between all of them
         final WorkQueue executor = getWorkerExecutor().noIsolation();
-
-        assetIndex.getObjects().values().stream().distinct().forEach((asset) -> {
-            final Provider<File> assetFile = getFileInAssetsDirectory(asset.getPath());
-            final Provider<String> assetUrl = getAssetRepository()
-                    .map(repo -> repo.endsWith("/") ? repo : repo + "/")
-                    .map(TransformerUtils.guard(repository -> repository + asset.getPath()));
-
-            executor.submit(DownloadFileAction.class, params -> {
-                params.getIsOffline().set(getIsOffline());
-                params.getShouldValidateHash().set(true);
-                params.getOutputFile().fileProvider(assetFile);
-                params.getUrl().set(assetUrl);
-                params.getSha1().set(asset.getHash());
-            });
+        executor.submit(DownloadAssetsAction.class, params -> {
+            params.getAssetRepository().set(getAssetRepository());
+            params.getHashes().set(assets.stream().map(Asset::getHash).toList());
+            params.getSizes().set(assets.stream().map(Asset::getSize).toList());
+            params.getVerifiedIndexFile().set(assetsCache.map(directory -> directory.file(VERIFIED_INDEX_FILE_NAME)));
+            params.getVerifyAssets().set(getVerifyAssets());
+            params.getObjectsDirectory().set(assetsObjects);
+            params.getConcurrency().set(getConcurrency());
+            params.getIsOffline().set(getIsOffline());
+            params.getFileHashIndex().set(getFileHashIndex());
         });
 
         executor.await();
 
-        return null;
+        return assets.stream()
+                .map(asset -> new ExpectedFile(asset.getPath(), asset.getHash()))
+                .toList();
     }
 
     @Inject
@@ -131,7 +155,8 @@ public abstract class DownloadAssets extends DefaultTask implements WithWorkspac
     @PathSensitive(PathSensitivity.NONE)
     public abstract RegularFileProperty getVersionJsonFile();
 
-    @Input
+    //Parsed from the version json file, which is the tracked input
+    @Internal
     public abstract Property<VersionJson> getVersionJson();
 
     @Input
@@ -152,6 +177,21 @@ public abstract class DownloadAssets extends DefaultTask implements WithWorkspac
     @Input
     public abstract Property<Boolean> getIsOffline();
 
+    /**
+     * Whether the content of all assets is verified, instead of trusting assets which were verified by an earlier build and still exist.
+     * This does not change the output of the task, it only forces the task to run.
+     */
+    @Internal
+    @Option(option = "verify-assets", description = "Verifies the content of all assets, instead of trusting assets which were verified before.")
+    public abstract Property<Boolean> getVerifyAssets();
+
+    /**
+     * The maximal amount of assets which are downloaded at the same time, over the shared connections of the download.
+     * The output does not depend on this value.
+     */
+    @Internal
+    public abstract Property<Integer> getConcurrency();
+
     private static class AssetIndex {
         private Map<String, Asset> objects = Maps.newHashMap();
 
@@ -166,6 +206,7 @@ public abstract class DownloadAssets extends DefaultTask implements WithWorkspac
 
     private static class Asset {
         private String hash;
+        private long size;
 
         public String getHash() {
             return hash;
@@ -175,6 +216,14 @@ public abstract class DownloadAssets extends DefaultTask implements WithWorkspac
             this.hash = hash;
         }
 
+        public long getSize() {
+            return size;
+        }
+
+        public void setSize(long size) {
+            this.size = size;
+        }
+
         public String getPath() {
             return hash.substring(0, 2) + '/' + hash;
         }
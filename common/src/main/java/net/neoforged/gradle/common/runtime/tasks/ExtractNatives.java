@@ -3,10 +3,13 @@ package net.neoforged.gradle.common.runtime.tasks;
 import net.neoforged.gradle.util.TransformerUtils;
 import net.neoforged.gradle.common.runtime.tasks.action.DownloadFileAction;
 import net.neoforged.gradle.common.runtime.tasks.action.ExtractFileAction;
+import net.neoforged.gradle.common.services.hashing.FileHashIndexService;
+import net.neoforged.gradle.common.services.metadata.MinecraftMetadataService;
 import net.neoforged.gradle.common.util.VersionJson;
 import org.gradle.api.file.DirectoryProperty;
 import org.gradle.api.file.RegularFileProperty;
 import org.gradle.api.provider.Property;
+import org.gradle.api.services.ServiceReference;
 import org.gradle.api.tasks.*;
 import org.gradle.workers.WorkQueue;
 import org.gradle.workers.WorkerExecutor;
@@ -18,7 +21,7 @@ import java.io.File;
 public abstract class ExtractNatives extends DefaultRuntime {
 
     public ExtractNatives() {
-        getVersionJson().convention(getVersionJsonFile().map(TransformerUtils.guard(file -> VersionJson.get(file.getAsFile()))));
+        getVersionJson().convention(getVersionJsonFile().map(TransformerUtils.guard(file -> getMetadataService().get().getVersionJson(file.getAsFile()))));
         getLibrariesDirectory().convention(getOutputDirectory().map(dir -> dir.dir("libraries")));
     }
 
@@ -37,6 +40,7 @@ public abstract class ExtractNatives extends DefaultRuntime {
         versionJson.getNatives().forEach(library -> {
             final File outputFile = new File(librariesDirectory, library.getPath());
             executor.submit(DownloadFileAction.class, params -> {
+                params.getFileHashIndex().set(getFileHashIndex());
                 params.getIsOffline().set(getProject().getGradle().getStartParameter().isOffline());
                 params.getShouldValidateHash().set(true);
                 params.getOutputFile().set(outputFile);
@@ -76,12 +80,19 @@ public abstract class ExtractNatives extends DefaultRuntime {
     @Inject
     protected abstract WorkerExecutor getWorkerExecutor();
 
+    @ServiceReference(MinecraftMetadataService.NAME)
+    public abstract Property<MinecraftMetadataService> getMetadataService();
+
+    @ServiceReference(FileHashIndexService.NAME)
+    public abstract Property<FileHashIndexService> getFileHashIndex();
+
     @InputFile
     @Optional
     @PathSensitive(PathSensitivity.NONE)
     public abstract RegularFileProperty getVersionJsonFile();
 
-    @Input
+    //The parsed model of getVersionJsonFile(), only the file itself is fingerprinted
+    @Internal
     public abstract Property<VersionJson> getVersionJson();
 
     @OutputDirectory
@@ -5,8 +5,8 @@ import net.neoforged.gradle.common.services.caching.jobs.ICacheableJob;
 import net.neoforged.gradle.dsl.common.tasks.NeoGradleBase;
 import net.neoforged.gradle.dsl.common.tasks.WithOutput;
 import net.neoforged.gradle.dsl.common.tasks.WithWorkspace;
-import net.neoforged.gradle.util.ZipBuildingFileTreeVisitor;
-import org.gradle.api.file.FileTree;
+import net.neoforged.gradle.util.ZipArchive;
+import net.neoforged.gradle.util.ZipRewriter;
 import org.gradle.api.file.RegularFileProperty;
 import org.gradle.api.provider.Property;
 import org.gradle.api.services.ServiceReference;
@@ -17,8 +17,6 @@ import org.gradle.api.tasks.PathSensitivity;
 import org.gradle.api.tasks.TaskAction;
 
 import java.io.File;
-import java.io.FileOutputStream;
-import java.util.zip.ZipOutputStream;
 
 @CacheableTask
 public abstract class GenerateExtraJar extends NeoGradleBase implements WithOutput, WithWorkspace {
@@ -45,13 +43,14 @@ public abstract class GenerateExtraJar extends NeoGradleBase implements WithOutp
         final File outputJar = ensureFileWorkspaceReady(getOutput());
 
 
-        final FileTree inputTree = getArchiveOperations().zipTree(originalJar);
-        final FileTree filteredInput = inputTree.matching(filter -> {
-            filter.exclude("**/*.class");
-        });
-
-        try (ZipOutputStream zos = new ZipOutputStream(new FileOutputStream(outputJar))) {
-            filteredInput.visit(new ZipBuildingFileTreeVisitor(zos));
+        //Everything but the classes is copied, without recompressing it.
+        try (ZipArchive zin = ZipArchive.open(originalJar);
+             ZipRewriter zos = new ZipRewriter(outputJar)) {
+            for (ZipArchive.Entry entry : zin.getEntries()) {
+                if (!entry.getName().endsWith(".class")) {
+                    zos.copy(zin, entry);
+                }
+            }
         }
     }
 
@@ -1,12 +1,13 @@
 package net.neoforged.gradle.common.runtime.tasks;
 
-import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
 import net.neoforged.gradle.common.services.caching.CachedExecutionService;
+import net.neoforged.gradle.common.services.caching.jobs.ExpectedFile;
 import net.neoforged.gradle.common.services.caching.jobs.ICacheableJob;
+import net.neoforged.gradle.common.services.hashing.FileHashIndexService;
+import net.neoforged.gradle.common.services.metadata.MinecraftMetadataService;
 import net.neoforged.gradle.common.runtime.tasks.action.DownloadFileAction;
 import net.neoforged.gradle.common.util.FileCacheUtils;
-import net.neoforged.gradle.common.util.SerializationUtils;
+import net.neoforged.gradle.common.util.VersionJson;
 import net.neoforged.gradle.util.HashFunction;
 import net.neoforged.gradle.util.TransformerUtils;
 import org.gradle.api.file.DirectoryProperty;
@@ -25,6 +26,7 @@ import java.nio.file.FileSystem;
 import java.nio.file.FileSystems;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.*;
 import java.util.jar.Attributes;
 import java.util.jar.Manifest;
@@ -56,13 +58,19 @@ public abstract class ListLibraries extends DefaultRuntime {
     @ServiceReference(CachedExecutionService.NAME)
     public abstract Property<CachedExecutionService> getCacheService();
 
+    @ServiceReference(MinecraftMetadataService.NAME)
+    public abstract Property<MinecraftMetadataService> getMetadataService();
+
+    @ServiceReference(FileHashIndexService.NAME)
+    public abstract Property<FileHashIndexService> getFileHashIndex();
+
     
     @TaskAction
     public void run() throws IOException {
         getCacheService().get()
                 .cached(
                         this,
-                        ICacheableJob.Initial.directory("collect", getLibrariesDirectory(), this::extractAndCollect)
+                        ICacheableJob.SharedStore.directory("collect", getLibrariesDirectory(), this::extractAndCollect)
                 )
                 .withStage(
                         ICacheableJob.Staged.file("list", getOutput(), this::createList)
@@ -70,9 +78,9 @@ public abstract class ListLibraries extends DefaultRuntime {
                 .execute();
     }
 
-    private Set<File> extractAndCollect() throws IOException {
+    private List<ExpectedFile> extractAndCollect() throws IOException {
         try (FileSystem bundleFs = !getServerBundleFile().isPresent() ? null : FileSystems.newFileSystem(getServerBundleFile().get().getAsFile().toPath(), this.getClass().getClassLoader())) {
-            final Set<File> libraries;
+            final List<ExpectedFile> libraries;
             if (bundleFs == null) {
                 libraries = downloadAndListJsonLibraries();
             } else {
@@ -117,23 +125,20 @@ public abstract class ListLibraries extends DefaultRuntime {
         return FileList.read(bundleFs.getPath("META-INF", "libraries.list")).entries;
     }
     
-    private Set<PathAndUrl> listDownloadJsonLibraries() {
-        JsonObject json = SerializationUtils.fromJson(getDownloadedVersionJsonFile().getAsFile().get(), JsonObject.class);
+    private Set<PathAndUrl> listDownloadJsonLibraries() throws IOException {
+        final VersionJson versionJson = getMetadataService().get().getVersionJson(getDownloadedVersionJsonFile().getAsFile().get());
 
         // Gather all the libraries
         Set<PathAndUrl> artifacts = new HashSet<>();
-        for (JsonElement libElement : json.getAsJsonArray("libraries")) {
-            JsonObject library = libElement.getAsJsonObject();
-            
-            if (library.has("downloads")) {
-                JsonObject downloads = library.get("downloads").getAsJsonObject();
-                if (downloads.has("artifact")) {
-                    final JsonObject artifact = downloads.getAsJsonObject("artifact");
+        for (VersionJson.Library library : versionJson.getAllLibraries()) {
+            if (library.getDownloads() != null) {
+                final VersionJson.LibraryDownload artifact = library.getDownloads().getArtifact();
+                if (artifact != null) {
                     artifacts.add(
                             new PathAndUrl(
-                                    artifact.get("path").getAsString(),
-                                    artifact.get("url").getAsString(),
-                                    artifact.get("sha1").getAsString()
+                                    artifact.getPath(),
+                                    artifact.getUrl().toString(),
+                                    artifact.getSha1()
                             )
                     );
                 }
@@ -143,7 +148,7 @@ public abstract class ListLibraries extends DefaultRuntime {
         return artifacts;
     }
     
-    private Set<File> unpackAndListBundleLibraries(FileSystem bundleFs) throws IOException {
+    private List<ExpectedFile> unpackAndListBundleLibraries(FileSystem bundleFs) throws IOException {
         final File outputDir = getLibrariesDirectory().get().getAsFile();
         
         final List<FileList.Entry> libraryPaths = listBundleLibraries(bundleFs);
@@ -153,33 +158,35 @@ public abstract class ListLibraries extends DefaultRuntime {
                            final String path = String.format("META-INF/libraries/%s", entry.path);
                            final File output = new File(outputDir, path);
                            try {
-                               if (!output.exists() || !HashFunction.SHA1.hash(output).equalsIgnoreCase(entry.hash)) {
-                                   Files.copy(bundleFs.getPath(path), output.toPath());
+                               if (!output.exists() || !HashFunction.SHA1.hash(output, getFileHashIndex().get().getIndex()).equalsIgnoreCase(entry.hash)) {
+                                   Files.createDirectories(output.getParentFile().toPath());
+                                   Files.copy(bundleFs.getPath(path), output.toPath(), StandardCopyOption.REPLACE_EXISTING);
                                }
                            } catch (IOException e) {
                                throw new UncheckedIOException(e);
                            }
-                           return output;
-                       }).collect(Collectors.toSet());
+                           return new ExpectedFile(path, entry.hash);
+                       }).distinct().collect(Collectors.toList());
     }
     
-    private Set<File> downloadAndListJsonLibraries() throws IOException {
+    private List<ExpectedFile> downloadAndListJsonLibraries() throws IOException {
         final Set<PathAndUrl> libraryCoordinates = listDownloadJsonLibraries();
         final File outputDirectory = getLibrariesDirectory().get().getAsFile();
         
-        final Set<File> result = new HashSet<>();
+        final List<ExpectedFile> result = new ArrayList<>();
 
         final WorkQueue executor = getWorkerExecutor().noIsolation();
         for (PathAndUrl libraryCoordinate : libraryCoordinates) {
             final File outputFile = new File(outputDirectory, libraryCoordinate.path);
             executor.submit(DownloadFileAction.class, params -> {
+                params.getFileHashIndex().set(getFileHashIndex());
                 params.getUrl().set(libraryCoordinate.url);
                 params.getShouldValidateHash().set(true);
                 params.getSha1().set(libraryCoordinate.hash);
                 params.getOutputFile().set(outputFile);
                 params.getIsOffline().set(getIsOffline());
             });
-            result.add(outputFile);
+            result.add(new ExpectedFile(libraryCoordinate.path, libraryCoordinate.hash));
         }
         executor.await();
         
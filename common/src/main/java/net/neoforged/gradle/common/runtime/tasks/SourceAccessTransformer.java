@@ -20,7 +20,7 @@ public abstract class SourceAccessTransformer extends DefaultExecute {
 
         setDescription("Runs the access transformer on the decompiled sources.");
 
-        getExecutingJar().set(ToolUtilities.resolveTool(getProject(), getProject().getExtensions().getByType(Subsystems.class).getTools().getJST().get()));
+        getExecutingJar().fileProvider(ToolUtilities.resolveToolLazily(getProject(), getProject().getExtensions().getByType(Subsystems.class).getTools().getJST().get()));
         getRuntimeProgramArguments().convention(
                 getInputFile().map(inputFile -> {
                             final List<String> args = Lists.newArrayList();
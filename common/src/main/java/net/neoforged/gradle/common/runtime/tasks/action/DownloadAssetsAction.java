@@ -0,0 +1,143 @@
+package net.neoforged.gradle.common.runtime.tasks.action;
+
+import net.neoforged.gradle.common.services.hashing.FileHashIndexService;
+import net.neoforged.gradle.util.FileHashIndex;
+import net.neoforged.gradle.util.GradleInternalUtils;
+import net.neoforged.gradle.util.HashFunction;
+import net.neoforged.gradle.util.HttpDownloader;
+import net.neoforged.gradle.util.VerifiedObjectIndex;
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.api.provider.ListProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.api.services.BuildServiceRegistry;
+import org.gradle.workers.WorkAction;
+import org.gradle.workers.WorkParameters;
+
+import javax.inject.Inject;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Downloads all assets of an asset index in a single work item, through one {@link HttpDownloader}.
+ * Assets are stored by their hash, so the hash and size are all this action needs to know about an asset.
+ * <p>
+ * Assets which were verified before are recorded in a {@link VerifiedObjectIndex}, and are only checked for their existence and size afterwards,
+ * unless a full verification is requested.
+ */
+public abstract class DownloadAssetsAction implements WorkAction<DownloadAssetsAction.Params> {
+    private static final int MAX_ATTEMPTS = 10;
+    private static final Duration INITIAL_BACKOFF = Duration.ofMillis(100);
+    private static final Logger LOGGER = Logging.getLogger(DownloadAssetsAction.class);
+
+    @Inject
+    public abstract BuildServiceRegistry getBuildServiceRegistry();
+
+    @Override
+    public void execute() {
+        try {
+            final Params params = getParameters();
+            final File objects = params.getObjectsDirectory().get().getAsFile();
+            final String repository = params.getAssetRepository().map(repo -> repo.endsWith("/") ? repo : repo + "/").get();
+
+            final Path indexFile = params.getVerifiedIndexFile().get().getAsFile().toPath();
+            final boolean verify = params.getVerifyAssets().get();
+            final VerifiedObjectIndex verified = VerifiedObjectIndex.load(indexFile);
+
+            final List<String> hashes = params.getHashes().get();
+            final List<Long> sizes = params.getSizes().get();
+            final List<HttpDownloader.Download> downloads = new ArrayList<>();
+            for (int i = 0; i < hashes.size(); i++) {
+                final String hash = hashes.get(i);
+                final String path = hash.substring(0, 2) + '/' + hash;
+                final File target = new File(objects, path);
+
+                if (verify) {
+                    //A full verification reads every object, instead of trusting the index or the file hash index
+                    if (target.isFile()) {
+                        if (hashContent(target).equals(hash)) {
+                            continue;
+                        }
+                        Files.delete(target.toPath());
+                    }
+                } else if (verified.contains(hash) && target.isFile() && target.length() == sizes.get(i)) {
+                    //Objects are content-addressed, so a verified object which still exists with its size is still valid
+                    continue;
+                }
+
+                downloads.add(new HttpDownloader.Download(URI.create(repository + path), target, hash));
+            }
+
+            if (params.getIsOffline().get()) {
+                final FileHashIndex hashIndex = params.getFileHashIndex().map(FileHashIndexService::getIndex).getOrNull();
+                for (HttpDownloader.Download download : downloads) {
+                    if (!download.target().exists()) {
+                        throw new IllegalStateException("Cannot download asset " + download.uri() + " as Gradle is running in offline mode and the file does not exist");
+                    }
+
+                    final String hash = HashFunction.SHA1.hash(download.target(), hashIndex);
+                    if (!hash.equals(download.sha1())) {
+                        throw new IllegalStateException(String.format("Cannot validate asset %s as Gradle is running in offline mode and the file does not match the expected hash. Expected: %s Actual: %s", download.uri(), download.sha1(), hash));
+                    }
+                }
+                VerifiedObjectIndex.update(indexFile, hashes);
+                return;
+            }
+
+            final GradleInternalUtils.ProgressLoggerWrapper progress = GradleInternalUtils.getProgressLogger(LOGGER, getBuildServiceRegistry(), "Downloading assets");
+            progress.setDestFileName("assets");
+            progress.setSize(downloads.size());
+            progress.started();
+
+            try (HttpDownloader downloader = new HttpDownloader(params.getConcurrency().get(), MAX_ATTEMPTS, INITIAL_BACKOFF)) {
+                downloader.downloadAll(downloads, (download, transferred) -> {
+                    synchronized (progress) {
+                        progress.incrementProcessedFileCount();
+                    }
+                });
+            }
+
+            progress.completed();
+
+            //All objects exist with their expected hash now
+            VerifiedObjectIndex.update(indexFile, hashes);
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static String hashContent(File file) throws IOException {
+        try (InputStream stream = Files.newInputStream(file.toPath())) {
+            return HashFunction.SHA1.hash(stream);
+        }
+    }
+
+    public interface Params extends WorkParameters {
+        Property<String> getAssetRepository();
+
+        ListProperty<String> getHashes();
+
+        ListProperty<Long> getSizes();
+
+        DirectoryProperty getObjectsDirectory();
+
+        Property<Integer> getConcurrency();
+
+        Property<Boolean> getIsOffline();
+
+        RegularFileProperty getVerifiedIndexFile();
+
+        Property<Boolean> getVerifyAssets();
+
+        Property<FileHashIndexService> getFileHashIndex();
+    }
+}
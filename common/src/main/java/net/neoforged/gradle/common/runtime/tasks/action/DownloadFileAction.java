@@ -1,13 +1,11 @@
 package net.neoforged.gradle.common.runtime.tasks.action;
 
+import net.neoforged.gradle.common.services.hashing.FileHashIndexService;
+import net.neoforged.gradle.util.FileHashIndex;
 import net.neoforged.gradle.util.FileUtils;
 import net.neoforged.gradle.util.GradleInternalUtils;
 import net.neoforged.gradle.util.HashFunction;
-import net.neoforged.gradle.util.UrlUtils;
-import org.apache.ivy.core.settings.TimeoutConstraint;
-import org.apache.ivy.util.CopyProgressEvent;
-import org.apache.ivy.util.CopyProgressListener;
-import org.apache.ivy.util.FileUtil;
+import net.neoforged.gradle.util.ResumableDownloader;
 import org.gradle.api.file.RegularFileProperty;
 import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
@@ -19,10 +17,11 @@ import org.gradle.workers.WorkParameters;
 import javax.inject.Inject;
 import java.io.File;
 import java.net.URL;
+import java.time.Duration;
 
 public abstract class DownloadFileAction implements WorkAction<DownloadFileAction.Params> {
     private static final int MAX_ATTEMPTS = 10;
-    private static final int ATTEMPT_DELAY = 100;
+    private static final Duration INITIAL_BACKOFF = Duration.ofMillis(100);
     private static final Logger LOGGER = Logging.getLogger(DownloadFileAction.class);
 
     @Inject
@@ -33,10 +32,11 @@ public abstract class DownloadFileAction implements WorkAction<DownloadFileActio
         try {
             final Params params = getParameters();
             final File output = params.getOutputFile().get().getAsFile();
+            final FileHashIndex hashIndex = params.getFileHashIndex().map(FileHashIndexService::getIndex).getOrNull();
 
             if (output.exists()) {
                 if (params.getShouldValidateHash().get()) {
-                    final String hash = HashFunction.SHA1.hash(output);
+                    final String hash = HashFunction.SHA1.hash(output, hashIndex);
                     if (hash.equals(params.getSha1().get())) {
                         return;
                     }
@@ -56,7 +56,7 @@ public abstract class DownloadFileAction implements WorkAction<DownloadFileActio
                 progress.started();
 
                 if (params.getShouldValidateHash().get()) {
-                    final String hash = HashFunction.SHA1.hash(output);
+                    final String hash = HashFunction.SHA1.hash(output, hashIndex);
                     if (!hash.equals(params.getSha1().get())) {
                         throw new IllegalStateException(String.format("Cannot validate asset %s as Gradle is running in offline mode and the file does not match the expected hash. Expected: %s Actual: %s", params.getUrl().get(), params.getSha1().get(), hash));
                     }
@@ -67,77 +67,30 @@ public abstract class DownloadFileAction implements WorkAction<DownloadFileActio
                 return;
             }
 
-            final URL url = new URL(params.getUrl().get());
-
-            // Try downloading multiple times with a small delay in case of blocked connections
-            for (int attempt = 0; attempt < MAX_ATTEMPTS; ++attempt) {
-                try {
-                    progress.setSize(UrlUtils.getFileSize(url));
-
-                    FileUtil.copy(
-                            url,
-                            output,
-                            new Monitor(progress),
-                            Timeout.NONE
-                    );
-
-                    break; // Success
-                } catch (Exception e) {
-                    if (attempt == MAX_ATTEMPTS - 1) {
-                        throw e;
-                    }
-
-                    try {
-                        Thread.sleep(ATTEMPT_DELAY);
-                    } catch (InterruptedException interruptedException) {
-                        throw new RuntimeException(interruptedException);
-                    }
-                }
-            }
-
-            if (params.getShouldValidateHash().get()) {
-                final String hash = HashFunction.SHA1.hash(output);
-                if (!hash.equals(params.getSha1().get())) {
-                    throw new IllegalStateException(String.format("Cannot validate asset %s as Gradle is running in offline mode and the file does not match the expected hash. Expected: %s Actual: %s", params.getUrl().get(), params.getSha1().get(), hash));
-                }
-            }
-        } catch (Exception e) {
-            throw new RuntimeException(e);
-        }
-    }
-
-    private record Monitor(GradleInternalUtils.ProgressLoggerWrapper progress) implements CopyProgressListener {
-
-        @Override
-        public void start(CopyProgressEvent evt) {
+            //The hash is verified while the file is streamed, and an interrupted download is resumed by the next attempt
+            final ResumableDownloader downloader = new ResumableDownloader(MAX_ATTEMPTS, INITIAL_BACKOFF, null);
+            final String sha1 = params.getShouldValidateHash().get() ? params.getSha1().get() : null;
             progress.started();
-            progress.incrementDownloadProgress(evt.getReadBytes());
-        }
-
-        @Override
-        public void progress(CopyProgressEvent evt) {
-            progress.incrementDownloadProgress(evt.getReadBytes());
-        }
-
-        @Override
-        public void end(CopyProgressEvent evt) {
-            progress.incrementDownloadProgress(evt.getReadBytes());
+            downloader.download(new ResumableDownloader.Request(new URL(params.getUrl().get()), output.toPath(), sha1, false), new Monitor(progress));
             progress.completed();
+        } catch (Exception e) {
+            throw new RuntimeException(e);
         }
     }
 
-    private static final class Timeout implements TimeoutConstraint {
-
-        private static final Timeout NONE = new Timeout();
+    private record Monitor(GradleInternalUtils.ProgressLoggerWrapper progress) implements ResumableDownloader.Listener {
 
         @Override
-        public int getConnectionTimeout() {
-            return -1;
+        public void started(long length, long offset) {
+            if (length >= 0) {
+                progress.setSize(length);
+            }
+            progress.incrementDownloadProgress(offset);
         }
 
         @Override
-        public int getReadTimeout() {
-            return -1;
+        public void transferred(long bytes) {
+            progress.incrementDownloadProgress(bytes);
         }
     }
 
@@ -151,5 +104,7 @@ public abstract class DownloadFileAction implements WorkAction<DownloadFileActio
         RegularFileProperty getOutputFile();
 
         Property<Boolean> getIsOffline();
+
+        Property<FileHashIndexService> getFileHashIndex();
     }
 }
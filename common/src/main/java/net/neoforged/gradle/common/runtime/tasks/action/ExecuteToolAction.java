@@ -0,0 +1,216 @@
+package net.neoforged.gradle.common.runtime.tasks.action;
+
+import net.neoforged.gradle.dsl.common.util.LoggerOutputStream;
+import net.neoforged.gradle.dsl.common.tasks.specifications.ExecuteSpecification;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.api.provider.ListProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.workers.WorkAction;
+import org.gradle.workers.WorkParameters;
+
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+/**
+ * Runs the main method of a tool inside a worker, instead of forking a new JVM for it.
+ * <p>
+ * The standard output of the tool is written to the console log file, and its error output is logged, like a forked tool.
+ * To keep the output of tools which run at the same time apart, the output is routed by the tool invocation which writes it:
+ * the thread running the tool, and every thread it starts, write to the streams of that tool, any other thread writes to the original streams.
+ * Once the tool returns, threads it left behind write to the original streams as well.
+ * The system streams are replaced while at least one tool runs, and restored once the last running tool returns.
+ * <p>
+ * Only tools which return from their main method are compatible: a tool which calls {@link System#exit(int)} stops the worker,
+ * and with class loader isolation the Gradle daemon itself.
+ */
+public abstract class ExecuteToolAction implements WorkAction<ExecuteToolAction.Params> {
+    private static final Logger LOGGER = Logging.getLogger(ExecuteToolAction.class);
+
+    private static final RoutingOutputStream STANDARD_OUT = new RoutingOutputStream(false);
+    private static final RoutingOutputStream ERROR_OUT = new RoutingOutputStream(true);
+    private static int running = 0;
+
+    @Override
+    public void execute() {
+        final Params params = getParameters();
+        final ExecuteSpecification.LogLevel logLevel = params.getLogLevel().get();
+
+        try (BufferedOutputStream log_out = new BufferedOutputStream(new FileOutputStream(params.getConsoleLogFile().get().getAsFile(), true));
+             PrintStream standard_out = new PrintStream(new LogLevelAwareOutputStream(log_out, ExecuteSpecification.LogLevel.WARN, logLevel), true);
+             PrintStream error_out = new PrintStream(new LoggerOutputStream(LOGGER, logLevel), true)) {
+            final Method main = findMain(params.getMainClass().get());
+            runRouted(standard_out, error_out, () -> main.invoke(null, (Object) params.getArguments().get().toArray(new String[0])));
+        } catch (InvocationTargetException e) {
+            throw new RuntimeException("Failed to execute tool: %s".formatted(params.getMainClass().get()), e.getCause());
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to execute tool: %s".formatted(params.getMainClass().get()), e);
+        }
+    }
+
+    private static Method findMain(String mainClass) throws ReflectiveOperationException {
+        final Class<?> type = Class.forName(mainClass, true, Thread.currentThread().getContextClassLoader());
+        final Method main = type.getMethod("main", String[].class);
+        if (!Modifier.isStatic(main.getModifiers())) {
+            throw new IllegalStateException("The main method of %s is not static".formatted(mainClass));
+        }
+        return main;
+    }
+
+    /**
+     * Runs the given tool, while everything it and the threads it starts write to the system streams goes to the given streams.
+     */
+    static void runRouted(PrintStream out, PrintStream err, Tool tool) throws Exception {
+        final Invocation invocation = new Invocation(out, err);
+        installRouting();
+        try {
+            Invocation.CURRENT.set(invocation);
+            try {
+                tool.run();
+            } finally {
+                invocation.close();
+                Invocation.CURRENT.remove();
+            }
+        } finally {
+            uninstallRouting();
+        }
+    }
+
+    /*
+     * The system streams are replaced by the first tool which starts, and again if anything else replaced them in the meantime.
+     */
+    private static synchronized void installRouting() {
+        running++;
+        if (System.out != STANDARD_OUT.stream) {
+            STANDARD_OUT.install(System.out);
+            System.setOut(STANDARD_OUT.stream);
+        }
+        if (System.err != ERROR_OUT.stream) {
+            ERROR_OUT.install(System.err);
+            System.setErr(ERROR_OUT.stream);
+        }
+    }
+
+    /*
+     * The last tool which returns puts the original streams back, unless something else replaced the system streams since.
+     */
+    private static synchronized void uninstallRouting() {
+        if (--running > 0) {
+            return;
+        }
+        if (System.out == STANDARD_OUT.stream) {
+            System.setOut(STANDARD_OUT.fallback);
+        }
+        if (System.err == ERROR_OUT.stream) {
+            System.setErr(ERROR_OUT.fallback);
+        }
+    }
+
+    public interface Params extends WorkParameters {
+        Property<String> getMainClass();
+        ListProperty<String> getArguments();
+        RegularFileProperty getConsoleLogFile();
+        Property<ExecuteSpecification.LogLevel> getLogLevel();
+    }
+
+    @FunctionalInterface
+    interface Tool {
+        void run() throws Exception;
+    }
+
+    /**
+     * The streams of one run of a tool. Threads started by the tool inherit its invocation,
+     * which no longer has any streams once the tool returned, even if such a thread is still alive.
+     */
+    private static final class Invocation {
+        private static final InheritableThreadLocal<Invocation> CURRENT = new InheritableThreadLocal<>();
+
+        private volatile PrintStream out;
+        private volatile PrintStream err;
+
+        private Invocation(PrintStream out, PrintStream err) {
+            this.out = out;
+            this.err = err;
+        }
+
+        private void close() {
+            out = null;
+            err = null;
+        }
+    }
+
+    /**
+     * Writes to the stream of the tool invocation of the current thread, or to the original stream if there is none.
+     */
+    private static final class RoutingOutputStream extends OutputStream {
+        private final boolean error;
+        private final PrintStream stream = new PrintStream(this, true);
+        private volatile PrintStream fallback;
+
+        private RoutingOutputStream(boolean error) {
+            this.error = error;
+            this.fallback = error ? System.err : System.out;
+        }
+
+        private void install(PrintStream fallback) {
+            this.fallback = fallback;
+        }
+
+        private PrintStream current() {
+            final Invocation invocation = Invocation.CURRENT.get();
+            final PrintStream current = invocation == null ? null : error ? invocation.err : invocation.out;
+            return current != null ? current : fallback;
+        }
+
+        @Override
+        public void write(int b) {
+            current().write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            current().write(b, off, len);
+        }
+
+        @Override
+        public void flush() {
+            current().flush();
+        }
+    }
+
+    private static final class LogLevelAwareOutputStream extends OutputStream {
+        private final OutputStream target;
+        private final boolean shouldLog;
+
+        private LogLevelAwareOutputStream(OutputStream target, ExecuteSpecification.LogLevel minLevel, ExecuteSpecification.LogLevel currentLevel) {
+            this.target = target;
+            this.shouldLog = minLevel.ordinal() > currentLevel.ordinal(); //Inverse selection logic, if current is error and min is warn then it should not log.
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            if (shouldLog) {
+                target.write(b);
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (shouldLog) {
+                target.write(b, off, len);
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            target.flush();
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package net.neoforged.gradle.common.services.artifacts;
+
+import net.neoforged.gradle.dsl.common.tasks.WithOutput;
+import net.neoforged.gradle.dsl.common.util.DistributionType;
+import net.neoforged.gradle.dsl.common.util.GameArtifact;
+import org.gradle.api.Project;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.api.provider.Provider;
+import org.gradle.api.services.BuildService;
+import org.gradle.api.services.BuildServiceParameters;
+import org.gradle.api.tasks.TaskProvider;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Build service which resolves the Minecraft artifacts of a game version once per build, and shares them between all projects.
+ * <p>
+ * The download tasks of a game version are registered once, in the root project, and all projects depend on the same task providers.
+ * Files which are downloaded into the shared cache while a project is configured are remembered by their location,
+ * and their downloads are serialized with a striped lock inside of this JVM, and with a file lock against other processes using the same cache.
+ * The striped lock is shared by all builds of the JVM, like the builds of a composite build which each have their own instance of this service,
+ * as the file lock of a process can only be held once.
+ */
+public abstract class MinecraftArtifactRegistryService implements BuildService<BuildServiceParameters.None>, AutoCloseable {
+
+    private static final Logger LOGGER = Logging.getLogger(MinecraftArtifactRegistryService.class);
+
+    public static final String NAME = "MinecraftArtifactRegistryService";
+
+    private static final int LOCK_STRIPES = 32;
+    private static final ReentrantLock[] LOCKS = new ReentrantLock[LOCK_STRIPES];
+
+    static {
+        for (int i = 0; i < LOCKS.length; i++) {
+            LOCKS[i] = new ReentrantLock();
+        }
+    }
+
+    private final Map<TaskKey, Map<GameArtifact, TaskProvider<? extends WithOutput>>> tasks = new ConcurrentHashMap<>();
+    private final Object rootTasksLock = new Object();
+    private final Map<File, File> files = new ConcurrentHashMap<>();
+
+    public static Provider<MinecraftArtifactRegistryService> register(Project project) {
+        return project.getGradle().getSharedServices().registerIfAbsent(NAME, MinecraftArtifactRegistryService.class, spec -> {});
+    }
+
+    /**
+     * Gets the download tasks of the given game version and distribution, creating them on the first request of the build.
+     * The tasks are created in the root project, so that every project which uses the same game version shares them.
+     *
+     * @param project The project which requests the tasks.
+     * @param gameVersion The game version.
+     * @param side The distribution.
+     * @param factory The factory which registers the tasks in the given project.
+     * @return The tasks, by the artifact they provide.
+     */
+    public Map<GameArtifact, TaskProvider<? extends WithOutput>> getTasks(Project project, String gameVersion, DistributionType side, Function<Project, Map<GameArtifact, TaskProvider<? extends WithOutput>>> factory) {
+        final TaskKey key = new TaskKey(gameVersion, side);
+        final Map<GameArtifact, TaskProvider<? extends WithOutput>> existing = tasks.get(key);
+        if (existing != null) {
+            return existing;
+        }
+
+        //Every key registers into the task container of the root project, which is not thread safe, and whose tasks are shared between keys
+        synchronized (rootTasksLock) {
+            return tasks.computeIfAbsent(key, k -> {
+                LOGGER.debug("Registering the artifact tasks of {} ({}) in {}", gameVersion, side.getName(), project.getRootProject().getPath());
+                return Collections.unmodifiableMap(factory.apply(project.getRootProject()));
+            });
+        }
+    }
+
+    /**
+     * Resolves the given file of the shared cache once per build.
+     * Concurrent resolutions of the same file, from this build or from another build using the same cache, wait for each other.
+     *
+     * @param target The file in the shared cache.
+     * @param resolver The resolver which downloads the file, and returns it.
+     * @return The resolved file.
+     */
+    public File resolve(File target, Supplier<File> resolver) {
+        final File key = target.getAbsoluteFile();
+        final File existing = files.get(key);
+        if (existing != null) {
+            return existing;
+        }
+
+        final ReentrantLock lock = LOCKS[Math.floorMod(key.hashCode(), LOCKS.length)];
+        lock.lock();
+        try {
+            final File resolved = files.get(key);
+            if (resolved != null) {
+                return resolved;
+            }
+
+            final File file = resolveLocked(key, resolver);
+            files.put(key, file);
+            return file;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static File resolveLocked(File target, Supplier<File> resolver) {
+        final Path lockFile = target.toPath().resolveSibling(target.getName() + ".lock");
+        try {
+            Files.createDirectories(lockFile.getParent());
+            try (FileChannel channel = FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+                 FileLock ignored = channel.lock()) {
+                //The lock file is kept, deleting it while it is held would let another process lock a new file of the same name at the same time
+                return resolver.get();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to lock the cached file: %s".formatted(target), e);
+        }
+    }
+
+    @Override
+    public void close() {
+        LOGGER.debug("Shared {} Minecraft artifact task sets and {} cached files between the projects of the build", tasks.size(), files.size());
+    }
+
+    private record TaskKey(String gameVersion, DistributionType side) {}
+}
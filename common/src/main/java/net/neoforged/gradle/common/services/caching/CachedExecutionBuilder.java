@@ -1,8 +1,10 @@
 package net.neoforged.gradle.common.services.caching;
 
+import net.neoforged.gradle.common.services.caching.cache.ContentAddressedStore;
 import net.neoforged.gradle.common.services.caching.cache.DirectoryCache;
 import net.neoforged.gradle.common.services.caching.cache.FileCache;
 import net.neoforged.gradle.common.services.caching.cache.ICache;
+import net.neoforged.gradle.common.services.caching.cache.SharedStoreCache;
 import net.neoforged.gradle.common.services.caching.hasher.TaskHasher;
 import net.neoforged.gradle.common.services.caching.jobs.ICacheableJob;
 import net.neoforged.gradle.common.services.caching.locking.FileBasedLock;
@@ -10,6 +12,7 @@ import net.neoforged.gradle.common.services.caching.logging.CacheLogger;
 import net.neoforged.gradle.common.util.hash.HashCode;
 import net.neoforged.gradle.common.util.hash.Hasher;
 import net.neoforged.gradle.common.util.hash.Hashing;
+import net.neoforged.gradle.util.FileHashIndex;
 import net.neoforged.gradle.util.GradleInternalUtils;
 import org.apache.commons.io.FileUtils;
 import org.gradle.api.GradleException;
@@ -28,7 +31,7 @@ public class CachedExecutionBuilder<T> {
 
     public record LoggingOptions(boolean cacheHits, boolean debug) {}
 
-    public record Options(boolean enabled, File cache, LoggingOptions logging) {}
+    public record Options(boolean enabled, File cache, boolean linkOutputs, @Nullable FileHashIndex hashIndex, LoggingOptions logging) {}
 
     private record JobHasher(HashCode taskHash, ICacheableJob<?,?> job, Hasher hasher) {
 
@@ -121,7 +124,7 @@ public class CachedExecutionBuilder<T> {
         }
 
         //Create the hash of the task
-        final TaskHasher hasher = new TaskHasher(targetTask, logger);
+        final TaskHasher hasher = new TaskHasher(targetTask, logger, options.hashIndex());
         final HashCode taskHash = hasher.create();
 
         logger.debug("Task hash: %s".formatted(taskHash));
@@ -153,6 +156,17 @@ public class CachedExecutionBuilder<T> {
                     return CacheStatus.runWithLock(lock, cache);
                 }
 
+                //Existence and size are all the cache knows about a shared store, a job which verifies the content has to run
+                if (stage instanceof ICacheableJob.SharedStore sharedStore && sharedStore.alwaysExecutes()) {
+                    logger.debug("Stage always executes: %s".formatted(stage));
+                    return CacheStatus.runWithLock(lock, cache);
+                }
+
+                if (!cache.isRestorable()) {
+                    logger.debug("Cache is not restorable for stage: %s".formatted(stage));
+                    return CacheStatus.runWithLock(lock, cache);
+                }
+
                 //We have a healthy lock, and the previous execution was successful
                 //We can now attempt to restore the cache
                 if (!cache.restoreTo(stage.output())) {
@@ -192,8 +206,13 @@ public class CachedExecutionBuilder<T> {
     private ICache createCache(final HashCode taskHash, final ICacheableJob<?,?> job) {
         final JobHasher jobHasher = new JobHasher(taskHash, job);
         final File cacheDir = new File(options.cache(), jobHasher.hash().toString());
+        final ContentAddressedStore store = new ContentAddressedStore(new File(options.cache(), ContentAddressedStore.DIRECTORY_NAME), options.linkOutputs(), options.hashIndex());
 
-        return job.createsDirectory() ? new DirectoryCache(cacheDir) : new FileCache(cacheDir);
+        if (job instanceof ICacheableJob.SharedStore sharedStore) {
+            return new SharedStoreCache(cacheDir, sharedStore);
+        }
+
+        return job.createsDirectory() ? new DirectoryCache(cacheDir, store) : new FileCache(cacheDir, store);
     }
 
     /**
@@ -208,6 +227,15 @@ public class CachedExecutionBuilder<T> {
     private Object executeStage(ICacheableJob job, Object input) throws Throwable {
         final File intendedOutput = job.output();
 
+        //Shared stores are only ever added to, cleaning them would throw away the work of other tasks.
+        if (job instanceof ICacheableJob.SharedStore) {
+            if (!intendedOutput.exists() && !intendedOutput.mkdirs()) {
+                throw new RuntimeException("Failed to create directory: %s".formatted(intendedOutput.getAbsolutePath()));
+            }
+
+            return job.execute(input);
+        }
+
         prepareWorkspace(intendedOutput, job.createsDirectory());
 
         return job.execute(input);
@@ -258,6 +286,9 @@ public class CachedExecutionBuilder<T> {
                 //If we should execute the stage, execute it.
                 if (status.shouldExecute()) {
                     state = executeStage(stage, state);
+                } else if (stage.restoredOutput() != null) {
+                    //The stage was restored, pass on its output if it can provide it.
+                    state = stage.restoredOutput();
                 }
 
                 //Run the after execute consumer
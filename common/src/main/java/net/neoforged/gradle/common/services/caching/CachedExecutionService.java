@@ -1,19 +1,36 @@
 package net.neoforged.gradle.common.services.caching;
 
 
+import net.neoforged.gradle.common.services.caching.eviction.CacheEvictor;
 import net.neoforged.gradle.common.services.caching.jobs.ICacheableJob;
+import net.neoforged.gradle.common.services.caching.logging.CacheLogger;
+import net.neoforged.gradle.common.services.hashing.FileHashIndexService;
 import org.apache.commons.io.FileUtils;
 import org.gradle.api.Project;
 import org.gradle.api.Task;
 import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
 import org.gradle.api.provider.Property;
+import org.gradle.api.provider.Provider;
 import org.gradle.api.services.BuildService;
 import org.gradle.api.services.BuildServiceParameters;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
-public abstract class CachedExecutionService implements BuildService<CachedExecutionService.Parameters> {
+public abstract class CachedExecutionService implements BuildService<CachedExecutionService.Parameters>, AutoCloseable {
+
+    private static final Logger LOGGER = Logging.getLogger(CachedExecutionService.class);
+
+    /**
+     * Guards against multiple builds in the same daemon running an eviction at the same time.
+     */
+    private static final AtomicBoolean EVICTION_RUNNING = new AtomicBoolean(false);
 
     public static final String NAME = "CachedExecutionService";
 
@@ -22,7 +39,13 @@ public abstract class CachedExecutionService implements BuildService<CachedExecu
     public static final String CACHING_PROPERTY_PREFIX = "net.neoforged.gradle.caching.";
     public static final String CACHE_DIRECTORY_PROPERTY = CACHING_PROPERTY_PREFIX + "cacheDirectory";
     public static final String LOG_CACHE_HITS_PROPERTY = CACHING_PROPERTY_PREFIX + "logCacheHits";
+    public static final String MAX_CACHE_ENTRIES_PROPERTY = CACHING_PROPERTY_PREFIX + "maxCacheEntries";
+    /**
+     * The old name of {@link #MAX_CACHE_ENTRIES_PROPERTY}, which is still honored. It always limited the amount of entries, not their size.
+     */
+    @Deprecated
     public static final String MAX_CACHE_SIZE_PROPERTY = CACHING_PROPERTY_PREFIX + "maxCacheSize";
+    public static final String LINK_OUTPUTS_PROPERTY = CACHING_PROPERTY_PREFIX + "linkOutputs";
     public static final String DEBUG_CACHE_PROPERTY = CACHING_PROPERTY_PREFIX + "debug";
     public static final String IS_ENABLED_PROPERTY = CACHING_PROPERTY_PREFIX + "enabled";
 
@@ -33,14 +56,19 @@ public abstract class CachedExecutionService implements BuildService<CachedExecu
 
         Property<Boolean> getLogCacheHits();
 
-        Property<Integer> getMaxCacheSize();
+        Property<Integer> getMaxCacheEntries();
+
+        Property<Boolean> getLinkOutputs();
 
         Property<Boolean> getDebugCache();
 
         Property<Boolean> getIsEnabled();
+
+        Property<FileHashIndexService> getFileHashIndex();
     }
 
     public static void register(Project project) {
+        final Provider<FileHashIndexService> fileHashIndex = FileHashIndexService.register(project);
         project.getGradle().getSharedServices().registerIfAbsent(
                 NAME,
                 CachedExecutionService.class,
@@ -50,17 +78,73 @@ public abstract class CachedExecutionService implements BuildService<CachedExecu
                                     .map(File::new)
                                     .orElse(new File(new File(project.getGradle().getGradleUserHomeDir(), "caches"), DIRECTORY_NAME)));
                     spec.getParameters().getLogCacheHits().set(project.getProviders().gradleProperty(LOG_CACHE_HITS_PROPERTY).map(Boolean::parseBoolean).orElse(false));
-                    spec.getParameters().getMaxCacheSize().set(project.getProviders().gradleProperty(MAX_CACHE_SIZE_PROPERTY).map(Integer::parseInt).orElse(100));
+                    spec.getParameters().getMaxCacheEntries().set(project.getProviders().gradleProperty(MAX_CACHE_ENTRIES_PROPERTY)
+                            .orElse(project.getProviders().gradleProperty(MAX_CACHE_SIZE_PROPERTY))
+                            .map(Integer::parseInt)
+                            .orElse(100));
+                    spec.getParameters().getLinkOutputs().set(project.getProviders().gradleProperty(LINK_OUTPUTS_PROPERTY).map(Boolean::parseBoolean).orElse(true));
                     spec.getParameters().getDebugCache().set(project.getProviders().gradleProperty(DEBUG_CACHE_PROPERTY).map(Boolean::parseBoolean).orElse(false));
                     spec.getParameters().getIsEnabled().set(project.getProviders().gradleProperty(IS_ENABLED_PROPERTY).map(Boolean::parseBoolean).orElse(true));
+                    spec.getParameters().getFileHashIndex().set(fileHashIndex);
                 }
         );
     }
 
+    /**
+     * Runs the eviction of this service, so that closing the service does not wait for it.
+     */
+    private final ExecutorService evictionExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        final Thread thread = new Thread(runnable, "neogradle-cache-eviction");
+        thread.setDaemon(true);
+        return thread;
+    });
+
     public void clean() throws IOException {
         FileUtils.cleanDirectory(getParameters().getCacheDirectory().get().getAsFile());
     }
 
+    /**
+     * Evicts the least recently used entries from the cache, once the build no longer needs this service.
+     * The eviction runs in the background, so the build finishes without waiting for it.
+     * A build which does not use a daemon might exit before the eviction completed, which is safe:
+     * every entry is removed under its own lock, and the next build simply continues the eviction.
+     */
+    @Override
+    public void close() {
+        if (!getParameters().getIsEnabled().get() || getParameters().getMaxCacheEntries().get() <= 0) {
+            evictionExecutor.shutdown();
+            return;
+        }
+
+        if (!EVICTION_RUNNING.compareAndSet(false, true)) {
+            evictionExecutor.shutdown();
+            return;
+        }
+
+        final CacheEvictor evictor = new CacheEvictor(
+                getParameters().getCacheDirectory().get().getAsFile(),
+                getParameters().getMaxCacheEntries().get(),
+                new CacheLogger(LOGGER, NAME, getParameters().getDebugCache().get(), false)
+        );
+
+        try {
+            evictionExecutor.execute(() -> {
+                try {
+                    evictor.evict();
+                } catch (Exception e) {
+                    LOGGER.warn("Failed to evict entries from the NeoGradle cache.", e);
+                } finally {
+                    EVICTION_RUNNING.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            EVICTION_RUNNING.set(false);
+        } finally {
+            //The submitted eviction still runs, the thread ends with it
+            evictionExecutor.shutdown();
+        }
+    }
+
     public <T> CachedExecutionBuilder<T> cached(
             Task task,
             ICacheableJob<Void, T> initial
@@ -69,6 +153,8 @@ public abstract class CachedExecutionService implements BuildService<CachedExecu
                 new CachedExecutionBuilder.Options(
                         getParameters().getIsEnabled().get(),
                         getParameters().getCacheDirectory().get().getAsFile(),
+                        getParameters().getLinkOutputs().get(),
+                        getParameters().getFileHashIndex().get().getIndex(),
                         new CachedExecutionBuilder.LoggingOptions(
                                 getParameters().getLogCacheHits().get(),
                                 getParameters().getDebugCache().get()
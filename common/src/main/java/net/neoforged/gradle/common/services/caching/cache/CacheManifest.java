@@ -0,0 +1,103 @@
+package net.neoforged.gradle.common.services.caching.cache;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Describes the content of a cache entry, as a list of relative paths and the hashes of the blobs
+ * in the {@link ContentAddressedStore} which hold their content.
+ * <p>
+ * Each line of the manifest file is either {@code F <hash> <path>} for a file, or {@code D <path>} for a directory.
+ * The path of a cache entry which holds a single file is empty.
+ */
+public final class CacheManifest {
+
+    public static final String FILE_NAME = "manifest";
+
+    private static final String FILE_MARKER = "F";
+    private static final String DIRECTORY_MARKER = "D";
+
+    private final Map<String, String> files = new LinkedHashMap<>();
+    private final List<String> directories = new ArrayList<>();
+
+    public void addFile(String path, String hash) {
+        files.put(path, hash);
+    }
+
+    public void addDirectory(String path) {
+        directories.add(path);
+    }
+
+    /**
+     * @return The files in this manifest, mapped from their relative path to the hash of their content.
+     */
+    public Map<String, String> files() {
+        return Collections.unmodifiableMap(files);
+    }
+
+    /**
+     * @return The relative paths of the directories in this manifest.
+     */
+    public List<String> directories() {
+        return Collections.unmodifiableList(directories);
+    }
+
+    /**
+     * Reads the manifest of the given cache entry.
+     *
+     * @param cacheDir The directory of the cache entry.
+     * @return The manifest, or null if the entry has no manifest.
+     * @throws IOException If the manifest could not be read.
+     */
+    @Nullable
+    public static CacheManifest read(File cacheDir) throws IOException {
+        final File manifestFile = new File(cacheDir, FILE_NAME);
+        if (!manifestFile.isFile()) {
+            return null;
+        }
+
+        final CacheManifest manifest = new CacheManifest();
+        for (String line : Files.readAllLines(manifestFile.toPath(), StandardCharsets.UTF_8)) {
+            if (line.startsWith(FILE_MARKER + " ")) {
+                final int separator = line.indexOf(' ', 2);
+                if (separator < 0) {
+                    throw new IOException("Malformed cache manifest line: %s in: %s".formatted(line, manifestFile.getAbsolutePath()));
+                }
+                manifest.addFile(line.substring(separator + 1), line.substring(2, separator));
+            } else if (line.startsWith(DIRECTORY_MARKER + " ")) {
+                manifest.addDirectory(line.substring(2));
+            } else if (!line.isEmpty()) {
+                throw new IOException("Malformed cache manifest line: %s in: %s".formatted(line, manifestFile.getAbsolutePath()));
+            }
+        }
+        return manifest;
+    }
+
+    /**
+     * Writes this manifest into the given cache entry, replacing any existing manifest.
+     *
+     * @param cacheDir The directory of the cache entry.
+     * @throws IOException If the manifest could not be written.
+     */
+    public void write(File cacheDir) throws IOException {
+        final List<String> lines = new ArrayList<>(files.size() + directories.size());
+        directories.forEach(directory -> lines.add(DIRECTORY_MARKER + " " + directory));
+        files.forEach((path, hash) -> lines.add(FILE_MARKER + " " + hash + " " + path));
+
+        Files.createDirectories(cacheDir.toPath());
+        final File manifestFile = new File(cacheDir, FILE_NAME);
+        final File staging = new File(cacheDir, FILE_NAME + ".tmp");
+        Files.write(staging.toPath(), lines, StandardCharsets.UTF_8);
+        Files.move(staging.toPath(), manifestFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
@@ -0,0 +1,250 @@
+package net.neoforged.gradle.common.services.caching.cache;
+
+import net.neoforged.gradle.common.util.hash.Hashing;
+import net.neoforged.gradle.util.FileHashIndex;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.nio.file.attribute.PosixFilePermission;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A store of files, keyed by the hash of their content.
+ * <p>
+ * Files are always copied into the store, and blobs are read-only, so no output of a task ever shares its content with a blob.
+ * Restored files are hard links to their blob by default: the restored file then is the read-only blob itself,
+ * so a tool which rewrites its output in place fails, instead of corrupting the blob for every other build.
+ * Where no link can be created, because the target lives on another volume or the file system does not support links, the blob is copied.
+ * The last use of a blob is recorded in a marker next to it, so the blob itself, and with it every file linked to it, is never modified.
+ * <p>
+ * Large files are copied as a copy-on-write clone (a reflink) where the file system supports it, which shares the blocks of the file
+ * until either side is written. Cloning requires running {@code cp}, as Java offers no API for it, so small files are always copied:
+ * starting a process costs more than copying them.
+ */
+public final class ContentAddressedStore {
+
+    public static final String DIRECTORY_NAME = "blobs";
+
+    private static final String USED_MARKER_SUFFIX = ".used";
+
+    private static final long CLONE_THRESHOLD = 1024 * 1024;
+    private static final String OS_NAME = System.getProperty("os.name").toLowerCase(Locale.ROOT);
+    private static final boolean IS_MAC = OS_NAME.contains("mac");
+    //Disabled after the first failed clone, a file system which can not clone files will not learn it later
+    private static final AtomicBoolean CLONE_SUPPORTED = new AtomicBoolean(IS_MAC || OS_NAME.contains("linux"));
+
+    private final File storeDirectory;
+    private final boolean linkRestoredFiles;
+    @Nullable
+    private final FileHashIndex hashIndex;
+
+    public ContentAddressedStore(File storeDirectory) {
+        this(storeDirectory, false, null);
+    }
+
+    /**
+     * @param storeDirectory The directory of the store.
+     * @param linkRestoredFiles Whether restored files are hard links to their read-only blob, instead of copies.
+     * @param hashIndex The index of known file digests, or null to always read the files to hash them.
+     */
+    public ContentAddressedStore(File storeDirectory, boolean linkRestoredFiles, @Nullable FileHashIndex hashIndex) {
+        this.storeDirectory = storeDirectory;
+        this.linkRestoredFiles = linkRestoredFiles;
+        this.hashIndex = hashIndex;
+    }
+
+    /**
+     * Puts the given file into the store.
+     *
+     * @param file The file to store.
+     * @return The hash of the content of the file, which is the key under which it is stored.
+     * @throws IOException If the file could not be hashed or stored.
+     */
+    public String put(File file) throws IOException {
+        final String hash = Hashing.sha256().hashFile(file, hashIndex).toString();
+        final Path blob = blob(hash).toPath();
+
+        if (Files.exists(blob)) {
+            //Mark the blob as used so that a concurrent sweep treats it as freshly referenced.
+            markUsed(blob);
+            return hash;
+        }
+
+        Files.createDirectories(blob.getParent());
+
+        //Stage the blob under a unique name first, so that other processes never observe a partially written blob.
+        //The blob is a copy, a link would let the task rewrite the blob through its output.
+        final Path staging = blob.resolveSibling(hash + "." + UUID.randomUUID() + ".tmp");
+        copy(file.toPath(), staging);
+        staging.toFile().setReadOnly();
+
+        try {
+            Files.move(staging, blob, StandardCopyOption.ATOMIC_MOVE);
+        } catch (FileAlreadyExistsException e) {
+            //Another process stored the same content in the meantime.
+        } finally {
+            staging.toFile().setWritable(true);
+            Files.deleteIfExists(staging);
+        }
+
+        return hash;
+    }
+
+    /**
+     * Restores the blob with the given hash to the target file, replacing it if it exists.
+     *
+     * @param hash The hash of the blob.
+     * @param target The file to restore the blob to.
+     * @throws IOException If the blob is missing or could not be restored.
+     */
+    public void restore(String hash, File target) throws IOException {
+        final Path blob = blob(hash).toPath();
+        if (!Files.isRegularFile(blob)) {
+            throw new IOException("The cache references content which is no longer stored: %s".formatted(hash));
+        }
+
+        Files.deleteIfExists(target.toPath());
+        if (target.getParentFile() != null) {
+            Files.createDirectories(target.getParentFile().toPath());
+        }
+
+        if (linkRestoredFiles) {
+            try {
+                Files.createLink(target.toPath(), blob);
+                return;
+            } catch (UnsupportedOperationException | IOException e) {
+                //Not supported by the file system, or the target lives on another volume
+                Files.deleteIfExists(target.toPath());
+            }
+        }
+
+        copy(blob, target.toPath());
+        target.setWritable(true);
+    }
+
+    /**
+     * Copies the source to the target, which must not exist, as a clone if possible.
+     */
+    private static void copy(Path source, Path target) throws IOException {
+        if (CLONE_SUPPORTED.get() && Files.size(source) >= CLONE_THRESHOLD) {
+            if (clone(source, target)) {
+                return;
+            }
+
+            CLONE_SUPPORTED.set(false);
+            Files.deleteIfExists(target);
+        }
+
+        Files.copy(source, target);
+    }
+
+    private static boolean clone(Path source, Path target) {
+        //Only clones, so that a failure tells that the file system does not support it
+        final String flag = IS_MAC ? "-c" : "--reflink=always";
+        try {
+            final Process process = new ProcessBuilder("cp", flag, source.toString(), target.toString())
+                    .redirectErrorStream(true)
+                    .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                    .start();
+            return process.waitFor() == 0;
+        } catch (IOException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Indicates whether the target file still holds the content of the blob with the given hash.
+     * A target linked to the blob is only valid while the blob is read-only, a copy is compared by its content.
+     *
+     * @param hash The hash of the blob.
+     * @param target The file to check.
+     * @return True if the target holds the content of the blob.
+     */
+    public boolean isRestoredFrom(String hash, File target) {
+        final File blob = blob(hash);
+        if (!target.isFile() || !blob.isFile()) {
+            return false;
+        }
+
+        try {
+            if (Files.isSameFile(blob.toPath(), target.toPath())) {
+                return isReadOnly(blob.toPath());
+            }
+
+            return target.length() == blob.length() && Hashing.sha256().hashFile(target, hashIndex).toString().equals(hash);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Removes all blobs which are not referenced anymore.
+     *
+     * @param referenced The hashes of all blobs which are still referenced.
+     * @param gracePeriod The time in milliseconds an unreferenced blob is kept after it was last stored,
+     *                    this protects blobs of entries which are currently being written.
+     * @return The amount of removed blobs.
+     */
+    public int sweep(Set<String> referenced, long gracePeriod) {
+        final long threshold = System.currentTimeMillis() - gracePeriod;
+        int removed = 0;
+
+        final File[] buckets = Objects.requireNonNullElse(storeDirectory.listFiles(File::isDirectory), new File[0]);
+        for (File bucket : buckets) {
+            //Blobs are named by their hash, staged blobs and markers carry a suffix
+            final File[] blobs = Objects.requireNonNullElse(bucket.listFiles(file -> file.isFile() && file.getName().indexOf('.') < 0), new File[0]);
+            for (File blob : blobs) {
+                final File marker = new File(bucket, blob.getName() + USED_MARKER_SUFFIX);
+                if (referenced.contains(blob.getName()) || Math.max(blob.lastModified(), marker.lastModified()) > threshold) {
+                    continue;
+                }
+
+                //A blob is read-only, which prevents its deletion on some platforms
+                blob.setWritable(true);
+                if (blob.delete()) {
+                    marker.delete();
+                    removed++;
+                }
+            }
+        }
+
+        return removed;
+    }
+
+    private File blob(String hash) {
+        return new File(new File(storeDirectory, hash.substring(0, 2)), hash);
+    }
+
+    /**
+     * Checks the permissions of the file, instead of whether the current user can write it, which is always true for administrators.
+     */
+    static boolean isReadOnly(Path file) throws IOException {
+        try {
+            return !Files.getPosixFilePermissions(file).contains(PosixFilePermission.OWNER_WRITE);
+        } catch (UnsupportedOperationException e) {
+            return Boolean.TRUE.equals(Files.getAttribute(file, "dos:readonly"));
+        }
+    }
+
+    private static void markUsed(Path blob) throws IOException {
+        final Path marker = blob.resolveSibling(blob.getFileName() + USED_MARKER_SUFFIX);
+        try {
+            Files.createFile(marker);
+        } catch (FileAlreadyExistsException e) {
+            Files.setLastModifiedTime(marker, FileTime.fromMillis(System.currentTimeMillis()));
+        }
+    }
+}
@@ -3,45 +3,66 @@ package net.neoforged.gradle.common.services.caching.cache;
 import net.neoforged.gradle.common.services.caching.locking.FileBasedLock;
 import net.neoforged.gradle.common.services.caching.locking.LockManager;
 import net.neoforged.gradle.common.services.caching.logging.CacheLogger;
-import net.neoforged.gradle.common.util.hash.Hashing;
 import org.apache.commons.io.FileUtils;
 import org.gradle.api.GradleException;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
 
 public class DirectoryCache implements ICache {
 
+    /**
+     * Name of the directory in which older versions stored a full copy of the output.
+     */
+    private static final String LEGACY_OUTPUT_NAME = "output";
+
     private final File cacheDir;
+    private final ContentAddressedStore store;
 
-    public DirectoryCache(File cacheDir) {
+    public DirectoryCache(File cacheDir, ContentAddressedStore store) {
         this.cacheDir = cacheDir;
+        this.store = store;
     }
 
     @Override
     public void loadFrom(File file) throws IOException {
-        if (file.exists()) {
-            final File output = new File(cacheDir, "output");
-            if (!output.exists()) {
-                output.mkdirs();
+        final CacheManifest manifest = new CacheManifest();
+
+        if (file.isDirectory()) {
+            final Path root = file.toPath();
+            final List<Path> paths;
+            try (Stream<Path> stream = Files.walk(root)) {
+                paths = stream.filter(path -> !path.equals(root)).sorted().toList();
             }
 
-            FileUtils.cleanDirectory(output);
-            FileUtils.copyDirectory(file, output);
+            for (Path path : paths) {
+                final String relativePath = relativize(root, path);
+                if (Files.isDirectory(path)) {
+                    manifest.addDirectory(relativePath);
+                } else if (Files.isRegularFile(path)) {
+                    manifest.addFile(relativePath, store.put(path.toFile()));
+                }
+            }
         }
+
+        manifest.write(cacheDir);
+        FileUtils.deleteQuietly(new File(cacheDir, LEGACY_OUTPUT_NAME));
     }
 
     @Override
     public boolean restoreTo(File file) throws IOException {
-        final File output = new File(cacheDir, "output");
+        final CacheManifest manifest = readManifest();
 
-        if (file.exists()) {
-            if (file.isDirectory() && output.exists()) {
-                if (Hashing.hashDirectory(file).equals(Hashing.hashDirectory(output))) {
-                    return false;
-                }
-            }
+        if (file.isDirectory() && isRestoredFrom(manifest, file)) {
+            return false;
+        }
 
+        if (file.exists()) {
             if (file.isDirectory()) {
                 FileUtils.cleanDirectory(file);
             }
@@ -50,17 +71,68 @@ public class DirectoryCache implements ICache {
 
         file.mkdirs();
 
-        if (output.exists()) {
-            try {
-                FileUtils.copyDirectory(output, file);
-            } catch (IOException e) {
-                throw new GradleException("Failed to restore cache.", e);
+        try {
+            for (String directory : manifest.directories()) {
+                Files.createDirectories(new File(file, directory).toPath());
+            }
+
+            for (Map.Entry<String, String> entry : manifest.files().entrySet()) {
+                store.restore(entry.getValue(), new File(file, entry.getKey()));
+            }
+        } catch (IOException e) {
+            throw new GradleException("Failed to restore cache.", e);
+        }
+
+        return true;
+    }
+
+    /**
+     * Checks whether the given directory holds exactly the files of the manifest, each linked to its blob.
+     * This only inspects file metadata, the content of the files is never read.
+     */
+    private boolean isRestoredFrom(CacheManifest manifest, File directory) throws IOException {
+        for (String relativeDirectory : manifest.directories()) {
+            if (!new File(directory, relativeDirectory).isDirectory()) {
+                return false;
+            }
+        }
+
+        final Path root = directory.toPath();
+        final List<Path> files;
+        try (Stream<Path> stream = Files.walk(root)) {
+            files = stream.filter(Files::isRegularFile).toList();
+        }
+
+        if (files.size() != manifest.files().size()) {
+            return false;
+        }
+
+        for (Path path : files) {
+            final String hash = manifest.files().get(relativize(root, path));
+            if (hash == null || !store.isRestoredFrom(hash, path.toFile())) {
+                return false;
             }
         }
 
         return true;
     }
 
+    private CacheManifest readManifest() throws IOException {
+        final CacheManifest manifest = CacheManifest.read(cacheDir);
+        if (manifest != null) {
+            return manifest;
+        }
+
+        //Entries written by older versions hold a copy of the output, move it into the store.
+        final File legacyOutput = new File(cacheDir, LEGACY_OUTPUT_NAME);
+        loadFrom(legacyOutput);
+        return readManifest();
+    }
+
+    private static String relativize(Path root, Path path) {
+        return root.relativize(path).toString().replace(File.separatorChar, '/');
+    }
+
     @Override
     public FileBasedLock createLock(CacheLogger logger) {
         return LockManager.createLock(cacheDir, logger);
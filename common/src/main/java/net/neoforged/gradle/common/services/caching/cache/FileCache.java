@@ -3,7 +3,6 @@ package net.neoforged.gradle.common.services.caching.cache;
 import net.neoforged.gradle.common.services.caching.locking.FileBasedLock;
 import net.neoforged.gradle.common.services.caching.locking.LockManager;
 import net.neoforged.gradle.common.services.caching.logging.CacheLogger;
-import net.neoforged.gradle.common.util.hash.Hashing;
 import org.apache.commons.io.FileUtils;
 import org.gradle.api.GradleException;
 
@@ -12,38 +11,47 @@ import java.io.IOException;
 
 public class FileCache implements ICache {
 
+    /**
+     * Name of the file in which older versions stored a full copy of the output.
+     */
+    private static final String LEGACY_OUTPUT_NAME = "output";
+
+    /**
+     * The path under which the single file of this cache is stored in the manifest.
+     */
+    private static final String FILE_PATH = "";
+
     private final File cacheDir;
+    private final ContentAddressedStore store;
 
-    public FileCache(File cacheDir) {
+    public FileCache(File cacheDir, ContentAddressedStore store) {
         this.cacheDir = cacheDir;
+        this.store = store;
     }
 
     @Override
     public void loadFrom(File file) throws IOException {
-        final File cacheFile = new File(cacheDir, "output");
-        if (cacheFile.exists()) {
-            cacheFile.delete();
-        }
+        final CacheManifest manifest = new CacheManifest();
 
-        // If the file does not exist, there is nothing to load
-        if (!file.exists()) {
-            return;
+        // If the file does not exist, there is nothing to load, and we store an empty manifest
+        if (file.isFile()) {
+            manifest.addFile(FILE_PATH, store.put(file));
         }
 
-        FileUtils.copyFile(file, cacheFile);
+        manifest.write(cacheDir);
+        FileUtils.deleteQuietly(new File(cacheDir, LEGACY_OUTPUT_NAME));
     }
 
     @Override
     public boolean restoreTo(File file) throws IOException {
-        final File cacheFile = new File(cacheDir, "output");
+        final String hash = readManifest().files().get(FILE_PATH);
 
-        if (file.exists()) {
-            if (file.isFile() && cacheFile.exists()) {
-                if (Hashing.hashFile(file).equals(Hashing.hashFile(cacheFile))) {
-                    return false;
-                }
-            }
+        //A file which is a link to our blob can not differ from it.
+        if (hash != null && store.isRestoredFrom(hash, file)) {
+            return false;
+        }
 
+        if (file.exists()) {
             if (file.isDirectory()) {
                 FileUtils.cleanDirectory(file);
             }
@@ -51,19 +59,31 @@ public class FileCache implements ICache {
             file.delete();
         }
 
-        //If the file exists we can restore it, that means if previous executions did not create an output
-        //Then we should not restore it as our cache file would not exist.
-        if (cacheFile.exists()) {
+        //If the hash exists we can restore it, that means if previous executions did not create an output
+        //Then we should not restore it as our manifest would not contain it.
+        if (hash != null) {
             try {
-                FileUtils.copyFile(cacheFile, file);
+                store.restore(hash, file);
             } catch (IOException e) {
-                throw new GradleException("Failed to restore cache. Copying of the cache file failed.", e);
+                throw new GradleException("Failed to restore cache. Linking or copying of the cached file failed.", e);
             }
         }
 
         return true;
     }
 
+    private CacheManifest readManifest() throws IOException {
+        final CacheManifest manifest = CacheManifest.read(cacheDir);
+        if (manifest != null) {
+            return manifest;
+        }
+
+        //Entries written by older versions hold a copy of the output, move it into the store.
+        final File legacyOutput = new File(cacheDir, LEGACY_OUTPUT_NAME);
+        loadFrom(legacyOutput);
+        return readManifest();
+    }
+
     @Override
     public FileBasedLock createLock(CacheLogger logger) {
         return LockManager.createLock(cacheDir, logger);
@@ -18,6 +18,17 @@ public interface ICache {
      */
     void loadFrom(File file) throws IOException;
 
+    /**
+     * Indicates whether the cache holds everything needed to restore the output.
+     * A cache that is not restorable causes the job to be executed again, as if its previous execution failed.
+     *
+     * @return True if the cache can be restored.
+     * @implSpec By default a cache is always restorable.
+     */
+    default boolean isRestorable() throws IOException {
+        return true;
+    }
+
     /**
      * Restores the cache to the given file or directory.
      *
@@ -0,0 +1,105 @@
+package net.neoforged.gradle.common.services.caching.cache;
+
+import net.neoforged.gradle.common.services.caching.jobs.ExpectedFile;
+import net.neoforged.gradle.common.services.caching.jobs.ICacheableJob;
+import net.neoforged.gradle.common.services.caching.locking.FileBasedLock;
+import net.neoforged.gradle.common.services.caching.locking.LockManager;
+import net.neoforged.gradle.common.services.caching.logging.CacheLogger;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A cache for {@link ICacheableJob.SharedStore} jobs.
+ * <p>
+ * Instead of copying the shared store, this cache records the path, hash and size of every file the job expects in it.
+ * The cache is only restorable if all of those files still exist with their recorded size, their content is never hashed.
+ * A store which lost files will simply cause the job to execute again, which is expected to only fetch what is missing.
+ */
+public class SharedStoreCache implements ICache {
+
+    public static final String FILE_NAME = "expected";
+
+    private final File cacheDir;
+    private final ICacheableJob.SharedStore job;
+
+    public SharedStoreCache(File cacheDir, ICacheableJob.SharedStore job) {
+        this.cacheDir = cacheDir;
+        this.job = job;
+    }
+
+    @Override
+    public void loadFrom(File file) throws IOException {
+        final List<String> lines = new ArrayList<>();
+        for (ExpectedFile expectedFile : job.expectedFiles()) {
+            final File storedFile = new File(file, expectedFile.path());
+            lines.add(expectedFile.sha1() + " " + storedFile.length() + " " + expectedFile.path());
+        }
+
+        Files.createDirectories(cacheDir.toPath());
+        Files.write(new File(cacheDir, FILE_NAME).toPath(), lines, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public boolean isRestorable() throws IOException {
+        final List<Entry> entries = readEntries();
+        if (entries == null) {
+            return false;
+        }
+
+        final File store = job.output();
+        for (Entry entry : entries) {
+            final File storedFile = new File(store, entry.file().path());
+            if (!storedFile.isFile() || storedFile.length() != entry.size()) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    @Override
+    public boolean restoreTo(File file) throws IOException {
+        final List<Entry> entries = readEntries();
+        if (entries == null) {
+            throw new IllegalStateException("No expected files are recorded in: %s".formatted(cacheDir.getAbsolutePath()));
+        }
+
+        //The files are already in the store, we only need to tell the job which files it would have produced.
+        job.restore(entries.stream().map(Entry::file).toList());
+        return false;
+    }
+
+    private List<Entry> readEntries() throws IOException {
+        final File expectedFile = new File(cacheDir, FILE_NAME);
+        if (!expectedFile.isFile()) {
+            return null;
+        }
+
+        final List<Entry> entries = new ArrayList<>();
+        for (String line : Files.readAllLines(expectedFile.toPath(), StandardCharsets.UTF_8)) {
+            if (line.isEmpty()) {
+                continue;
+            }
+
+            final String[] parts = line.split(" ", 3);
+            if (parts.length != 3) {
+                throw new IOException("Malformed expected file line: %s in: %s".formatted(line, expectedFile.getAbsolutePath()));
+            }
+
+            entries.add(new Entry(new ExpectedFile(parts[2], parts[0]), Long.parseLong(parts[1])));
+        }
+        return entries;
+    }
+
+    @Override
+    public FileBasedLock createLock(CacheLogger logger) {
+        return LockManager.createLock(cacheDir, logger);
+    }
+
+    private record Entry(ExpectedFile file, long size) {}
+}
@@ -0,0 +1,176 @@
+package net.neoforged.gradle.common.services.caching.eviction;
+
+import net.neoforged.gradle.common.services.caching.cache.CacheManifest;
+import net.neoforged.gradle.common.services.caching.cache.ContentAddressedStore;
+import net.neoforged.gradle.common.services.caching.locking.IOControlledFileBasedLock;
+import net.neoforged.gradle.common.services.caching.locking.LockManager;
+import net.neoforged.gradle.common.services.caching.locking.PIDBasedFileLock;
+import net.neoforged.gradle.common.services.caching.logging.CacheLogger;
+import org.apache.commons.io.FileUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Evicts the least recently used entries from the central cache, until the amount of entries fits within the configured budget.
+ * <p>
+ * The last access time of an entry is the modification time of its access file, which is updated by
+ * {@link IOControlledFileBasedLock#updateAccessTime()} every time the entry is successfully used.
+ * Locking an entry does not change its access time, so looking at an entry, or trying to evict it, does not keep it alive.
+ * Entries without an access file were never used successfully, and are evicted first.
+ * Entries whose lock is currently held by a live process (including other threads of this process) are never evicted.
+ * <p>
+ * After the eviction, blobs in the {@link ContentAddressedStore} which are no longer referenced by any entry are removed.
+ */
+public final class CacheEvictor {
+
+    /**
+     * Unreferenced blobs younger than this are kept, as their entry might still be writing its manifest.
+     */
+    private static final long BLOB_GRACE_PERIOD = TimeUnit.HOURS.toMillis(1);
+
+    private final File cacheDirectory;
+    private final int maxEntries;
+    private final CacheLogger logger;
+
+    /**
+     * Creates a new evictor for the given cache directory.
+     *
+     * @param cacheDirectory The cache directory to evict entries from.
+     * @param maxEntries The maximum amount of entries to keep, a value of zero or less disables eviction.
+     * @param logger The logger to use.
+     */
+    public CacheEvictor(File cacheDirectory, int maxEntries, CacheLogger logger) {
+        this.cacheDirectory = cacheDirectory;
+        this.maxEntries = maxEntries;
+        this.logger = logger;
+    }
+
+    /**
+     * Evicts the least recently used entries until the cache fits the budget.
+     *
+     * @return The amount of entries that were evicted.
+     */
+    public int evict() {
+        if (maxEntries <= 0 || !cacheDirectory.isDirectory()) {
+            return 0;
+        }
+
+        final List<Entry> entries = collectEntries();
+        if (entries.size() <= maxEntries) {
+            logger.debug("Cache contains %d entries, no eviction needed.".formatted(entries.size()));
+            sweepBlobs();
+            return 0;
+        }
+
+        //Oldest access first
+        entries.sort(Comparator.comparingLong(Entry::lastAccess));
+
+        final int toEvict = entries.size() - maxEntries;
+        int evicted = 0;
+        for (Entry entry : entries) {
+            if (evicted >= toEvict) {
+                break;
+            }
+
+            if (evict(entry)) {
+                evicted++;
+            }
+        }
+
+        logger.debug("Evicted %d of %d cache entries.".formatted(evicted, entries.size()));
+        sweepBlobs();
+        return evicted;
+    }
+
+    private void sweepBlobs() {
+        final File storeDirectory = new File(cacheDirectory, ContentAddressedStore.DIRECTORY_NAME);
+        if (!storeDirectory.isDirectory()) {
+            return;
+        }
+
+        final Set<String> referenced = new HashSet<>();
+        for (Entry entry : collectEntries()) {
+            try {
+                final CacheManifest manifest = CacheManifest.read(entry.directory());
+                if (manifest != null) {
+                    referenced.addAll(manifest.files().values());
+                }
+            } catch (IOException e) {
+                //We can not know what this entry references, so we can not safely remove anything.
+                logger.debug("Failed to read manifest of cache entry: %s, skipping blob removal.".formatted(entry.directory().getAbsolutePath()), e);
+                return;
+            }
+        }
+
+        final int removed = new ContentAddressedStore(storeDirectory).sweep(referenced, BLOB_GRACE_PERIOD);
+        logger.debug("Removed %d unreferenced blobs from the cache.".formatted(removed));
+    }
+
+    private List<Entry> collectEntries() {
+        final List<Entry> entries = new ArrayList<>();
+        final File[] candidates = Objects.requireNonNullElse(cacheDirectory.listFiles(File::isDirectory), new File[0]);
+        for (File candidate : candidates) {
+            //Only directories guarded by a lock are cache entries, everything else is left alone.
+            final File lockFile = new File(candidate, LockManager.LOCK_FILE_NAME);
+            if (!lockFile.isFile()) {
+                continue;
+            }
+
+            //lastModified is 0 for a missing file
+            entries.add(new Entry(candidate, lockFile, new File(candidate, IOControlledFileBasedLock.ACCESS_FILE_NAME).lastModified()));
+        }
+        return entries;
+    }
+
+    private boolean evict(Entry entry) {
+        final PIDBasedFileLock lock = PIDBasedFileLock.tryLock(entry.lockFile(), logger);
+        if (lock == null) {
+            logger.debug("Skipping eviction of cache entry in use: %s".formatted(entry.directory().getAbsolutePath()));
+            return false;
+        }
+
+        try {
+            //Remove the healthy marker first, so that a concurrent reader never sees a partially deleted entry as valid.
+            final File healthyFile = new File(entry.directory(), IOControlledFileBasedLock.HEALTHY_FILE_NAME);
+            if (healthyFile.exists() && !healthyFile.delete()) {
+                logger.debug("Failed to delete healthy marker of cache entry: %s".formatted(entry.directory().getAbsolutePath()));
+                return false;
+            }
+
+            final File[] contents = Objects.requireNonNullElse(entry.directory().listFiles(), new File[0]);
+            for (File content : contents) {
+                if (!content.equals(entry.lockFile())) {
+                    FileUtils.forceDelete(content);
+                }
+            }
+        } catch (IOException e) {
+            logger.debug("Failed to evict cache entry: %s".formatted(entry.directory().getAbsolutePath()), e);
+            return false;
+        } finally {
+            try {
+                lock.close();
+            } catch (Exception e) {
+                logger.debug("Failed to release lock of cache entry: %s".formatted(entry.directory().getAbsolutePath()), e);
+            }
+        }
+
+        //The lock file goes last, and only if nobody grabbed the lock in the meantime.
+        //A process that did will simply see a failed entry and re-execute.
+        final String[] remaining = entry.directory().list();
+        if (remaining != null && remaining.length == 1 && entry.lockFile().length() == 0) {
+            FileUtils.deleteQuietly(entry.directory());
+        }
+        logger.debug("Evicted cache entry: %s".formatted(entry.directory().getAbsolutePath()));
+        return true;
+    }
+
+    private record Entry(File directory, File lockFile, long lastAccess) {}
+}
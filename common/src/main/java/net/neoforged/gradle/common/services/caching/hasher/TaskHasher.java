@@ -5,8 +5,10 @@ import net.neoforged.gradle.common.util.hash.HashCode;
 import net.neoforged.gradle.common.util.hash.HashFunction;
 import net.neoforged.gradle.common.util.hash.Hasher;
 import net.neoforged.gradle.common.util.hash.Hashing;
+import net.neoforged.gradle.util.FileHashIndex;
 import org.gradle.api.Task;
 import org.gradle.api.tasks.TaskInputs;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.File;
 import java.io.IOException;
@@ -21,10 +23,13 @@ public final class TaskHasher {
 
     private final Task task;
     private final CacheLogger logger;
+    @Nullable
+    private final FileHashIndex hashIndex;
 
-    public TaskHasher(Task task, CacheLogger logger) {
+    public TaskHasher(Task task, CacheLogger logger, @Nullable FileHashIndex hashIndex) {
         this.task = task;
         this.logger = logger;
+        this.hashIndex = hashIndex;
     }
 
     public void hash() throws IOException {
@@ -60,7 +65,7 @@ public final class TaskHasher {
         for (File file : files) {
             logger.debug("Hashing task input file: " + file.getAbsolutePath());
             hasher.putString(file.getName());
-            final HashCode code = hashFunction.hashFile(file);
+            final HashCode code = hashFunction.hashFile(file, hashIndex);
             logger.debug("Hashing task input file hash: " + code);
             hasher.putHash(code);
         }
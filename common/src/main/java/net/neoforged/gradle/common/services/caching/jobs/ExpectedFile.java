@@ -0,0 +1,10 @@
+package net.neoforged.gradle.common.services.caching.jobs;
+
+/**
+ * Describes a file which a {@link ICacheableJob.SharedStore} job expects to exist in its store after execution.
+ *
+ * @param path The path of the file, relative to the store directory, using forward slashes.
+ * @param sha1 The expected SHA-1 hash of the file.
+ */
+public record ExpectedFile(String path, String sha1) {
+}
@@ -6,8 +6,13 @@ import org.gradle.api.file.Directory;
 import org.gradle.api.file.DirectoryProperty;
 import org.gradle.api.file.RegularFileProperty;
 import org.gradle.api.provider.Provider;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.File;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
 
 /**
  * Defines a job that can be cached.
@@ -43,6 +48,17 @@ public interface ICacheableJob<I, O> {
      */
     boolean createsDirectory();
 
+    /**
+     * Returns the output of the job, when the job was not executed because its cache was restored.
+     *
+     * @return The restored output of the job, or null if the job can not recreate its output from the cache.
+     * @implSpec By default jobs can not recreate their output from the cache.
+     */
+    @Nullable
+    default O restoredOutput() {
+        return null;
+    }
+
     /**
      * The functional interface for a runnable that throws an exception.
      */
@@ -166,4 +182,143 @@ public interface ICacheableJob<I, O> {
             return job.apply(input);
         }
     }
+
+    /**
+     * Creates a new cacheable job whose output directory is a shared store, like the global assets or libraries directory.
+     * <p>
+     * The output directory of such a job is never cleaned before execution, and its cache does not copy the directory.
+     * Instead, the cache records which files the job expects to exist in the store, and on a hit only checks that they still exist.
+     * The output of the job is the set of expected files.
+     * <p>
+     * A job which always executes still records its expected files, but never trusts the recorded ones.
+     */
+    final class SharedStore implements ICacheableJob<Void, Set<File>> {
+
+        private final String name;
+        private final File output;
+        private final boolean alwaysExecutes;
+        private final ThrowingSupplier<Collection<ExpectedFile>> execute;
+
+        @Nullable
+        private List<ExpectedFile> expectedFiles;
+
+        /**
+         * Creates a new shared store job.
+         *
+         * @param name The name of the job.
+         * @param output The store directory.
+         * @param execute The code to execute, returns the files it expects to exist in the store.
+         */
+        public SharedStore(String name, File output, ThrowingSupplier<Collection<ExpectedFile>> execute) {
+            this(name, output, false, execute);
+        }
+
+        /**
+         * Creates a new shared store job.
+         *
+         * @param name The name of the job.
+         * @param output The store directory.
+         * @param alwaysExecutes True if the job executes even when its recorded files still exist.
+         * @param execute The code to execute, returns the files it expects to exist in the store.
+         */
+        public SharedStore(String name, File output, boolean alwaysExecutes, ThrowingSupplier<Collection<ExpectedFile>> execute) {
+            this.name = name;
+            this.output = output;
+            this.alwaysExecutes = alwaysExecutes;
+            this.execute = execute;
+        }
+
+        /**
+         * Creates a new shared store job for the given store directory.
+         * Realising the provider when this method is called.
+         *
+         * @param name The name of the job.
+         * @param output The store directory.
+         * @param execute The code to execute, returns the files it expects to exist in the store.
+         * @return The created job.
+         */
+        public static SharedStore directory(String name, Provider<Directory> output, ThrowingSupplier<Collection<ExpectedFile>> execute) {
+            return new SharedStore(name, output.get().getAsFile(), execute);
+        }
+
+        /**
+         * Creates a new shared store job for the given store directory, which executes even when its recorded files still exist.
+         * Realising the provider when this method is called.
+         *
+         * @param name The name of the job.
+         * @param output The store directory.
+         * @param alwaysExecutes True if the job executes even when its recorded files still exist.
+         * @param execute The code to execute, returns the files it expects to exist in the store.
+         * @return The created job.
+         */
+        public static SharedStore directory(String name, Provider<Directory> output, boolean alwaysExecutes, ThrowingSupplier<Collection<ExpectedFile>> execute) {
+            return new SharedStore(name, output.get().getAsFile(), alwaysExecutes, execute);
+        }
+
+        @Override
+        public String name() {
+            return name;
+        }
+
+        @Override
+        public File output() {
+            return output;
+        }
+
+        @Override
+        public boolean createsDirectory() {
+            return true;
+        }
+
+        /**
+         * @return True if the job executes even when its recorded files still exist in the store.
+         */
+        public boolean alwaysExecutes() {
+            return alwaysExecutes;
+        }
+
+        @Override
+        public Set<File> execute(Void input) throws Throwable {
+            this.expectedFiles = List.copyOf(execute.get());
+            return resolve();
+        }
+
+        /**
+         * Sets the expected files of this job, after they were restored from the cache.
+         *
+         * @param expectedFiles The expected files.
+         */
+        public void restore(List<ExpectedFile> expectedFiles) {
+            this.expectedFiles = List.copyOf(expectedFiles);
+        }
+
+        /**
+         * @return The files this job expects to exist in the store, either from its execution or from the cache.
+         */
+        public List<ExpectedFile> expectedFiles() {
+            if (expectedFiles == null) {
+                throw new IllegalStateException("The expected files of job: %s are not known before it is executed or restored.".formatted(name));
+            }
+
+            return expectedFiles;
+        }
+
+        @Override
+        public Set<File> restoredOutput() {
+            return expectedFiles == null ? null : resolve();
+        }
+
+        private Set<File> resolve() {
+            final Set<File> files = new LinkedHashSet<>();
+            for (ExpectedFile expectedFile : expectedFiles()) {
+                files.add(new File(output, expectedFile.path()));
+            }
+            return files;
+        }
+
+        @Override
+        public String toString() {
+            return "SharedStore[name=%s, output=%s]".formatted(name, output);
+        }
+    }
 }
@@ -3,12 +3,18 @@ package net.neoforged.gradle.common.services.caching.locking;
 import net.neoforged.gradle.common.services.caching.logging.CacheLogger;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
 
 public final class IOControlledFileBasedLock extends HealthFileUsingFileBasedLock {
 
     public static final String HEALTHY_FILE_NAME = "healthy";
+    public static final String ACCESS_FILE_NAME = "accessed";
 
     private final File lockFile;
+    private final File accessFile;
     private final CacheLogger logger;
 
     private final PIDBasedFileLock pidBasedFileLock;
@@ -16,18 +22,32 @@ public final class IOControlledFileBasedLock extends HealthFileUsingFileBasedLoc
     public IOControlledFileBasedLock(File lockFile, CacheLogger logger) {
         super(new File(lockFile.getParentFile(), HEALTHY_FILE_NAME));
         this.lockFile = lockFile;
+        this.accessFile = new File(lockFile.getParentFile(), ACCESS_FILE_NAME);
         this.logger = logger;
         
         this.pidBasedFileLock = new PIDBasedFileLock(lockFile, logger);
     }
 
+    /**
+     * Records the access in a dedicated file, locking rewrites the lock file and would otherwise bump the access time of entries which are only looked at.
+     */
     @Override
     public void updateAccessTime() {
-        if (!lockFile.setLastModified(System.currentTimeMillis())) {
-            throw new RuntimeException("Failed to update access time for lock file: %s".formatted(lockFile.getAbsolutePath()));
+        try {
+            if (!accessFile.exists()) {
+                Files.createFile(accessFile.toPath());
+            }
+        } catch (FileAlreadyExistsException e) {
+            //Created concurrently, we only need to bump its time
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to create access file: %s".formatted(accessFile.getAbsolutePath()), e);
         }
 
-        logger.debug("Updated access time for lock file: %s".formatted(lockFile.getAbsolutePath()));
+        if (!accessFile.setLastModified(System.currentTimeMillis())) {
+            throw new RuntimeException("Failed to update access time for access file: %s".formatted(accessFile.getAbsolutePath()));
+        }
+
+        logger.debug("Updated access time for access file: %s".formatted(accessFile.getAbsolutePath()));
     }
 
     @Override
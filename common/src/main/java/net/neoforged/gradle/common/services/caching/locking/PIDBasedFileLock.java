@@ -2,6 +2,7 @@ package net.neoforged.gradle.common.services.caching.locking;
 
 import com.google.common.collect.Lists;
 import net.neoforged.gradle.common.services.caching.logging.CacheLogger;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.File;
 import java.nio.file.Files;
@@ -16,15 +17,40 @@ public final class PIDBasedFileLock implements AutoCloseable {
     private final CacheLogger logger;
 
     public PIDBasedFileLock(File lockFile, CacheLogger logger) {
+        this(lockFile, logger, true);
+    }
+
+    private PIDBasedFileLock(File lockFile, CacheLogger logger, boolean acquire) {
         this.lockFile = lockFile;
         this.logger = logger;
 
-        this.lockFile();
+        if (acquire) {
+            this.lockFile();
+        }
+    }
+
+    /**
+     * Attempts to acquire the lock on the given file, without waiting for other processes or threads to release it.
+     *
+     * @param lockFile The lock file to acquire.
+     * @param logger The logger to use.
+     * @return The acquired lock, or null if the lock is currently held by a live process or another thread.
+     */
+    @Nullable
+    public static PIDBasedFileLock tryLock(File lockFile, CacheLogger logger) {
+        final PIDBasedFileLock lock = new PIDBasedFileLock(lockFile, logger, false);
+        logger.debug("Attempting to acquire lock on file without waiting: " + lockFile.getAbsolutePath());
+        if (!lock.attemptFileLock(false)) {
+            return null;
+        }
+
+        logger.debug("Lock acquired on file: " + lockFile.getAbsolutePath());
+        return lock;
     }
 
     private void lockFile() {
         logger.debug("Attempting to acquire lock on file: " + lockFile.getAbsolutePath());
-        while (!attemptFileLock()) {
+        while (!attemptFileLock(true)) {
             //We attempt a lock every 500ms
             try {
                 Thread.sleep(500);
@@ -35,14 +61,13 @@ public final class PIDBasedFileLock implements AutoCloseable {
         logger.debug("Lock acquired on file: " + lockFile.getAbsolutePath());
     }
 
-    private synchronized boolean attemptFileLock() {
+    private synchronized boolean attemptFileLock(boolean wait) {
         try {
             if (!lockFile.exists()) {
                 //No lock file exists, create one
                 lockFile.getParentFile().mkdirs();
                 Files.write(lockFile.toPath(), String.valueOf(ProcessHandle.current().pid()).getBytes(), StandardOpenOption.CREATE_NEW);
-                lockFileForCurrentProcess();
-                return true;
+                return lockFileForCurrentProcess(wait);
             }
 
             //Lock file exists, check if we are the owner
@@ -51,8 +76,7 @@ public final class PIDBasedFileLock implements AutoCloseable {
                 int pid = Integer.parseInt(s);
                 if (ProcessHandle.current().pid() == pid) {
                     logger.debug("Lock file is owned by current process: " + lockFile.getAbsolutePath() + " pid: " + pid);
-                    lockFileForCurrentProcess();
-                    return true;
+                    return lockFileForCurrentProcess(wait);
                 }
 
                 //Check if the process is still running
@@ -60,8 +84,7 @@ public final class PIDBasedFileLock implements AutoCloseable {
                     //Process is not running, we can take over the lock
                     logger.debug("Lock file is owned by a killed process: " + lockFile.getAbsolutePath() + " taking over. Old pid: " + pid);
                     Files.write(lockFile.toPath(), String.valueOf(ProcessHandle.current().pid()).getBytes(), StandardOpenOption.TRUNCATE_EXISTING);
-                    lockFileForCurrentProcess();
-                    return true;
+                    return lockFileForCurrentProcess(wait);
                 }
 
 
@@ -73,22 +96,27 @@ public final class PIDBasedFileLock implements AutoCloseable {
             //No pid found in lock file, we can take over the lock
             logger.debug("Lock file is empty: " + lockFile.getAbsolutePath());
             Files.write(lockFile.toPath(), String.valueOf(ProcessHandle.current().pid()).getBytes(), StandardOpenOption.TRUNCATE_EXISTING);
-            lockFileForCurrentProcess();
-            return true;
+            return lockFileForCurrentProcess(wait);
         } catch (Exception e) {
             logger.debug("Failed to acquire lock on file: " + lockFile.getAbsolutePath() + " -  Failure message: " + e.getLocalizedMessage(), e);
             return false;
         }
     }
 
-    private void lockFileForCurrentProcess() {
+    private boolean lockFileForCurrentProcess(boolean wait) {
         final OwnerAwareReentrantLock lock = FILE_LOCKS.computeIfAbsent(lockFile.getAbsolutePath(), s1 -> new OwnerAwareReentrantLock());
         if (lock.getOwner() != null) {
             logger.debug("Lock file is held by thread: " + lock.getOwner().getId() + " - " + lock.getOwner().getName() + " current thread: " + Thread.currentThread().getId() + " - " + Thread.currentThread().getName());
         } else {
             logger.debug("Lock file is not held by any thread");
         }
+
+        if (!wait) {
+            return lock.tryLock();
+        }
+
         lock.lock();
+        return true;
     }
 
     @Override
@@ -0,0 +1,71 @@
+package net.neoforged.gradle.common.services.hashing;
+
+import net.neoforged.gradle.util.FileHashIndex;
+import org.gradle.api.Project;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.api.provider.Provider;
+import org.gradle.api.services.BuildService;
+import org.gradle.api.services.BuildServiceParameters;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Build service which owns the persistent {@link FileHashIndex} of the build.
+ * <p>
+ * Tasks, work actions and other services which hash files get the index from this service and pass it to the hash functions,
+ * so that they can reuse the digests of files which did not change since they were last hashed.
+ * The digests computed during the build are written back to the index when the service is closed.
+ */
+public abstract class FileHashIndexService implements BuildService<FileHashIndexService.Parameters>, AutoCloseable {
+
+    private static final Logger LOGGER = Logging.getLogger(FileHashIndexService.class);
+
+    public static final String NAME = "FileHashIndexService";
+
+    public static final String DIRECTORY_NAME = "ng_hashes";
+    public static final String FILE_NAME = "index.bin";
+
+    public static final String HASHING_PROPERTY_PREFIX = "net.neoforged.gradle.hashing.";
+    public static final String INDEX_FILE_PROPERTY = HASHING_PROPERTY_PREFIX + "indexFile";
+
+    public interface Parameters extends BuildServiceParameters {
+
+        RegularFileProperty getIndexFile();
+    }
+
+    private final FileHashIndex index;
+
+    public FileHashIndexService() {
+        this.index = FileHashIndex.load(getParameters().getIndexFile().get().getAsFile().toPath());
+    }
+
+    public static Provider<FileHashIndexService> register(Project project) {
+        return project.getGradle().getSharedServices().registerIfAbsent(
+                NAME,
+                FileHashIndexService.class,
+                spec -> spec.getParameters().getIndexFile()
+                        .fileProvider(project.getProviders().gradleProperty(INDEX_FILE_PROPERTY)
+                                .map(File::new)
+                                .orElse(new File(new File(new File(project.getGradle().getGradleUserHomeDir(), "caches"), DIRECTORY_NAME), FILE_NAME)))
+        );
+    }
+
+    /**
+     * @return The index owned by this service.
+     */
+    public FileHashIndex getIndex() {
+        return index;
+    }
+
+    @Override
+    public void close() {
+        try {
+            index.flush();
+        } catch (IOException e) {
+            LOGGER.warn("Failed to write the NeoGradle file hash index.", e);
+        }
+    }
+}
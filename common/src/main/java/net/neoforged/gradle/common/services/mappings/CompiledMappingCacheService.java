@@ -0,0 +1,64 @@
+package net.neoforged.gradle.common.services.mappings;
+
+import net.neoforged.gradle.common.services.hashing.FileHashIndexService;
+import net.neoforged.gradle.util.CompiledMappingCache;
+import org.gradle.api.Project;
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.api.provider.Provider;
+import org.gradle.api.services.BuildService;
+import org.gradle.api.services.BuildServiceParameters;
+
+import java.io.File;
+
+/**
+ * Build service which owns the {@link CompiledMappingCache} of the build.
+ * <p>
+ * Tasks and providers which load mapping files get the cache from this service and pass it to
+ * {@link net.neoforged.gradle.util.IMappingFileUtils#load(File, CompiledMappingCache)}, so that mapping files are parsed
+ * only once and loaded from their compiled form afterwards.
+ */
+public abstract class CompiledMappingCacheService implements BuildService<CompiledMappingCacheService.Parameters> {
+
+    public static final String NAME = "CompiledMappingCacheService";
+
+    public static final String DIRECTORY_NAME = "ng_mappings";
+
+    public static final String MAPPINGS_PROPERTY_PREFIX = "net.neoforged.gradle.mappings.";
+    public static final String CACHE_DIRECTORY_PROPERTY = MAPPINGS_PROPERTY_PREFIX + "cacheDirectory";
+
+    public interface Parameters extends BuildServiceParameters {
+
+        DirectoryProperty getCacheDirectory();
+
+        Property<FileHashIndexService> getFileHashIndex();
+    }
+
+    private final CompiledMappingCache cache;
+
+    public CompiledMappingCacheService() {
+        this.cache = new CompiledMappingCache(getParameters().getCacheDirectory().get().getAsFile(), getParameters().getFileHashIndex().get().getIndex());
+    }
+
+    public static Provider<CompiledMappingCacheService> register(Project project) {
+        final Provider<FileHashIndexService> fileHashIndex = FileHashIndexService.register(project);
+        return project.getGradle().getSharedServices().registerIfAbsent(
+                NAME,
+                CompiledMappingCacheService.class,
+                spec -> {
+                    spec.getParameters().getCacheDirectory()
+                            .fileProvider(project.getProviders().gradleProperty(CACHE_DIRECTORY_PROPERTY)
+                                    .map(File::new)
+                                    .orElse(new File(new File(project.getGradle().getGradleUserHomeDir(), "caches"), DIRECTORY_NAME)));
+                    spec.getParameters().getFileHashIndex().set(fileHashIndex);
+                }
+        );
+    }
+
+    /**
+     * @return The cache owned by this service.
+     */
+    public CompiledMappingCache getCache() {
+        return cache;
+    }
+}
@@ -0,0 +1,110 @@
+package net.neoforged.gradle.common.services.metadata;
+
+import net.neoforged.gradle.common.services.hashing.FileHashIndexService;
+import net.neoforged.gradle.common.util.LauncherManifest;
+import net.neoforged.gradle.common.util.VersionJson;
+import net.neoforged.gradle.util.HashFunction;
+import org.gradle.api.Project;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.api.provider.Property;
+import org.gradle.api.provider.Provider;
+import org.gradle.api.services.BuildService;
+import org.gradle.api.services.BuildServiceParameters;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Build service which parses the launcher manifest and the version jsons of Minecraft once per build.
+ * <p>
+ * Parsed files are remembered by their path and content hash, so all projects and runtimes of the build share one parsed model
+ * per file, while a file which is downloaded again with a different content is parsed again.
+ * The service is safe to use from projects which are configured in parallel.
+ */
+public abstract class MinecraftMetadataService implements BuildService<MinecraftMetadataService.Parameters>, AutoCloseable {
+
+    private static final Logger LOGGER = Logging.getLogger(MinecraftMetadataService.class);
+
+    public static final String NAME = "MinecraftMetadataService";
+
+    public interface Parameters extends BuildServiceParameters {
+
+        Property<FileHashIndexService> getFileHashIndex();
+    }
+
+    private final Map<String, Parsed<LauncherManifest>> launcherManifests = new ConcurrentHashMap<>();
+    private final Map<String, Parsed<VersionJson>> versionJsons = new ConcurrentHashMap<>();
+
+    private final AtomicInteger parsedFiles = new AtomicInteger();
+    private final AtomicLong parseNanos = new AtomicLong();
+    private final AtomicInteger lookups = new AtomicInteger();
+
+    public static Provider<MinecraftMetadataService> register(Project project) {
+        final Provider<FileHashIndexService> fileHashIndex = FileHashIndexService.register(project);
+        return project.getGradle().getSharedServices().registerIfAbsent(NAME, MinecraftMetadataService.class, spec -> spec.getParameters().getFileHashIndex().set(fileHashIndex));
+    }
+
+    /**
+     * @param file The launcher manifest file.
+     * @return The parsed launcher manifest.
+     * @throws IOException If the file could not be read.
+     */
+    public LauncherManifest getLauncherManifest(File file) throws IOException {
+        return get(launcherManifests, file, LauncherManifest::parse);
+    }
+
+    /**
+     * The returned version json is shared, and must not be modified.
+     *
+     * @param file The version json file.
+     * @return The parsed version json.
+     * @throws IOException If the file could not be read.
+     */
+    public VersionJson getVersionJson(File file) throws IOException {
+        return get(versionJsons, file, VersionJson::get);
+    }
+
+    private <T> T get(Map<String, Parsed<T>> cache, File file, Parser<T> parser) throws IOException {
+        lookups.incrementAndGet();
+        final String hash = HashFunction.SHA1.hash(file, getParameters().getFileHashIndex().get().getIndex());
+        try {
+            return cache.compute(file.getAbsolutePath(), (path, existing) -> {
+                if (existing != null && existing.hash().equals(hash)) {
+                    return existing;
+                }
+
+                final long start = System.nanoTime();
+                try {
+                    final T value = parser.parse(file);
+                    final long duration = System.nanoTime() - start;
+                    parsedFiles.incrementAndGet();
+                    parseNanos.addAndGet(duration);
+                    LOGGER.debug("Parsed {} in {} ms", file, duration / 1_000_000);
+                    return new Parsed<>(hash, value);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }).value();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    @Override
+    public void close() {
+        LOGGER.debug("Parsed {} Minecraft metadata files in {} ms, for {} lookups", parsedFiles.get(), parseNanos.get() / 1_000_000, lookups.get());
+    }
+
+    private record Parsed<T>(String hash, T value) {}
+
+    @FunctionalInterface
+    private interface Parser<T> {
+        T parse(File file) throws IOException;
+    }
+}
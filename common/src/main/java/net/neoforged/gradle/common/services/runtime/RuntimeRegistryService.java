@@ -0,0 +1,68 @@
+package net.neoforged.gradle.common.services.runtime;
+
+import net.neoforged.gradle.common.runtime.definition.CommonRuntimeDefinition;
+import org.gradle.api.Project;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.api.provider.Provider;
+import org.gradle.api.services.BuildService;
+import org.gradle.api.services.BuildServiceParameters;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Build service which shares runtimes with identical specifications between the projects of a build.
+ * <p>
+ * The first project which bakes a runtime with a given key owns its step tasks.
+ * Later projects with the same key do not create the step tasks again, they consume the outputs of the owning project's tasks instead.
+ */
+public abstract class RuntimeRegistryService implements BuildService<BuildServiceParameters.None>, AutoCloseable {
+
+    private static final Logger LOGGER = Logging.getLogger(RuntimeRegistryService.class);
+
+    public static final String NAME = "RuntimeRegistryService";
+
+    private final Map<String, CommonRuntimeDefinition<?>> owners = new ConcurrentHashMap<>();
+    private final AtomicInteger shared = new AtomicInteger();
+
+    public static Provider<RuntimeRegistryService> register(Project project) {
+        return project.getGradle().getSharedServices().registerIfAbsent(NAME, RuntimeRegistryService.class, spec -> {});
+    }
+
+    /**
+     * Looks up the runtime which owns the step tasks of the given key.
+     *
+     * @param key The key of the runtime's specification.
+     * @param type The type of the runtime.
+     * @return The owning runtime, or null if no project baked a runtime with the key yet.
+     */
+    @Nullable
+    public <D extends CommonRuntimeDefinition<?>> D getOwner(String key, Class<D> type) {
+        final CommonRuntimeDefinition<?> owner = owners.get(key);
+        if (owner == null || !type.isInstance(owner)) {
+            return null;
+        }
+
+        shared.incrementAndGet();
+        LOGGER.debug("Sharing runtime {} of {}", owner.getSpecification().getIdentifier(), owner.getSpecification().getProject().getPath());
+        return type.cast(owner);
+    }
+
+    /**
+     * Registers the given runtime as the owner of the given key, unless another runtime owns it already.
+     *
+     * @param key The key of the runtime's specification.
+     * @param definition The baked runtime.
+     */
+    public void register(String key, CommonRuntimeDefinition<?> definition) {
+        owners.putIfAbsent(key, definition);
+    }
+
+    @Override
+    public void close() {
+        LOGGER.debug("Baked {} runtimes, which were shared {} times between the projects of the build", owners.size(), shared.get());
+    }
+}
@@ -0,0 +1,74 @@
+package net.neoforged.gradle.common.services.tools;
+
+import net.neoforged.gradle.util.ToolDaemonPool;
+import org.gradle.api.Project;
+import org.gradle.api.provider.Property;
+import org.gradle.api.provider.Provider;
+import org.gradle.api.services.BuildService;
+import org.gradle.api.services.BuildServiceParameters;
+
+import java.time.Duration;
+
+/**
+ * Build service which gives access to the {@link ToolDaemonPool} of the Gradle daemon.
+ * <p>
+ * The pool outlives this service, so that the warm tool daemons can be reused by later builds in the same Gradle daemon.
+ * Its daemons are stopped when they are idle for longer than the configured timeout, or when the Gradle daemon stops.
+ */
+public abstract class ToolDaemonService implements BuildService<ToolDaemonService.Parameters> {
+
+    public static final String NAME = "ToolDaemonService";
+
+    public static final String DAEMONS_PROPERTY_PREFIX = "net.neoforged.gradle.execution.daemons.";
+    public static final String IDLE_TIMEOUT_PROPERTY = DAEMONS_PROPERTY_PREFIX + "idleTimeout";
+    public static final String MAX_IDLE_DAEMONS_PROPERTY = DAEMONS_PROPERTY_PREFIX + "maxIdleDaemons";
+
+    /**
+     * The pool of this Gradle daemon, created by the first build which uses it.
+     */
+    private static ToolDaemonPool POOL;
+
+    public interface Parameters extends BuildServiceParameters {
+
+        /**
+         * @return The amount of minutes after which an idle tool daemon is stopped.
+         */
+        Property<Integer> getIdleTimeout();
+
+        /**
+         * @return The maximal amount of idle tool daemons kept per tool.
+         */
+        Property<Integer> getMaxIdleDaemons();
+    }
+
+    public static Provider<ToolDaemonService> register(Project project) {
+        return project.getGradle().getSharedServices().registerIfAbsent(
+                NAME,
+                ToolDaemonService.class,
+                spec -> {
+                    spec.getParameters().getIdleTimeout().set(project.getProviders().gradleProperty(IDLE_TIMEOUT_PROPERTY).map(Integer::parseInt).orElse(10));
+                    spec.getParameters().getMaxIdleDaemons().set(project.getProviders().gradleProperty(MAX_IDLE_DAEMONS_PROPERTY).map(Integer::parseInt).orElse(2));
+                }
+        );
+    }
+
+    /**
+     * @return The pool of this Gradle daemon, configured with the parameters of the current build.
+     */
+    public ToolDaemonPool getPool() {
+        final Duration idleTimeout = Duration.ofMinutes(getParameters().getIdleTimeout().get());
+        final int maxIdleDaemons = getParameters().getMaxIdleDaemons().get();
+
+        synchronized (ToolDaemonService.class) {
+            if (POOL == null) {
+                final ToolDaemonPool pool = new ToolDaemonPool(idleTimeout, maxIdleDaemons);
+                Runtime.getRuntime().addShutdownHook(new Thread(pool::close, "tool-daemon-shutdown"));
+                POOL = pool;
+            } else {
+                POOL.setIdleTimeout(idleTimeout);
+                POOL.setMaxIdleDaemons(maxIdleDaemons);
+            }
+            return POOL;
+        }
+    }
+}
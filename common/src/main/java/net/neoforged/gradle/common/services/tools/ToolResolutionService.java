@@ -0,0 +1,48 @@
+package net.neoforged.gradle.common.services.tools;
+
+import org.gradle.api.Project;
+import org.gradle.api.file.FileCollection;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.api.provider.Provider;
+import org.gradle.api.services.BuildService;
+import org.gradle.api.services.BuildServiceParameters;
+
+import java.io.File;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Build service which remembers the resolved jars of tools by their coordinates.
+ * <p>
+ * The first project which needs a tool resolves it, every other project of the build reuses the jar without resolving its configuration again.
+ */
+public abstract class ToolResolutionService implements BuildService<BuildServiceParameters.None>, AutoCloseable {
+
+    private static final Logger LOGGER = Logging.getLogger(ToolResolutionService.class);
+
+    public static final String NAME = "ToolResolutionService";
+
+    private final Map<String, File> tools = new ConcurrentHashMap<>();
+
+    public static Provider<ToolResolutionService> register(Project project) {
+        return project.getGradle().getSharedServices().registerIfAbsent(NAME, ToolResolutionService.class, spec -> {});
+    }
+
+    /**
+     * @param tool The coordinates of the tool.
+     * @param files The files of the tool, only resolved if the tool was not resolved before in this build.
+     * @return The jar of the tool.
+     */
+    public File resolve(String tool, FileCollection files) {
+        return tools.computeIfAbsent(tool, coordinates -> {
+            LOGGER.debug("Resolving tool {}", coordinates);
+            return files.getFiles().iterator().next();
+        });
+    }
+
+    @Override
+    public void close() {
+        LOGGER.debug("Resolved {} tools in this build", tools.size());
+    }
+}
@@ -1,6 +1,7 @@
 package net.neoforged.gradle.common.tasks;
 
 import com.google.gson.JsonObject;
+import net.neoforged.gradle.common.services.hashing.FileHashIndexService;
 import net.neoforged.gradle.common.util.FileDownloadingUtils;
 import net.neoforged.gradle.common.util.SerializationUtils;
 import net.neoforged.gradle.dsl.common.tasks.NeoGradleBase;
@@ -10,6 +11,7 @@ import net.neoforged.gradle.dsl.common.util.CacheFileSelector;
 import net.neoforged.gradle.util.HashFunction;
 import org.gradle.api.file.DirectoryProperty;
 import org.gradle.api.provider.Property;
+import org.gradle.api.services.ServiceReference;
 import org.gradle.api.tasks.Input;
 import org.gradle.api.tasks.Internal;
 import org.gradle.api.tasks.Nested;
@@ -41,6 +43,9 @@ public abstract class FileCacheProviding extends NeoGradleBase implements WithOu
     @Optional
     @Input
     public abstract Property<Boolean> getIsOffline();
+
+    @ServiceReference(FileHashIndexService.NAME)
+    public abstract Property<FileHashIndexService> getFileHashIndex();
     
     protected void downloadJsonTo(String url) {
         final File output = getOutput().get().getAsFile();
@@ -62,7 +67,7 @@ public abstract class FileCacheProviding extends NeoGradleBase implements WithOu
         final File output = getOutput().get().getAsFile();
         try {
             if (output.exists()) {
-                final String fileHash = HashFunction.SHA1.hash(output);
+                final String fileHash = HashFunction.SHA1.hash(output, getFileHashIndex().get().getIndex());
                 if (fileHash.equals(hash)) {
                     return output;
                 }
@@ -11,14 +11,15 @@ import net.neoforged.gradle.dsl.common.tasks.WithOutput;
 import net.neoforged.gradle.dsl.common.tasks.WithWorkspace;
 import net.neoforged.gradle.util.FileUtils;
 import net.neoforged.gradle.util.ZipBuildingFileTreeVisitor;
+import net.neoforged.gradle.util.ZipFileTree;
 import org.gradle.api.DefaultTask;
 import org.gradle.api.NonNullApi;
-import org.gradle.api.file.FileTree;
 import org.gradle.api.file.FileTreeElement;
 import org.gradle.api.file.RegularFile;
 import org.gradle.api.file.RegularFileProperty;
 import org.gradle.api.provider.Property;
 import org.gradle.api.specs.Spec;
+import org.gradle.api.specs.Specs;
 import org.gradle.api.tasks.*;
 import org.gradle.api.tasks.util.PatternFilterable;
 import org.gradle.api.tasks.util.PatternSet;
@@ -78,22 +79,22 @@ public abstract class PotentiallySignJar extends DefaultTask implements PatternF
     }
     
     private void processInputJar(File inputJar, File toSign) throws IOException {
-        final FileTree inputFileTree = getArchiveOperations().zipTree(inputJar);
+        final ZipFileTree inputFileTree = ZipFileTree.of(inputJar);
         try (OutputStream toSignOutputStream = new FileOutputStream(toSign); ZipOutputStream toSignZipOutputStream = new ZipOutputStream(toSignOutputStream)) {
             
             ZipBuildingFileTreeVisitor toSignBuilder = new ZipBuildingFileTreeVisitor(toSignZipOutputStream);
-            inputFileTree.matching(patternSet).visit(toSignBuilder);
+            inputFileTree.filter(patternSet.getAsSpec()).visit(toSignBuilder);
         }
     }
     
     private void writeOutputJar(File signedJar, File inputJar, File outputJar) throws IOException {
-        final FileTree inputFileTree = getArchiveOperations().zipTree(inputJar);
-        final FileTree signedFileTree = getArchiveOperations().zipTree(signedJar);
+        final ZipFileTree inputFileTree = ZipFileTree.of(inputJar);
+        final ZipFileTree signedFileTree = ZipFileTree.of(signedJar);
         try (OutputStream outputStream = new FileOutputStream(outputJar); ZipOutputStream zipOutputStream = new ZipOutputStream(outputStream)) {
             
             ZipBuildingFileTreeVisitor builder = new ZipBuildingFileTreeVisitor(zipOutputStream);
             signedFileTree.visit(builder);
-            inputFileTree.minus(inputFileTree.matching(patternSet)).getAsFileTree().visit(builder);
+            inputFileTree.filter(Specs.negate(patternSet.getAsSpec())).visit(builder);
         }
     }
     
@@ -1,94 +1,135 @@
 package net.neoforged.gradle.common.util;
 
-import net.neoforged.gradle.util.IMappingFileUtils;
+import net.neoforged.gradle.util.CompiledMappingCache;
+import net.neoforged.gradle.util.HashFunction;
 import net.minecraftforge.srgutils.IMappingFile;
 import net.minecraftforge.srgutils.IRenamer;
+import org.jetbrains.annotations.Nullable;
 
-import java.io.ByteArrayInputStream;
+import java.io.File;
 import java.io.IOException;
-import java.io.InputStream;
+import java.io.InvalidObjectException;
 import java.io.ObjectStreamException;
 import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Collection;
-import java.util.List;
-
+import java.util.Objects;
+
+/**
+ * A mapping file which can be used as a task input, and stored in the configuration cache.
+ * <p>
+ * The mappings are compiled into a {@link CompiledMappingCache} when they are serialized, and only the hash of the compiled form
+ * and the path of the compiled file are written, the mappings themselves never end up in the configuration cache.
+ * The mappings are read back from the compiled file on first use, without parsing any text.
+ * If the compiled file was removed since, the mappings can not be restored and reading them fails.
+ */
 public class CacheableIMappingFile implements IMappingFile, Serializable {
 
-    private IMappingFile delegate;
+    private transient CompiledMappingCache cache;
+    @Nullable
+    private transient IMappingFile delegate;
+    @Nullable
+    private transient String hash;
 
-    public CacheableIMappingFile(IMappingFile delegate) {
+    public CacheableIMappingFile(IMappingFile delegate, CompiledMappingCache cache) {
         this.delegate = delegate;
+        this.cache = cache;
+    }
+
+    private synchronized IMappingFile delegate() {
+        if (delegate == null) {
+            final File compiled = cache.getCompiledFile(Objects.requireNonNull(hash, "Neither mappings nor compiled mappings are available"));
+            if (!compiled.isFile()) {
+                throw new IllegalStateException("The compiled mappings: %s no longer exist, they were removed from the mapping cache after the configuration cache entry was stored. Run the build without the configuration cache once to compile them again.".formatted(compiled.getAbsolutePath()));
+            }
+
+            try {
+                final byte[] data = Files.readAllBytes(compiled.toPath());
+                if (!HashFunction.SHA256.hash(data).equals(hash)) {
+                    throw new IllegalStateException("The compiled mappings: %s do not match their hash: %s".formatted(compiled.getAbsolutePath(), hash));
+                }
+
+                delegate = CompiledMappingCache.read(data);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to read the compiled mappings: %s".formatted(compiled.getAbsolutePath()), e);
+            }
+        }
+        return delegate;
     }
 
     @Override
     public Collection<? extends IPackage> getPackages() {
-        return this.delegate.getPackages();
+        return this.delegate().getPackages();
     }
 
     @Override
     public IPackage getPackage(String original) {
-        return this.delegate.getPackage(original);
+        return this.delegate().getPackage(original);
     }
 
     @Override
     public Collection<? extends IClass> getClasses() {
-        return this.delegate.getClasses();
+        return this.delegate().getClasses();
     }
 
     @Override
     public IClass getClass(String original) {
-        return this.delegate.getClass(original);
+        return this.delegate().getClass(original);
     }
 
     @Override
     public String remapPackage(String pkg) {
-        return this.delegate.remapClass(pkg);
+        return this.delegate().remapClass(pkg);
     }
 
     @Override
     public String remapClass(String desc) {
-        return this.delegate.remapClass(desc);
+        return this.delegate().remapClass(desc);
     }
 
     @Override
     public String remapDescriptor(String desc) {
-        return this.delegate.remapDescriptor(desc);
+        return this.delegate().remapDescriptor(desc);
     }
 
     @Override
     public void write(Path path, Format format, boolean reversed) throws IOException {
-        this.delegate.write(path, format, reversed);
+        this.delegate().write(path, format, reversed);
     }
 
     @Override
     public IMappingFile reverse() {
-        return new CacheableIMappingFile(this.delegate.reverse());
+        return new CacheableIMappingFile(this.delegate().reverse(), cache);
     }
 
     @Override
     public IMappingFile rename(IRenamer renamer) {
-        return new CacheableIMappingFile(this.delegate.rename(renamer));
+        return new CacheableIMappingFile(this.delegate().rename(renamer), cache);
     }
 
     @Override
     public IMappingFile chain(IMappingFile other) {
-        return new CacheableIMappingFile(this.delegate.chain(other));
+        return new CacheableIMappingFile(this.delegate().chain(other), cache);
     }
 
-    private void writeObject(java.io.ObjectOutputStream out) throws IOException {
-        final List<String> clientLines = IMappingFileUtils.writeMappingFile(delegate, IMappingFile.Format.TSRG2, false);
+    private synchronized void writeObject(java.io.ObjectOutputStream out) throws IOException {
+        if (hash == null) {
+            hash = cache.store(delegate());
+        }
 
-        out.writeObject(clientLines);
+        out.writeUTF(hash);
+        out.writeUTF(cache.getCompiledFile(hash).getAbsolutePath());
     }
 
-    @SuppressWarnings("unchecked")
-    private void readObject(java.io.ObjectInputStream in) throws IOException, ClassNotFoundException {
-        final List<String> clientLines = (List<String>) in.readObject();
-
-        InputStream clientStream = new ByteArrayInputStream(String.join("\n", clientLines).getBytes());
-
-        delegate = IMappingFile.load(clientStream);
+    private void readObject(java.io.ObjectInputStream in) throws IOException {
+        hash = in.readUTF();
+        final File compiled = new File(in.readUTF());
+        cache = new CompiledMappingCache(compiled.getParentFile());
+        if (!cache.getCompiledFile(hash).equals(compiled)) {
+            throw new InvalidObjectException("The compiled mappings: %s are not stored under their hash: %s".formatted(compiled.getAbsolutePath(), hash));
+        }
     }
 
     private void readObjectNoData() throws ObjectStreamException {
@@ -1,5 +1,6 @@
 package net.neoforged.gradle.common.util;
 
+import net.neoforged.gradle.common.services.metadata.MinecraftMetadataService;
 import net.neoforged.gradle.common.tasks.MinecraftArtifactFileCacheProvider;
 import net.neoforged.gradle.common.tasks.MinecraftLauncherFileCacheProvider;
 import net.neoforged.gradle.common.tasks.MinecraftVersionManifestFileCacheProvider;
@@ -8,9 +9,11 @@ import net.neoforged.gradle.dsl.common.util.CacheFileSelector;
 import net.neoforged.gradle.dsl.common.util.DistributionType;
 import net.neoforged.gradle.dsl.common.util.MinecraftVersionAndUrl;
 import net.neoforged.gradle.dsl.common.util.NamingConstants;
+import net.neoforged.gradle.util.TransformerUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.gradle.api.Project;
 import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.provider.Provider;
 import org.gradle.api.tasks.TaskProvider;
 import org.jetbrains.annotations.NotNull;
 
@@ -37,15 +40,37 @@ public final class FileCacheUtils {
     }
     
     
+    /**
+     * Creates the task which downloads the version manifest of the given game version.
+     * The url of the version manifest is looked up in the launcher metadata when the task runs, so configuring a project does not download anything.
+     * The latest version ({@code +}) is resolved to its id the same way, so that its files are cached under the id of the version and not under {@code +}.
+     */
     @NotNull
-    public static TaskProvider<MinecraftVersionManifestFileCacheProvider> createVersionManifestFileCacheProvidingTask(final Project project, final MinecraftVersionAndUrl resolvedVersion) {
-        if (project.getTasks().getNames().contains(NamingConstants.Task.CACHE_VERSION_MANIFEST + resolvedVersion.getVersion())) {
-            return project.getTasks().named(NamingConstants.Task.CACHE_VERSION_MANIFEST + resolvedVersion.getVersion(), MinecraftVersionManifestFileCacheProvider.class);
+    public static TaskProvider<MinecraftVersionManifestFileCacheProvider> createVersionManifestFileCacheProvidingTask(final Project project, final String gameVersion) {
+        if (project.getTasks().getNames().contains(NamingConstants.Task.CACHE_VERSION_MANIFEST + gameVersion)) {
+            return project.getTasks().named(NamingConstants.Task.CACHE_VERSION_MANIFEST + gameVersion, MinecraftVersionManifestFileCacheProvider.class);
         }
 
-        return project.getTasks().register(NamingConstants.Task.CACHE_VERSION_MANIFEST + resolvedVersion.getVersion(), MinecraftVersionManifestFileCacheProvider.class, task -> {
-            task.getMinecraftVersion().set(resolvedVersion.getVersion());
-            task.getDownloadUrl().set(resolvedVersion.getUrl());
+        final TaskProvider<MinecraftLauncherFileCacheProvider> launcherMetadata = createLauncherMetadataFileCacheProvidingTask(project);
+        final Provider<MinecraftMetadataService> metadataService = MinecraftMetadataService.register(project);
+
+        final Provider<MinecraftVersionAndUrl> resolvedVersion = launcherMetadata.flatMap(WithOutput::getOutput).map(TransformerUtils.guard(file -> {
+            final MinecraftVersionAndUrl version = metadataService.get().getLauncherManifest(file.getAsFile()).find(gameVersion);
+            if (version == null) {
+                throw new IllegalStateException("Could not find the correct version json for version: " + gameVersion);
+            }
+            return version;
+        }));
+
+        return project.getTasks().register(NamingConstants.Task.CACHE_VERSION_MANIFEST + gameVersion, MinecraftVersionManifestFileCacheProvider.class, task -> {
+            //Any other version is its own id, and keeps a cache location which is known without the launcher metadata
+            if (gameVersion.equals("+")) {
+                task.getMinecraftVersion().set(resolvedVersion.map(MinecraftVersionAndUrl::getVersion));
+            } else {
+                task.getMinecraftVersion().set(gameVersion);
+            }
+            task.getDownloadUrl().set(resolvedVersion.map(MinecraftVersionAndUrl::getUrl));
+            task.dependsOn(launcherMetadata);
         });
     }
     
@@ -62,9 +87,10 @@ public final class FileCacheUtils {
             return project.getTasks().named(taskName, MinecraftArtifactFileCacheProvider.class);
         }
         
-        final CacheFileSelector selector = type == MinecraftArtifactType.MAPPINGS ?
-                                                   CacheFileSelector.forVersionMappings(minecraftVersion, distributionType.getName()) :
-                                                   CacheFileSelector.forVersionJar(minecraftVersion, distributionType.getName());
+        //The cache location follows the resolved id of the version manifest task, not the requested version
+        final Provider<CacheFileSelector> selector = versionManifestProvider.flatMap(MinecraftVersionManifestFileCacheProvider::getMinecraftVersion).map(version -> type == MinecraftArtifactType.MAPPINGS ?
+                                                   CacheFileSelector.forVersionMappings(version, distributionType.getName()) :
+                                                   CacheFileSelector.forVersionJar(version, distributionType.getName()));
         
         final List<TaskProvider<? extends WithOutput>> taskOrdering = new ArrayList<>(otherProviders);
         
@@ -1,23 +1,22 @@
 package net.neoforged.gradle.common.util;
 
 import net.neoforged.gradle.util.HashFunction;
+import net.neoforged.gradle.util.ResumableDownloader;
 import org.gradle.api.tasks.Input;
 import org.gradle.api.tasks.Optional;
 
 import javax.annotation.Nullable;
 import java.io.File;
 import java.io.IOException;
-import java.io.InputStream;
 import java.io.Serializable;
-import java.net.HttpURLConnection;
 import java.net.URL;
-import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.StandardCopyOption;
-import java.nio.file.attribute.FileTime;
+import java.time.Duration;
 
 public final class FileDownloadingUtils {
+    private static final int MAX_ATTEMPTS = 5;
+    private static final Duration INITIAL_BACKOFF = Duration.ofMillis(500);
 
     private FileDownloadingUtils() {
         throw new IllegalStateException("Can not instantiate an instance of: FileDownloadingUtils. This is a utility class");
@@ -46,7 +45,7 @@ public final class FileDownloadingUtils {
         }
 
         if (!isOffline) {
-            return copyURLToFileIfNewer(new URL(info.url), file.toPath());
+            return copyURLToFileIfNewer(new URL(info.url), file.toPath(), info.hash);
         } else if (!file.exists()) {
             throw new RuntimeException("Could not find the file: " + file + " and we are offline.");
         } else {
@@ -57,93 +56,16 @@ public final class FileDownloadingUtils {
     /**
      * Downloads a file, but attempts to make a conditional request to only re-download if the file has been
      * changed on the remote-server.
+     * Files with a known hash are instead only downloaded if the existing file does not match the hash.
+     * An interrupted download is resumed by the next attempt, or the next build.
      */
-    private static boolean copyURLToFileIfNewer(URL url, Path target) throws IOException {
-        HttpURLConnection urlConnection = (HttpURLConnection) url.openConnection();
-
-        urlConnection.setUseCaches(true);
-        urlConnection.setInstanceFollowRedirects(true);
-        urlConnection.setRequestProperty("User-Agent", "NeoGradle: %s".formatted(NeoGradleUtils.getNeogradleVersion()));
-
-        try {
-            // Do a Conditional If-Modified-Since request
-            if (Files.isRegularFile(target)) {
-                FileTime lastModified = Files.getLastModifiedTime(target);
-                urlConnection.setIfModifiedSince(lastModified.toMillis());
-
-                // Accessing the response code will cause the request to be sent
-                if (urlConnection.getResponseCode() == HttpURLConnection.HTTP_NOT_MODIFIED) {
-                    // Double-Check here -> If the server also returns a last-modified date,
-                    // and that is different from our local date, re-download!
-                    // This could occur if the local file was modified and is now newer than the original.
-                    if (urlConnection.getLastModified() != 0 && urlConnection.getLastModified() != urlConnection.getIfModifiedSince()) {
-                        urlConnection.disconnect();
-                        urlConnection = (HttpURLConnection) url.openConnection();
-                    } else {
-                        return false;
-                    }
-                }
-            }
-
-            if (urlConnection.getResponseCode() != 200) {
-                throw new IOException("Failed to download " + url + ", HTTP-Status: "
-                        + urlConnection.getResponseCode());
-            }
-
-            // Resolve a relative path to get a proper parent directory
-            if (target.getParent() == null) {
-                target = target.toAbsolutePath();
-            }
-
-            // Always download to a temp-file to avoid partially downloaded files persisting a VM crash/shutdown
-            Files.createDirectories(target.getParent());
-            Path tempFile = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".download");
-
-            try {
-                try (InputStream stream = urlConnection.getInputStream()) {
-                    Files.copy(stream, tempFile, StandardCopyOption.REPLACE_EXISTING);
-                }
-
-                move(target, tempFile);
-
-                if (urlConnection.getLastModified() != 0) {
-                    Files.setLastModifiedTime(target, FileTime.fromMillis(urlConnection.getLastModified()));
-                }
-
-                return true;
-            } finally {
-                Files.deleteIfExists(tempFile);
-            }
-        } finally {
-            urlConnection.disconnect();
+    private static boolean copyURLToFileIfNewer(URL url, Path target, @Nullable String hash) throws IOException {
+        if (hash != null && Files.isRegularFile(target) && HashFunction.SHA1.hash(target.toFile()).equalsIgnoreCase(hash)) {
+            return false;
         }
-    }
 
-    private static void move(Path target, Path tempFile) throws IOException {
-        int tries = 0;
-        while (true) {
-            tries++;
-            try {
-                try {
-                    Files.move(tempFile, target, StandardCopyOption.ATOMIC_MOVE);
-                } catch (AtomicMoveNotSupportedException e) {
-                    // Atomic moves within the same directory should have worked.
-                    // We fall back to the inferior normal move. We should log this issue, but there is no logger here.
-                    Files.move(tempFile, target, StandardCopyOption.REPLACE_EXISTING);
-                }
-                break;
-            } catch (IOException e) {
-                if (tries >= 5) {
-                    throw e;
-                }
-                // Wait a bit to give whatever concurrent process has it locked to unlock...
-                try {
-                    Thread.sleep(5000);
-                } catch (InterruptedException ex) {
-                    Thread.currentThread().interrupt();
-                }
-            }
-        }
+        final ResumableDownloader downloader = new ResumableDownloader(MAX_ATTEMPTS, INITIAL_BACKOFF, "NeoGradle: %s".formatted(NeoGradleUtils.getNeogradleVersion()));
+        return downloader.download(new ResumableDownloader.Request(url, target, hash, hash == null), ResumableDownloader.Listener.NONE);
     }
 
     public static File getMCDir() {
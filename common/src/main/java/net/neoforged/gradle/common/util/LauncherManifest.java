@@ -0,0 +1,65 @@
+package net.neoforged.gradle.common.util;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import net.neoforged.gradle.dsl.common.util.MinecraftVersionAndUrl;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The versions listed by the launcher manifest of Mojang, in the order of the manifest (newest first).
+ * <p>
+ * Instances are immutable, and can be shared between projects.
+ */
+public final class LauncherManifest {
+
+    private final List<MinecraftVersionAndUrl> versions;
+
+    private LauncherManifest(List<MinecraftVersionAndUrl> versions) {
+        this.versions = Collections.unmodifiableList(versions);
+    }
+
+    /**
+     * Parses the given launcher manifest file.
+     *
+     * @param file The launcher manifest file.
+     * @return The parsed manifest.
+     */
+    public static LauncherManifest parse(File file) {
+        final JsonObject json = SerializationUtils.fromJson(file, JsonObject.class);
+
+        final List<MinecraftVersionAndUrl> versions = new ArrayList<>();
+        for (JsonElement element : json.getAsJsonArray("versions")) {
+            final JsonObject version = element.getAsJsonObject();
+            versions.add(new MinecraftVersionAndUrl(version.get("id").getAsString(), version.get("url").getAsString()));
+        }
+        return new LauncherManifest(versions);
+    }
+
+    /**
+     * @return All versions of the manifest.
+     */
+    public List<MinecraftVersionAndUrl> getVersions() {
+        return versions;
+    }
+
+    /**
+     * Looks up the given game version.
+     *
+     * @param gameVersion The game version, or {@code +} for the latest version.
+     * @return The version, or null if the manifest does not contain it.
+     */
+    @Nullable
+    public MinecraftVersionAndUrl find(String gameVersion) {
+        for (MinecraftVersionAndUrl version : versions) {
+            if (gameVersion.equals("+") || version.getVersion().equals(gameVersion)) {
+                return version;
+            }
+        }
+        return null;
+    }
+}
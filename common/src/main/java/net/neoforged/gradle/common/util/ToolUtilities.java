@@ -1,9 +1,12 @@
 package net.neoforged.gradle.common.util;
 
+import net.neoforged.gradle.common.services.tools.ToolResolutionService;
 import net.neoforged.gradle.util.ModuleDependencyUtils;
 import org.gradle.api.Project;
 import org.gradle.api.artifacts.Dependency;
 import org.gradle.api.artifacts.ResolvedArtifact;
+import org.gradle.api.file.FileCollection;
+import org.gradle.api.provider.Provider;
 
 import java.io.File;
 import java.util.function.Supplier;
@@ -15,11 +18,26 @@ public class ToolUtilities {
     }
 
     public static File resolveTool(final Project project, final String tool) {
-        return resolveTool(() -> ConfigurationUtils.temporaryUnhandledConfiguration(
+        return resolveToolLazily(project, tool).get();
+    }
+
+    /**
+     * Creates a provider of the jar of the given tool, which is only resolved when the provider is queried.
+     * The jar is resolved once per build, and shared by all projects which use the same tool.
+     *
+     * @param project The project which uses the tool.
+     * @param tool The coordinates of the tool.
+     * @return The provider of the jar of the tool.
+     */
+    public static Provider<File> resolveToolLazily(final Project project, final String tool) {
+        //Creating the configuration does not resolve it, only the service does, and only for the first project of the build which needs the tool
+        final FileCollection files = ConfigurationUtils.temporaryUnhandledConfiguration(
                 project.getConfigurations(),
                 "ToolLookupFor" + ModuleDependencyUtils.toConfigurationName(tool),
                 project.getDependencies().create(tool)
-        ).getFiles().iterator().next());
+        );
+
+        return ToolResolutionService.register(project).map(service -> service.resolve(tool, files));
     }
 
     public static ResolvedArtifact resolveToolArtifact(final Project project, final String tool) {
@@ -71,17 +71,17 @@ public class VersionJson implements Serializable {
     private Library[] libraries;
     private JavaVersion javaVersion;
 
-    private List<LibraryDownload> _natives = null;
-    private List<Library> _libraries = null;
+    //Computed on first use, and only published once complete, as parsed files are shared between threads
+    private volatile List<LibraryDownload> _natives = null;
+    private volatile List<Library> _libraries = null;
 
     private String mainClass;
 
     private String type;
 
     public List<LibraryDownload> getNatives() {
-
-
-        if (_natives == null) {
+        List<LibraryDownload> result = _natives;
+        if (result == null) {
             Map<String, Entry> natives = new HashMap<>();
 
             OS os = OS.getCurrent();
@@ -98,9 +98,10 @@ public class VersionJson implements Serializable {
                 }
             }
 
-            _natives = natives.values().stream().map(Entry::download).collect(Collectors.toList());
+            result = ImmutableList.copyOf(natives.values().stream().map(Entry::download).collect(Collectors.toList()));
+            _natives = result;
         }
-        return _natives;
+        return result;
     }
 
     public List<String> getPlatformJvmArgs() {
@@ -135,7 +136,7 @@ public class VersionJson implements Serializable {
 
     @Nullable
     public Map<String, Download> getDownloads() {
-        return downloads;
+        return downloads == null ? null : Collections.unmodifiableMap(downloads);
     }
 
     public JavaVersion getJavaVersion() {
@@ -143,16 +144,25 @@ public class VersionJson implements Serializable {
     }
 
     public List<Library> getLibraries() {
-        if (this._libraries == null) {
-            this._libraries = new ArrayList<>();
+        List<Library> result = this._libraries;
+        if (result == null) {
+            final List<Library> allowed = new ArrayList<>();
             for (Library lib : libraries) {
                 if (lib.isAllowed())
-                    this._libraries.add(lib);
+                    allowed.add(lib);
             }
-            this._libraries = ImmutableList.copyOf(this._libraries);
+            result = ImmutableList.copyOf(allowed);
+            this._libraries = result;
         }
 
-        return _libraries;
+        return result;
+    }
+
+    /**
+     * @return All libraries, including those which are not allowed on the current platform.
+     */
+    public List<Library> getAllLibraries() {
+        return Collections.unmodifiableList(Arrays.asList(libraries));
     }
 
     public String getType() {
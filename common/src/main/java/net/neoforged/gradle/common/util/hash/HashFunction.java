@@ -1,5 +1,7 @@
 package net.neoforged.gradle.common.util.hash;
 
+import net.neoforged.gradle.util.FileHashIndex;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.File;
 import java.io.IOException;
@@ -20,5 +22,7 @@ public interface HashFunction {
 
     HashCode hashFile(File var1) throws IOException;
 
+    HashCode hashFile(File var1, @Nullable FileHashIndex var2) throws IOException;
+
     int getHexDigits();
 }
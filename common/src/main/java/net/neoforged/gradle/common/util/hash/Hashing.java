@@ -2,6 +2,7 @@ package net.neoforged.gradle.common.util.hash;
 
 import com.google.common.io.ByteStreams;
 import com.google.common.io.Files;
+import net.neoforged.gradle.util.FileHashIndex;
 import org.jetbrains.annotations.Nullable;
 
 import java.io.File;
@@ -60,16 +61,24 @@ public class Hashing {
         return DEFAULT.hashFile(file);
     }
 
+    public static HashCode hashFile(File file, @Nullable FileHashIndex index) throws IOException {
+        return DEFAULT.hashFile(file, index);
+    }
+
     public static HashCode hashDirectory(File file) throws IOException {
+        return hashDirectory(file, null);
+    }
+
+    public static HashCode hashDirectory(File file, @Nullable FileHashIndex index) throws IOException {
         Hasher hasher = newHasher();
         hasher.putString("DIRECTORY");
         hasher.putString(file.getName());
         for (File listFile : Objects.requireNonNull(file.listFiles())) {
             final HashCode innerHash;
             if (listFile.isFile()) {
-                 innerHash = hashFile(listFile);
+                 innerHash = hashFile(listFile, index);
             } else {
-                innerHash = hashDirectory(listFile);
+                innerHash = hashDirectory(listFile, index);
             }
             hasher.putHash(innerHash);
         }
@@ -372,26 +381,38 @@ public class Hashing {
         }
 
         public HashCode hashFile(File file) throws IOException {
+            return this.hashFile(file, null);
+        }
+
+        public HashCode hashFile(File file, @Nullable FileHashIndex index) throws IOException {
             if (file.exists()) {
                 if (file.isDirectory()) {
                     final Hasher hasher = this.newHasher();
 
                     for (File listFile : Objects.requireNonNull(file.listFiles())) {
-                        final HashCode innerHash = this.hashFile(listFile);
+                        final HashCode innerHash = this.hashFile(listFile, index);
                         hasher.putHash(innerHash);
                     }
 
                     return hasher.hash();
                 } else {
-                    HashingOutputStream hashingOutputStream = this.primitiveStreamHasher();
-                    Files.copy(file, hashingOutputStream);
-                    return hashingOutputStream.hash();
+                    if (index != null) {
+                        return HashCode.fromString(index.hash(file, this.getAlgorithm(), indexed -> this.hashRegularFile(indexed).toString()));
+                    }
+
+                    return this.hashRegularFile(file);
                 }
             } else {
                 return HashCode.fromString("");
             }
         }
 
+        private HashCode hashRegularFile(File file) throws IOException {
+            HashingOutputStream hashingOutputStream = this.primitiveStreamHasher();
+            Files.copy(file, hashingOutputStream);
+            return hashingOutputStream.hash();
+        }
+
         private HashingOutputStream primitiveStreamHasher() {
             return new HashingOutputStream(this, ByteStreams.nullOutputStream());
         }
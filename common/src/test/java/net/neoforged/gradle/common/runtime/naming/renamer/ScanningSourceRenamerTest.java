@@ -0,0 +1,132 @@
+package net.neoforged.gradle.common.runtime.naming.renamer;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class ScanningSourceRenamerTest {
+
+    private static final Map<String, String> NAMES = new HashMap<>();
+    private static final Map<String, String> DOCS = new HashMap<>();
+
+    static {
+        NAMES.put("func_1234_a", "tick");
+        NAMES.put("m_5678_", "render");
+        NAMES.put("field_1_b", "level");
+        NAMES.put("f_42_", "count");
+        NAMES.put("p_5678_1_", "partialTick");
+        NAMES.put("p_12_", "value");
+        NAMES.put("p_a_b_3_", "other");
+        NAMES.put("m_123_", "inner");
+
+        DOCS.put("com.example.Foo", "The foo.");
+        DOCS.put("com.example.Foo$Bar", "The bar.");
+        DOCS.put("m_5678_", "Renders the foo.");
+        DOCS.put("f_42_", "The amount of foos.");
+        DOCS.put("<init>", "Creates a foo.");
+    }
+
+    private static final String SOURCE = """
+            package com.example;
+
+            import java.util.function.Function;
+
+            @Deprecated
+            public class Foo {
+               private int f_42_ = 0;
+               @Nullable
+               private String field_1_b;
+
+               public Foo() {
+               }
+
+               @Override
+               @Deprecated
+               public void m_5678_(float p_5678_1_) {
+                  Function<Integer, Integer> f = (p_12_) -> p_12_ + 1;
+                  this.func_1234_a();
+                  this.item_123_ = Func_1234_a(p_a_b_3_);
+               }
+
+               public static class Bar {
+                  public void m_123_() {
+                  }
+               }
+            }
+            """;
+
+    @Test
+    public void renamesLikeTheRegexRenamer() throws IOException {
+        assertSameOutput(SOURCE, false, true);
+        assertSameOutput(SOURCE, false, false);
+    }
+
+    @Test
+    public void injectsJavadocsLikeTheRegexRenamer() throws IOException {
+        assertSameOutput(SOURCE, true, true);
+        assertSameOutput(SOURCE.replace("   ", "\t"), true, true);
+    }
+
+    @Test
+    public void normalizesLineTerminatorsLikeTheRegexRenamer() throws IOException {
+        assertSameOutput(SOURCE.replace("\n", "\r\n"), true, true);
+        assertSameOutput(SOURCE.replace("\n", "\r"), false, true);
+        assertSameOutput(SOURCE.trim(), false, true);
+        assertSameOutput("\n", false, true);
+        assertSameOutput("", false, true);
+    }
+
+    @Test
+    public void findsTheSameTokensAsTheRegexRenamer() throws IOException {
+        final String[] fragments = {"f", "F", "func", "unc", "ield", "field", "m", "p", "_", "__", "0", "12", "1234", "5678", "a", "b", "Z", "item", "$", " ", "(", ")", " -> ", ", ", "\n", "\r\n", "//"};
+        final Random random = new Random(42);
+        for (int i = 0; i < 2000; i++) {
+            final StringBuilder source = new StringBuilder();
+            final int length = random.nextInt(60);
+            for (int j = 0; j < length; j++) {
+                source.append(fragments[random.nextInt(fragments.length)]);
+            }
+
+            assertSameOutput(source.toString(), false, true);
+            assertSameOutput(source.toString(), false, false);
+        }
+    }
+
+    private static void assertSameOutput(String source, boolean javadocs, boolean lambdas) throws IOException {
+        final byte[] input = source.getBytes(StandardCharsets.UTF_8);
+        final String expected = new String(new RegexRenamer().rename(input, javadocs, lambdas), StandardCharsets.UTF_8);
+        final String actual = new String(new ScanningRenamer().rename(input, javadocs, lambdas), StandardCharsets.UTF_8);
+
+        assertEquals(expected, actual, () -> "Different output for: " + source.replace("\r", "\\r").replace("\n", "\\n"));
+    }
+
+    private static final class RegexRenamer extends RegexBasedSourceRenamer {
+        @Override
+        public Map<String, String> getNames() {
+            return NAMES;
+        }
+
+        @Override
+        public Map<String, String> getDocs() {
+            return DOCS;
+        }
+    }
+
+    private static final class ScanningRenamer extends ScanningSourceRenamer {
+        @Override
+        public Map<String, String> getNames() {
+            return NAMES;
+        }
+
+        @Override
+        public Map<String, String> getDocs() {
+            return DOCS;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package net.neoforged.gradle.common.runtime.naming.renamer;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class SrgNameTableTest {
+
+    @Test
+    public void resolvesNumericNames() {
+        final SrgNameTable table = SrgNameTable.of(Map.of("m_12345_", "tick", "f_12345_", "level", "p_12345_", "value"));
+
+        assertEquals("tick", lookup(table, "m_12345_"));
+        assertEquals("level", lookup(table, "f_12345_"));
+        assertEquals("value", lookup(table, "p_12345_"));
+        assertNull(lookup(table, "m_12346_"));
+    }
+
+    @Test
+    public void resolvesOtherNames() {
+        final SrgNameTable table = SrgNameTable.of(Map.of("func_1234_a", "tick", "p_12345_1_", "partialTick", "m_0123_", "padded"));
+
+        assertEquals("tick", lookup(table, "func_1234_a"));
+        assertEquals("partialTick", lookup(table, "p_12345_1_"));
+        assertEquals("padded", lookup(table, "m_0123_"));
+        assertNull(lookup(table, "m_123_"));
+        assertNull(lookup(table, "func_1234_b"));
+    }
+
+    @Test
+    public void resolvesCapitalizedNamesAsLowerCase() {
+        final SrgNameTable table = SrgNameTable.of(Map.of("func_1234_a", "tick"));
+
+        assertEquals("tick", table.get("Func_1234_a", 0, 11, true));
+        assertNull(table.get("Func_1234_a", 0, 11, false));
+    }
+
+    @Test
+    public void resolvesNamesWithinLargerText() {
+        final SrgNameTable table = SrgNameTable.of(Map.of("m_42_", "render", "field_1_b", "level"));
+        final String text = "this.m_42_(field_1_b);";
+
+        assertEquals("render", table.get(text, 5, 10, false));
+        assertEquals("level", table.get(text, 11, 20, false));
+    }
+
+    @Test
+    public void resolvesLargeMappingSets() {
+        final Map<String, String> names = new HashMap<>();
+        for (int id = 0; id < 100_000; id++) {
+            names.put("m_" + id + "_", "method" + id);
+            names.put("p_" + id + "_0_", "parameter" + id);
+        }
+        final SrgNameTable table = SrgNameTable.of(names);
+
+        names.forEach((srg, name) -> assertEquals(name, lookup(table, srg)));
+        assertNull(lookup(table, "m_100000_"));
+    }
+
+    @Test
+    public void builderKeepsTheLastNameOfAnSrgName() {
+        final SrgNameTable table = new SrgNameTable.Builder()
+                .put("m_42_", "render")
+                .put("func_1234_a", "tick")
+                .put("m_42_", "draw")
+                .build();
+
+        assertEquals("draw", lookup(table, "m_42_"));
+        assertEquals("tick", lookup(table, "func_1234_a"));
+    }
+
+    private static String lookup(SrgNameTable table, String srg) {
+        return table.get(srg, 0, srg.length(), false);
+    }
+}
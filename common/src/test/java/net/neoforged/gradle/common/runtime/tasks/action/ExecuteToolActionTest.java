@@ -0,0 +1,109 @@
+package net.neoforged.gradle.common.runtime.tasks.action;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ExecuteToolActionTest {
+
+    private final ByteArrayOutputStream original = new ByteArrayOutputStream();
+    private PrintStream systemOut;
+
+    @BeforeEach
+    public void setUp() {
+        systemOut = System.out;
+        System.setOut(new PrintStream(original, true, StandardCharsets.UTF_8));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        System.setOut(systemOut);
+    }
+
+    @Test
+    public void outputOfThreadsStartedByTheToolIsRoutedToTheTool() throws Exception {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final ByteArrayOutputStream err = new ByteArrayOutputStream();
+
+        ExecuteToolAction.runRouted(print(out), print(err), () -> {
+            final Thread worker = new Thread(() -> {
+                System.out.println("from worker");
+                System.err.println("error from worker");
+            });
+            worker.start();
+            worker.join();
+            System.out.println("from tool");
+        });
+
+        assertEquals("from worker\nfrom tool\n", text(out).replace("\r", ""));
+        assertEquals("error from worker\n", text(err).replace("\r", ""));
+        assertEquals("", text(original));
+    }
+
+    @Test
+    public void threadsWhichOutliveTheirToolWriteToTheOriginalStreams() throws Exception {
+        final ByteArrayOutputStream first = new ByteArrayOutputStream();
+        final ByteArrayOutputStream second = new ByteArrayOutputStream();
+        final CountDownLatch returned = new CountDownLatch(1);
+        final CountDownLatch written = new CountDownLatch(1);
+
+        //The second tool keeps the system streams replaced, while the thread left behind by the first tool writes
+        ExecuteToolAction.runRouted(print(second), print(new ByteArrayOutputStream()), () -> {
+            final Thread other = new Thread(() -> {
+                try {
+                    ExecuteToolAction.runRouted(print(first), print(new ByteArrayOutputStream()), () -> {
+                        final Thread lingering = new Thread(() -> {
+                            try {
+                                returned.await();
+                            } catch (InterruptedException e) {
+                                Thread.currentThread().interrupt();
+                            }
+                            System.out.println("after the tool");
+                            written.countDown();
+                        });
+                        lingering.setDaemon(true);
+                        lingering.start();
+                    });
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+            });
+            other.start();
+            other.join();
+
+            returned.countDown();
+            assertTrue(written.await(10, TimeUnit.SECONDS));
+        });
+
+        assertEquals("", text(first));
+        assertEquals("", text(second));
+        assertEquals("after the tool\n", text(original).replace("\r", ""));
+    }
+
+    @Test
+    public void originalStreamsAreRestoredOnceTheToolReturns() throws Exception {
+        final PrintStream before = System.out;
+
+        ExecuteToolAction.runRouted(print(new ByteArrayOutputStream()), print(new ByteArrayOutputStream()), () -> {});
+
+        assertSame(before, System.out);
+    }
+
+    private static PrintStream print(ByteArrayOutputStream stream) {
+        return new PrintStream(stream, true, StandardCharsets.UTF_8);
+    }
+
+    private static String text(ByteArrayOutputStream stream) {
+        return stream.toString(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,148 @@
+package net.neoforged.gradle.common.services.caching.cache;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class DirectoryCacheTest {
+
+    @TempDir
+    File root;
+
+    @Test
+    public void restoringALoadedDirectoryRecreatesItsContent() throws IOException {
+        final File source = createOutput("source");
+        final DirectoryCache cache = new DirectoryCache(new File(root, "entry"), store());
+        cache.loadFrom(source);
+
+        final File target = new File(root, "target");
+        assertTrue(cache.restoreTo(target));
+
+        assertEquals("a", Files.readString(new File(target, "a.txt").toPath()));
+        assertEquals("b", Files.readString(new File(target, "nested/b.txt").toPath()));
+        assertTrue(new File(target, "empty").isDirectory());
+    }
+
+    @Test
+    public void restoringTwiceIsConsideredEqual() throws IOException {
+        final File source = createOutput("source");
+        final DirectoryCache cache = new DirectoryCache(new File(root, "entry"), store());
+        cache.loadFrom(source);
+
+        final File target = new File(root, "target");
+        assertTrue(cache.restoreTo(target));
+        assertFalse(cache.restoreTo(target));
+    }
+
+    @Test
+    public void modifiedTargetIsRestoredAgain() throws IOException {
+        final File source = createOutput("source");
+        final DirectoryCache cache = new DirectoryCache(new File(root, "entry"), store());
+        cache.loadFrom(source);
+
+        final File target = new File(root, "target");
+        cache.restoreTo(target);
+        Files.writeString(new File(target, "extra.txt").toPath(), "extra");
+
+        assertTrue(cache.restoreTo(target));
+        assertFalse(new File(target, "extra.txt").exists());
+    }
+
+    @Test
+    public void identicalContentIsStoredOnce() throws IOException {
+        final ContentAddressedStore store = store();
+        new DirectoryCache(new File(root, "first"), store).loadFrom(createOutput("source"));
+        new DirectoryCache(new File(root, "second"), store).loadFrom(createOutput("other"));
+
+        final File[] buckets = new File(root, ContentAddressedStore.DIRECTORY_NAME).listFiles();
+        int blobs = 0;
+        for (File bucket : buckets) {
+            blobs += bucket.list((directory, name) -> !name.contains(".")).length;
+        }
+        assertEquals(2, blobs);
+    }
+
+    @Test
+    public void legacyEntriesAreMigrated() throws IOException {
+        final File entry = new File(root, "entry");
+        Files.createDirectories(entry.toPath());
+        Files.move(createOutput("source").toPath(), new File(entry, "output").toPath());
+
+        final File target = new File(root, "target");
+        final DirectoryCache cache = new DirectoryCache(entry, store());
+        assertTrue(cache.restoreTo(target));
+
+        assertEquals("b", Files.readString(new File(target, "nested/b.txt").toPath()));
+        assertFalse(new File(entry, "output").exists());
+        assertTrue(new File(entry, CacheManifest.FILE_NAME).exists());
+    }
+
+    @Test
+    public void rewritingARestoredFileDoesNotChangeTheStore() throws IOException {
+        final File source = createOutput("source");
+        final DirectoryCache cache = new DirectoryCache(new File(root, "entry"), store());
+        cache.loadFrom(source);
+
+        final File first = new File(root, "first");
+        cache.restoreTo(first);
+        Files.writeString(new File(first, "a.txt").toPath(), "rewritten");
+
+        final File second = new File(root, "second");
+        assertTrue(cache.restoreTo(second));
+        assertEquals("a", Files.readString(new File(second, "a.txt").toPath()));
+        assertTrue(cache.restoreTo(first));
+        assertEquals("a", Files.readString(new File(first, "a.txt").toPath()));
+    }
+
+    @Test
+    public void linkedFilesAreReadOnly() throws IOException {
+        final File source = createOutput("source");
+        final DirectoryCache cache = new DirectoryCache(new File(root, "entry"), new ContentAddressedStore(new File(root, ContentAddressedStore.DIRECTORY_NAME), true, null));
+        cache.loadFrom(source);
+
+        final File target = new File(root, "target");
+        assertTrue(cache.restoreTo(target));
+        assertTrue(ContentAddressedStore.isReadOnly(new File(target, "a.txt").toPath()));
+        assertFalse(cache.restoreTo(target));
+    }
+
+    @Test
+    public void largeCopiedFilesAreWritable() throws IOException {
+        final File source = new File(root, "source");
+        Files.createDirectories(source.toPath());
+        final byte[] content = new byte[2 * 1024 * 1024];
+        content[content.length - 1] = 1;
+        Files.write(new File(source, "large.bin").toPath(), content);
+
+        final DirectoryCache cache = new DirectoryCache(new File(root, "entry"), store());
+        cache.loadFrom(source);
+
+        //Cloned where the file system supports it, copied otherwise
+        final File target = new File(root, "target");
+        assertTrue(cache.restoreTo(target));
+        assertArrayEquals(content, Files.readAllBytes(new File(target, "large.bin").toPath()));
+        assertFalse(ContentAddressedStore.isReadOnly(new File(target, "large.bin").toPath()));
+        assertFalse(cache.restoreTo(target));
+    }
+
+    private ContentAddressedStore store() {
+        return new ContentAddressedStore(new File(root, ContentAddressedStore.DIRECTORY_NAME));
+    }
+
+    private File createOutput(String name) throws IOException {
+        final File output = new File(root, name);
+        Files.createDirectories(new File(output, "nested").toPath());
+        Files.createDirectories(new File(output, "empty").toPath());
+        Files.writeString(new File(output, "a.txt").toPath(), "a");
+        Files.writeString(new File(output, "nested/b.txt").toPath(), "b");
+        return output;
+    }
+}
@@ -0,0 +1,118 @@
+package net.neoforged.gradle.common.services.caching.eviction;
+
+import net.neoforged.gradle.common.services.caching.locking.IOControlledFileBasedLock;
+import net.neoforged.gradle.common.services.caching.locking.LockManager;
+import net.neoforged.gradle.common.services.caching.logging.CacheLogger;
+import org.gradle.api.logging.Logging;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CacheEvictorTest {
+
+    private static final CacheLogger LOGGER = new CacheLogger(Logging.getLogger(CacheEvictorTest.class), "test", false, false);
+
+    @TempDir
+    File cacheDirectory;
+
+    @Test
+    public void cacheWithinBudgetIsNotEvicted() throws IOException {
+        final File first = createEntry("first", 1000, "");
+        final File second = createEntry("second", 2000, "");
+
+        final int evicted = new CacheEvictor(cacheDirectory, 2, LOGGER).evict();
+
+        assertEquals(0, evicted);
+        assertTrue(first.exists());
+        assertTrue(second.exists());
+    }
+
+    @Test
+    public void leastRecentlyUsedEntriesAreEvicted() throws IOException {
+        final File oldest = createEntry("oldest", 1000, "");
+        final File middle = createEntry("middle", 2000, "");
+        final File newest = createEntry("newest", 3000, "");
+
+        final int evicted = new CacheEvictor(cacheDirectory, 1, LOGGER).evict();
+
+        assertEquals(2, evicted);
+        assertFalse(oldest.exists());
+        assertFalse(middle.exists());
+        assertTrue(newest.exists());
+    }
+
+    @Test
+    public void entriesLockedByLiveProcessAreNotEvicted() throws IOException {
+        final long livePid = ProcessHandle.current().parent().map(ProcessHandle::pid).orElseThrow();
+        final File locked = createEntry("locked", 1000, String.valueOf(livePid));
+        final File unlocked = createEntry("unlocked", 2000, "");
+        final File newest = createEntry("newest", 3000, "");
+
+        final int evicted = new CacheEvictor(cacheDirectory, 2, LOGGER).evict();
+
+        assertEquals(1, evicted);
+        assertTrue(locked.exists());
+        assertFalse(unlocked.exists());
+        assertTrue(newest.exists());
+    }
+
+    @Test
+    public void directoriesWithoutLockAreIgnored() throws IOException {
+        final File unrelated = new File(cacheDirectory, "unrelated");
+        Files.createDirectories(unrelated.toPath());
+        final File entry = createEntry("entry", 1000, "");
+
+        final int evicted = new CacheEvictor(cacheDirectory, 1, LOGGER).evict();
+
+        assertEquals(0, evicted);
+        assertTrue(unrelated.exists());
+        assertTrue(entry.exists());
+    }
+
+    @Test
+    public void nonPositiveBudgetDisablesEviction() throws IOException {
+        final File entry = createEntry("entry", 1000, "");
+
+        final int evicted = new CacheEvictor(cacheDirectory, 0, LOGGER).evict();
+
+        assertEquals(0, evicted);
+        assertTrue(entry.exists());
+    }
+
+    @Test
+    public void lockingDoesNotChangeTheAccessTime() throws Exception {
+        final File used = createEntry("used", 2000, "");
+        final File locked = createEntry("locked", 1000, "");
+
+        //Rewrites the lock file of the entry, which must not make it the most recently used one
+        new IOControlledFileBasedLock(new File(locked, LockManager.LOCK_FILE_NAME), LOGGER).close();
+
+        final int evicted = new CacheEvictor(cacheDirectory, 1, LOGGER).evict();
+
+        assertEquals(1, evicted);
+        assertTrue(used.exists());
+        assertFalse(locked.exists());
+    }
+
+    private File createEntry(String name, long lastAccess, String lockContent) throws IOException {
+        final File entry = new File(cacheDirectory, name);
+        Files.createDirectories(entry.toPath());
+        Files.writeString(new File(entry, "output").toPath(), name);
+        Files.createFile(new File(entry, IOControlledFileBasedLock.HEALTHY_FILE_NAME).toPath());
+
+        final File lockFile = new File(entry, LockManager.LOCK_FILE_NAME);
+        Files.writeString(lockFile.toPath(), lockContent);
+
+        final File accessFile = new File(entry, IOControlledFileBasedLock.ACCESS_FILE_NAME);
+        Files.createFile(accessFile.toPath());
+        assertTrue(accessFile.setLastModified(lastAccess));
+        return entry;
+    }
+}
@@ -0,0 +1,109 @@
+package net.neoforged.gradle.common.util;
+
+import net.minecraftforge.srgutils.IMappingBuilder;
+import net.minecraftforge.srgutils.IMappingFile;
+import net.neoforged.gradle.util.CompiledMappingCache;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CacheableIMappingFileTest {
+
+    @TempDir
+    public File directory;
+
+    @Test
+    public void deserializedMappingsMatchTheOriginalMappings() throws Exception {
+        final IMappingFile mappings = createMappings();
+
+        final IMappingFile deserialized = deserialize(serialize(new CacheableIMappingFile(mappings, cache())));
+
+        assertEquals("net/minecraft/Foo", deserialized.remapClass("a"));
+        assertEquals("m_3_", deserialized.getClass("a").remapMethod("a", "(ILa;)V"));
+        assertEquals("p_3_0_", deserialized.getClass("a").getMethod("a", "(ILa;)V").remapParameter(0, "o"));
+    }
+
+    @Test
+    public void equalMappingsAreSerializedIdentically() throws Exception {
+        final byte[] first = serialize(new CacheableIMappingFile(createMappings(), cache()));
+        final byte[] second = serialize(new CacheableIMappingFile(createMappings(), cache()));
+
+        assertArrayEquals(first, second);
+        //A deserialized value which was not used yet is serialized again as it was
+        assertArrayEquals(first, serialize(deserialize(first)));
+    }
+
+    @Test
+    public void onlyTheReferenceToTheCompiledMappingsIsSerialized() throws Exception {
+        final byte[] data = serialize(new CacheableIMappingFile(createMappings(), cache()));
+
+        final File[] compiled = new File(directory, "cache").listFiles();
+        assertEquals(1, compiled.length);
+        assertTrue(data.length < compiled[0].length() + 512);
+        assertTrue(new String(data, StandardCharsets.ISO_8859_1).contains(compiled[0].getAbsolutePath()));
+    }
+
+    @Test
+    public void evictedMappingsFailClearly() throws Exception {
+        final byte[] data = serialize(new CacheableIMappingFile(createMappings(), cache()));
+        for (File compiled : new File(directory, "cache").listFiles()) {
+            Files.delete(compiled.toPath());
+        }
+
+        final IMappingFile deserialized = deserialize(data);
+
+        final IllegalStateException exception = assertThrows(IllegalStateException.class, () -> deserialized.remapClass("a"));
+        assertTrue(exception.getMessage().contains("no longer exist"));
+    }
+
+    @Test
+    public void corruptedMappingsAreRejected() throws Exception {
+        final byte[] data = serialize(new CacheableIMappingFile(createMappings(), cache()));
+        for (File compiled : new File(directory, "cache").listFiles()) {
+            Files.write(compiled.toPath(), new byte[] { 1, 2, 3 });
+        }
+
+        final IMappingFile deserialized = deserialize(data);
+
+        assertThrows(IllegalStateException.class, () -> deserialized.remapClass("a"));
+    }
+
+    private CompiledMappingCache cache() {
+        return new CompiledMappingCache(new File(directory, "cache"));
+    }
+
+    private static IMappingFile createMappings() {
+        final IMappingBuilder builder = IMappingBuilder.create("left", "right");
+        final IMappingBuilder.IClass foo = builder.addClass("a", "net/minecraft/Foo");
+        foo.field("a", "f_1_").descriptor("I");
+        foo.method("(ILa;)V", "a", "m_3_").parameter(0, "o", "p_3_0_");
+        return builder.build().getMap("left", "right");
+    }
+
+    private static byte[] serialize(Object value) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(value);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static IMappingFile deserialize(byte[] data) throws IOException, ClassNotFoundException {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(data))) {
+            return (IMappingFile) in.readObject();
+        }
+    }
+}
@@ -4,9 +4,9 @@ import com.google.common.collect.Lists
 import groovy.transform.CompileStatic
 import net.minecraftforge.gdi.annotations.DefaultMethods
 import net.neoforged.gradle.dsl.common.tasks.specifications.ExecuteSpecification
+import net.neoforged.gradle.dsl.common.util.LoggerOutputStream
 import net.neoforged.gradle.dsl.common.util.RegexUtils
 import org.gradle.api.file.FileTree
-import org.gradle.api.logging.Logger
 import org.gradle.api.provider.Provider
 import org.gradle.api.tasks.TaskAction
 import org.gradle.process.JavaExecSpec
@@ -154,47 +154,17 @@ interface Execute extends WithWorkspace, WithOutput, WithJavaVersion, ExecuteSpe
                 target.write(b);
             }
         }
-    }
-
-    private static final class LoggerOutputStream
-            extends OutputStream {
-        private final ByteArrayOutputStream baos = new ByteArrayOutputStream(1000)
-        private final Logger logger
-        private final ExecuteSpecification.LogLevel level
 
-        LoggerOutputStream(Logger logger, ExecuteSpecification.LogLevel level) {
-            this.logger = logger
-            this.level = level
+        @Override
+        void write(byte[] b, int off, int len) throws IOException {
+            if (shouldLog) {
+                target.write(b, off, len);
+            }
         }
 
         @Override
-        void write(int b) {
-            if (level == ExecuteSpecification.LogLevel.DISABLED) return
-
-            if (((char) b) == '\n') {
-                String line = baos.toString()
-                baos.reset()
-
-                switch (level) {
-                    case ExecuteSpecification.LogLevel.TRACE:
-                        logger.trace(line)
-                        break
-                    case ExecuteSpecification.LogLevel.DEBUG:
-                        logger.debug(line)
-                        break
-                    case ExecuteSpecification.LogLevel.ERROR:
-                        logger.error(line)
-                        break
-                    case ExecuteSpecification.LogLevel.INFO:
-                        logger.info(line)
-                        break
-                    case ExecuteSpecification.LogLevel.WARN:
-                        logger.warn(line)
-                        break
-                }
-            } else {
-                baos.write(b)
-            }
+        void flush() throws IOException {
+            target.flush();
         }
     }
 }
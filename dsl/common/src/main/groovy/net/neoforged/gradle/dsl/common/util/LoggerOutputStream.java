@@ -0,0 +1,181 @@
+package net.neoforged.gradle.dsl.common.util;
+
+import net.neoforged.gradle.dsl.common.tasks.specifications.ExecuteSpecification;
+import org.gradle.api.logging.Logger;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * An output stream which logs every line written to it, with the given log level.
+ * <p>
+ * Lines are split on byte ranges, and handed to a background thread which does the actual logging,
+ * so that a tool which prints a lot is not slowed down by the logger.
+ * Nothing is collected when the logger does not log the level anyway.
+ * <p>
+ * Used for the error output of tools, regardless of whether they are forked, run in a worker or in a tool daemon.
+ */
+public final class LoggerOutputStream extends OutputStream {
+    private final ByteArrayOutputStream baos = new ByteArrayOutputStream(1000);
+    private final boolean enabled;
+    private final AsyncLogSink sink;
+
+    public LoggerOutputStream(Logger logger, ExecuteSpecification.LogLevel level) {
+        this.enabled = isEnabled(logger, level);
+        this.sink = enabled ? new AsyncLogSink(logger, level) : null;
+    }
+
+    private static boolean isEnabled(Logger logger, ExecuteSpecification.LogLevel level) {
+        return switch (level) {
+            case TRACE -> logger.isTraceEnabled();
+            case DEBUG -> logger.isDebugEnabled();
+            case INFO -> logger.isInfoEnabled();
+            case WARN -> logger.isWarnEnabled();
+            case ERROR -> logger.isErrorEnabled();
+            default -> false;
+        };
+    }
+
+    @Override
+    public void write(int b) {
+        if (!enabled) return;
+
+        if (((char) b) == '\n') {
+            emitLine();
+        } else {
+            baos.write(b);
+        }
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+        if (!enabled) return;
+
+        final int end = off + len;
+        int start = off;
+        for (int i = off; i < end; i++) {
+            if (b[i] == '\n') {
+                baos.write(b, start, i - start);
+                emitLine();
+                start = i + 1;
+            }
+        }
+        baos.write(b, start, end - start);
+    }
+
+    private void emitLine() {
+        final String line = baos.toString();
+        baos.reset();
+        sink.log(line);
+    }
+
+    /**
+     * Waits until all lines written so far are logged.
+     */
+    @Override
+    public void close() {
+        if (sink != null) {
+            sink.close();
+        }
+    }
+
+    /**
+     * Logs lines on a background thread, through a bounded queue.
+     * When the queue is full, trace and debug lines are dropped and counted, instead of slowing down the tool.
+     * All other lines wait for space in the queue, but only as long as the background thread is still logging,
+     * if it died they are dropped as well instead of blocking the tool forever.
+     */
+    private static final class AsyncLogSink {
+        private static final int CAPACITY = 4096;
+        private static final long WAIT_MILLIS = 100;
+        @SuppressWarnings("StringOperationCanBeSimplified") //The marker is compared by identity
+        private static final String END = new String("<end>");
+
+        private final BlockingQueue<String> queue = new ArrayBlockingQueue<>(CAPACITY);
+        private final AtomicLong dropped = new AtomicLong();
+        private final Logger logger;
+        private final ExecuteSpecification.LogLevel level;
+        private final boolean mayDrop;
+        private final Thread thread;
+
+        private AsyncLogSink(Logger logger, ExecuteSpecification.LogLevel level) {
+            this.logger = logger;
+            this.level = level;
+            this.mayDrop = level == ExecuteSpecification.LogLevel.TRACE || level == ExecuteSpecification.LogLevel.DEBUG;
+            this.thread = new Thread(this::drain, "execute-log-sink");
+            this.thread.setDaemon(true);
+            this.thread.start();
+        }
+
+        private void log(String line) {
+            if (!offer(line, !mayDrop)) {
+                dropped.incrementAndGet();
+            }
+        }
+
+        private boolean offer(String line, boolean wait) {
+            if (queue.offer(line)) {
+                return true;
+            }
+            if (!wait) {
+                return false;
+            }
+
+            try {
+                while (thread.isAlive()) {
+                    if (queue.offer(line, WAIT_MILLIS, TimeUnit.MILLISECONDS)) {
+                        return true;
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return false;
+        }
+
+        private void drain() {
+            try {
+                while (true) {
+                    final String line = queue.take();
+                    final long droppedLines = dropped.getAndSet(0);
+                    if (droppedLines > 0) {
+                        emit("... %d lines were dropped, as the tool printed faster than they could be logged ...".formatted(droppedLines));
+                    }
+                    //noinspection StringEquality
+                    if (line == END) {
+                        return;
+                    }
+                    emit(line);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private void emit(String line) {
+            switch (level) {
+                case TRACE -> logger.trace(line);
+                case DEBUG -> logger.debug(line);
+                case INFO -> logger.info(line);
+                case WARN -> logger.warn(line);
+                case ERROR -> logger.error(line);
+            }
+        }
+
+        private void close() {
+            if (!offer(END, true)) {
+                return;
+            }
+
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
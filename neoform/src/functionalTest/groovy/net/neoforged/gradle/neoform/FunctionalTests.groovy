@@ -4,6 +4,8 @@ package net.neoforged.gradle.neoform
 import net.neoforged.trainingwheels.gradle.functional.BuilderBasedTestSpecification
 import org.gradle.testkit.runner.TaskOutcome
 
+import java.security.MessageDigest
+
 class FunctionalTests extends BuilderBasedTestSpecification {
 
     private static final String NEOFORM_VERSION = "1.20.2-20230921.152923"
@@ -158,5 +160,46 @@ class FunctionalTests extends BuilderBasedTestSpecification {
         secondRun.task(':neoFormRecompile').outcome == TaskOutcome.FROM_CACHE
     }
 
+    def "verifying the assets again replaces a corrupted asset"() {
+        given:
+        def project = create "neoform-verifies-assets", {
+            it.build("""
+            java {
+                toolchain {
+                    languageVersion = JavaLanguageVersion.of(17)
+                }
+            }
+            
+            dependencies {
+                implementation 'net.minecraft:neoform_client:${NEOFORM_VERSION}'
+            }
+            
+            println "Asset objects: " + new File(gradle.gradleUserHomeDir, 'caches/minecraft/assets/objects').absolutePath
+            """)
+            it.withToolchains()
+            it.withGlobalCacheDirectory(tempDir)
+        }
+
+        when:
+        def run = project.run {
+            it.tasks(':neoFormDownloadAssets', '--verify-assets')
+        }
+
+        then:
+        run.task(':neoFormDownloadAssets').outcome == TaskOutcome.SUCCESS
+
+        when:
+        //Keep the size of the object, so that only its content tells that it is corrupted
+        def objects = new File((run.output =~ /Asset objects: (.+)/)[0][1].trim())
+        def object = objects.listFiles().find { it.isDirectory() }.listFiles().first()
+        object.bytes = new byte[object.length()]
 
+        def secondRun = project.run {
+            it.tasks(':neoFormDownloadAssets', '--verify-assets')
+        }
+
+        then:
+        secondRun.task(':neoFormDownloadAssets').outcome == TaskOutcome.SUCCESS
+        MessageDigest.getInstance("SHA-1").digest(object.bytes).encodeHex().toString() == object.name
+    }
 }
@@ -0,0 +1,243 @@
+package net.neoforged.gradle.neoform
+
+
+import net.neoforged.trainingwheels.gradle.functional.BuilderBasedTestSpecification
+import org.gradle.testkit.runner.TaskOutcome
+
+class MultiProjectTests extends BuilderBasedTestSpecification {
+
+    private static final String NEOFORM_VERSION = "1.20.2-20230921.152923"
+
+    @Override
+    protected void configurePluginUnderTest() {
+        pluginUnderTest = "net.neoforged.gradle.neoform"
+        injectIntoRootProject = true
+    }
+
+    def "projects with the same neoform runtime share its step tasks"() {
+        given:
+        def rootProject = createProjectsWithTheSameRuntime("multi_neoform_shared_runtime")
+
+        when:
+        def run = rootProject.run {
+            it.tasks(':first:compileJava', ':second:compileJava')
+        }
+
+        then:
+        run.task(':first:compileJava').outcome == TaskOutcome.SUCCESS || run.task(':first:compileJava').outcome == TaskOutcome.NO_SOURCE
+        run.task(':second:compileJava').outcome == TaskOutcome.SUCCESS || run.task(':second:compileJava').outcome == TaskOutcome.NO_SOURCE
+
+        //Only the project which baked the runtime first owns the step tasks, the other one consumes their outputs
+        [':first:neoFormDecompile', ':second:neoFormDecompile'].count { run.task(it) != null } == 1
+        [':first:neoFormRecompile', ':second:neoFormRecompile'].count { run.task(it) != null } == 1
+    }
+
+    def "the minecraft metadata of a shared version is parsed once per build"() {
+        given:
+        def rootProject = createProjectsWithTheSameRuntime("multi_neoform_shared_metadata")
+
+        when:
+        def run = rootProject.run {
+            it.tasks(':first:compileJava', ':second:compileJava', '--debug')
+        }
+
+        then:
+        def parsed = run.output.findAll(~/Parsed (\S+\.json) in \d+ ms/) { match, file -> file }
+        !parsed.isEmpty()
+        parsed.size() == parsed.toSet().size()
+    }
+
+    def "the version manifest is only looked up when its task runs"() {
+        given:
+        def rootProject = createProjectsWithTheSameRuntime("multi_neoform_lazy_manifest")
+
+        when:
+        def configuration = rootProject.run {
+            it.tasks('help')
+        }
+
+        then:
+        configuration.task(':cacheLauncherMetadata') == null
+        !configuration.file(".gradle/caches/minecraft/launcher_metadata.json").exists()
+
+        when:
+        def run = rootProject.run {
+            it.tasks(':cacheVersionManifest1.20.2')
+        }
+
+        then:
+        run.task(':cacheLauncherMetadata').outcome == TaskOutcome.SUCCESS
+        run.task(':cacheVersionManifest1.20.2').outcome == TaskOutcome.SUCCESS
+        run.file(".gradle/caches/minecraft/versions/1.20.2/metadata.json").exists()
+    }
+
+    def "the download tasks of a shared version are registered once, in the root project"() {
+        given:
+        def rootProject = createProjectsWithTheSameRuntime("multi_neoform_shared_downloads")
+
+        when:
+        def run = rootProject.run {
+            it.tasks(':first:compileJava', ':second:compileJava')
+        }
+
+        then:
+        run.task(':cacheLauncherMetadata') != null
+        run.task(':cacheVersionManifest1.20.2') != null
+        [':first', ':second'].every { project ->
+            run.task("${project}:cacheLauncherMetadata") == null && run.task("${project}:cacheVersionManifest1.20.2") == null
+        }
+    }
+
+    def "a tool used by several projects is resolved once per build"() {
+        given:
+        def rootProject = create("multi_neoform_shared_tools", {
+            it.build("""
+            java {
+                toolchain {
+                    languageVersion = JavaLanguageVersion.of(17)
+                }
+            }
+            """)
+            it.withToolchains()
+            it.withGlobalCacheDirectory(tempDir)
+        })
+
+        //Access transformers keep the runtimes apart, so that both projects run their own access transformer task with the same tool
+        ['first', 'second'].each { subproject ->
+            create(rootProject, subproject, {
+                it.build("""
+                java {
+                    toolchain {
+                        languageVersion = JavaLanguageVersion.of(17)
+                    }
+                }
+
+                minecraft {
+                    accessTransformers {
+                        entry "public net.minecraft.client.Minecraft LOGGER # searchRegistry"
+                    }
+                }
+
+                dependencies {
+                    implementation 'net.minecraft:neoform_client:${NEOFORM_VERSION}'
+                }
+                """)
+                it.withToolchains()
+                it.withGlobalCacheDirectory(tempDir)
+                it.plugin(this.pluginUnderTest)
+            })
+        }
+
+        when:
+        def run = rootProject.run {
+            it.tasks(':first:compileJava', ':second:compileJava', '--debug')
+        }
+
+        then:
+        def resolved = run.output.findAll(~/Resolving tool (\S+)/) { match, tool -> tool }
+        resolved.any { it.contains('jst') }
+        resolved.size() == resolved.toSet().size()
+    }
+
+    def "projects with access transformers do not share their neoform runtime"() {
+        given:
+        def rootProject = create("multi_neoform_unshared_runtime", {
+            it.build("""
+            java {
+                toolchain {
+                    languageVersion = JavaLanguageVersion.of(17)
+                }
+            }
+            """)
+            it.withToolchains()
+            it.withGlobalCacheDirectory(tempDir)
+        })
+
+        create(rootProject, "plain", {
+            it.build("""
+            java {
+                toolchain {
+                    languageVersion = JavaLanguageVersion.of(17)
+                }
+            }
+
+            dependencies {
+                implementation 'net.minecraft:neoform_client:${NEOFORM_VERSION}'
+            }
+            """)
+            it.withToolchains()
+            it.withGlobalCacheDirectory(tempDir)
+            it.plugin(this.pluginUnderTest)
+        })
+
+        create(rootProject, "transformed", {
+            it.build("""
+            java {
+                toolchain {
+                    languageVersion = JavaLanguageVersion.of(17)
+                }
+            }
+
+            minecraft {
+                accessTransformers {
+                    entry "public net.minecraft.client.Minecraft LOGGER # searchRegistry"
+                }
+            }
+
+            dependencies {
+                implementation 'net.minecraft:neoform_client:${NEOFORM_VERSION}'
+            }
+            """)
+            it.withToolchains()
+            it.withGlobalCacheDirectory(tempDir)
+            it.plugin(this.pluginUnderTest)
+        })
+
+        when:
+        def run = rootProject.run {
+            it.tasks(':plain:compileJava', ':transformed:compileJava')
+        }
+
+        then:
+        run.task(':plain:neoFormRecompile') != null
+        run.task(':transformed:neoFormRecompile') != null
+    }
+
+    /**
+     * Creates a root project with two subprojects, first and second, which both depend on the same NeoForm runtime.
+     */
+    private def createProjectsWithTheSameRuntime(String name) {
+        def rootProject = create(name, {
+            it.build("""
+            java {
+                toolchain {
+                    languageVersion = JavaLanguageVersion.of(17)
+                }
+            }
+            """)
+            it.withToolchains()
+            it.withGlobalCacheDirectory(tempDir)
+        })
+
+        ['first', 'second'].each { subproject ->
+            create(rootProject, subproject, {
+                it.build("""
+                java {
+                    toolchain {
+                        languageVersion = JavaLanguageVersion.of(17)
+                    }
+                }
+
+                dependencies {
+                    implementation 'net.minecraft:neoform_client:${NEOFORM_VERSION}'
+                }
+                """)
+                it.withToolchains()
+                it.withGlobalCacheDirectory(tempDir)
+                it.plugin(this.pluginUnderTest)
+            })
+        }
+
+        return rootProject
+    }
+}
@@ -7,6 +7,7 @@ import net.neoforged.gradle.common.runtime.naming.renamer.IMappingFileSourceRena
 import net.neoforged.gradle.common.runtime.naming.renamer.ISourceRenamer;
 import net.neoforged.gradle.common.runtime.naming.tasks.ApplyMappingsToSourceJar;
 import net.neoforged.gradle.common.runtime.naming.tasks.ApplyOfficialMappingsToCompiledJar;
+import net.neoforged.gradle.common.services.mappings.CompiledMappingCacheService;
 import net.neoforged.gradle.common.tasks.WriteIMappingsFile;
 import net.neoforged.gradle.common.util.CacheableIMappingFile;
 import net.neoforged.gradle.dsl.common.extensions.Minecraft;
@@ -85,6 +86,7 @@ public final class NeoFormOfficialNamingChannelConfigurator {
             spec.getParameters().getMappingsFilePath().set(neoformRuntimeDefinition.getNeoFormConfig().getData("mappings"));
         });
 
+        final Provider<CompiledMappingCacheService> mappingCache = CompiledMappingCacheService.register(context.getProject());
         applySourceMappingsTask.configure(task -> {
             if (task instanceof ApplyMappingsToSourceJar) {
                 final ApplyMappingsToSourceJar applyMappingsToSourceJar = (ApplyMappingsToSourceJar) task;
@@ -95,9 +97,9 @@ public final class NeoFormOfficialNamingChannelConfigurator {
                                         context.getServerMappings()
                                                 .flatMap(WithOutput::getOutput)
                                                 .zip(neoformMappings, (BiFunction<RegularFile, File, ISourceRenamer>) (serverMappings, neoformMappingsFile) -> {
-                                                    final IMappingFile clientMappingFile = IMappingFileUtils.load(clientMappings.getAsFile()).reverse();
-                                                    final IMappingFile serverMappingFile = IMappingFileUtils.load(serverMappings.getAsFile()).reverse();
-                                                    final IMappingFile mcpConfigMappings = IMappingFileUtils.load(neoformMappingsFile);
+                                                    final IMappingFile clientMappingFile = IMappingFileUtils.load(clientMappings.getAsFile(), mappingCache.get().getCache()).reverse();
+                                                    final IMappingFile serverMappingFile = IMappingFileUtils.load(serverMappings.getAsFile(), mappingCache.get().getCache()).reverse();
+                                                    final IMappingFile mcpConfigMappings = IMappingFileUtils.load(neoformMappingsFile, mappingCache.get().getCache());
                                                     final IMappingFile reversedMcpConfigMappings = mcpConfigMappings.reverse();
                                                     return IMappingFileSourceRenamer.from(
                                                             reversedMcpConfigMappings.chain(clientMappingFile).reverse(),
@@ -156,14 +158,15 @@ public final class NeoFormOfficialNamingChannelConfigurator {
             spec.getParameters().getMappingsFilePath().set(neoformRuntimeDefinition.getNeoFormConfig().getData("mappings"));
         });
 
+        final Provider<CompiledMappingCacheService> mappingCache = CompiledMappingCacheService.register(context.getProject());
         final TaskProvider<? extends Runtime> reverseMappingsTask = context.getProject().getTasks().register(context.getTaskNameBuilder().apply(String.format("combineMappingsFor%s", StringUtils.capitalize(context.getEnvironmentName()))), WriteIMappingsFile.class, task -> {
             task.getMappings().set(
                     context.getClientMappings()
                             .flatMap(WithOutput::getOutput)
                             .zip(neoformMappings, (clientMappingsFile, neoformMappingsFile) -> {
-                                final IMappingFile neoformConfigMappings = IMappingFileUtils.load(neoformMappingsFile); // OBF -> OBF + PARAM
-                                final IMappingFile clientMappingFile = IMappingFileUtils.load(clientMappingsFile.getAsFile()).reverse(); // MOJ -> OBF, reversing so that it becomes OBF -> MOJ
-                                return new CacheableIMappingFile(neoformConfigMappings.rename(makeRenamer(clientMappingFile, true, true, true, false)));//OBF -> OBF + PARAM -> MOJ + PARAM
+                                final IMappingFile neoformConfigMappings = IMappingFileUtils.load(neoformMappingsFile, mappingCache.get().getCache()); // OBF -> OBF + PARAM
+                                final IMappingFile clientMappingFile = IMappingFileUtils.load(clientMappingsFile.getAsFile(), mappingCache.get().getCache()).reverse(); // MOJ -> OBF, reversing so that it becomes OBF -> MOJ
+                                return new CacheableIMappingFile(neoformConfigMappings.rename(makeRenamer(clientMappingFile, true, true, true, false)), mappingCache.get().getCache());//OBF -> OBF + PARAM -> MOJ + PARAM
                             })
             );
         });
@@ -21,33 +21,42 @@
 package net.neoforged.gradle.neoform.naming.renamer;
 
 import de.siegmar.fastcsv.reader.NamedCsvReader;
-import net.neoforged.gradle.common.runtime.naming.renamer.RegexBasedSourceRenamer;
+import net.neoforged.gradle.common.runtime.naming.renamer.ScanningSourceRenamer;
+import net.neoforged.gradle.common.runtime.naming.renamer.SrgNameTable;
 import org.gradle.api.tasks.Nested;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.BiConsumer;
 import java.util.stream.Collectors;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
 
-public class NeoFormSourceRenamer extends RegexBasedSourceRenamer {
+public class NeoFormSourceRenamer extends ScanningSourceRenamer {
 
     public static NeoFormSourceRenamer from(File data) throws IOException {
         Map<String, String> names = new HashMap<>();
         Map<String, String> docs = new HashMap<>();
+        read(data, names::put, docs);
+        return new NeoFormSourceRenamer(data, names, docs);
+    }
+
+    private static void read(File data, BiConsumer<String, String> names, @Nullable Map<String, String> docs) throws IOException {
         try (ZipFile zip = new ZipFile(data)) {
             List<ZipEntry> entries = zip.stream().filter(e -> e.getName().endsWith(".csv")).collect(Collectors.toList());
             for (ZipEntry entry : entries) {
                 try (NamedCsvReader reader = NamedCsvReader.builder().build(new InputStreamReader(zip.getInputStream(entry)))) {
                     String obf = reader.getHeader().contains("searge") ? "searge" : "param";
-                    boolean hasDesc = reader.getHeader().contains("desc");
+                    boolean hasDesc = docs != null && reader.getHeader().contains("desc");
                     reader.forEach(row -> {
                         String searge = row.getField(obf);
-                        names.put(searge, row.getField("name"));
+                        names.accept(searge, row.getField("name"));
                         if (hasDesc) {
                             String desc = row.getField("desc");
                             if (!desc.isEmpty())
@@ -57,15 +66,17 @@ public class NeoFormSourceRenamer extends RegexBasedSourceRenamer {
                 }
             }
         }
-
-        return new NeoFormSourceRenamer(names, docs);
     }
 
-    private final Map<String, String> names;
+    private final File data;
+
+    @Nullable
+    private volatile Map<String, String> names;
 
     private final Map<String, String> docs;
 
-    private NeoFormSourceRenamer(Map<String, String> names, Map<String, String> docs) {
+    private NeoFormSourceRenamer(File data, Map<String, String> names, Map<String, String> docs) {
+        this.data = data;
         this.names = names;
         this.docs = docs;
     }
@@ -73,6 +84,10 @@ public class NeoFormSourceRenamer extends RegexBasedSourceRenamer {
     @Override
     @Nested
     public Map<String, String> getNames() {
+        final Map<String, String> names = this.names;
+        if (names == null) {
+            throw new IllegalStateException("The names of: %s were released once they were looked up".formatted(data));
+        }
         return names;
     }
 
@@ -81,4 +96,21 @@ public class NeoFormSourceRenamer extends RegexBasedSourceRenamer {
     public Map<String, String> getDocs() {
         return docs;
     }
+
+    @Override
+    protected SrgNameTable createNameTable() {
+        //Read straight from the csv files, so that the map of names can be released
+        final SrgNameTable.Builder builder = new SrgNameTable.Builder();
+        try {
+            read(data, builder::put, null);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read the names of: %s".formatted(data), e);
+        }
+        return builder.build();
+    }
+
+    @Override
+    protected void releaseNames() {
+        names = null;
+    }
 }
@@ -7,6 +7,8 @@ import net.minecraftforge.gdi.ConfigurableDSLElement;
 import net.neoforged.gradle.common.runtime.extensions.CommonRuntimeExtension;
 import net.neoforged.gradle.common.runtime.tasks.DefaultExecute;
 import net.neoforged.gradle.common.runtime.tasks.ListLibraries;
+import net.neoforged.gradle.common.services.metadata.MinecraftMetadataService;
+import net.neoforged.gradle.common.services.runtime.RuntimeRegistryService;
 import net.neoforged.gradle.common.util.ConfigurationUtils;
 import net.neoforged.gradle.common.util.ProjectUtils;
 import net.neoforged.gradle.common.util.ToolUtilities;
@@ -29,8 +31,10 @@ import net.neoforged.gradle.dsl.neoform.configuration.NeoFormConfigConfiguration
 import net.neoforged.gradle.neoform.runtime.definition.NeoFormRuntimeDefinition;
 import net.neoforged.gradle.neoform.runtime.specification.NeoFormRuntimeSpecification;
 import net.neoforged.gradle.neoform.runtime.tasks.*;
+import net.neoforged.gradle.neoform.util.NeoFormAccessTransformerUtils;
 import net.neoforged.gradle.neoform.util.NeoFormRuntimeConstants;
 import net.neoforged.gradle.neoform.util.NeoFormRuntimeUtils;
+import net.neoforged.gradle.util.HashFunction;
 import net.neoforged.gradle.util.TransformerUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.gradle.api.GradleException;
@@ -38,6 +42,7 @@ import org.gradle.api.Project;
 import org.gradle.api.artifacts.Configuration;
 import org.gradle.api.file.FileCollection;
 import org.gradle.api.file.RegularFile;
+import org.gradle.api.plugins.JavaPluginExtension;
 import org.gradle.api.provider.Provider;
 import org.gradle.api.tasks.TaskProvider;
 import org.gradle.api.tasks.compile.AbstractCompile;
@@ -55,6 +60,9 @@ public abstract class NeoFormRuntimeExtension extends CommonRuntimeExtension<Neo
 
     private static final Set<String> DISABLED_STEPS = Sets.newHashSet("downloadManifest", "downloadJson");
 
+    public static final String RUNTIME_PROPERTY_PREFIX = "net.neoforged.gradle.runtime.";
+    public static final String SHARE_RUNTIMES_PROPERTY = RUNTIME_PROPERTY_PREFIX + "share";
+
     @javax.inject.Inject
     public NeoFormRuntimeExtension(Project project) {
         super(project);
@@ -80,7 +88,6 @@ public abstract class NeoFormRuntimeExtension extends CommonRuntimeExtension<Neo
                                                                     NeoFormConfigConfigurationSpecV1.Step step,
                                                                     final Map<String, TaskProvider<? extends WithOutput>> tasks,
                                                                     final Map<GameArtifact, TaskProvider<? extends WithOutput>> gameArtifactTaskProviders,
-                                                                    final MinecraftArtifactCache cache,
                                                                     final Optional<TaskProvider<? extends WithOutput>> adaptedInput) {
         switch (step.getType()) {
             case "decompile":
@@ -98,7 +105,7 @@ public abstract class NeoFormRuntimeExtension extends CommonRuntimeExtension<Neo
             case "listLibraries":
                 return spec.getProject().getTasks().register(CommonRuntimeUtils.buildTaskName(spec, step.getName()), ListLibraries.class, task -> {
                     task.getDownloadedVersionJsonFile()
-                            .fileProvider(cache.cacheVersionManifest(spec.getMinecraftVersion()));
+                            .set(gameArtifactTaskProviders.get(GameArtifact.VERSION_MANIFEST).flatMap(WithOutput::getOutput));
                 });
             case "inject":
                 return spec.getProject().getTasks().register(CommonRuntimeUtils.buildTaskName(spec, step.getName()), InjectZipContent.class, task -> {
@@ -184,7 +191,7 @@ public abstract class NeoFormRuntimeExtension extends CommonRuntimeExtension<Neo
         decompilerArgs.add(0, "-log=" + logLevel);
 
         return spec.getProject().getTasks().register(CommonRuntimeUtils.buildTaskName(spec, step.getName()), DefaultExecute.class, task -> {
-            task.getExecutingJar().set(ToolUtilities.resolveTool(task.getProject(), function.getVersion()));
+            task.getExecutingJar().fileProvider(ToolUtilities.resolveToolLazily(task.getProject(), function.getVersion()));
             task.getJvmArguments().addAll(jvmArgs);
             task.getProgramArguments().addAll(decompilerArgs);
         });
@@ -207,7 +214,7 @@ public abstract class NeoFormRuntimeExtension extends CommonRuntimeExtension<Neo
 
     private TaskProvider<? extends Runtime> createExecute(final NeoFormRuntimeSpecification spec, final NeoFormConfigConfigurationSpecV1.Step step, final NeoFormConfigConfigurationSpecV1.Function function) {
         return spec.getProject().getTasks().register(CommonRuntimeUtils.buildTaskName(spec, step.getName()), DefaultExecute.class, task -> {
-            task.getExecutingJar().set(ToolUtilities.resolveTool(task.getProject(), function.getVersion()));
+            task.getExecutingJar().fileProvider(ToolUtilities.resolveToolLazily(task.getProject(), function.getVersion()));
             task.getJvmArguments().addAll(function.getJvmArgs());
             task.getProgramArguments().addAll(function.getArgs());
         });
@@ -256,7 +263,8 @@ public abstract class NeoFormRuntimeExtension extends CommonRuntimeExtension<Neo
         final MinecraftArtifactCache artifactCache = spec.getProject().getExtensions().getByType(MinecraftArtifactCache.class);
         final Map<GameArtifact, TaskProvider<? extends WithOutput>> gameArtifactTasks = buildDefaultArtifactProviderTasks(spec);
 
-        final Provider<VersionJson> versionJson = artifactCache.cacheVersionManifest(spec.getMinecraftVersion()).map(TransformerUtils.guard(VersionJson::get));
+        final Provider<MinecraftMetadataService> metadataService = MinecraftMetadataService.register(spec.getProject());
+        final Provider<VersionJson> versionJson = artifactCache.cacheVersionManifest(spec.getMinecraftVersion()).map(TransformerUtils.guard(file -> metadataService.get().getVersionJson(file)));
 
         final Configuration minecraftDependenciesConfiguration = ConfigurationUtils.temporaryUnhandledConfiguration(
                 spec.getProject().getConfigurations(),
@@ -305,8 +313,8 @@ public abstract class NeoFormRuntimeExtension extends CommonRuntimeExtension<Neo
                 }),
                 versionJson,
                 neoFormConfig,
-                createDownloadAssetsTasks(spec, versionJson),
-                createExtractNativesTasks(spec, symbolicDataSources, neoFormDirectory, versionJson)
+                createDownloadAssetsTasks(spec, gameArtifactTasks.get(GameArtifact.VERSION_MANIFEST)),
+                createExtractNativesTasks(spec, symbolicDataSources, neoFormDirectory, gameArtifactTasks.get(GameArtifact.VERSION_MANIFEST))
         );
     }
 
@@ -342,6 +350,16 @@ public abstract class NeoFormRuntimeExtension extends CommonRuntimeExtension<Neo
 
         final Map<String, String> symbolicDataSources = buildDataFilesMap(neoFormConfig, spec.getDistribution());
 
+        final Provider<RuntimeRegistryService> runtimeRegistry = RuntimeRegistryService.register(spec.getProject());
+        final String sharingKey = getSharingKey(definition);
+        if (sharingKey != null) {
+            final NeoFormRuntimeDefinition owner = runtimeRegistry.get().getOwner(sharingKey, NeoFormRuntimeDefinition.class);
+            if (owner != null) {
+                shareDefinition(definition, owner);
+                return;
+            }
+        }
+
         final List<NeoFormConfigConfigurationSpecV1.Step> steps = new ArrayList<>(neoFormConfig.getSteps(spec.getDistribution().getName()));
         if (steps.isEmpty()) {
             throw new IllegalArgumentException("Unknown side: " + spec.getDistribution() + " for NeoForm " + definition.getSpecification().getNeoFormVersion());
@@ -380,7 +398,6 @@ public abstract class NeoFormRuntimeExtension extends CommonRuntimeExtension<Neo
                     step,
                     taskOutputs,
                     definition.getGameArtifactProvidingTasks(),
-                    artifactCacheExtension,
                     adaptedInput
             );
 
@@ -493,6 +510,69 @@ public abstract class NeoFormRuntimeExtension extends CommonRuntimeExtension<Neo
             task.getInputFiles().from(packTask.flatMap(WithOutput::getOutput));
             task.dependsOn(packTask);
         });
+
+        if (sharingKey != null) {
+            runtimeRegistry.get().register(sharingKey, definition);
+        }
+    }
+
+    /**
+     * Computes the key under which the given runtime can be shared with other projects of the build.
+     * The key covers every setting of the project which changes the outputs of the runtime.
+     *
+     * @param definition The runtime.
+     * @return The key, or null if the runtime can not be shared.
+     */
+    @Nullable
+    private static String getSharingKey(NeoFormRuntimeDefinition definition) {
+        final NeoFormRuntimeSpecification spec = definition.getSpecification();
+        final Project project = spec.getProject();
+        if (!project.getProviders().gradleProperty(SHARE_RUNTIMES_PROPERTY).map(Boolean::parseBoolean).getOrElse(true)) {
+            return null;
+        }
+
+        //Adapters and customizers are arbitrary code of the project which created the runtime, so their outputs can not be shared
+        //The only exception is the access transformer adapter every runtime gets, as long as the project has no access transformers it does not add a task
+        final boolean onlyEmptyPostTypeAdapters = spec.getPostTypeAdapters().values().stream()
+                .allMatch(adapter -> adapter instanceof NeoFormAccessTransformerUtils.AccessTransformerAdapter accessTransformers && accessTransformers.isEmpty());
+        if (!spec.getPreTaskTypeAdapters().isEmpty() || !onlyEmptyPostTypeAdapters || !spec.getTaskCustomizers().isEmpty()
+                || !spec.getAdditionalRecompileDependencies().isEmpty()) {
+            return null;
+        }
+
+        final Subsystems subsystems = project.getExtensions().getByType(Subsystems.class);
+        final Parchment parchment = subsystems.getParchment();
+        final Mappings mappings = project.getExtensions().getByType(Minecraft.class).getMappings();
+
+        //The versioned name is part of the task names, consumers look up the steps of the owner by them
+        final List<String> components = new ArrayList<>();
+        components.add(spec.getVersionedName());
+        components.add(spec.getVersion());
+        components.add(spec.getDistribution().getName());
+        components.add(mappings.getChannel().get().getName());
+        components.add(new TreeMap<>(definition.getMappingVersionData()).toString());
+        components.add(parchment.getIsEnabled().get() ? parchment.getParchmentArtifact().get() + " " + parchment.getConflictPrefix().get() : "");
+        components.add(subsystems.getTools().getJST().get());
+        components.add(subsystems.getRecompiler().getArgs().get().toString());
+        components.add(project.getExtensions().getByType(JavaPluginExtension.class).getToolchain().getLanguageVersion().map(Object::toString).getOrElse(""));
+        return HashFunction.SHA1.hash(String.join("\n", components));
+    }
+
+    /**
+     * Makes the given runtime consume the outputs of the step tasks of the owning runtime in another project, instead of creating its own.
+     */
+    private static void shareDefinition(NeoFormRuntimeDefinition definition, NeoFormRuntimeDefinition owner) {
+        //The steps of the owner keep their names, so looking up a step of this runtime returns the task of the owner
+        definition.getTasks().putAll(owner.getTasks());
+
+        definition.getSourceJarTask().configure(task -> {
+            task.getInputFiles().from(owner.getSourceJarTask().flatMap(WithOutput::getOutput));
+            task.dependsOn(owner.getSourceJarTask());
+        });
+        definition.getRawJarTask().configure(task -> {
+            task.getInputFiles().from(owner.getRawJarTask().flatMap(WithOutput::getOutput));
+            task.dependsOn(owner.getRawJarTask());
+        });
     }
 
     private static TaskProvider<? extends WithOutput> maybeApplyParchment(NeoFormRuntimeDefinition runtimeDefinition,
@@ -509,15 +589,15 @@ public abstract class NeoFormRuntimeExtension extends CommonRuntimeExtension<Neo
 
         TaskProvider<? extends Runtime> applyParchmentTask = project.getTasks().register(CommonRuntimeUtils.buildTaskName(runtimeDefinition, "applyParchment"), DefaultExecute.class, task -> {
             // Provide the mappings via artifact
-            File mappingFile = ToolUtilities.resolveTool(project, parchment.getParchmentArtifact().get());
+            final Provider<File> mappingFile = ToolUtilities.resolveToolLazily(project, parchment.getParchmentArtifact().get());
             String conflictPrefix = parchment.getConflictPrefix().get();
-            File toolExecutable = ToolUtilities.resolveTool(project, tools.getJST().get());
+            final Provider<File> toolExecutable = ToolUtilities.resolveToolLazily(project, tools.getJST().get());
 
-            task.getArguments().putFile("mappings", project.provider(() -> mappingFile));
+            task.getArguments().putFile("mappings", mappingFile);
             task.getArguments().putRegularFile("libraries", listLibrariesOutput);
             task.getArguments().putRegularFile("input", recompileInput.flatMap(WithOutput::getOutput));
 
-            task.getExecutingJar().set(toolExecutable);
+            task.getExecutingJar().fileProvider(toolExecutable);
             task.getProgramArguments().add("--libraries-list");
             task.getProgramArguments().add("{libraries}");
             task.getProgramArguments().add("--enable-parchment");
@@ -1,5 +1,6 @@
 package net.neoforged.gradle.neoform.runtime.tasks;
 
+import net.neoforged.gradle.util.ZipRewriter;
 import org.gradle.api.logging.Logger;
 import org.gradle.api.provider.ListProperty;
 import org.gradle.api.tasks.Input;
@@ -9,7 +10,6 @@ import org.jetbrains.annotations.Nullable;
 
 import javax.inject.Inject;
 import java.io.IOException;
-import java.util.zip.ZipOutputStream;
 
 /**
  * Defines a source for injecting content into a zip file using the {@link InjectZipContent} task.
@@ -41,13 +41,13 @@ public abstract class AbstractInjectSource {
     public abstract byte @Nullable [] tryReadFile(String path) throws IOException;
 
     /**
-     * Copy the contents of this source to the given zip output stream, while applying the filters
+     * Copy the contents of this source to the given zip rewriter, while applying the filters
      * defined in {@link #getInclusionFilter()} and {@link #getExclusionFilter()}.
      * <p>
      * Files that have already been written to {@code out} should issue a warning, while directories
      * should simply be ignored.
      */
-    public abstract void copyTo(ZipOutputStream out) throws IOException;
+    public abstract void copyTo(ZipRewriter out) throws IOException;
 
     @Inject
     protected abstract Logger getLogger();
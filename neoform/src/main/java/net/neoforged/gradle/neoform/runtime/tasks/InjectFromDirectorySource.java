@@ -1,6 +1,7 @@
 package net.neoforged.gradle.neoform.runtime.tasks;
 
-import net.neoforged.gradle.util.ZipBuildingFileTreeVisitor;
+import net.neoforged.gradle.util.ZipRewriter;
+import net.neoforged.gradle.util.ZipRewritingFileTreeVisitor;
 import org.gradle.api.file.DirectoryProperty;
 import org.gradle.api.file.FileTree;
 import org.gradle.api.tasks.InputDirectory;
@@ -11,7 +12,6 @@ import org.jetbrains.annotations.Nullable;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
-import java.util.zip.ZipOutputStream;
 
 /**
  * Inject content from a directory on disk.
@@ -32,8 +32,8 @@ public abstract class InjectFromDirectorySource extends AbstractInjectSource {
     }
 
     @Override
-    public void copyTo(ZipOutputStream out) {
+    public void copyTo(ZipRewriter out) {
         FileTree source = getDirectory().getAsFileTree().matching(createFilter());
-        source.visit(new ZipBuildingFileTreeVisitor(out));
+        source.visit(new ZipRewritingFileTreeVisitor(out));
     }
 }
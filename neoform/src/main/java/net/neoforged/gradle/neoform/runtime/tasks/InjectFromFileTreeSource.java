@@ -1,6 +1,7 @@
 package net.neoforged.gradle.neoform.runtime.tasks;
 
-import net.neoforged.gradle.util.ZipBuildingFileTreeVisitor;
+import net.neoforged.gradle.util.ZipRewriter;
+import net.neoforged.gradle.util.ZipRewritingFileTreeVisitor;
 import org.gradle.api.file.ConfigurableFileCollection;
 import org.gradle.api.file.FileTree;
 import org.gradle.api.file.FileVisitDetails;
@@ -10,8 +11,6 @@ import org.jetbrains.annotations.Nullable;
 
 import java.io.IOException;
 import java.nio.file.Files;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipOutputStream;
 
 /**
  * Inject content from a directory on disk.
@@ -39,15 +38,15 @@ public abstract class InjectFromFileTreeSource extends AbstractInjectSource {
     }
 
     @Override
-    public void copyTo(ZipOutputStream out) throws IOException {
+    public void copyTo(ZipRewriter out) throws IOException {
         if (getFiles().isEmpty()) {
             return;
         }
 
         final FileTree source = getFiles().getAsFileTree().matching(createFilter());
-        source.visit(new ZipBuildingFileTreeVisitor(out) {
+        source.visit(new ZipRewritingFileTreeVisitor(out) {
             @Override
-            protected ZipEntry createDirectory(FileVisitDetails fileVisitDetails) {
+            protected String createDirectoryName(FileVisitDetails fileVisitDetails) {
                 String path = fileVisitDetails.getRelativePath().getPathString();
                 if (path.startsWith(buildTreePrefix())) {
                     path = path.substring(buildTreePrefix().length());
@@ -57,17 +56,17 @@ public abstract class InjectFromFileTreeSource extends AbstractInjectSource {
                     path += "/";
                 }
 
-                return new ZipEntry(path);
+                return path;
             }
 
             @Override
-            protected ZipEntry createFile(FileVisitDetails fileVisitDetails) {
+            protected String createFileName(FileVisitDetails fileVisitDetails) {
                 String path = fileVisitDetails.getRelativePath().getPathString();
                 if (path.startsWith(buildTreePrefix())) {
                     path = path.substring(buildTreePrefix().length());
                 }
 
-                return new ZipEntry(path);
+                return path;
             }
         });
     }
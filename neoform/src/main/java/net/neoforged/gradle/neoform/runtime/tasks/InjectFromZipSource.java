@@ -1,5 +1,7 @@
 package net.neoforged.gradle.neoform.runtime.tasks;
 
+import net.neoforged.gradle.util.ZipArchive;
+import net.neoforged.gradle.util.ZipRewriter;
 import org.apache.commons.io.IOUtils;
 import org.gradle.api.file.FileTreeElement;
 import org.gradle.api.file.RegularFileProperty;
@@ -9,14 +11,11 @@ import org.gradle.api.tasks.PathSensitive;
 import org.gradle.api.tasks.PathSensitivity;
 import org.jetbrains.annotations.Nullable;
 
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipException;
 import java.util.zip.ZipFile;
-import java.util.zip.ZipInputStream;
-import java.util.zip.ZipOutputStream;
 
 /**
  * Inject content from another ZIP-file.
@@ -41,16 +40,14 @@ public abstract class InjectFromZipSource extends AbstractInjectSource {
     }
 
     @Override
-    public void copyTo(ZipOutputStream out) throws IOException {
+    public void copyTo(ZipRewriter out) throws IOException {
         Spec<FileTreeElement> spec = createFilter().getAsSpec();
-        try (ZipInputStream zin = new ZipInputStream(new FileInputStream(getZipFile().getAsFile().get()))) {
-            for (ZipEntry entry = zin.getNextEntry(); entry != null; entry = zin.getNextEntry()) {
+        try (ZipArchive zin = ZipArchive.open(getZipFile().getAsFile().get())) {
+            for (ZipArchive.Entry entry : zin.getEntries()) {
                 // Apply filter with a "fake" file
                 if (spec.isSatisfiedBy(new ZipEntryFileTreeElement(entry))) {
                     try {
-                        out.putNextEntry(entry);
-                        IOUtils.copyLarge(zin, out);
-                        out.closeEntry();
+                        out.copy(zin, entry);
                     } catch (ZipException e) {
                         if (!e.getMessage().startsWith("duplicate entry:")) {
                             throw e;
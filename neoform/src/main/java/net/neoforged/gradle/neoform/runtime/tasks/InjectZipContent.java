@@ -3,8 +3,9 @@ package net.neoforged.gradle.neoform.runtime.tasks;
 import net.neoforged.gradle.common.services.caching.CachedExecutionService;
 import net.neoforged.gradle.common.services.caching.jobs.ICacheableJob;
 import net.neoforged.gradle.common.runtime.tasks.DefaultRuntime;
-import net.neoforged.gradle.util.FileUtils;
-import org.apache.commons.io.IOUtils;
+import net.neoforged.gradle.util.ZipArchive;
+import net.neoforged.gradle.util.ZipPipeline;
+import net.neoforged.gradle.util.ZipRewriter;
 import org.gradle.api.file.FileTree;
 import org.gradle.api.file.RegularFile;
 import org.gradle.api.file.RegularFileProperty;
@@ -14,6 +15,7 @@ import org.gradle.api.provider.Provider;
 import org.gradle.api.services.ServiceReference;
 import org.gradle.api.tasks.CacheableTask;
 import org.gradle.api.tasks.InputFile;
+import org.gradle.api.tasks.Internal;
 import org.gradle.api.tasks.Nested;
 import org.gradle.api.tasks.PathSensitive;
 import org.gradle.api.tasks.PathSensitivity;
@@ -23,19 +25,15 @@ import org.gradle.api.tasks.util.PatternSet;
 import org.jetbrains.annotations.Nullable;
 
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipInputStream;
-import java.util.zip.ZipOutputStream;
 
 /**
  * Inject additional files into a Zip (or Jar) file.
@@ -43,6 +41,12 @@ import java.util.zip.ZipOutputStream;
 @CacheableTask
 public abstract class InjectZipContent extends DefaultRuntime {
 
+    public InjectZipContent() {
+        super();
+
+        getParallelism().convention(Math.min(Runtime.getRuntime().availableProcessors(), 4));
+    }
+
     @ServiceReference(CachedExecutionService.NAME)
     public abstract Property<CachedExecutionService> getCacheService();
 
@@ -70,14 +74,21 @@ public abstract class InjectZipContent extends DefaultRuntime {
     @Nested
     public abstract ListProperty<AbstractInjectSource> getInjectedSources();
 
+    /**
+     * The amount of threads used to copy the entries of the injection source, a value of one copies all entries on the task thread.
+     * Defaults to the amount of available processors, but at most four, so the task does not take every processor from the other tasks of a parallel build.
+     * The output does not depend on this value.
+     */
+    @Internal
+    public abstract Property<Integer> getParallelism();
+
     private void injectCode(File inputZipFile, File outputZipFile) throws IOException {
 
         List<AbstractInjectSource> injectedSources = getInjectedSources().get();
 
         String packageInfoTemplateContent = findPackageInfoTemplate(injectedSources);
 
-        try (OutputStream fileOut = new FileOutputStream(outputZipFile);
-             ZipOutputStream zos = new ZipOutputStream(fileOut)) {
+        try (ZipRewriter zos = new ZipRewriter(outputZipFile)) {
 
             copyInputZipContent(inputZipFile, zos, packageInfoTemplateContent);
 
@@ -106,30 +117,41 @@ public abstract class InjectZipContent extends DefaultRuntime {
 
     /*
      * Copies the original ZIP content while applying the optional package-info.java transform.
+     * The original entries are copied without recompressing them.
+     */
+    private void copyInputZipContent(File inputZipFile, ZipRewriter zos, @Nullable String packageInfoTemplateContent) throws IOException {
+        try (ZipArchive zis = ZipArchive.open(inputZipFile)) {
+            // Which entry is followed by which package-info.java only depends on the order of the entries, so it is decided up front
+            final Map<ZipArchive.Entry, String> packageInfos = packageInfoTemplateContent == null ? Map.of() : findPackageInfos(zis);
+
+            ZipPipeline.rewrite(zis, zos, Math.max(1, getParallelism().get()), (entry, out) -> {
+                out.copy(entry);
+
+                final String pkg = packageInfos.get(entry);
+                if (pkg != null) {
+                    out.write(pkg + "/package-info.java", packageInfoTemplateContent.replace("{PACKAGE}", pkg.replaceAll("/", ".")).getBytes(StandardCharsets.UTF_8));
+                }
+            });
+        }
+    }
+
+    /*
+     * Finds the first entry of every package which should get a package-info.java.
      */
-    private void copyInputZipContent(File inputZipFile, ZipOutputStream zos, @Nullable String packageInfoTemplateContent) throws IOException {
+    private static Map<ZipArchive.Entry, String> findPackageInfos(ZipArchive zis) {
         Set<String> visited = new HashSet<>();
-        try (ZipInputStream zis = new ZipInputStream(new FileInputStream(inputZipFile))) {
-            ZipEntry entry;
-            while ((entry = zis.getNextEntry()) != null) {
-                zos.putNextEntry(entry);
-                IOUtils.copyLarge(zis, zos);
-                zos.closeEntry();
-
-                if (packageInfoTemplateContent != null) {
-                    String pkg = entry.isDirectory() && !entry.getName().endsWith("/") ? entry.getName() : entry.getName().indexOf('/') == -1 ? "" : entry.getName().substring(0, entry.getName().lastIndexOf('/'));
-                    if (visited.add(pkg)) {
-                        if (!pkg.startsWith("net/minecraft/") &&
-                                !pkg.startsWith("com/mojang/")) {
-                            continue;
-                        }
-                        zos.putNextEntry(FileUtils.getStableEntry(pkg + "/package-info.java"));
-                        zos.write(packageInfoTemplateContent.replace("{PACKAGE}", pkg.replaceAll("/", ".")).getBytes(StandardCharsets.UTF_8));
-                        zos.closeEntry();
-                    }
+        Map<ZipArchive.Entry, String> packageInfos = new HashMap<>();
+        for (ZipArchive.Entry entry : zis.getEntries()) {
+            String pkg = entry.isDirectory() && !entry.getName().endsWith("/") ? entry.getName() : entry.getName().indexOf('/') == -1 ? "" : entry.getName().substring(0, entry.getName().lastIndexOf('/'));
+            if (visited.add(pkg)) {
+                if (!pkg.startsWith("net/minecraft/") &&
+                        !pkg.startsWith("com/mojang/")) {
+                    continue;
                 }
+                packageInfos.put(entry, pkg);
             }
         }
+        return packageInfos;
     }
 
     /**
@@ -4,21 +4,23 @@ import net.neoforged.gradle.common.runtime.tasks.DefaultRuntime;
 import net.neoforged.gradle.common.services.caching.CachedExecutionService;
 import net.neoforged.gradle.common.services.caching.jobs.ICacheableJob;
 import net.neoforged.gradle.util.FileUtils;
-import org.apache.commons.io.IOUtils;
+import net.neoforged.gradle.util.HashFunction;
+import net.neoforged.gradle.util.ZipArchive;
+import net.neoforged.gradle.util.ZipRewriter;
 import org.gradle.api.file.ConfigurableFileCollection;
 import org.gradle.api.file.RegularFileProperty;
 import org.gradle.api.provider.ListProperty;
 import org.gradle.api.provider.Property;
+import org.gradle.api.provider.Provider;
 import org.gradle.api.services.ServiceReference;
 import org.gradle.api.tasks.*;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.util.jar.JarEntry;
-import java.util.jar.JarInputStream;
-import java.util.jar.JarOutputStream;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.jar.JarFile;
 import java.util.stream.Collectors;
 
 @CacheableTask
@@ -69,29 +71,32 @@ public abstract class StripJar extends DefaultRuntime {
     }
 
     private void strip(File input, File output, boolean whitelist) throws IOException {
-        try (JarInputStream is = new JarInputStream(new FileInputStream(input));
-             FileOutputStream fout = new FileOutputStream(output);
-             JarOutputStream os = new JarOutputStream(fout)) {
-
-            // Ignore any entry that's not allowed
-            JarEntry entry;
-            while ((entry = is.getNextJarEntry()) != null) {
-                if (!isEntryValid(entry, whitelist)) {
+        // The filters are indexed once, instead of scanning the whole list for every entry
+        final Set<String> filters = getFilters().isPresent() ? new HashSet<>(getFilters().get()) : null;
+
+        try (ZipArchive is = ZipArchive.open(input);
+             ZipRewriter os = new ZipRewriter(output)) {
+
+            // Ignore any entry that's not allowed, the others are copied without recompressing them
+            for (ZipArchive.Entry entry : is.getEntries()) {
+                if (!isEntryValid(entry, whitelist, filters)) {
                     continue;
                 }
-                os.putNextEntry(entry);
-                IOUtils.copyLarge(is, os);
-                os.closeEntry();
+                os.copy(is, entry);
             }
         }
     }
 
-    private boolean isEntryValid(JarEntry entry, boolean whitelist) {
+    private static boolean isEntryValid(ZipArchive.Entry entry, boolean whitelist, @Nullable Set<String> filters) {
         if (entry.isDirectory())
             return false;
 
-        if (getFilters().isPresent()) {
-            return getFilters().get().contains(entry.getName()) == whitelist;
+        // The manifest was never part of the output, as the JarInputStream this used to read with skips it
+        if (entry.getName().equals(JarFile.MANIFEST_NAME))
+            return false;
+
+        if (filters != null) {
+            return filters.contains(entry.getName()) == whitelist;
         }
 
         return true;
@@ -106,9 +111,18 @@ public abstract class StripJar extends DefaultRuntime {
     @PathSensitive(PathSensitivity.NONE)
     public abstract RegularFileProperty getInput();
 
+    @Internal
+    public abstract ListProperty<String> getFilters();
+
+    /**
+     * The hash of the filters, which is the input of this task instead of the filters themselves.
+     * This keeps the tens of thousands of class names out of the up-to-date and cache checks.
+     */
     @Input
     @Optional
-    public abstract ListProperty<String> getFilters();
+    public Provider<String> getFiltersHash() {
+        return getFilters().map(filters -> HashFunction.SHA256.hash(filters.stream().sorted().collect(Collectors.joining("\n"))));
+    }
 
     @Input
     public abstract Property<Boolean> getIsWhitelistMode();
@@ -1,5 +1,6 @@
 package net.neoforged.gradle.neoform.runtime.tasks;
 
+import net.neoforged.gradle.util.ZipArchive;
 import org.gradle.api.file.FilePermissions;
 import org.gradle.api.file.FileTreeElement;
 import org.gradle.api.file.RelativePath;
@@ -7,16 +8,15 @@ import org.gradle.api.file.RelativePath;
 import java.io.File;
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.util.zip.ZipEntry;
 
 /**
  * Fake implementation of {@link org.gradle.api.file.FileTreeElement} to allow
- * a {@link java.util.zip.ZipEntry} to be matched by a {@link org.gradle.api.specs.Spec}.
+ * a {@link ZipArchive.Entry} to be matched by a {@link org.gradle.api.specs.Spec}.
  */
 public class ZipEntryFileTreeElement implements FileTreeElement {
-    private final ZipEntry entry;
+    private final ZipArchive.Entry entry;
 
-    public ZipEntryFileTreeElement(ZipEntry entry) {
+    public ZipEntryFileTreeElement(ZipArchive.Entry entry) {
         this.entry = entry;
     }
 
@@ -32,7 +32,7 @@ public class ZipEntryFileTreeElement implements FileTreeElement {
 
     @Override
     public long getLastModified() {
-        return entry.getLastModifiedTime().toMillis();
+        return entry.getTime();
     }
 
     @Override
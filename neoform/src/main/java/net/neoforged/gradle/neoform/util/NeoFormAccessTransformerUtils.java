@@ -4,11 +4,19 @@ import net.neoforged.gradle.common.runtime.tasks.SourceAccessTransformer;
 import net.neoforged.gradle.common.util.CommonRuntimeTaskUtils;
 import net.neoforged.gradle.dsl.common.extensions.AccessTransformers;
 import net.neoforged.gradle.dsl.common.extensions.Minecraft;
+import net.neoforged.gradle.dsl.common.runtime.definition.Definition;
+import net.neoforged.gradle.dsl.common.runtime.tasks.Runtime;
 import net.neoforged.gradle.dsl.common.runtime.tasks.tree.TaskTreeAdapter;
 import net.neoforged.gradle.dsl.common.tasks.WithOutput;
+import net.neoforged.gradle.dsl.common.util.GameArtifact;
 import org.gradle.api.Project;
+import org.gradle.api.provider.Provider;
 import org.gradle.api.tasks.TaskProvider;
 
+import java.io.File;
+import java.util.Map;
+import java.util.function.Consumer;
+
 public class NeoFormAccessTransformerUtils {
 
     private NeoFormAccessTransformerUtils() {
@@ -17,10 +25,29 @@ public class NeoFormAccessTransformerUtils {
 
     public static TaskTreeAdapter createAccessTransformerAdapter(final Project project) {
         final Minecraft minecraftExtension = project.getExtensions().getByType(Minecraft.class);
-        final AccessTransformers accessTransformerFiles = minecraftExtension.getAccessTransformers();
+        return new AccessTransformerAdapter(minecraftExtension.getAccessTransformers());
+    }
+
+    /**
+     * Applies the access transformers of a project to the output of a step, if the project has any.
+     */
+    public static final class AccessTransformerAdapter implements TaskTreeAdapter {
+        private final AccessTransformers accessTransformerFiles;
+
+        private AccessTransformerAdapter(AccessTransformers accessTransformerFiles) {
+            this.accessTransformerFiles = accessTransformerFiles;
+        }
+
+        /**
+         * @return True if the project has no access transformers, in which case the adapter does not add a task.
+         */
+        public boolean isEmpty() {
+            return accessTransformerFiles.getFiles().isEmpty() && accessTransformerFiles.getEntries().get().isEmpty();
+        }
 
-        return (definition, previousTasksOutput, runtimeWorkspace, gameArtifacts, mappingVersionData, dependentTaskConfigurationHandler) -> {
-            if (accessTransformerFiles.getFiles().isEmpty() && accessTransformerFiles.getEntries().get().isEmpty()) {
+        @Override
+        public TaskProvider<? extends Runtime> adapt(Definition<?> definition, Provider<? extends WithOutput> previousTasksOutput, File runtimeWorkspace, Map<GameArtifact, TaskProvider<? extends WithOutput>> gameArtifacts, Map<String, String> mappingVersionData, Consumer<TaskProvider<? extends Runtime>> dependentTaskConfigurationHandler) {
+            if (isEmpty()) {
                 return null;
             }
 
@@ -28,6 +55,6 @@ public class NeoFormAccessTransformerUtils {
             accessTransformerTask.configure(task -> task.getInputFile().set(previousTasksOutput.flatMap(WithOutput::getOutput)));
             accessTransformerTask.configure(task -> task.dependsOn(previousTasksOutput));
             return accessTransformerTask;
-        };
+        }
     }
 }
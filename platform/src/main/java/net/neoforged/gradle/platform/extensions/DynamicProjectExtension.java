@@ -7,7 +7,6 @@ import com.google.common.collect.Sets;
 import net.minecraftforge.gdi.BaseDSLElement;
 import net.minecraftforge.gdi.annotations.DSLProperty;
 import net.minecraftforge.gdi.annotations.ProjectGetter;
-import net.minecraftforge.srgutils.IMappingFile;
 import net.neoforged.gradle.common.dependency.ExtraJarDependencyManager;
 import net.neoforged.gradle.common.extensions.IdeManagementExtension;
 import net.neoforged.gradle.common.extensions.JarJarExtension;
@@ -15,6 +14,7 @@ import net.neoforged.gradle.common.runtime.extensions.CommonRuntimeExtension;
 import net.neoforged.gradle.common.runtime.tasks.AccessTransformerFileGenerator;
 import net.neoforged.gradle.common.runtime.tasks.DefaultExecute;
 import net.neoforged.gradle.common.runtime.tasks.DownloadAssets;
+import net.neoforged.gradle.common.services.mappings.CompiledMappingCacheService;
 import net.neoforged.gradle.common.tasks.JarJar;
 import net.neoforged.gradle.common.tasks.PotentiallySignJar;
 import net.neoforged.gradle.common.tasks.WriteIMappingsFile;
@@ -53,6 +53,7 @@ import net.neoforged.gradle.platform.runtime.runtime.tasks.GenerateSourcePatches
 import net.neoforged.gradle.platform.tasks.*;
 import net.neoforged.gradle.platform.util.ArtifactPathsCollector;
 import net.neoforged.gradle.platform.util.SetupUtils;
+import net.neoforged.gradle.util.IMappingFileUtils;
 import net.neoforged.gradle.util.TransformerUtils;
 import net.neoforged.gradle.vanilla.VanillaProjectPlugin;
 import net.neoforged.gradle.vanilla.runtime.VanillaRuntimeDefinition;
@@ -1003,8 +1004,9 @@ public abstract class DynamicProjectExtension implements BaseDSLElement<DynamicP
             return project.getTasks().named(taskName, WriteIMappingsFile.class);
         }
 
+        final Provider<CompiledMappingCacheService> mappingCache = CompiledMappingCacheService.register(project);
         return project.getTasks().register(taskName, WriteIMappingsFile.class, task -> {
-            task.getMappings().set(mojmapProvider.flatMap(WithOutput::getOutput).map(TransformerUtils.guard(file -> IMappingFile.load(file.getAsFile()))).map(file -> new CacheableIMappingFile(file.reverse())));
+            task.getMappings().set(mojmapProvider.flatMap(WithOutput::getOutput).map(file -> IMappingFileUtils.load(file.getAsFile(), mappingCache.get().getCache())).map(file -> new CacheableIMappingFile(file.reverse(), mappingCache.get().getCache())));
             
             CommonRuntimeExtension.configureCommonRuntimeTaskParameters(task, runtimeDefinition, workingDirectory);
         });
@@ -1019,7 +1021,7 @@ public abstract class DynamicProjectExtension implements BaseDSLElement<DynamicP
             task.getArguments().putRegularFile("mappings", mappingsFile.flatMap(WithOutput::getOutput));
             task.getArguments().putRegularFile("input", inputFile);
 
-            task.getExecutingJar().set(ToolUtilities.resolveTool(project, Constants.FART));
+            task.getExecutingJar().fileProvider(ToolUtilities.resolveToolLazily(project, Constants.FART));
             task.getProgramArguments().addAll("--names", "{mappings}");
             task.getProgramArguments().addAll("--input", "{input}");
             task.getProgramArguments().addAll("--output", "{output}");
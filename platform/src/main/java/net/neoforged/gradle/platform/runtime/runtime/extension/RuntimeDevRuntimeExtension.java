@@ -43,7 +43,7 @@ public abstract class RuntimeDevRuntimeExtension extends CommonRuntimeExtension<
             patchBase = applyParchment(
                     spec.getProject(),
                     "applyParchment",
-                    getProject().provider(() -> ToolUtilities.resolveTool(getProject(), spec.getParchmentArtifact())),
+                    ToolUtilities.resolveToolLazily(getProject(), spec.getParchmentArtifact()),
                     getProject().provider(() -> "p_"),
                     neoformRuntime.getSourceJarTask().flatMap(WithOutput::getOutput).map(RegularFile::getAsFile),
                     true,
@@ -91,7 +91,7 @@ public abstract class RuntimeDevRuntimeExtension extends CommonRuntimeExtension<
                                                        File workingDirectory,
                                                        @Nullable TaskProvider<? extends WithOutput> extraClasspath) {
         return project.getTasks().register(CommonRuntimeUtils.buildTaskName(spec, name), DefaultExecute.class, task -> {
-            File toolExecutable = ToolUtilities.resolveTool(project, project.getExtensions().getByType(Subsystems.class).getTools().getJST().get());
+            final Provider<File> toolExecutable = ToolUtilities.resolveToolLazily(project, project.getExtensions().getByType(Subsystems.class).getTools().getJST().get());
 
             task.getArguments().putFile("mappings", mappingsFile);
             if (inputFile) {
@@ -100,7 +100,7 @@ public abstract class RuntimeDevRuntimeExtension extends CommonRuntimeExtension<
                 task.getArguments().putDirectoryFile("input", input);
             }
 
-            task.getExecutingJar().set(toolExecutable);
+            task.getExecutingJar().fileProvider(toolExecutable);
             task.getProgramArguments().add("--enable-parchment");
             task.getProgramArguments().add("--no-parchment-javadoc");
             task.getProgramArguments().add("--parchment-mappings");
@@ -18,7 +18,7 @@ import org.gradle.api.tasks.*;
 
 public abstract class GenerateBinaryPatches extends DefaultExecute implements WithOutput, WithWorkspace {
     public GenerateBinaryPatches() {
-        getExecutingJar().set(ToolUtilities.resolveTool(getProject(), Constants.BINPATCHER));
+        getExecutingJar().fileProvider(ToolUtilities.resolveToolLazily(getProject(), Constants.BINPATCHER));
         getProgramArguments().addAll("--clean", "{clean}", "--create", "{dirty}", "--output", "{output}",
                 "--patches", "{patches}", "--srg", "{srg}");
         
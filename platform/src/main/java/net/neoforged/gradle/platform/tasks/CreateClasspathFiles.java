@@ -4,17 +4,17 @@ import com.google.common.collect.ImmutableMap;
 import net.neoforged.gradle.common.runtime.tasks.DefaultRuntime;
 import net.neoforged.gradle.platform.util.ArtifactPathsCollector;
 import net.neoforged.gradle.platform.util.StringUtils;
+import net.neoforged.gradle.util.ZipArchive;
 import org.apache.tools.ant.filters.ReplaceTokens;
 import org.gradle.api.file.ConfigurableFileCollection;
-import org.gradle.api.file.FileTree;
 import org.gradle.api.file.RegularFileProperty;
 import org.gradle.api.provider.Property;
 import org.gradle.api.tasks.*;
 
-import java.io.File;
-import java.nio.file.Files;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -46,12 +46,19 @@ public abstract class CreateClasspathFiles extends DefaultRuntime implements Tok
                                                               .map(path -> StringUtils.getSlicedPrefixSection(path, "/", 2))
                                                               .collect(Collectors.toSet());
         
-        final FileTree serverRawTree = getArchiveOperations().zipTree(getServer().get());
-        final File joinedServerClasspathFile = serverRawTree.filter(spec -> {
-            return spec.getPath().endsWith("META-INF" + File.separator + "classpath-joined");
-        }).getSingleFile();
+        final List<String> joinedServerClasspathLines;
+        try (ZipArchive serverJar = ZipArchive.open(getServer().get().getAsFile())) {
+            final List<ZipArchive.Entry> joinedServerClasspathEntries = serverJar.getEntries().stream()
+                                                                                  .filter(entry -> entry.getName().endsWith("META-INF/classpath-joined"))
+                                                                                  .toList();
+            if (joinedServerClasspathEntries.size() != 1) {
+                throw new IllegalStateException("Expected a single classpath-joined file in: %s, but found: %s".formatted(getServer().get().getAsFile(), joinedServerClasspathEntries));
+            }
+            
+            joinedServerClasspathLines = new String(serverJar.read(joinedServerClasspathEntries.get(0)), StandardCharsets.UTF_8).lines().toList();
+        }
         
-        final String joinedServerClasspath = Files.readAllLines(joinedServerClasspathFile.toPath()).stream()
+        final String joinedServerClasspath = joinedServerClasspathLines.stream()
                                                      .flatMap(line -> Arrays.stream(line.split(";")))
                                                      .filter(path -> !claimedCoordinateLikePath.contains(StringUtils.getSlicedPrefixSection(path, "/", 2)))
                                                      .filter(path -> path.startsWith("libraries/"))
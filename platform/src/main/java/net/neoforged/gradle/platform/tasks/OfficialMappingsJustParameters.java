@@ -3,8 +3,12 @@ package net.neoforged.gradle.platform.tasks;
 import net.minecraftforge.srgutils.IMappingBuilder;
 import net.minecraftforge.srgutils.IMappingFile;
 import net.neoforged.gradle.common.runtime.tasks.DefaultRuntime;
+import net.neoforged.gradle.common.services.mappings.CompiledMappingCacheService;
 import net.neoforged.gradle.dsl.common.tasks.WithOutput;
+import net.neoforged.gradle.util.IMappingFileUtils;
 import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.api.services.ServiceReference;
 import org.gradle.api.tasks.CacheableTask;
 import org.gradle.api.tasks.InputFile;
 import org.gradle.api.tasks.PathSensitive;
@@ -25,9 +29,12 @@ public abstract class OfficialMappingsJustParameters extends DefaultRuntime impl
     @PathSensitive(PathSensitivity.NONE)
     public abstract RegularFileProperty getInput();
 
+    @ServiceReference(CompiledMappingCacheService.NAME)
+    public abstract Property<CompiledMappingCacheService> getMappingCache();
+
     @TaskAction
     void exec() throws IOException {
-        var source = IMappingFile.load(getInput().getAsFile().get());
+        var source = IMappingFileUtils.load(getInput().getAsFile().get(), getMappingCache().get().getCache());
         var builder = IMappingBuilder.create();
         source.getClasses().forEach(cls -> {
             var c = builder.addClass(cls.getMapped(), cls.getMapped());
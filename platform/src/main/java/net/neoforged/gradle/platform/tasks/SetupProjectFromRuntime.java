@@ -3,9 +3,9 @@ package net.neoforged.gradle.platform.tasks;
 import net.neoforged.gradle.dsl.common.tasks.WithOperations;
 import net.neoforged.gradle.platform.util.SetupUtils;
 import net.neoforged.gradle.util.CopyingFileTreeVisitor;
+import net.neoforged.gradle.util.ZipFileTree;
 import org.gradle.api.DefaultTask;
 import org.gradle.api.file.DirectoryProperty;
-import org.gradle.api.file.FileTree;
 import org.gradle.api.file.RegularFileProperty;
 import org.gradle.api.provider.Property;
 import org.gradle.api.tasks.*;
@@ -38,10 +38,10 @@ public abstract class SetupProjectFromRuntime extends DefaultTask implements Wit
     @TaskAction
     public void doSetup() throws Exception {
         final File sourceFile = getSourcesFile().get().getAsFile();
-        final FileTree jarFileTree = getArchiveOperations().zipTree(sourceFile);
+        final ZipFileTree jarFileTree = ZipFileTree.of(sourceFile);
         
-        final FileTree codeFiles = jarFileTree.matching(filter -> filter.include("**/**.java"));
-        final FileTree noneCodeFiles = jarFileTree.matching(filter -> filter.exclude("**/**.java"));
+        final ZipFileTree codeFiles = jarFileTree.matching(filter -> filter.include("**/**.java"));
+        final ZipFileTree noneCodeFiles = jarFileTree.matching(filter -> filter.exclude("**/**.java"));
         
         final File sourceDirectory = getSourcesDirectory().get().getAsFile();
         final File resourcesDirectory = getResourcesDirectory().get().getAsFile();
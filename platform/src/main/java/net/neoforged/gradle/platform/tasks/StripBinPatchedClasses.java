@@ -3,19 +3,14 @@ package net.neoforged.gradle.platform.tasks;
 import net.neoforged.gradle.common.runtime.tasks.DefaultRuntime;
 import net.neoforged.gradle.dsl.common.tasks.WithOutput;
 import net.neoforged.gradle.dsl.common.tasks.WithWorkspace;
-import net.neoforged.gradle.util.FilteringZipBuildingFileTreeVisitor;
-import org.gradle.api.file.FileVisitDetails;
-import org.gradle.api.file.FileVisitor;
+import net.neoforged.gradle.util.ZipArchive;
+import net.neoforged.gradle.util.ZipRewriter;
 import org.gradle.api.file.RegularFileProperty;
 import org.gradle.api.tasks.*;
-import org.jetbrains.annotations.NotNull;
 
 import java.io.File;
-import java.io.FileOutputStream;
-import java.io.OutputStream;
 import java.util.HashSet;
 import java.util.Set;
-import java.util.zip.ZipOutputStream;
 
 @CacheableTask
 public abstract class StripBinPatchedClasses extends DefaultRuntime implements WithOutput, WithWorkspace {
@@ -24,34 +19,36 @@ public abstract class StripBinPatchedClasses extends DefaultRuntime implements W
     public void doTask() throws Exception {
         final Set<String> cleanedFiles = new HashSet<>();
         final Set<String> cleanedDirectories = new HashSet<>();
-        getArchiveOperations().zipTree(getClean().get().getAsFile()).visit(new FileVisitor() {
-            @Override
-            public void visitDir(@NotNull FileVisitDetails dirDetails) {
-                cleanedDirectories.add(dirDetails.getRelativePath().getPathString());
+        try (ZipArchive clean = ZipArchive.open(getClean().get().getAsFile())) {
+            for (ZipArchive.Entry entry : clean.getEntries()) {
+                if (entry.isDirectory()) {
+                    cleanedDirectories.add(entry.getName().substring(0, entry.getName().length() - 1));
+                } else {
+                    cleanedFiles.add(entry.getName());
+                }
             }
-            
-            @Override
-            public void visitFile(@NotNull FileVisitDetails fileDetails) {
-                cleanedFiles.add(fileDetails.getRelativePath().getPathString());
-            }
-        });
-        
+        }
         
         final File output = ensureFileWorkspaceReady(getOutput());
-        try (OutputStream outputStream = new FileOutputStream(output);
-             ZipOutputStream zipOutputStream = new ZipOutputStream(outputStream)) {
-            final FilteringZipBuildingFileTreeVisitor visitor = new FilteringZipBuildingFileTreeVisitor(
-                    zipOutputStream,
-                    details -> !cleanedDirectories.contains(details.getRelativePath().getPathString()),
-                    details -> {
-                        return !cleanedFiles.contains(details.getRelativePath().getPathString().contains("$") ?
-                                                                  details.getRelativePath().getPathString().substring(0, details.getRelativePath().getPathString().indexOf("$")) + ".class" :
-                                                                  details.getRelativePath().getPathString()
-                        );
-                    });
-            getArchiveOperations().zipTree(getCompiled().get().getAsFile()).getAsFileTree().visit(visitor);
+        try (ZipArchive compiled = ZipArchive.open(getCompiled().get().getAsFile());
+             ZipRewriter rewriter = new ZipRewriter(output)) {
+            //The remaining entries are copied without recompressing them.
+            for (ZipArchive.Entry entry : compiled.getEntries()) {
+                if (isKept(entry, cleanedFiles, cleanedDirectories)) {
+                    rewriter.copy(compiled, entry, ZipRewriter.STABLE_TIME);
+                }
+            }
         }
     }
+
+    private static boolean isKept(ZipArchive.Entry entry, Set<String> cleanedFiles, Set<String> cleanedDirectories) {
+        final String name = entry.getName();
+        if (entry.isDirectory()) {
+            return !cleanedDirectories.contains(name.substring(0, name.length() - 1));
+        }
+
+        return !cleanedFiles.contains(name.contains("$") ? name.substring(0, name.indexOf("$")) + ".class" : name);
+    }
     
     @InputFile
     @PathSensitive(PathSensitivity.NONE)
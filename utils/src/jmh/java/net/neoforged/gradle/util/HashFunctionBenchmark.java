@@ -0,0 +1,70 @@
+package net.neoforged.gradle.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the streaming file hashing of {@link HashFunction} with reading the whole file into memory first,
+ * which is how files were hashed before.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HashFunctionBenchmark {
+
+    @Param({"1024", "1048576", "104857600"})
+    public int size;
+
+    private Path file;
+
+    @Setup(Level.Trial)
+    public void createFile() throws IOException {
+        file = Files.createTempFile("ng-hash-benchmark", ".bin");
+
+        final Random random = new Random(size);
+        final byte[] chunk = new byte[64 * 1024];
+        try (OutputStream output = Files.newOutputStream(file)) {
+            for (int written = 0; written < size; written += chunk.length) {
+                random.nextBytes(chunk);
+                output.write(chunk, 0, Math.min(chunk.length, size - written));
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteFile() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public String streaming() throws IOException {
+        return HashFunction.SHA1.hash(file);
+    }
+
+    @Benchmark
+    public String readAllBytes() throws IOException {
+        return HashFunction.SHA1.pad(new BigInteger(1, HashFunction.SHA1.get().digest(Files.readAllBytes(file))).toString(16));
+    }
+}
@@ -0,0 +1,354 @@
+package net.neoforged.gradle.util;
+
+import net.minecraftforge.srgutils.IMappingBuilder;
+import net.minecraftforge.srgutils.IMappingFile;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A cache of mapping files compiled into a binary format, keyed by the hash of their text.
+ * <p>
+ * A mapping file is parsed once, after which it is stored as a string table followed by tables of its packages,
+ * classes, fields, methods and parameters, which refer to the string table by index.
+ * Later loads of the same mappings read the compiled file in one go, and rebuild the mapping file from these tables on first use,
+ * which skips tokenizing and parsing the text entirely.
+ * The text file is hashed through a {@link FileHashIndex} if one is given, so an unchanged mapping file is not read at all to find its compiled form.
+ * <p>
+ * The cache of a build is owned by a build service, which passes it to {@link IMappingFileUtils#load(File, CompiledMappingCache)}.
+ */
+public final class CompiledMappingCache {
+
+    private static final int MAGIC = 0x4E474D43; // NGMC
+    private static final int VERSION = 1;
+    private static final int NONE = -1;
+
+    private static final String EXTENSION = ".bin";
+
+    private final File directory;
+    @Nullable
+    private final FileHashIndex hashIndex;
+
+    /**
+     * Creates a new cache which stores the compiled mappings in the given directory.
+     *
+     * @param directory The directory to store the compiled mappings in.
+     */
+    public CompiledMappingCache(File directory) {
+        this(directory, null);
+    }
+
+    /**
+     * Creates a new cache which stores the compiled mappings in the given directory.
+     *
+     * @param directory The directory to store the compiled mappings in.
+     * @param hashIndex The index of known file digests, or null to always read the mapping files to hash them.
+     */
+    public CompiledMappingCache(File directory, @Nullable FileHashIndex hashIndex) {
+        this.directory = directory;
+        this.hashIndex = hashIndex;
+    }
+
+    /**
+     * Loads the given mapping file, from its compiled form if it was compiled before.
+     * Compiled mappings are only decoded once the returned mapping file is used.
+     *
+     * @param mappings The mapping file in any text format supported by SRG Utils.
+     * @return The loaded mapping file.
+     * @throws IOException If the mapping file could not be read.
+     */
+    public IMappingFile load(File mappings) throws IOException {
+        final String hash = HashFunction.SHA256.hash(mappings, hashIndex);
+        final File compiled = getCompiledFile(hash);
+        if (compiled.isFile()) {
+            try {
+                return new CompiledMappingFile(this, mappings, hash, Files.readAllBytes(compiled.toPath()));
+            } catch (IOException e) {
+                //A compiled file which can not be read is simply compiled again, reading it left no handle open on it.
+                Files.deleteIfExists(compiled.toPath());
+            }
+        }
+
+        return compile(mappings, hash);
+    }
+
+    /**
+     * Parses the given mapping file, and compiles it into this cache.
+     *
+     * @param mappings The mapping file in any text format supported by SRG Utils.
+     * @param hash The hash of the text of the mapping file.
+     * @return The parsed mapping file.
+     * @throws IOException If the mapping file could not be read, or not be compiled.
+     */
+    IMappingFile compile(File mappings, String hash) throws IOException {
+        final IMappingFile mappingFile = IMappingFile.load(mappings);
+        put(mappingFile, hash);
+        return mappingFile;
+    }
+
+    /**
+     * Compiles the given mapping file into this cache, keyed by the hash of its compiled form.
+     *
+     * @param mappingFile The mapping file to compile.
+     * @return The hash under which the mapping file is stored.
+     * @throws IOException If the compiled file could not be written.
+     */
+    public String store(IMappingFile mappingFile) throws IOException {
+        return put(mappingFile, null);
+    }
+
+    /**
+     * @param hash The hash of the compiled mappings.
+     * @return The file in which the compiled mappings with the given hash are stored, which might not exist.
+     */
+    public File getCompiledFile(String hash) {
+        return new File(directory, hash + EXTENSION);
+    }
+
+    /**
+     * Compiles the given mapping file into this cache.
+     *
+     * @param mappingFile The mapping file to compile.
+     * @param hash The hash to store the compiled mappings under, or null to store them under the hash of their compiled form.
+     * @return The hash under which the mapping file is stored.
+     * @throws IOException If the compiled file could not be written.
+     */
+    private String put(IMappingFile mappingFile, @Nullable String hash) throws IOException {
+        Files.createDirectories(directory.toPath());
+        final Path staging = Files.createTempFile(directory.toPath(), "compiling", EXTENSION);
+        try {
+            write(mappingFile, staging);
+            final String key = hash != null ? hash : HashFunction.SHA256.hash(staging);
+            final File compiled = getCompiledFile(key);
+            if (!compiled.isFile()) {
+                Files.move(staging, compiled.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            }
+            return key;
+        } finally {
+            Files.deleteIfExists(staging);
+        }
+    }
+
+    /**
+     * Writes the given mapping file in the compiled format.
+     *
+     * @param mappingFile The mapping file to write.
+     * @param target The file to write to.
+     * @throws IOException If the file could not be written.
+     */
+    public static void write(IMappingFile mappingFile, Path target) throws IOException {
+        try (OutputStream stream = Files.newOutputStream(target)) {
+            write(mappingFile, stream);
+        }
+    }
+
+    /**
+     * Writes the given mapping file in the compiled format.
+     *
+     * @param mappingFile The mapping file to write.
+     * @param target The stream to write to, which is not closed.
+     * @throws IOException If the stream could not be written.
+     */
+    public static void write(IMappingFile mappingFile, OutputStream target) throws IOException {
+        final StringTable strings = new StringTable();
+        final ByteArrayOutputStream tables = new ByteArrayOutputStream(64 * 1024);
+        final DataOutputStream out = new DataOutputStream(tables);
+
+        final Collection<? extends IMappingFile.IPackage> packages = mappingFile.getPackages();
+        out.writeInt(packages.size());
+        for (IMappingFile.IPackage pkg : packages) {
+            out.writeInt(strings.index(pkg.getOriginal()));
+            out.writeInt(strings.index(pkg.getMapped()));
+            writeMetadata(out, strings, pkg.getMetadata());
+        }
+
+        final Collection<? extends IMappingFile.IClass> classes = mappingFile.getClasses();
+        out.writeInt(classes.size());
+        for (IMappingFile.IClass cls : classes) {
+            out.writeInt(strings.index(cls.getOriginal()));
+            out.writeInt(strings.index(cls.getMapped()));
+            writeMetadata(out, strings, cls.getMetadata());
+
+            final Collection<? extends IMappingFile.IField> fields = cls.getFields();
+            out.writeInt(fields.size());
+            for (IMappingFile.IField fld : fields) {
+                out.writeInt(strings.index(fld.getOriginal()));
+                out.writeInt(strings.index(fld.getMapped()));
+                out.writeInt(fld.getDescriptor() == null ? NONE : strings.index(fld.getDescriptor()));
+                writeMetadata(out, strings, fld.getMetadata());
+            }
+
+            final Collection<? extends IMappingFile.IMethod> methods = cls.getMethods();
+            out.writeInt(methods.size());
+            for (IMappingFile.IMethod mtd : methods) {
+                out.writeInt(strings.index(mtd.getOriginal()));
+                out.writeInt(strings.index(mtd.getMapped()));
+                out.writeInt(strings.index(mtd.getDescriptor()));
+                writeMetadata(out, strings, mtd.getMetadata());
+
+                final Collection<? extends IMappingFile.IParameter> parameters = mtd.getParameters();
+                out.writeInt(parameters.size());
+                for (IMappingFile.IParameter par : parameters) {
+                    out.writeInt(par.getIndex());
+                    out.writeInt(strings.index(par.getOriginal()));
+                    out.writeInt(strings.index(par.getMapped()));
+                    writeMetadata(out, strings, par.getMetadata());
+                }
+            }
+        }
+        out.flush();
+
+        final DataOutputStream file = new DataOutputStream(new BufferedOutputStream(target));
+        file.writeInt(MAGIC);
+        file.writeInt(VERSION);
+        file.writeInt(strings.values.size());
+        for (String value : strings.values) {
+            final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            file.writeInt(bytes.length);
+            file.write(bytes);
+        }
+        tables.writeTo(file);
+        file.flush();
+    }
+
+    private static void writeMetadata(DataOutputStream out, StringTable strings, Map<String, String> metadata) throws IOException {
+        out.writeInt(metadata.size());
+        for (Map.Entry<String, String> entry : metadata.entrySet()) {
+            out.writeInt(strings.index(entry.getKey()));
+            out.writeInt(strings.index(entry.getValue()));
+        }
+    }
+
+    /**
+     * Reads a mapping file in the compiled format.
+     * The file is read in one go and closed before its tables are decoded, it is not memory mapped:
+     * a mapping is only released by the GC, and would keep the file from being replaced or deleted on Windows until then.
+     *
+     * @param source The compiled file.
+     * @return The mapping file.
+     * @throws IOException If the file could not be read, or is not a compiled mapping file.
+     */
+    public static IMappingFile read(Path source) throws IOException {
+        final byte[] data = Files.readAllBytes(source);
+        try {
+            return read(ByteBuffer.wrap(data));
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new IOException("Truncated compiled mapping file: %s".formatted(source), e);
+        }
+    }
+
+    /**
+     * Reads a mapping file in the compiled format.
+     *
+     * @param data The compiled mappings.
+     * @return The mapping file.
+     * @throws IOException If the data is not a compiled mapping file, or is truncated.
+     */
+    public static IMappingFile read(byte[] data) throws IOException {
+        try {
+            return read(ByteBuffer.wrap(data));
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new IOException("Truncated compiled mappings", e);
+        }
+    }
+
+    private static IMappingFile read(ByteBuffer buffer) throws IOException {
+        if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+            throw new IOException("Not a compiled mapping file of version %d".formatted(VERSION));
+        }
+
+        final String[] strings = new String[buffer.getInt()];
+        byte[] bytes = new byte[256];
+        for (int i = 0; i < strings.length; i++) {
+            final int length = buffer.getInt();
+            if (bytes.length < length) {
+                bytes = new byte[Math.max(length, bytes.length * 2)];
+            }
+            buffer.get(bytes, 0, length);
+            strings[i] = new String(bytes, 0, length, StandardCharsets.UTF_8);
+        }
+
+        final IMappingBuilder builder = IMappingBuilder.create("left", "right");
+
+        final int packages = buffer.getInt();
+        for (int i = 0; i < packages; i++) {
+            final IMappingBuilder.IPackage pkg = builder.addPackage(strings[buffer.getInt()], strings[buffer.getInt()]);
+            readMetadata(buffer, strings, pkg::meta);
+        }
+
+        final int classes = buffer.getInt();
+        for (int i = 0; i < classes; i++) {
+            final IMappingBuilder.IClass cls = builder.addClass(strings[buffer.getInt()], strings[buffer.getInt()]);
+            readMetadata(buffer, strings, cls::meta);
+
+            final int fields = buffer.getInt();
+            for (int f = 0; f < fields; f++) {
+                final IMappingBuilder.IField fld = cls.field(strings[buffer.getInt()], strings[buffer.getInt()]);
+                final int descriptor = buffer.getInt();
+                if (descriptor != NONE) {
+                    fld.descriptor(strings[descriptor]);
+                }
+                readMetadata(buffer, strings, fld::meta);
+            }
+
+            final int methods = buffer.getInt();
+            for (int m = 0; m < methods; m++) {
+                final String original = strings[buffer.getInt()];
+                final String mapped = strings[buffer.getInt()];
+                final IMappingBuilder.IMethod mtd = cls.method(strings[buffer.getInt()], original, mapped);
+                readMetadata(buffer, strings, mtd::meta);
+
+                final int parameters = buffer.getInt();
+                for (int p = 0; p < parameters; p++) {
+                    final IMappingBuilder.IParameter par = mtd.parameter(buffer.getInt(), strings[buffer.getInt()], strings[buffer.getInt()]);
+                    readMetadata(buffer, strings, par::meta);
+                }
+            }
+        }
+
+        return builder.build().getMap("left", "right");
+    }
+
+    private static void readMetadata(ByteBuffer buffer, String[] strings, MetadataConsumer consumer) {
+        final int entries = buffer.getInt();
+        for (int i = 0; i < entries; i++) {
+            consumer.accept(strings[buffer.getInt()], strings[buffer.getInt()]);
+        }
+    }
+
+    @FunctionalInterface
+    private interface MetadataConsumer {
+        void accept(String key, String value);
+    }
+
+    /**
+     * Deduplicates the strings of a mapping file, every distinct string is stored once.
+     */
+    private static final class StringTable {
+        private final Map<String, Integer> indices = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+
+        private int index(String value) {
+            return indices.computeIfAbsent(value, key -> {
+                values.add(key);
+                return values.size() - 1;
+            });
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package net.neoforged.gradle.util;
+
+import net.minecraftforge.srgutils.IMappingFile;
+import net.minecraftforge.srgutils.IRenamer;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+
+/**
+ * A mapping file which was loaded from its compiled form, but is only decoded once it is used.
+ * <p>
+ * Loading the compiled file only reads its bytes, so mappings which are loaded but never looked at, or only handed on,
+ * cost no more than one read. If the compiled file turns out to be broken when it is decoded,
+ * it is removed from the cache and the text file it was compiled from is parsed and compiled again.
+ */
+final class CompiledMappingFile implements IMappingFile {
+
+    private final CompiledMappingCache cache;
+    private final File source;
+    private final String hash;
+
+    @Nullable
+    private byte[] data;
+    @Nullable
+    private IMappingFile decoded;
+
+    CompiledMappingFile(CompiledMappingCache cache, File source, String hash, byte[] data) {
+        this.cache = cache;
+        this.source = source;
+        this.hash = hash;
+        this.data = data;
+    }
+
+    private synchronized IMappingFile decoded() {
+        if (decoded == null) {
+            try {
+                decoded = CompiledMappingCache.read(data);
+            } catch (IOException e) {
+                decoded = recompile();
+            }
+            data = null;
+        }
+        return decoded;
+    }
+
+    private IMappingFile recompile() {
+        try {
+            Files.deleteIfExists(cache.getCompiledFile(hash).toPath());
+            return cache.compile(source, hash);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to load mappings file: %s".formatted(source.getAbsolutePath()), e);
+        }
+    }
+
+    @Override
+    public Collection<? extends IPackage> getPackages() {
+        return decoded().getPackages();
+    }
+
+    @Override
+    public IPackage getPackage(String original) {
+        return decoded().getPackage(original);
+    }
+
+    @Override
+    public Collection<? extends IClass> getClasses() {
+        return decoded().getClasses();
+    }
+
+    @Override
+    public IClass getClass(String original) {
+        return decoded().getClass(original);
+    }
+
+    @Override
+    public String remapPackage(String pkg) {
+        return decoded().remapPackage(pkg);
+    }
+
+    @Override
+    public String remapClass(String desc) {
+        return decoded().remapClass(desc);
+    }
+
+    @Override
+    public String remapDescriptor(String desc) {
+        return decoded().remapDescriptor(desc);
+    }
+
+    @Override
+    public void write(Path path, Format format, boolean reversed) throws IOException {
+        decoded().write(path, format, reversed);
+    }
+
+    @Override
+    public IMappingFile reverse() {
+        return decoded().reverse();
+    }
+
+    @Override
+    public IMappingFile rename(IRenamer renamer) {
+        return decoded().rename(renamer);
+    }
+
+    @Override
+    public IMappingFile chain(IMappingFile other) {
+        return decoded().chain(other);
+    }
+}
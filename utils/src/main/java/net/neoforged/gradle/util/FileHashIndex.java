@@ -0,0 +1,276 @@
+package net.neoforged.gradle.util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A persistent index of file digests, keyed by hash algorithm and canonical path,
+ * and validated by the size and modification time of the file.
+ * <p>
+ * The index is stored in an append-only file: new digests are appended when the index is flushed,
+ * and later records replace earlier ones for the same key when the index is loaded.
+ * Writes are serialized per index file inside of this JVM, and guarded by a file lock against other processes,
+ * so multiple builds and Gradle daemons can share one index file.
+ * <p>
+ * An index is passed explicitly to {@link HashFunction#hash(File, FileHashIndex)} and the hash functions of the common module,
+ * so that files which did not change since the last build are never read again just to compute their digest.
+ */
+public final class FileHashIndex {
+
+    private static final int MAGIC = 0x4E474849; // NGHI
+    private static final int VERSION = 1;
+
+    /**
+     * Files modified this recently are not indexed, as a later modification within the resolution
+     * of the file system clock would go unnoticed.
+     */
+    private static final long RACY_MODIFICATION_WINDOW = TimeUnit.SECONDS.toNanos(2);
+
+    /**
+     * When the index file holds this many times more records than there are live entries, it is rewritten.
+     */
+    private static final int COMPACTION_FACTOR = 2;
+
+    /**
+     * The monitors which serialize the writers of an index file inside of this JVM.
+     * A file lock is held by the whole process, so it can not keep two indices of the same file in one daemon apart.
+     */
+    private static final Map<Path, Object> WRITERS = new ConcurrentHashMap<>();
+
+    private final Path indexFile;
+    private final Map<Key, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<Key, Entry> pending = new ConcurrentHashMap<>();
+    private int persistedRecords;
+
+    private FileHashIndex(Path indexFile) {
+        this.indexFile = indexFile;
+    }
+
+    /**
+     * Loads the index stored in the given file, a missing or corrupt file results in an empty index.
+     *
+     * @param indexFile The file the index is stored in.
+     * @return The loaded index.
+     */
+    public static FileHashIndex load(Path indexFile) {
+        final FileHashIndex index = new FileHashIndex(indexFile);
+        if (!Files.isRegularFile(indexFile)) {
+            return index;
+        }
+
+        try (InputStream input = Files.newInputStream(indexFile)) {
+            index.persistedRecords = read(input, index.entries);
+        } catch (IOException e) {
+            //A broken index only costs us the time to recompute the digests.
+            index.entries.clear();
+            index.persistedRecords = 0;
+        }
+
+        return index;
+    }
+
+    private static int read(InputStream stream, Map<Key, Entry> target) throws IOException {
+        final DataInputStream input = new DataInputStream(new BufferedInputStream(stream));
+        try {
+            if (input.readInt() != MAGIC || input.readInt() != VERSION) {
+                return 0;
+            }
+        } catch (EOFException e) {
+            return 0;
+        }
+
+        int records = 0;
+        while (true) {
+            final Key key;
+            final Entry entry;
+            try {
+                key = new Key(input.readUTF(), input.readUTF());
+                entry = new Entry(input.readLong(), input.readLong(), input.readUTF());
+            } catch (EOFException e) {
+                //End of the index, or a record which another process is still writing.
+                return records;
+            }
+
+            target.put(key, entry);
+            records++;
+        }
+    }
+
+    /**
+     * Returns the digest of the given file, computing it only if the file changed since it was last indexed.
+     *
+     * @param file The file to get the digest of.
+     * @param algorithm The name of the hash algorithm.
+     * @param hasher The function which computes the digest of the file, as a lowercase hexadecimal string.
+     * @return The digest of the file.
+     * @throws IOException If the file could not be read.
+     */
+    public String hash(File file, String algorithm, DigestComputer hasher) throws IOException {
+        final Path path = file.toPath();
+        final BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        } catch (IOException e) {
+            return hasher.compute(file);
+        }
+
+        if (!attributes.isRegularFile()) {
+            return hasher.compute(file);
+        }
+
+        final Key key = new Key(algorithm.toUpperCase(Locale.ROOT), file.getCanonicalPath());
+        final long size = attributes.size();
+        final long modified = attributes.lastModifiedTime().to(TimeUnit.NANOSECONDS);
+
+        final Entry known = entries.get(key);
+        if (known != null && known.size() == size && known.modified() == modified) {
+            return known.digest();
+        }
+
+        final String digest = hasher.compute(file);
+        if (System.currentTimeMillis() * 1_000_000L - modified > RACY_MODIFICATION_WINDOW) {
+            final Entry entry = new Entry(size, modified, digest);
+            entries.put(key, entry);
+            pending.put(key, entry);
+        }
+        return digest;
+    }
+
+    /**
+     * Writes all digests which were computed since the last flush to the index file.
+     *
+     * @throws IOException If the index file could not be written.
+     */
+    public void flush() throws IOException {
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        final Path file = indexFile.toAbsolutePath().normalize();
+        synchronized (WRITERS.computeIfAbsent(file, key -> new Object())) {
+            //Only the digests of this snapshot are written, digests computed while we write stay pending for the next flush
+            final Map<Key, Entry> snapshot = new HashMap<>(pending);
+            if (snapshot.isEmpty()) {
+                return;
+            }
+
+            Files.createDirectories(file.getParent());
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.READ);
+                 FileLock ignored = channel.lock()) {
+                if (persistedRecords + snapshot.size() > Math.max(entries.size(), 1024) * COMPACTION_FACTOR) {
+                    compact(channel);
+                } else {
+                    append(channel, snapshot);
+                }
+            }
+
+            //A digest which was replaced while we wrote is not removed, as its new value was not written yet
+            snapshot.forEach(pending::remove);
+        }
+    }
+
+    private void append(FileChannel channel, Map<Key, Entry> snapshot) throws IOException {
+        final boolean empty = channel.size() == 0;
+        channel.position(channel.size());
+
+        final DataOutputStream output = new DataOutputStream(new BufferedOutputStream(nonClosing(Channels.newOutputStream(channel))));
+        if (empty) {
+            writeHeader(output);
+        }
+        for (Map.Entry<Key, Entry> entry : snapshot.entrySet()) {
+            writeRecord(output, entry.getKey(), entry.getValue());
+        }
+        output.flush();
+
+        persistedRecords += snapshot.size();
+    }
+
+    private void compact(FileChannel channel) throws IOException {
+        //Merge in what other processes appended in the meantime, our own digests win.
+        final Map<Key, Entry> onDisk = new ConcurrentHashMap<>();
+        channel.position(0);
+        read(Channels.newInputStream(channel), onDisk);
+        onDisk.forEach(entries::putIfAbsent);
+
+        channel.truncate(0);
+        channel.position(0);
+
+        final DataOutputStream output = new DataOutputStream(new BufferedOutputStream(nonClosing(Channels.newOutputStream(channel))));
+        writeHeader(output);
+        int written = 0;
+        for (Map.Entry<Key, Entry> entry : entries.entrySet()) {
+            if (!new File(entry.getKey().path()).isFile()) {
+                continue;
+            }
+
+            writeRecord(output, entry.getKey(), entry.getValue());
+            written++;
+        }
+        output.flush();
+
+        persistedRecords = written;
+    }
+
+    private static void writeHeader(DataOutputStream output) throws IOException {
+        output.writeInt(MAGIC);
+        output.writeInt(VERSION);
+    }
+
+    private static void writeRecord(DataOutputStream output, Key key, Entry entry) throws IOException {
+        output.writeUTF(key.algorithm());
+        output.writeUTF(key.path());
+        output.writeLong(entry.size());
+        output.writeLong(entry.modified());
+        output.writeUTF(entry.digest());
+    }
+
+    private static OutputStream nonClosing(OutputStream stream) {
+        return new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                stream.write(b);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                stream.write(b, off, len);
+            }
+        };
+    }
+
+    /**
+     * Computes the digest of a file, when the index does not know it.
+     */
+    @FunctionalInterface
+    public interface DigestComputer {
+        /**
+         * @param file The file to compute the digest of.
+         * @return The digest of the file, as a lowercase hexadecimal string.
+         * @throws IOException If the file could not be read.
+         */
+        String compute(File file) throws IOException;
+    }
+
+    private record Key(String algorithm, String path) {}
+
+    private record Entry(long size, long modified, String digest) {}
+}
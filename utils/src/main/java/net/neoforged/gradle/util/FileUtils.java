@@ -41,7 +41,7 @@ public final class FileUtils {
     /**
      * The constant time of a zip entry in milliseconds.
      */
-    private static final long ZIPTIME = 628041600000L;
+    static final long ZIPTIME = 628041600000L;
 
     /**
      * The GMT time zone.
@@ -24,15 +24,17 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SeekableByteChannel;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.Locale;
 
-import org.apache.commons.io.IOUtils;
-
 import javax.annotation.Nullable;
 
 /**
@@ -43,6 +45,10 @@ import javax.annotation.Nullable;
  *
  * <p>This class offers a cleaner method to retrieve an instance of these hashing functions, without having to wrap in a
  * {@code try}-{@code catch} block.</p>
+ *
+ * <p>Files are hashed by streaming their content through a reusable direct buffer into a digest which is reused per thread,
+ * so hashing a large jar never holds the whole file on the heap. Files are not memory mapped: a mapping is only released
+ * by the GC, and keeps the file from being replaced or deleted on Windows until then.</p>
  */
 public enum HashFunction {
     MD5("md5", 32),
@@ -50,12 +56,18 @@ public enum HashFunction {
     SHA256("SHA-256", 64),
     SHA512("SHA-512", 128);
 
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final ThreadLocal<ByteBuffer> BUFFER = ThreadLocal.withInitial(() -> ByteBuffer.allocateDirect(BUFFER_SIZE));
+    private static final ThreadLocal<byte[]> STREAM_BUFFER = ThreadLocal.withInitial(() -> new byte[BUFFER_SIZE]);
+
     private final String algo;
     private final String pad;
+    private final ThreadLocal<MessageDigest> digest;
 
     HashFunction(String algo, int length) {
         this.algo = algo;
         this.pad = String.format(Locale.ROOT, "%0" + length + "d", 0);
+        this.digest = ThreadLocal.withInitial(this::get);
     }
 
     /**
@@ -100,7 +112,29 @@ public enum HashFunction {
      * @throws IOException If an I/O error occurs.
      */
     public String hash(Path file) throws IOException {
-        return hash(Files.readAllBytes(file));
+        return hashContent(file);
+    }
+
+    /**
+     * Hashes the given file, reusing the digest the given index knows for it if the file did not change.
+     *
+     * @param file The file to hash.
+     * @param index The index of known digests, or null to always read the file.
+     * @return The hash of the file.
+     * @throws IOException If an I/O error occurs.
+     */
+    public String hash(File file, @Nullable FileHashIndex index) throws IOException {
+        if (index == null) {
+            return hashContent(file.toPath());
+        }
+
+        return index.hash(file, algo, indexed -> hashContent(indexed.toPath()));
+    }
+
+    private String hashContent(Path file) throws IOException {
+        final MessageDigest hash = digest();
+        update(hash, file);
+        return toHex(hash.digest());
     }
 
     /**
@@ -111,14 +145,14 @@ public enum HashFunction {
      * @throws IOException If an I/O error occurs.
      */
     public String hash(Iterable<File> files) throws IOException {
-        MessageDigest hash = get();
+        final MessageDigest hash = digest();
 
         for (File file : files) {
             if (!file.exists())
                 continue;
-            hash.update(Files.readAllBytes(file.toPath()));
+            update(hash, file.toPath());
         }
-        return pad(new BigInteger(1, hash.digest()).toString(16));
+        return toHex(hash.digest());
     }
 
     /**
@@ -139,7 +173,14 @@ public enum HashFunction {
      * @throws IOException If an I/O error occurs.
      */
     public String hash(InputStream stream) throws IOException {
-        return hash(IOUtils.toByteArray(stream));
+        final MessageDigest hash = digest();
+        final byte[] buffer = STREAM_BUFFER.get();
+
+        int read;
+        while ((read = stream.read(buffer)) >= 0) {
+            hash.update(buffer, 0, read);
+        }
+        return toHex(hash.digest());
     }
 
     /**
@@ -149,7 +190,7 @@ public enum HashFunction {
      * @return The hash of the bytes.
      */
     public String hash(byte[] data) {
-        return pad(new BigInteger(1, get().digest(data)).toString(16));
+        return toHex(digest().digest(data));
     }
 
     /**
@@ -161,4 +202,34 @@ public enum HashFunction {
     public String pad(String hash) {
         return (pad + hash).substring(hash.length());
     }
+
+    private String toHex(byte[] digest) {
+        return pad(new BigInteger(1, digest).toString(16));
+    }
+
+    /**
+     * @return The digest of this hash function which is reused by the current thread, in its initial state.
+     */
+    private MessageDigest digest() {
+        final MessageDigest hash = digest.get();
+        //A previous user might have failed half way through.
+        hash.reset();
+        return hash;
+    }
+
+    private static void update(MessageDigest hash, Path file) throws IOException {
+        try (SeekableByteChannel channel = Files.newByteChannel(file, StandardOpenOption.READ)) {
+            update(hash, channel);
+        }
+    }
+
+    private static void update(MessageDigest hash, ReadableByteChannel channel) throws IOException {
+        final ByteBuffer buffer = BUFFER.get();
+        buffer.clear();
+        while (channel.read(buffer) >= 0) {
+            buffer.flip();
+            hash.update(buffer);
+            buffer.clear();
+        }
+    }
 }
@@ -0,0 +1,287 @@
+package net.neoforged.gradle.util;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Downloads many files over a single {@link HttpClient}, which reuses its connections and multiplexes requests over HTTP/2 where the server supports it.
+ * <p>
+ * The downloads are split into chunks, which the worker threads claim one after another, so that the amount of concurrent requests
+ * is bounded by the concurrency of the downloader.
+ * Failed requests are retried with an exponential backoff, responses which can not succeed on a retry (like a 404) fail right away.
+ * Files which already exist with the expected hash are not downloaded again.
+ * <p>
+ * The downloader owns the threads of its client, which are stopped when it is closed.
+ */
+public final class HttpDownloader implements AutoCloseable {
+
+    /**
+     * The amount of downloads which are claimed by a worker thread at once, at most.
+     */
+    private static final int MAX_CHUNK_SIZE = 64;
+
+    private static final Duration MAX_BACKOFF = Duration.ofSeconds(10);
+    private static final Duration REQUEST_TIMEOUT = Duration.ofMinutes(2);
+
+    private final ExecutorService clientExecutor;
+    private final HttpClient client;
+    private final int concurrency;
+    private final int maxAttempts;
+    private final Duration initialBackoff;
+
+    /**
+     * Creates a new downloader.
+     *
+     * @param concurrency The maximal amount of concurrent requests.
+     * @param maxAttempts The maximal amount of attempts per download.
+     * @param initialBackoff The delay before the first retry, which doubles with every further retry.
+     */
+    public HttpDownloader(int concurrency, int maxAttempts, Duration initialBackoff) {
+        this.concurrency = Math.max(1, concurrency);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.initialBackoff = initialBackoff;
+        final AtomicInteger threadCounter = new AtomicInteger();
+        this.clientExecutor = Executors.newCachedThreadPool(runnable -> {
+            final Thread thread = new Thread(runnable, "http-downloader-client-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.client = HttpClient.newBuilder()
+                .executor(clientExecutor)
+                .version(HttpClient.Version.HTTP_2)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .connectTimeout(Duration.ofSeconds(30))
+                .build();
+    }
+
+    /**
+     * A file to download.
+     *
+     * @param uri The uri to download from.
+     * @param target The file to download to.
+     * @param sha1 The expected SHA-1 hash of the file, or null to not validate the file.
+     */
+    public record Download(URI uri, File target, @Nullable String sha1) {}
+
+    /**
+     * Is notified about every finished download, from the worker threads.
+     */
+    @FunctionalInterface
+    public interface Listener {
+        /**
+         * @param download The download which finished.
+         * @param transferred Whether the file was transferred, or already existed with the expected hash.
+         */
+        void finished(Download download, boolean transferred);
+    }
+
+    /**
+     * Downloads all given files, and waits until they are downloaded.
+     * The first failure stops the remaining downloads.
+     *
+     * @param downloads The files to download.
+     * @param listener The listener which is notified about finished downloads.
+     * @throws IOException If a file could not be downloaded.
+     */
+    public void downloadAll(List<Download> downloads, Listener listener) throws IOException {
+        if (downloads.isEmpty()) {
+            return;
+        }
+
+        //Small enough chunks so that every thread gets a fair share, but large enough to not claim every download on its own
+        final int chunkSize = Math.max(1, Math.min(MAX_CHUNK_SIZE, downloads.size() / (concurrency * 4)));
+        final int chunks = (downloads.size() + chunkSize - 1) / chunkSize;
+        final int threads = Math.min(concurrency, chunks);
+
+        final AtomicInteger nextChunk = new AtomicInteger();
+        final AtomicBoolean failed = new AtomicBoolean();
+        final AtomicInteger threadCounter = new AtomicInteger();
+        final ExecutorService executor = Executors.newFixedThreadPool(threads, runnable -> {
+            final Thread thread = new Thread(runnable, "http-downloader-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        try {
+            final List<Future<?>> workers = new ArrayList<>(threads);
+            for (int i = 0; i < threads; i++) {
+                workers.add(executor.submit(() -> {
+                    int chunk;
+                    while (!failed.get() && (chunk = nextChunk.getAndIncrement()) < chunks) {
+                        final int end = Math.min(downloads.size(), (chunk + 1) * chunkSize);
+                        for (int index = chunk * chunkSize; index < end && !failed.get(); index++) {
+                            final Download download = downloads.get(index);
+                            try {
+                                listener.finished(download, download(download));
+                            } catch (IOException | RuntimeException e) {
+                                failed.set(true);
+                                throw e;
+                            }
+                        }
+                    }
+                    return null;
+                }));
+            }
+
+            IOException failure = null;
+            for (Future<?> worker : workers) {
+                try {
+                    worker.get();
+                } catch (ExecutionException e) {
+                    final IOException cause = e.getCause() instanceof IOException exception ? exception : new IOException(e.getCause());
+                    if (failure == null) {
+                        failure = cause;
+                    } else {
+                        failure.addSuppressed(cause);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted while downloading files", e);
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Downloads the given file, unless it already exists with the expected hash.
+     *
+     * @param download The file to download.
+     * @return Whether the file was transferred.
+     * @throws IOException If the file could not be downloaded.
+     */
+    public boolean download(Download download) throws IOException {
+        final File target = download.target();
+        if (download.sha1() != null && target.isFile() && HashFunction.SHA1.hash(target).equals(download.sha1())) {
+            return false;
+        }
+
+        IOException failure = null;
+        for (int attempt = 0; attempt < maxAttempts; attempt++) {
+            if (attempt > 0) {
+                backoff(attempt);
+            }
+
+            try {
+                transfer(download);
+                return true;
+            } catch (RetryableException e) {
+                failure = e;
+            }
+        }
+
+        throw new IOException("Failed to download %s after %d attempts".formatted(download.uri(), maxAttempts), failure);
+    }
+
+    private void backoff(int attempt) throws IOException {
+        final long delay = Math.min(MAX_BACKOFF.toMillis(), initialBackoff.toMillis() << Math.min(attempt - 1, 20));
+        try {
+            Thread.sleep(delay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting to retry a download", e);
+        }
+    }
+
+    private void transfer(Download download) throws IOException {
+        final HttpRequest request = HttpRequest.newBuilder(download.uri())
+                .timeout(REQUEST_TIMEOUT)
+                .GET()
+                .build();
+
+        final HttpResponse<InputStream> response;
+        try {
+            response = client.send(request, HttpResponse.BodyHandlers.ofInputStream());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while downloading %s".formatted(download.uri()), e);
+        } catch (IOException e) {
+            throw new RetryableException("Could not connect to %s".formatted(download.uri()), e);
+        }
+
+        try (InputStream body = response.body()) {
+            final int status = response.statusCode();
+            if (status != 200) {
+                final String message = "Unexpected response %d for %s".formatted(status, download.uri());
+                if (status >= 500 || status == 408 || status == 429) {
+                    throw new RetryableException(message, null);
+                }
+                throw new IOException(message);
+            }
+
+            final Path target = download.target().toPath();
+            Files.createDirectories(target.toAbsolutePath().getParent());
+            //Downloaded next to the target and moved into place, so that other builds never see a partial file
+            final Path temporary = Files.createTempFile(target.toAbsolutePath().getParent(), target.getFileName().toString(), ".download");
+            try {
+                final MessageDigest digest = HashFunction.SHA1.get();
+                try (DigestInputStream input = new DigestInputStream(body, digest);
+                     OutputStream output = Files.newOutputStream(temporary)) {
+                    input.transferTo(output);
+                } catch (IOException e) {
+                    throw new RetryableException("Failed to read %s".formatted(download.uri()), e);
+                }
+
+                final String hash = HexFormat.of().formatHex(digest.digest());
+                if (download.sha1() != null && !hash.equals(download.sha1())) {
+                    throw new RetryableException("The file downloaded from %s does not match the expected hash. Expected: %s Actual: %s".formatted(download.uri(), download.sha1(), hash), null);
+                }
+
+                try {
+                    Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING);
+                }
+            } finally {
+                Files.deleteIfExists(temporary);
+            }
+        }
+    }
+
+    /**
+     * Stops the threads of the client, the downloader can not be used anymore afterwards.
+     */
+    @Override
+    public void close() {
+        clientExecutor.shutdownNow();
+    }
+
+    /**
+     * A failure which might not happen again on a retry.
+     */
+    private static final class RetryableException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        private RetryableException(String message, @Nullable Throwable cause) {
+            super(message, cause);
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package net.neoforged.gradle.util;
 
 import net.minecraftforge.srgutils.IMappingFile;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.File;
 import java.io.IOException;
@@ -38,7 +39,23 @@ public final class IMappingFileUtils {
      * @return The loaded mapping file.
      */
     public static IMappingFile load(final File file) {
+        return load(file, null);
+    }
+
+    /**
+     * Loads a mapping file from the given file.
+     * When a {@link CompiledMappingCache} is given, the mapping file is loaded from its compiled form.
+     *
+     * @param file The file to load the mapping file from.
+     * @param cache The cache of compiled mappings, or null to always parse the file.
+     * @return The loaded mapping file.
+     */
+    public static IMappingFile load(final File file, @Nullable final CompiledMappingCache cache) {
         try {
+            if (cache != null) {
+                return cache.load(file);
+            }
+
             return IMappingFile.load(file);
         } catch (IOException e) {
             throw new RuntimeException(String.format("Failed to load mappings file: %s", file.getAbsolutePath()), e);
@@ -0,0 +1,405 @@
+package net.neoforged.gradle.util;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Objects;
+import java.util.Properties;
+
+/**
+ * Downloads single files, and resumes an interrupted download instead of starting it over.
+ * <p>
+ * A file is downloaded into a partial file next to it, which is kept when the download fails.
+ * A state file next to the partial file records where the partial file came from: the url, the expected hash,
+ * and the validator (the ETag or the last modified date) of the response.
+ * The next attempt, or the next build, only requests the missing bytes with a {@code Range} request, whose {@code If-Range} header
+ * carries the validator, so that the server sends the whole file again if it changed in the meantime.
+ * The SHA-1 hash is computed while the file is streamed, the bytes of a partial file are only read once before resuming.
+ * <p>
+ * Only one process downloads into the partial file of a target at a time, others download into a private temporary file.
+ * The lock file which guards the partial file is kept, removing it while it is locked would let two processes lock different files of the same name.
+ */
+public final class ResumableDownloader {
+
+    private static final String PARTIAL_SUFFIX = ".part";
+    private static final String STATE_SUFFIX = ".part.state";
+    private static final String LOCK_SUFFIX = ".part.lock";
+
+    private static final Duration MAX_BACKOFF = Duration.ofSeconds(10);
+    private static final int CONNECT_TIMEOUT = (int) Duration.ofSeconds(30).toMillis();
+    //A stalled connection is given up after this time, and the download is resumed on a new connection
+    private static final int READ_TIMEOUT = (int) Duration.ofMinutes(1).toMillis();
+
+    private final int maxAttempts;
+    private final Duration initialBackoff;
+    @Nullable
+    private final String userAgent;
+
+    /**
+     * Creates a new downloader.
+     *
+     * @param maxAttempts The maximal amount of attempts per download.
+     * @param initialBackoff The delay before the first retry, which doubles with every further retry.
+     * @param userAgent The user agent to send, or null to send the default one.
+     */
+    public ResumableDownloader(int maxAttempts, Duration initialBackoff, @Nullable String userAgent) {
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.initialBackoff = initialBackoff;
+        this.userAgent = userAgent;
+    }
+
+    /**
+     * A file to download.
+     *
+     * @param url The url to download from.
+     * @param target The file to download to.
+     * @param sha1 The expected SHA-1 hash of the file, or null to not validate the file.
+     * @param onlyIfModified Whether an existing target is only downloaded again if the server reports it as modified.
+     */
+    public record Request(URL url, Path target, @Nullable String sha1, boolean onlyIfModified) {}
+
+    /**
+     * Is notified about the progress of a download.
+     */
+    public interface Listener {
+        Listener NONE = new Listener() {};
+
+        /**
+         * Called when the server started to send the file.
+         *
+         * @param length The total length of the file, or -1 if it is not known.
+         * @param offset The amount of bytes which were downloaded by an earlier attempt.
+         */
+        default void started(long length, long offset) {}
+
+        /**
+         * @param bytes The amount of bytes which were just downloaded.
+         */
+        default void transferred(long bytes) {}
+    }
+
+    /**
+     * Downloads the given file, retrying failed attempts with an exponential backoff.
+     *
+     * @param request The file to download.
+     * @param listener The listener which is notified about the progress.
+     * @return True if the file was downloaded, false if the server reported the existing file as not modified.
+     * @throws IOException If the file could not be downloaded.
+     */
+    public boolean download(Request request, Listener listener) throws IOException {
+        final Path target = request.target().toAbsolutePath();
+        Files.createDirectories(target.getParent());
+
+        final Path partial = sibling(target, PARTIAL_SUFFIX);
+        final Path state = sibling(target, STATE_SUFFIX);
+        final Path lockFile = sibling(target, LOCK_SUFFIX);
+        try (FileChannel lockChannel = FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+             FileLock lock = tryLock(lockChannel)) {
+            if (lock != null) {
+                return downloadWithRetries(request, target, partial, state, listener);
+            }
+        }
+
+        //Another process downloads the same file right now, so its partial file can not be used
+        final Path temporary = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".download");
+        try {
+            return downloadWithRetries(request, target, temporary, null, listener);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    @Nullable
+    private static FileLock tryLock(FileChannel channel) throws IOException {
+        try {
+            return channel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            //Held by another thread of this process
+            return null;
+        }
+    }
+
+    private boolean downloadWithRetries(Request request, Path target, Path partial, @Nullable Path state, Listener listener) throws IOException {
+        IOException failure = null;
+        for (int attempt = 0; attempt < maxAttempts; attempt++) {
+            if (attempt > 0) {
+                backoff(attempt);
+            }
+
+            try {
+                return transfer(request, target, partial, state, listener, true);
+            } catch (RetryableException e) {
+                failure = e;
+            }
+        }
+
+        throw new IOException("Failed to download %s after %d attempts".formatted(request.url(), maxAttempts), failure);
+    }
+
+    private void backoff(int attempt) throws IOException {
+        final long delay = Math.min(MAX_BACKOFF.toMillis(), initialBackoff.toMillis() << Math.min(attempt - 1, 20));
+        try {
+            Thread.sleep(delay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting to retry a download", e);
+        }
+    }
+
+    private boolean transfer(Request request, Path target, Path partial, @Nullable Path statePath, Listener listener, boolean conditional) throws IOException {
+        final State previous = statePath == null ? null : State.read(statePath);
+        long offset = 0;
+        if (previous != null && previous.matches(request) && Files.isRegularFile(partial)) {
+            offset = Files.size(partial);
+        } else if (statePath != null) {
+            discard(partial, statePath);
+        }
+
+        final boolean ifModifiedSince = conditional && offset == 0 && request.onlyIfModified() && Files.isRegularFile(target);
+
+        final HttpURLConnection connection = (HttpURLConnection) request.url().openConnection();
+        connection.setInstanceFollowRedirects(true);
+        connection.setConnectTimeout(CONNECT_TIMEOUT);
+        connection.setReadTimeout(READ_TIMEOUT);
+        if (userAgent != null) {
+            connection.setRequestProperty("User-Agent", userAgent);
+        }
+        if (offset > 0) {
+            connection.setRequestProperty("Range", "bytes=%d-".formatted(offset));
+            connection.setRequestProperty("If-Range", previous.validator());
+        } else if (ifModifiedSince) {
+            connection.setIfModifiedSince(Files.getLastModifiedTime(target).toMillis());
+        }
+
+        try {
+            final int status;
+            try {
+                status = connection.getResponseCode();
+            } catch (IOException e) {
+                throw new RetryableException("Could not connect to %s".formatted(request.url()), e);
+            }
+
+            if (ifModifiedSince && status == HttpURLConnection.HTTP_NOT_MODIFIED) {
+                // Double-Check here -> If the server also returns a last-modified date,
+                // and that is different from our local date, re-download!
+                // This could occur if the local file was modified and is now newer than the original.
+                if (connection.getLastModified() == 0 || connection.getLastModified() == connection.getIfModifiedSince()) {
+                    return false;
+                }
+                connection.disconnect();
+                return transfer(request, target, partial, statePath, listener, false);
+            }
+
+            final boolean resumed;
+            if (status == HttpURLConnection.HTTP_PARTIAL && offset > 0) {
+                final String range = connection.getHeaderField("Content-Range");
+                if (range == null || !range.startsWith("bytes %d-".formatted(offset))) {
+                    discard(partial, statePath);
+                    throw new RetryableException("Unexpected range %s for %s".formatted(range, request.url()), null);
+                }
+                resumed = true;
+            } else if (status == HttpURLConnection.HTTP_OK) {
+                //Either a fresh download, or the file changed since the partial file was downloaded
+                resumed = false;
+                offset = 0;
+            } else if (status == 416 && offset > 0) {
+                //The partial file is not a prefix of the file on the server
+                discard(partial, statePath);
+                throw new RetryableException("The partial download of %s does not match the file on the server".formatted(request.url()), null);
+            } else {
+                final String message = "Failed to download %s, HTTP-Status: %d".formatted(request.url(), status);
+                if (status >= 500 || status == 408 || status == 429) {
+                    throw new RetryableException(message, null);
+                }
+                throw new IOException(message);
+            }
+
+            final long remaining = connection.getContentLengthLong();
+            final long length = remaining < 0 ? -1 : offset + remaining;
+
+            final MessageDigest digest = HashFunction.SHA1.get();
+            if (resumed) {
+                try (InputStream existing = Files.newInputStream(partial)) {
+                    update(digest, existing, offset);
+                }
+            } else if (statePath != null) {
+                //Without a validator a later attempt can not know whether the partial file is still a prefix of the file
+                final String validator = validator(connection);
+                if (validator != null) {
+                    new State(request.url().toString(), request.sha1(), validator).write(statePath);
+                } else {
+                    Files.deleteIfExists(statePath);
+                }
+            }
+
+            listener.started(length, offset);
+            try (InputStream body = connection.getInputStream();
+                 OutputStream output = Files.newOutputStream(partial, StandardOpenOption.CREATE, StandardOpenOption.WRITE, resumed ? StandardOpenOption.APPEND : StandardOpenOption.TRUNCATE_EXISTING)) {
+                final byte[] buffer = new byte[64 * 1024];
+                int read;
+                while ((read = body.read(buffer)) != -1) {
+                    output.write(buffer, 0, read);
+                    digest.update(buffer, 0, read);
+                    listener.transferred(read);
+                }
+            } catch (IOException e) {
+                //The partial file is kept, so the next attempt resumes where this one stopped
+                throw new RetryableException("Failed to read %s".formatted(request.url()), e);
+            }
+
+            if (length >= 0 && Files.size(partial) != length) {
+                throw new RetryableException("The download of %s ended after %d of %d bytes".formatted(request.url(), Files.size(partial), length), null);
+            }
+
+            final String hash = HexFormat.of().formatHex(digest.digest());
+            if (request.sha1() != null && !hash.equalsIgnoreCase(request.sha1())) {
+                discard(partial, statePath);
+                throw new RetryableException("The file downloaded from %s does not match the expected hash. Expected: %s Actual: %s".formatted(request.url(), request.sha1(), hash), null);
+            }
+
+            move(target, partial);
+            if (statePath != null) {
+                Files.deleteIfExists(statePath);
+            }
+
+            if (connection.getLastModified() != 0) {
+                Files.setLastModifiedTime(target, FileTime.fromMillis(connection.getLastModified()));
+            }
+            return true;
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    private static void update(MessageDigest digest, InputStream stream, long length) throws IOException {
+        final byte[] buffer = new byte[64 * 1024];
+        long remaining = length;
+        int read;
+        while (remaining > 0 && (read = stream.read(buffer, 0, (int) Math.min(buffer.length, remaining))) != -1) {
+            digest.update(buffer, 0, read);
+            remaining -= read;
+        }
+    }
+
+    @Nullable
+    private static String validator(HttpURLConnection connection) {
+        final String etag = connection.getHeaderField("ETag");
+        //A weak ETag can not be used for range requests
+        if (etag != null && !etag.startsWith("W/")) {
+            return etag;
+        }
+        return connection.getHeaderField("Last-Modified");
+    }
+
+    private static void discard(Path partial, @Nullable Path statePath) throws IOException {
+        Files.deleteIfExists(partial);
+        if (statePath != null) {
+            Files.deleteIfExists(statePath);
+        }
+    }
+
+    private static Path sibling(Path target, String suffix) {
+        return target.resolveSibling(target.getFileName().toString() + suffix);
+    }
+
+    private static void move(Path target, Path source) throws IOException {
+        int tries = 0;
+        while (true) {
+            tries++;
+            try {
+                try {
+                    Files.move(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                } catch (AtomicMoveNotSupportedException e) {
+                    // Atomic moves within the same directory should have worked.
+                    // We fall back to the inferior normal move.
+                    Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+                }
+                break;
+            } catch (IOException e) {
+                if (tries >= 5) {
+                    throw e;
+                }
+                // Wait a bit to give whatever concurrent process has it locked to unlock...
+                try {
+                    Thread.sleep(5000);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted while moving %s to %s".formatted(source, target), ex);
+                }
+            }
+        }
+    }
+
+    /**
+     * The origin of a partial file.
+     */
+    private record State(String url, @Nullable String sha1, String validator) {
+
+        @Nullable
+        private static State read(Path file) {
+            if (!Files.isRegularFile(file)) {
+                return null;
+            }
+
+            final Properties properties = new Properties();
+            try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                properties.load(reader);
+            } catch (IOException | IllegalArgumentException e) {
+                return null;
+            }
+
+            final String url = properties.getProperty("url");
+            final String validator = properties.getProperty("validator");
+            if (url == null || validator == null) {
+                return null;
+            }
+            return new State(url, properties.getProperty("sha1"), validator);
+        }
+
+        private void write(Path file) throws IOException {
+            final Properties properties = new Properties();
+            properties.setProperty("url", url);
+            properties.setProperty("validator", validator);
+            if (sha1 != null) {
+                properties.setProperty("sha1", sha1);
+            }
+            try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+                properties.store(writer, null);
+            }
+        }
+
+        private boolean matches(Request request) {
+            return url.equals(request.url().toString()) && Objects.equals(sha1, request.sha1());
+        }
+    }
+
+    /**
+     * A failure which might not happen again on a retry.
+     */
+    private static final class RetryableException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        private RetryableException(String message, @Nullable Throwable cause) {
+            super(message, cause);
+        }
+    }
+}
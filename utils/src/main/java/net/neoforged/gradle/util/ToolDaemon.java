@@ -0,0 +1,176 @@
+package net.neoforged.gradle.util;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A running tool daemon, as seen by the {@link ToolDaemonPool} which started it.
+ * A daemon runs one request at a time.
+ */
+final class ToolDaemon {
+
+    private final Process process;
+    private final DataOutputStream requests;
+    private final DataInputStream responses;
+    private boolean broken = false;
+    private volatile long lastUsed = System.nanoTime();
+
+    private ToolDaemon(Process process) {
+        this.process = process;
+        this.requests = new DataOutputStream(new BufferedOutputStream(process.getOutputStream()));
+        this.responses = new DataInputStream(new BufferedInputStream(process.getInputStream()));
+    }
+
+    /**
+     * Starts a new daemon for the given key, and waits until it is ready for requests.
+     *
+     * @param key The key which describes the daemon.
+     * @return The started daemon.
+     * @throws IOException If the daemon could not be started.
+     */
+    static ToolDaemon start(ToolDaemonPool.Key key) throws IOException {
+        final List<String> command = new ArrayList<>();
+        command.add(key.executable());
+        command.addAll(key.jvmArguments());
+        command.add("-cp");
+        command.add(daemonClasspath());
+        command.add(ToolDaemonMain.class.getName());
+        command.addAll(key.classpath());
+
+        final Process process = new ProcessBuilder(command)
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .start();
+
+        final ToolDaemon daemon = new ToolDaemon(process);
+        try {
+            final byte ready = daemon.responses.readByte();
+            if (ready != ToolDaemonMain.READY) {
+                throw new IOException("Unexpected response from tool daemon: %d".formatted(ready));
+            }
+        } catch (IOException e) {
+            daemon.close();
+            throw new IOException("Failed to start tool daemon: %s".formatted(String.join(" ", command)), e);
+        }
+        return daemon;
+    }
+
+    private static String daemonClasspath() throws IOException {
+        try {
+            return new File(ToolDaemonMain.class.getProtectionDomain().getCodeSource().getLocation().toURI()).getAbsolutePath();
+        } catch (URISyntaxException e) {
+            throw new IOException("Could not locate the classes of the tool daemon", e);
+        }
+    }
+
+    /**
+     * Runs the main method of the given class in this daemon.
+     *
+     * @param mainClass The main class of the tool.
+     * @param arguments The arguments of the tool.
+     * @param standardOutput The file to append the standard output of the tool to, or null to discard it.
+     * @param errorOutput The stream to write the error output of the tool to.
+     * @throws IOException If the tool failed, or the daemon could not be reached.
+     */
+    void execute(String mainClass, List<String> arguments, @Nullable File standardOutput, OutputStream errorOutput) throws IOException {
+        String failure = null;
+        try {
+            requests.writeByte(ToolDaemonMain.REQUEST);
+            ToolDaemonMain.writeString(requests, mainClass);
+            requests.writeInt(arguments.size());
+            for (String argument : arguments) {
+                ToolDaemonMain.writeString(requests, argument);
+            }
+            ToolDaemonMain.writeString(requests, standardOutput == null ? "" : standardOutput.getAbsolutePath());
+            requests.flush();
+
+            byte type;
+            while ((type = responses.readByte()) == ToolDaemonMain.ERROR_OUTPUT) {
+                final byte[] bytes = new byte[responses.readInt()];
+                responses.readFully(bytes);
+                errorOutput.write(bytes);
+            }
+            errorOutput.flush();
+
+            if (type == ToolDaemonMain.FAILED) {
+                //The daemon survives a failure of the tool
+                failure = ToolDaemonMain.readString(responses);
+            } else if (type != ToolDaemonMain.COMPLETED) {
+                throw new IOException("Unexpected response from tool daemon: %d".formatted(type));
+            }
+        } catch (EOFException e) {
+            //The tool called System.exit, which ends the daemon as well
+            broken = true;
+            final int exitCode = waitForExit();
+            if (exitCode != 0) {
+                throw new IOException("Tool %s exited with code %d".formatted(mainClass, exitCode), e);
+            }
+        } catch (IOException e) {
+            broken = true;
+            throw e;
+        } finally {
+            lastUsed = System.nanoTime();
+        }
+
+        if (failure != null) {
+            throw new IOException("Tool %s failed in daemon:%n%s".formatted(mainClass, failure));
+        }
+    }
+
+    private int waitForExit() throws IOException {
+        try {
+            if (!process.waitFor(10, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+                throw new IOException("Tool daemon closed its output, but did not exit");
+            }
+            return process.exitValue();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for the tool daemon to exit", e);
+        }
+    }
+
+    /**
+     * @return Whether this daemon can run another request.
+     */
+    boolean isUsable() {
+        return !broken && process.isAlive();
+    }
+
+    /**
+     * @return The value of {@link System#nanoTime()} when this daemon last finished a request.
+     */
+    long getLastUsed() {
+        return lastUsed;
+    }
+
+    /**
+     * Stops this daemon, by closing its input.
+     */
+    void close() {
+        try {
+            requests.close();
+        } catch (IOException ignored) {
+            //The daemon is stopped forcibly below, if it does not stop by itself.
+        }
+        try {
+            if (!process.waitFor(5, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+            }
+        } catch (InterruptedException e) {
+            process.destroyForcibly();
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package net.neoforged.gradle.util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileDescriptor;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.lang.reflect.InvocationTargetException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The main class of a tool daemon: a JVM which runs the main method of a tool again and again, for requests of a {@link ToolDaemonPool}.
+ * <p>
+ * The daemon talks to the pool over its standard input and output, the tool never sees these streams:
+ * <ul>
+ *     <li>After it started, the daemon writes {@link #READY}.</li>
+ *     <li>A request is {@link #REQUEST}, the main class, the amount of arguments, the arguments and the file to append the standard output of the tool to (empty to discard it).</li>
+ *     <li>While the tool runs, its error output is sent as {@link #ERROR_OUTPUT} frames, with the amount of bytes and the bytes.</li>
+ *     <li>A request is answered by either {@link #COMPLETED}, or {@link #FAILED} with the stack trace of the failure.</li>
+ * </ul>
+ * The daemon stops when its standard input is closed, which also happens when the process of the pool dies.
+ * The classes of the tool are loaded in their own class loader, which is kept for all requests, so that the JIT of the daemon stays warm.
+ * Static state of the tool therefore survives between requests, only tools which do not rely on fresh static state may run in a daemon.
+ */
+public final class ToolDaemonMain {
+
+    static final byte READY = 0;
+    static final byte REQUEST = 1;
+    static final byte ERROR_OUTPUT = 2;
+    static final byte COMPLETED = 3;
+    static final byte FAILED = 4;
+
+    private ToolDaemonMain() {
+        throw new IllegalStateException("Can not instantiate an instance of: ToolDaemonMain. This is a utility class");
+    }
+
+    /**
+     * @param args The classpath of the tool.
+     */
+    public static void main(String[] args) throws IOException {
+        final DataInputStream requests = new DataInputStream(new BufferedInputStream(new FileInputStream(FileDescriptor.in)));
+        final DataOutputStream protocol = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(FileDescriptor.out)));
+
+        final URL[] classpath = new URL[args.length];
+        for (int i = 0; i < args.length; i++) {
+            classpath[i] = new File(args[i]).toURI().toURL();
+        }
+        final ClassLoader toolClassLoader = new URLClassLoader(classpath, ClassLoader.getPlatformClassLoader());
+
+        final SwitchableOutputStream standardOutput = new SwitchableOutputStream();
+        System.setOut(new PrintStream(standardOutput, true));
+        System.setErr(new PrintStream(new ErrorOutputStream(protocol), true));
+
+        synchronized (protocol) {
+            protocol.writeByte(READY);
+            protocol.flush();
+        }
+
+        while (true) {
+            final byte type;
+            try {
+                type = requests.readByte();
+            } catch (EOFException e) {
+                //The pool went away.
+                return;
+            }
+            if (type != REQUEST) {
+                throw new IOException("Unknown request type: %d".formatted(type));
+            }
+
+            final String mainClass = readString(requests);
+            final String[] arguments = new String[requests.readInt()];
+            for (int i = 0; i < arguments.length; i++) {
+                arguments[i] = readString(requests);
+            }
+            final String standardOutputFile = readString(requests);
+
+            String failure = null;
+            try (OutputStream output = standardOutputFile.isEmpty() ? OutputStream.nullOutputStream() : new BufferedOutputStream(new FileOutputStream(standardOutputFile, true))) {
+                standardOutput.target = output;
+                try {
+                    run(toolClassLoader, mainClass, arguments);
+                } finally {
+                    System.out.flush();
+                    System.err.flush();
+                    standardOutput.target = OutputStream.nullOutputStream();
+                }
+            } catch (Throwable e) {
+                final StringWriter trace = new StringWriter();
+                e.printStackTrace(new PrintWriter(trace));
+                failure = trace.toString();
+            }
+
+            synchronized (protocol) {
+                if (failure == null) {
+                    protocol.writeByte(COMPLETED);
+                } else {
+                    protocol.writeByte(FAILED);
+                    writeString(protocol, failure);
+                }
+                protocol.flush();
+            }
+        }
+    }
+
+    private static void run(ClassLoader toolClassLoader, String mainClass, String[] arguments) throws Throwable {
+        final Thread thread = Thread.currentThread();
+        final ClassLoader previous = thread.getContextClassLoader();
+        thread.setContextClassLoader(toolClassLoader);
+        try {
+            Class.forName(mainClass, true, toolClassLoader).getMethod("main", String[].class).invoke(null, (Object) arguments);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        } finally {
+            thread.setContextClassLoader(previous);
+        }
+    }
+
+    static String readString(DataInputStream input) throws IOException {
+        final byte[] bytes = new byte[input.readInt()];
+        input.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    static void writeString(DataOutputStream output, String value) throws IOException {
+        final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    /**
+     * Writes to the standard output file of the current request.
+     */
+    private static final class SwitchableOutputStream extends OutputStream {
+        private volatile OutputStream target = OutputStream.nullOutputStream();
+
+        @Override
+        public void write(int b) throws IOException {
+            target.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            target.write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            target.flush();
+        }
+    }
+
+    /**
+     * Sends the error output of the tool to the pool.
+     */
+    private static final class ErrorOutputStream extends OutputStream {
+        private final DataOutputStream protocol;
+
+        private ErrorOutputStream(DataOutputStream protocol) {
+            this.protocol = protocol;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[] { (byte) b }, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            synchronized (protocol) {
+                protocol.writeByte(ERROR_OUTPUT);
+                protocol.writeInt(len);
+                protocol.write(b, off, len);
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            synchronized (protocol) {
+                protocol.flush();
+            }
+        }
+    }
+}
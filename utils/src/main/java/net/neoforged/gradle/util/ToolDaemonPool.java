@@ -0,0 +1,209 @@
+package net.neoforged.gradle.util;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A pool of warm tool daemons, which run the main method of a tool without starting a new JVM for every execution.
+ * <p>
+ * Daemons are pooled per {@link Key}: the classpath of the tool, the java executable and the jvm arguments.
+ * A daemon runs one execution at a time, when all daemons of a key are busy a new one is started.
+ * After an execution at most {@link #getMaxIdleDaemons()} daemons per key are kept, and daemons which have been idle for longer than
+ * {@link #getIdleTimeout()} are stopped.
+ * <p>
+ * A tool which calls {@link System#exit(int)} still works, but ends its daemon, so it does not profit from the pool.
+ * Relative paths are resolved against the working directory of the daemon, so only tools which receive absolute paths are compatible.
+ */
+public final class ToolDaemonPool implements AutoCloseable {
+
+    private final Map<Key, Deque<ToolDaemon>> idle = new HashMap<>();
+    private final ScheduledExecutorService evictor;
+    private volatile Duration idleTimeout;
+    private volatile int maxIdleDaemons;
+    private boolean closed = false;
+
+    public ToolDaemonPool(Duration idleTimeout, int maxIdleDaemons) {
+        this.idleTimeout = idleTimeout;
+        this.maxIdleDaemons = maxIdleDaemons;
+        this.evictor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "tool-daemon-evictor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.evictor.scheduleWithFixedDelay(this::evictIdle, 30, 30, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Runs the main method of the given class in a daemon of the given key.
+     *
+     * @param key The key of the daemon.
+     * @param mainClass The main class of the tool.
+     * @param arguments The arguments of the tool.
+     * @param standardOutput The file to append the standard output of the tool to, or null to discard it.
+     * @param errorOutput The stream to write the error output of the tool to.
+     * @throws IOException If the tool failed, or no daemon could be started.
+     */
+    public void execute(Key key, String mainClass, List<String> arguments, @Nullable File standardOutput, OutputStream errorOutput) throws IOException {
+        final ToolDaemon daemon = acquire(key);
+        try {
+            daemon.execute(mainClass, arguments, standardOutput, errorOutput);
+        } finally {
+            release(key, daemon);
+        }
+    }
+
+    private ToolDaemon acquire(Key key) throws IOException {
+        synchronized (idle) {
+            if (closed) {
+                throw new IllegalStateException("The tool daemon pool is closed");
+            }
+
+            final Deque<ToolDaemon> daemons = idle.get(key);
+            while (daemons != null && !daemons.isEmpty()) {
+                final ToolDaemon daemon = daemons.pollFirst();
+                if (daemon.isUsable()) {
+                    return daemon;
+                }
+                daemon.close();
+            }
+        }
+
+        return ToolDaemon.start(key);
+    }
+
+    private void release(Key key, ToolDaemon daemon) {
+        synchronized (idle) {
+            if (!closed && daemon.isUsable()) {
+                final Deque<ToolDaemon> daemons = idle.computeIfAbsent(key, k -> new ArrayDeque<>());
+                if (daemons.size() < maxIdleDaemons) {
+                    //The most recently used daemon is used first, so that surplus daemons become idle long enough to be evicted.
+                    daemons.addFirst(daemon);
+                    return;
+                }
+            }
+        }
+
+        daemon.close();
+    }
+
+    /**
+     * Stops all daemons which have been idle for longer than the idle timeout.
+     */
+    public void evictIdle() {
+        final List<ToolDaemon> evicted = new ArrayList<>();
+        final long now = System.nanoTime();
+        synchronized (idle) {
+            for (Iterator<Deque<ToolDaemon>> daemons = idle.values().iterator(); daemons.hasNext(); ) {
+                final Deque<ToolDaemon> keyed = daemons.next();
+                keyed.removeIf(daemon -> {
+                    if (!daemon.isUsable() || now - daemon.getLastUsed() >= idleTimeout.toNanos()) {
+                        evicted.add(daemon);
+                        return true;
+                    }
+                    return false;
+                });
+                if (keyed.isEmpty()) {
+                    daemons.remove();
+                }
+            }
+        }
+
+        evicted.forEach(ToolDaemon::close);
+    }
+
+    /**
+     * @return The amount of daemons which are waiting for an execution.
+     */
+    public int getIdleDaemonCount() {
+        synchronized (idle) {
+            return idle.values().stream().mapToInt(Deque::size).sum();
+        }
+    }
+
+    /**
+     * @return The time after which an idle daemon is stopped.
+     */
+    public Duration getIdleTimeout() {
+        return idleTimeout;
+    }
+
+    /**
+     * @param idleTimeout The time after which an idle daemon is stopped.
+     */
+    public void setIdleTimeout(Duration idleTimeout) {
+        this.idleTimeout = idleTimeout;
+    }
+
+    /**
+     * @return The maximal amount of idle daemons kept per key.
+     */
+    public int getMaxIdleDaemons() {
+        return maxIdleDaemons;
+    }
+
+    /**
+     * @param maxIdleDaemons The maximal amount of idle daemons kept per key.
+     */
+    public void setMaxIdleDaemons(int maxIdleDaemons) {
+        this.maxIdleDaemons = maxIdleDaemons;
+    }
+
+    /**
+     * Stops all idle daemons, daemons which are still running an execution are stopped when it finishes.
+     */
+    @Override
+    public void close() {
+        final List<ToolDaemon> daemons = new ArrayList<>();
+        synchronized (idle) {
+            closed = true;
+            idle.values().forEach(daemons::addAll);
+            idle.clear();
+        }
+
+        evictor.shutdownNow();
+        daemons.forEach(ToolDaemon::close);
+    }
+
+    /**
+     * Identifies the daemons which can run a tool.
+     *
+     * @param classpath The classpath of the tool.
+     * @param fingerprint The size and modification time of every classpath entry, so that a changed tool gets new daemons.
+     * @param executable The java executable of the daemons.
+     * @param jvmArguments The jvm arguments of the daemons.
+     */
+    public record Key(List<String> classpath, List<String> fingerprint, String executable, List<String> jvmArguments) {
+
+        /**
+         * Creates the key for the given tool.
+         *
+         * @param classpath The classpath of the tool.
+         * @param executable The java executable of the daemons.
+         * @param jvmArguments The jvm arguments of the daemons.
+         * @return The key.
+         */
+        public static Key of(List<File> classpath, String executable, List<String> jvmArguments) {
+            final List<String> paths = new ArrayList<>(classpath.size());
+            final List<String> fingerprint = new ArrayList<>(classpath.size());
+            for (File file : classpath) {
+                paths.add(file.getAbsolutePath());
+                fingerprint.add(file.length() + ":" + file.lastModified());
+            }
+            return new Key(List.copyOf(paths), List.copyOf(fingerprint), executable, List.copyOf(jvmArguments));
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package net.neoforged.gradle.util;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HexFormat;
+
+/**
+ * An index of content-addressed objects whose content was verified against their SHA-1 hash.
+ * <p>
+ * The path of a content-addressed object is its hash, so once an object is verified, checking that it still exists is enough
+ * to know that it is valid, without reading it again.
+ * The index is stored as a sorted list of raw hashes, and looked up with a binary search.
+ * An index file which is missing or can not be read is treated as an empty index, so the objects are verified again.
+ */
+public final class VerifiedObjectIndex {
+
+    private static final int MAGIC = 0x4E47564F; // NGVO
+    private static final int VERSION = 1;
+    private static final int HASH_LENGTH = 20;
+
+    private static final VerifiedObjectIndex EMPTY = new VerifiedObjectIndex(new byte[0]);
+
+    /**
+     * The sorted, distinct hashes, each {@link #HASH_LENGTH} bytes long.
+     */
+    private final byte[] hashes;
+
+    private VerifiedObjectIndex(byte[] hashes) {
+        this.hashes = hashes;
+    }
+
+    /**
+     * Loads the index stored in the given file.
+     *
+     * @param file The index file.
+     * @return The index, which is empty when the file does not exist or is not a valid index.
+     */
+    public static VerifiedObjectIndex load(Path file) {
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (input.readInt() != MAGIC || input.readInt() != VERSION) {
+                return EMPTY;
+            }
+
+            final byte[] hashes = new byte[Math.multiplyExact(input.readInt(), HASH_LENGTH)];
+            input.readFully(hashes);
+            return new VerifiedObjectIndex(hashes);
+        } catch (IOException | ArithmeticException | NegativeArraySizeException e) {
+            return EMPTY;
+        }
+    }
+
+    /**
+     * Adds the given hashes to the index stored in the given file.
+     * The file is replaced atomically, a concurrent update by another build may be lost, which only means the objects are verified again.
+     *
+     * @param file The index file.
+     * @param verified The SHA-1 hashes of the verified objects.
+     * @throws IOException If the index could not be written.
+     */
+    public static void update(Path file, Collection<String> verified) throws IOException {
+        final byte[] existing = load(file).hashes;
+        final byte[] combined = Arrays.copyOf(existing, existing.length + verified.size() * HASH_LENGTH);
+        int length = existing.length;
+        for (String hash : verified) {
+            final byte[] raw = parse(hash);
+            if (raw != null) {
+                System.arraycopy(raw, 0, combined, length, HASH_LENGTH);
+                length += HASH_LENGTH;
+            }
+        }
+
+        final byte[] sorted = sortDistinct(combined, length / HASH_LENGTH);
+
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        final Path temporary = Files.createTempFile(file.toAbsolutePath().getParent(), file.getFileName().toString(), ".tmp");
+        try {
+            try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+                output.writeInt(MAGIC);
+                output.writeInt(VERSION);
+                output.writeInt(sorted.length / HASH_LENGTH);
+                output.write(sorted);
+            }
+
+            try {
+                Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    /**
+     * @param sha1 The SHA-1 hash of an object.
+     * @return Whether the object with the given hash was verified.
+     */
+    public boolean contains(String sha1) {
+        final byte[] raw = parse(sha1);
+        return raw != null && indexOf(hashes, hashes.length / HASH_LENGTH, raw) >= 0;
+    }
+
+    /**
+     * @return The amount of verified objects.
+     */
+    public int size() {
+        return hashes.length / HASH_LENGTH;
+    }
+
+    @Nullable
+    private static byte[] parse(String sha1) {
+        if (sha1.length() != HASH_LENGTH * 2) {
+            return null;
+        }
+        try {
+            return HexFormat.of().parseHex(sha1);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static int indexOf(byte[] hashes, int count, byte[] hash) {
+        int low = 0;
+        int high = count - 1;
+        while (low <= high) {
+            final int middle = (low + high) >>> 1;
+            final int comparison = compare(hashes, middle, hash);
+            if (comparison < 0) {
+                low = middle + 1;
+            } else if (comparison > 0) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -1;
+    }
+
+    private static int compare(byte[] hashes, int index, byte[] hash) {
+        final int offset = index * HASH_LENGTH;
+        return Arrays.compareUnsigned(hashes, offset, offset + HASH_LENGTH, hash, 0, HASH_LENGTH);
+    }
+
+    private static byte[] sortDistinct(byte[] hashes, int count) {
+        final byte[][] split = new byte[count][];
+        for (int i = 0; i < count; i++) {
+            split[i] = Arrays.copyOfRange(hashes, i * HASH_LENGTH, (i + 1) * HASH_LENGTH);
+        }
+        Arrays.sort(split, Arrays::compareUnsigned);
+
+        final byte[] sorted = new byte[count * HASH_LENGTH];
+        int length = 0;
+        for (int i = 0; i < count; i++) {
+            if (i > 0 && Arrays.equals(split[i], split[i - 1])) {
+                continue;
+            }
+            System.arraycopy(split[i], 0, sorted, length, HASH_LENGTH);
+            length += HASH_LENGTH;
+        }
+        return Arrays.copyOf(sorted, length);
+    }
+}
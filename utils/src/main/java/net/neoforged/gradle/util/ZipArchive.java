@@ -0,0 +1,513 @@
+package net.neoforged.gradle.util;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+import java.util.zip.ZipException;
+
+/**
+ * A zip file which is read through random access on its central directory.
+ * <p>
+ * Unlike {@link java.util.zip.ZipFile}, the archive also gives access to the raw, still compressed, data of its entries,
+ * which lets a {@link ZipRewriter} copy unchanged entries without inflating and deflating them again.
+ * Entries can be read concurrently from multiple threads.
+ */
+public final class ZipArchive implements Closeable {
+
+    static final int LOCAL_HEADER = 0x04034b50;
+    static final int CENTRAL_HEADER = 0x02014b50;
+    static final int END_HEADER = 0x06054b50;
+    static final int ZIP64_END_HEADER = 0x06064b50;
+    static final int ZIP64_LOCATOR = 0x07064b50;
+
+    static final int LOCAL_HEADER_SIZE = 30;
+    static final int CENTRAL_HEADER_SIZE = 46;
+    static final int END_SIZE = 22;
+    static final int ZIP64_END_SIZE = 56;
+    static final int ZIP64_LOCATOR_SIZE = 20;
+    static final int ZIP64_EXTRA = 0x0001;
+
+    static final long ZIP64_MAGIC = 0xFFFFFFFFL;
+    static final int ZIP64_MAGIC_COUNT = 0xFFFF;
+
+    static final int FLAG_ENCRYPTED = 0x1;
+
+    private static final int MAX_COMMENT_SIZE = 0xFFFF;
+
+    private final Path path;
+    private final FileChannel channel;
+    private final List<Entry> entries;
+    private final Map<String, Entry> entriesByName;
+
+    private ZipArchive(Path path, FileChannel channel, List<Entry> entries) {
+        this.path = path;
+        this.channel = channel;
+        this.entries = Collections.unmodifiableList(entries);
+        this.entriesByName = new HashMap<>(entries.size() * 2);
+        for (Entry entry : entries) {
+            this.entriesByName.putIfAbsent(entry.getName(), entry);
+        }
+    }
+
+    /**
+     * Opens the given zip file and reads its central directory.
+     *
+     * @param file The zip file.
+     * @return The opened archive.
+     * @throws IOException If the file could not be read, or is not a zip file.
+     */
+    public static ZipArchive open(File file) throws IOException {
+        return open(file.toPath());
+    }
+
+    /**
+     * Opens the given zip file and reads its central directory.
+     *
+     * @param path The zip file.
+     * @return The opened archive.
+     * @throws IOException If the file could not be read, or is not a zip file.
+     */
+    public static ZipArchive open(Path path) throws IOException {
+        final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            return new ZipArchive(path, channel, readCentralDirectory(path, channel));
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return The entries of the archive, in the order of its central directory.
+     */
+    public List<Entry> getEntries() {
+        return entries;
+    }
+
+    /**
+     * @param name The name of the entry.
+     * @return The entry with the given name, or null if the archive does not contain it.
+     */
+    @Nullable
+    public Entry getEntry(String name) {
+        return entriesByName.get(name);
+    }
+
+    /**
+     * Reads the uncompressed content of the given entry.
+     *
+     * @param entry The entry to read.
+     * @return The content of the entry.
+     * @throws IOException If the entry could not be read or inflated.
+     */
+    public byte[] read(Entry entry) throws IOException {
+        if (entry.getMethod() == ZipRewriter.STORED) {
+            return readRaw(entry);
+        }
+        checkDeflated(entry);
+        if (entry.getSize() > Integer.MAX_VALUE - 8) {
+            throw new ZipException("Entry %s in %s is too large to be read into memory".formatted(entry.getName(), path));
+        }
+
+        final byte[] compressed = readRaw(entry);
+        final byte[] content = new byte[(int) entry.getSize()];
+        final Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(compressed);
+            int read = 0;
+            while (read < content.length) {
+                final int inflated = inflater.inflate(content, read, content.length - read);
+                if (inflated == 0) {
+                    break;
+                }
+                read += inflated;
+            }
+            if (read != content.length) {
+                throw new ZipException("Entry %s in %s is truncated".formatted(entry.getName(), path));
+            }
+        } catch (DataFormatException e) {
+            throw new ZipException("Entry %s in %s is corrupt: %s".formatted(entry.getName(), path, e.getMessage()));
+        } finally {
+            inflater.end();
+        }
+        return content;
+    }
+
+    /**
+     * Opens a stream over the uncompressed content of the given entry, without reading it into memory.
+     *
+     * @param entry The entry to read.
+     * @return The stream, which needs to be closed by the caller.
+     * @throws IOException If the entry could not be read.
+     */
+    public InputStream getInputStream(Entry entry) throws IOException {
+        final InputStream raw = new RangeInputStream(dataOffset(entry), entry.getCompressedSize());
+        if (entry.getMethod() == ZipRewriter.STORED) {
+            return raw;
+        }
+        checkDeflated(entry);
+
+        return new InflaterInputStream(raw, new Inflater(true), 8192) {
+            private boolean eof;
+
+            @Override
+            protected void fill() throws IOException {
+                if (eof) {
+                    throw new EOFException("Unexpected end of entry %s in %s".formatted(entry.getName(), path));
+                }
+                len = in.read(buf, 0, buf.length);
+                if (len == -1) {
+                    //The inflater needs one dummy byte past the end of the raw deflate data.
+                    buf[0] = 0;
+                    len = 1;
+                    eof = true;
+                }
+                inf.setInput(buf, 0, len);
+            }
+
+            @Override
+            public void close() throws IOException {
+                inf.end();
+                super.close();
+            }
+        };
+    }
+
+    /**
+     * Reads the raw, possibly compressed, data of the given entry.
+     *
+     * @param entry The entry to read.
+     * @return The data of the entry, as it is stored in the archive.
+     * @throws IOException If the entry could not be read.
+     */
+    public byte[] readRaw(Entry entry) throws IOException {
+        if (entry.getCompressedSize() > Integer.MAX_VALUE - 8) {
+            throw new ZipException("Entry %s in %s is too large to be read into memory".formatted(entry.getName(), path));
+        }
+
+        final byte[] data = new byte[(int) entry.getCompressedSize()];
+        readFully(ByteBuffer.wrap(data), dataOffset(entry));
+        return data;
+    }
+
+    /**
+     * Reads the raw data of the given entry into the given buffer, which needs to have room for it.
+     */
+    void readRaw(Entry entry, ByteBuffer target) throws IOException {
+        final ByteBuffer slice = target.slice();
+        slice.limit((int) entry.getCompressedSize());
+        readFully(slice, dataOffset(entry));
+        target.position(target.position() + slice.position());
+    }
+
+    /**
+     * Transfers the raw data of the given entry directly into the given channel.
+     */
+    void transferRaw(Entry entry, FileChannel target) throws IOException {
+        long position = dataOffset(entry);
+        long remaining = entry.getCompressedSize();
+        while (remaining > 0) {
+            final long transferred = channel.transferTo(position, remaining, target);
+            if (transferred <= 0) {
+                if (position >= channel.size()) {
+                    throw new EOFException("Unexpected end of entry %s in %s".formatted(entry.getName(), path));
+                }
+                continue;
+            }
+            position += transferred;
+            remaining -= transferred;
+        }
+    }
+
+    private long dataOffset(Entry entry) throws IOException {
+        long offset = entry.dataOffset;
+        if (offset < 0) {
+            final ByteBuffer header = ByteBuffer.allocate(LOCAL_HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            readFully(header, entry.localHeaderOffset);
+            if (header.getInt(0) != LOCAL_HEADER) {
+                throw new ZipException("Invalid local header of entry %s in %s".formatted(entry.getName(), path));
+            }
+            offset = entry.localHeaderOffset + LOCAL_HEADER_SIZE + Short.toUnsignedInt(header.getShort(26)) + Short.toUnsignedInt(header.getShort(28));
+            entry.dataOffset = offset;
+        }
+        return offset;
+    }
+
+    private void checkDeflated(Entry entry) throws ZipException {
+        if (entry.getMethod() != ZipRewriter.DEFLATED) {
+            throw new ZipException("Entry %s in %s uses the unsupported compression method %d".formatted(entry.getName(), path, entry.getMethod()));
+        }
+    }
+
+    private void readFully(ByteBuffer target, long position) throws IOException {
+        readFully(channel, target, position, path);
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer target, long position, Path path) throws IOException {
+        while (target.hasRemaining()) {
+            final int read = channel.read(target, position);
+            if (read < 0) {
+                throw new EOFException("Unexpected end of zip file %s".formatted(path));
+            }
+            position += read;
+        }
+    }
+
+    private static List<Entry> readCentralDirectory(Path path, FileChannel channel) throws IOException {
+        final long size = channel.size();
+        final int tailSize = (int) Math.min(size, END_SIZE + MAX_COMMENT_SIZE);
+        final ByteBuffer tail = ByteBuffer.allocate(tailSize).order(ByteOrder.LITTLE_ENDIAN);
+        readFully(channel, tail, size - tailSize, path);
+
+        int end = -1;
+        for (int i = tailSize - END_SIZE; i >= 0; i--) {
+            if (tail.getInt(i) == END_HEADER && i + END_SIZE + Short.toUnsignedInt(tail.getShort(i + 20)) <= tailSize) {
+                end = i;
+                break;
+            }
+        }
+        if (end < 0) {
+            throw new ZipException("Not a zip file, or the end of its central directory is missing: %s".formatted(path));
+        }
+
+        long count = Short.toUnsignedInt(tail.getShort(end + 10));
+        long directorySize = Integer.toUnsignedLong(tail.getInt(end + 12));
+        long directoryOffset = Integer.toUnsignedLong(tail.getInt(end + 16));
+
+        final long endPosition = size - tailSize + end;
+        if (endPosition >= ZIP64_LOCATOR_SIZE) {
+            final ByteBuffer locator = ByteBuffer.allocate(ZIP64_LOCATOR_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            readFully(channel, locator, endPosition - ZIP64_LOCATOR_SIZE, path);
+            if (locator.getInt(0) == ZIP64_LOCATOR) {
+                final ByteBuffer zip64End = ByteBuffer.allocate(ZIP64_END_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+                readFully(channel, zip64End, locator.getLong(8), path);
+                if (zip64End.getInt(0) != ZIP64_END_HEADER) {
+                    throw new ZipException("Invalid zip64 end of central directory in %s".formatted(path));
+                }
+                count = zip64End.getLong(32);
+                directorySize = zip64End.getLong(40);
+                directoryOffset = zip64End.getLong(48);
+            }
+        }
+
+        if (directorySize > Integer.MAX_VALUE || directoryOffset + directorySize > size) {
+            throw new ZipException("Invalid central directory in %s".formatted(path));
+        }
+
+        final ByteBuffer directory = ByteBuffer.allocate((int) directorySize).order(ByteOrder.LITTLE_ENDIAN);
+        readFully(channel, directory, directoryOffset, path);
+        directory.flip();
+
+        final List<Entry> entries = new ArrayList<>((int) Math.min(count, Integer.MAX_VALUE));
+        for (long i = 0; i < count; i++) {
+            if (directory.remaining() < CENTRAL_HEADER_SIZE || directory.getInt() != CENTRAL_HEADER) {
+                throw new ZipException("Invalid central directory header in %s".formatted(path));
+            }
+            entries.add(readEntry(directory, path));
+        }
+        return entries;
+    }
+
+    private static Entry readEntry(ByteBuffer directory, Path path) throws ZipException {
+        directory.getShort(); //Version made by
+        final int versionNeeded = Short.toUnsignedInt(directory.getShort());
+        final int flags = Short.toUnsignedInt(directory.getShort());
+        final int method = Short.toUnsignedInt(directory.getShort());
+        final int dosTime = directory.getInt();
+        final long crc = Integer.toUnsignedLong(directory.getInt());
+        long compressedSize = Integer.toUnsignedLong(directory.getInt());
+        long size = Integer.toUnsignedLong(directory.getInt());
+        final int nameLength = Short.toUnsignedInt(directory.getShort());
+        final int extraLength = Short.toUnsignedInt(directory.getShort());
+        final int commentLength = Short.toUnsignedInt(directory.getShort());
+        directory.position(directory.position() + 8); //Disk, internal and external attributes
+        long localHeaderOffset = Integer.toUnsignedLong(directory.getInt());
+
+        if (directory.remaining() < nameLength + extraLength + commentLength) {
+            throw new ZipException("Invalid central directory header in %s".formatted(path));
+        }
+
+        final byte[] name = new byte[nameLength];
+        directory.get(name);
+
+        final int extraEnd = directory.position() + extraLength;
+        while (directory.position() + 4 <= extraEnd) {
+            final int id = Short.toUnsignedInt(directory.getShort());
+            final int length = Short.toUnsignedInt(directory.getShort());
+            final int next = directory.position() + length;
+            if (id == ZIP64_EXTRA) {
+                if (size == ZIP64_MAGIC && directory.position() + 8 <= next) {
+                    size = directory.getLong();
+                }
+                if (compressedSize == ZIP64_MAGIC && directory.position() + 8 <= next) {
+                    compressedSize = directory.getLong();
+                }
+                if (localHeaderOffset == ZIP64_MAGIC && directory.position() + 8 <= next) {
+                    localHeaderOffset = directory.getLong();
+                }
+            }
+            directory.position(Math.min(next, extraEnd));
+        }
+        directory.position(extraEnd + commentLength);
+
+        return new Entry(new String(name, StandardCharsets.UTF_8), versionNeeded, flags, method, dosTime, crc, compressedSize, size, localHeaderOffset);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Reads a range of the archive, without moving the position of its channel.
+     */
+    private final class RangeInputStream extends InputStream {
+        private long position;
+        private final long end;
+
+        private RangeInputStream(long position, long length) {
+            this.position = position;
+            this.end = position + length;
+        }
+
+        @Override
+        public int read() throws IOException {
+            final byte[] single = new byte[1];
+            return read(single, 0, 1) == -1 ? -1 : single[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (position >= end) {
+                return -1;
+            }
+
+            final int read = channel.read(ByteBuffer.wrap(b, off, (int) Math.min(len, end - position)), position);
+            if (read < 0) {
+                throw new EOFException("Unexpected end of zip file %s".formatted(path));
+            }
+            position += read;
+            return read;
+        }
+
+        @Override
+        public int available() {
+            return (int) Math.min(end - position, Integer.MAX_VALUE);
+        }
+    }
+
+    /**
+     * An entry of the central directory of an archive.
+     */
+    public static final class Entry {
+        private final String name;
+        private final int versionNeeded;
+        private final int flags;
+        private final int method;
+        private final int dosTime;
+        private final long crc;
+        private final long compressedSize;
+        private final long size;
+        private final long localHeaderOffset;
+        private volatile long dataOffset = -1;
+
+        private Entry(String name, int versionNeeded, int flags, int method, int dosTime, long crc, long compressedSize, long size, long localHeaderOffset) {
+            this.name = name;
+            this.versionNeeded = versionNeeded;
+            this.flags = flags;
+            this.method = method;
+            this.dosTime = dosTime;
+            this.crc = crc;
+            this.compressedSize = compressedSize;
+            this.size = size;
+            this.localHeaderOffset = localHeaderOffset;
+        }
+
+        /**
+         * @return The name of the entry, directories end with a slash.
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * @return Whether the entry is a directory.
+         */
+        public boolean isDirectory() {
+            return name.endsWith("/");
+        }
+
+        /**
+         * @return The compression method of the entry.
+         */
+        public int getMethod() {
+            return method;
+        }
+
+        /**
+         * @return The modification time of the entry, in the MS-DOS format used by zip files.
+         */
+        public int getDosTime() {
+            return dosTime;
+        }
+
+        /**
+         * @return The modification time of the entry in milliseconds since the epoch, read as UTC like {@link ZipRewriter#toDosTime(long)}.
+         */
+        public long getTime() {
+            return ZipRewriter.fromDosTime(dosTime);
+        }
+
+        /**
+         * @return The CRC-32 of the uncompressed content of the entry.
+         */
+        public long getCrc() {
+            return crc;
+        }
+
+        /**
+         * @return The size of the compressed data of the entry.
+         */
+        public long getCompressedSize() {
+            return compressedSize;
+        }
+
+        /**
+         * @return The size of the uncompressed content of the entry.
+         */
+        public long getSize() {
+            return size;
+        }
+
+        int getVersionNeeded() {
+            return versionNeeded;
+        }
+
+        int getFlags() {
+            return flags;
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+}
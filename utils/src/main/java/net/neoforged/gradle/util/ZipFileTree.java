@@ -0,0 +1,247 @@
+package net.neoforged.gradle.util;
+
+import org.gradle.api.Action;
+import org.gradle.api.file.FilePermissions;
+import org.gradle.api.file.FileTreeElement;
+import org.gradle.api.file.FileVisitDetails;
+import org.gradle.api.file.FileVisitor;
+import org.gradle.api.file.RelativePath;
+import org.gradle.api.file.UserClassFilePermissions;
+import org.gradle.api.specs.Spec;
+import org.gradle.api.specs.Specs;
+import org.gradle.api.tasks.util.PatternFilterable;
+import org.gradle.api.tasks.util.PatternSet;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * A file tree over the entries of a zip file, which hands the entries to a {@link FileVisitor} straight from the zip file.
+ * <p>
+ * Unlike the trees of {@link org.gradle.api.file.ArchiveOperations#zipTree(Object)}, visited entries are never extracted
+ * to a temporary file first: their content is streamed from the zip file when the visitor opens or copies them.
+ * As a consequence {@link FileTreeElement#getFile()} is not supported.
+ * Entries are visited in the order of the central directory of the zip file.
+ */
+public final class ZipFileTree {
+
+    private final File zipFile;
+    private final Spec<FileTreeElement> spec;
+
+    private ZipFileTree(File zipFile, Spec<FileTreeElement> spec) {
+        this.zipFile = zipFile;
+        this.spec = spec;
+    }
+
+    /**
+     * Creates a tree over all entries of the given zip file.
+     *
+     * @param zipFile The zip file.
+     * @return The tree.
+     */
+    public static ZipFileTree of(File zipFile) {
+        return new ZipFileTree(zipFile, Specs.satisfyAll());
+    }
+
+    /**
+     * Restricts this tree to the entries matching the given patterns.
+     *
+     * @param filterConfiguration The action which configures the patterns.
+     * @return The restricted tree.
+     */
+    public ZipFileTree matching(Action<? super PatternFilterable> filterConfiguration) {
+        final PatternSet patterns = new PatternSet();
+        filterConfiguration.execute(patterns);
+        return filter(patterns.getAsSpec());
+    }
+
+    /**
+     * Restricts this tree to the entries satisfying the given spec.
+     *
+     * @param filter The spec the entries need to satisfy.
+     * @return The restricted tree.
+     */
+    public ZipFileTree filter(Spec<? super FileTreeElement> filter) {
+        return new ZipFileTree(zipFile, Specs.intersect(spec, filter));
+    }
+
+    /**
+     * Visits the directories and files of this tree.
+     *
+     * @param visitor The visitor.
+     * @throws IOException If the zip file could not be read.
+     */
+    public void visit(FileVisitor visitor) throws IOException {
+        try (ZipArchive archive = ZipArchive.open(zipFile)) {
+            final boolean[] stopped = new boolean[1];
+            for (ZipArchive.Entry entry : archive.getEntries()) {
+                final EntryDetails details = new EntryDetails(archive, entry, stopped);
+                if (!spec.isSatisfiedBy(details)) {
+                    continue;
+                }
+
+                if (entry.isDirectory()) {
+                    visitor.visitDir(details);
+                } else {
+                    visitor.visitFile(details);
+                }
+
+                if (stopped[0]) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * The details of a zip entry, which read the content of the entry from the open archive.
+     */
+    private static final class EntryDetails implements FileVisitDetails {
+        private final ZipArchive archive;
+        private final ZipArchive.Entry entry;
+        private final boolean[] stopped;
+        private final RelativePath relativePath;
+
+        private EntryDetails(ZipArchive archive, ZipArchive.Entry entry, boolean[] stopped) {
+            this.archive = archive;
+            this.entry = entry;
+            this.stopped = stopped;
+
+            final String name = entry.getName();
+            this.relativePath = RelativePath.parse(!entry.isDirectory(), entry.isDirectory() ? name.substring(0, name.length() - 1) : name);
+        }
+
+        @Override
+        public void stopVisiting() {
+            stopped[0] = true;
+        }
+
+        @Override
+        public File getFile() {
+            throw new UnsupportedOperationException("Entries of a zip file tree are not extracted to a file: " + entry.getName());
+        }
+
+        @Override
+        public boolean isDirectory() {
+            return entry.isDirectory();
+        }
+
+        @Override
+        public long getLastModified() {
+            return entry.getTime();
+        }
+
+        @Override
+        public long getSize() {
+            return entry.getSize();
+        }
+
+        @Override
+        public InputStream open() {
+            try {
+                return archive.getInputStream(entry);
+            } catch (IOException e) {
+                throw new RuntimeException("Could not read zip entry: " + entry.getName(), e);
+            }
+        }
+
+        @Override
+        public void copyTo(OutputStream output) {
+            try (InputStream input = archive.getInputStream(entry)) {
+                input.transferTo(output);
+            } catch (IOException e) {
+                throw new RuntimeException("Could not read zip entry: " + entry.getName(), e);
+            }
+        }
+
+        @Override
+        public boolean copyTo(File target) {
+            try {
+                if (isDirectory()) {
+                    Files.createDirectories(target.toPath());
+                } else {
+                    Files.createDirectories(target.toPath().toAbsolutePath().getParent());
+                    try (InputStream input = archive.getInputStream(entry)) {
+                        Files.copy(input, target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                    }
+                }
+                return true;
+            } catch (IOException e) {
+                throw new RuntimeException("Could not extract zip entry: " + entry.getName(), e);
+            }
+        }
+
+        @Override
+        public String getName() {
+            return relativePath.getLastName();
+        }
+
+        @Override
+        public String getPath() {
+            return relativePath.getPathString();
+        }
+
+        @Override
+        public RelativePath getRelativePath() {
+            return relativePath;
+        }
+
+        @Override
+        public int getMode() {
+            return isDirectory() ? 0755 : 0644;
+        }
+
+        @Override
+        public FilePermissions getPermissions() {
+            return new ModePermissions(getMode());
+        }
+    }
+
+    /**
+     * The permissions described by a unix mode, like the ones of {@link EntryDetails#getMode()}.
+     */
+    private record ModePermissions(int mode) implements FilePermissions {
+
+        @Override
+        public UserClassFilePermissions getUser() {
+            return new ClassPermissions(mode >> 6);
+        }
+
+        @Override
+        public UserClassFilePermissions getGroup() {
+            return new ClassPermissions(mode >> 3);
+        }
+
+        @Override
+        public UserClassFilePermissions getOther() {
+            return new ClassPermissions(mode);
+        }
+
+        @Override
+        public int toUnixNumeric() {
+            return mode & 0777;
+        }
+    }
+
+    private record ClassPermissions(int bits) implements UserClassFilePermissions {
+
+        @Override
+        public boolean getRead() {
+            return (bits & 4) != 0;
+        }
+
+        @Override
+        public boolean getWrite() {
+            return (bits & 2) != 0;
+        }
+
+        @Override
+        public boolean getExecute() {
+            return (bits & 1) != 0;
+        }
+    }
+}
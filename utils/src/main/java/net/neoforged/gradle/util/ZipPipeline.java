@@ -0,0 +1,236 @@
+package net.neoforged.gradle.util;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.Deflater;
+
+/**
+ * Rewrites the entries of a zip file into another zip file, by processing the entries in a pipeline of bounded stages.
+ * <p>
+ * One reader stage hands the entries of the central directory to the worker stage, where a number of threads decide what to write for each entry,
+ * and compress any new content with a deflater of their own.
+ * One writer stage writes the results in the order of the input, so that the output does not depend on the number of workers.
+ * The queue between the stages is bounded, which bounds the memory used by results which wait for an earlier entry.
+ */
+public final class ZipPipeline {
+
+    /**
+     * The amount of processed entries which may be pending per worker thread, before the reader waits for the writer.
+     */
+    private static final int PENDING_ENTRIES_PER_THREAD = 4;
+
+    private static final AtomicInteger PIPELINE_COUNTER = new AtomicInteger();
+
+    private ZipPipeline() {
+        throw new IllegalStateException("Can not instantiate an instance of: ZipPipeline. This is a utility class");
+    }
+
+    /**
+     * Processes all entries of the given archive and writes the results to the given rewriter.
+     *
+     * @param input The archive to read.
+     * @param output The rewriter to write to.
+     * @param parallelism The amount of worker threads, a value of one processes all entries on the calling thread.
+     * @param processor The processor which decides what to write for each entry.
+     * @throws IOException If an entry could not be processed or written.
+     */
+    public static void rewrite(ZipArchive input, ZipRewriter output, int parallelism, EntryProcessor processor) throws IOException {
+        if (parallelism <= 1) {
+            rewriteSerial(input, output, processor);
+        } else {
+            rewriteParallel(input, output, parallelism, processor);
+        }
+    }
+
+    private static void rewriteSerial(ZipArchive input, ZipRewriter output, EntryProcessor processor) throws IOException {
+        final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        try {
+            for (ZipArchive.Entry entry : input.getEntries()) {
+                write(input, output, process(input, entry, processor, deflater));
+            }
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static void rewriteParallel(ZipArchive input, ZipRewriter output, int parallelism, EntryProcessor processor) throws IOException {
+        final String name = "zip-pipeline-" + PIPELINE_COUNTER.incrementAndGet();
+        final AtomicInteger workerCounter = new AtomicInteger();
+        final ExecutorService workers = Executors.newFixedThreadPool(parallelism, runnable -> {
+            final Thread thread = new Thread(runnable, name + "-worker-" + workerCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        //Every worker thread compresses with its own deflater, which is reset for every entry.
+        final ConcurrentLinkedQueue<Deflater> deflaters = new ConcurrentLinkedQueue<>();
+        final ThreadLocal<Deflater> deflater = ThreadLocal.withInitial(() -> {
+            final Deflater created = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+            deflaters.add(created);
+            return created;
+        });
+
+        final Future<List<Result>> end = CompletableFuture.completedFuture(List.of());
+        final BlockingQueue<Future<List<Result>>> pending = new ArrayBlockingQueue<>(parallelism * PENDING_ENTRIES_PER_THREAD);
+        final Thread reader = new Thread(() -> {
+            try {
+                for (ZipArchive.Entry entry : input.getEntries()) {
+                    pending.put(workers.submit(() -> process(input, entry, processor, deflater.get())));
+                }
+                pending.put(end);
+            } catch (InterruptedException e) {
+                //The writer failed, and stopped the pipeline.
+                Thread.currentThread().interrupt();
+            }
+        }, name + "-reader");
+        reader.setDaemon(true);
+        reader.start();
+
+        try {
+            while (true) {
+                final Future<List<Result>> next = pending.take();
+                if (next == end) {
+                    break;
+                }
+                write(input, output, next.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while rewriting zip file", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException exception) {
+                throw exception;
+            }
+            if (e.getCause() instanceof RuntimeException exception) {
+                throw exception;
+            }
+            throw new IOException("Failed to process zip entry", e.getCause());
+        } finally {
+            reader.interrupt();
+            workers.shutdownNow();
+            try {
+                reader.join();
+                //The deflaters can only be released once no worker uses them anymore.
+                if (workers.awaitTermination(1, TimeUnit.MINUTES)) {
+                    deflaters.forEach(Deflater::end);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static List<Result> process(ZipArchive input, ZipArchive.Entry entry, EntryProcessor processor, Deflater deflater) throws IOException {
+        final EntryOutput output = new EntryOutput(input, deflater);
+        processor.process(entry, output);
+        return output.results;
+    }
+
+    private static void write(ZipArchive input, ZipRewriter output, List<Result> results) throws IOException {
+        for (Result result : results) {
+            if (result instanceof Copy copy) {
+                output.copy(input, copy.entry(), copy.dosTime());
+            } else if (result instanceof Write write) {
+                output.write(write.entry());
+            }
+        }
+    }
+
+    /**
+     * Decides what to write for an entry of the input.
+     * Processors are called concurrently for different entries, and need to be thread-safe.
+     */
+    @FunctionalInterface
+    public interface EntryProcessor {
+        /**
+         * @param entry The entry of the input.
+         * @param output The output, which collects what should be written for the entry, in order.
+         * @throws IOException If the entry could not be processed.
+         */
+        void process(ZipArchive.Entry entry, EntryOutput output) throws IOException;
+    }
+
+    /**
+     * Collects what should be written for an entry of the input, nothing is written when nothing is collected.
+     */
+    public static final class EntryOutput {
+        private final ZipArchive input;
+        private final Deflater deflater;
+        private final List<Result> results = new ArrayList<>(1);
+
+        private EntryOutput(ZipArchive input, Deflater deflater) {
+            this.input = input;
+            this.deflater = deflater;
+        }
+
+        /**
+         * Reads the uncompressed content of an entry of the input.
+         *
+         * @param entry The entry to read.
+         * @return The content of the entry.
+         * @throws IOException If the entry could not be read.
+         */
+        public byte[] read(ZipArchive.Entry entry) throws IOException {
+            return input.read(entry);
+        }
+
+        /**
+         * Copies the given entry of the input, including its modification time, without decompressing it.
+         *
+         * @param entry The entry to copy.
+         */
+        public void copy(ZipArchive.Entry entry) {
+            copy(entry, entry.getDosTime());
+        }
+
+        /**
+         * Copies the given entry of the input with the given modification time, without decompressing it.
+         *
+         * @param entry The entry to copy.
+         * @param dosTime The modification time, in the MS-DOS format used by zip files.
+         */
+        public void copy(ZipArchive.Entry entry, int dosTime) {
+            results.add(new Copy(entry, dosTime));
+        }
+
+        /**
+         * Writes a new entry with the given content and the modification time of {@link ZipRewriter#STABLE_TIME}.
+         * The content is compressed right away, on the thread of the caller.
+         *
+         * @param name The name of the entry.
+         * @param content The content of the entry.
+         */
+        public void write(String name, byte[] content) {
+            write(name, content, ZipRewriter.STABLE_TIME);
+        }
+
+        /**
+         * Writes a new entry with the given content.
+         * The content is compressed right away, on the thread of the caller.
+         *
+         * @param name The name of the entry.
+         * @param content The content of the entry.
+         * @param dosTime The modification time, in the MS-DOS format used by zip files.
+         */
+        public void write(String name, byte[] content, int dosTime) {
+            results.add(new Write(ZipRewriter.compress(name, content, dosTime, deflater)));
+        }
+    }
+
+    private sealed interface Result permits Copy, Write {}
+
+    private record Copy(ZipArchive.Entry entry, int dosTime) implements Result {}
+
+    private record Write(ZipRewriter.CompressedEntry entry) implements Result {}
+}
@@ -0,0 +1,401 @@
+package net.neoforged.gradle.util;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.ZipException;
+
+/**
+ * Writes a zip file, mostly from the entries of other zip files.
+ * <p>
+ * Entries which are copied from a {@link ZipArchive} are copied as their raw, still compressed, data,
+ * so only the entries which are actually written with new content are compressed.
+ * Names are always encoded as UTF-8, and duplicate names are rejected with the same exception as {@link java.util.zip.ZipOutputStream}.
+ */
+public final class ZipRewriter implements Closeable {
+
+    /**
+     * The compression method of entries which are stored without compression.
+     */
+    public static final int STORED = 0;
+
+    /**
+     * The compression method of entries which are compressed with deflate.
+     */
+    public static final int DEFLATED = 8;
+
+    /**
+     * The time of the entries created by {@link FileUtils#getStableEntry(String)}, in the MS-DOS format used by zip files.
+     */
+    public static final int STABLE_TIME = toDosTime(FileUtils.ZIPTIME);
+
+    private static final int FLAG_UTF8 = 0x800;
+    private static final int FLAG_DEFLATE_OPTIONS = 0x6;
+
+    private static final int VERSION_STORED = 10;
+    private static final int VERSION_DEFLATED = 20;
+    private static final int VERSION_ZIP64 = 45;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+    private final List<CentralEntry> written = new ArrayList<>();
+    private final Set<String> names = new HashSet<>();
+    private final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+    private long position;
+    private boolean closed;
+
+    /**
+     * Creates a new rewriter which writes to the given file, replacing its content.
+     *
+     * @param target The file to write to.
+     * @throws IOException If the file could not be opened.
+     */
+    public ZipRewriter(File target) throws IOException {
+        this.channel = FileChannel.open(target.toPath(), StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+    }
+
+    /**
+     * Copies the given entry, including its modification time, without decompressing it.
+     *
+     * @param source The archive the entry is from.
+     * @param entry The entry to copy.
+     * @throws IOException If the entry could not be copied, or an entry with the same name was already written.
+     */
+    public void copy(ZipArchive source, ZipArchive.Entry entry) throws IOException {
+        copy(source, entry, entry.getDosTime());
+    }
+
+    /**
+     * Copies the given entry with the given modification time, without decompressing it.
+     *
+     * @param source The archive the entry is from.
+     * @param entry The entry to copy.
+     * @param dosTime The modification time, in the MS-DOS format used by zip files, for example {@link #STABLE_TIME}.
+     * @throws IOException If the entry could not be copied, or an entry with the same name was already written.
+     */
+    public void copy(ZipArchive source, ZipArchive.Entry entry, int dosTime) throws IOException {
+        if ((entry.getFlags() & ZipArchive.FLAG_ENCRYPTED) != 0) {
+            throw new ZipException("Encrypted entries are not supported: %s".formatted(entry.getName()));
+        }
+
+        final int version = Math.max(entry.getVersionNeeded(), entry.getMethod() == STORED ? VERSION_STORED : VERSION_DEFLATED);
+        final int flags = FLAG_UTF8 | (entry.getMethod() == DEFLATED ? entry.getFlags() & FLAG_DEFLATE_OPTIONS : 0);
+        writeLocalHeader(entry.getName(), version, flags, entry.getMethod(), dosTime, entry.getCrc(), entry.getCompressedSize(), entry.getSize());
+
+        if (entry.getCompressedSize() <= buffer.capacity()) {
+            ensure((int) entry.getCompressedSize());
+            source.readRaw(entry, buffer);
+        } else {
+            flush();
+            source.transferRaw(entry, channel);
+        }
+        position += entry.getCompressedSize();
+    }
+
+    /**
+     * Writes a new entry with the given content, which is compressed unless the entry is a directory.
+     * The entry gets the modification time of {@link #STABLE_TIME}.
+     *
+     * @param name The name of the entry, directories end with a slash.
+     * @param content The content of the entry.
+     * @throws IOException If the entry could not be written, or an entry with the same name was already written.
+     */
+    public void write(String name, byte[] content) throws IOException {
+        write(name, content, STABLE_TIME);
+    }
+
+    /**
+     * Writes a new entry with the given content, which is compressed unless the entry is a directory.
+     *
+     * @param name The name of the entry, directories end with a slash.
+     * @param content The content of the entry.
+     * @param dosTime The modification time, in the MS-DOS format used by zip files, for example {@link #STABLE_TIME}.
+     * @throws IOException If the entry could not be written, or an entry with the same name was already written.
+     */
+    public void write(String name, byte[] content, int dosTime) throws IOException {
+        write(compress(name, content, dosTime, deflater));
+    }
+
+    /**
+     * Writes an entry which was compressed before, possibly on another thread.
+     *
+     * @param entry The compressed entry.
+     * @throws IOException If the entry could not be written, or an entry with the same name was already written.
+     * @see #compress(String, byte[], int, Deflater)
+     */
+    public void write(CompressedEntry entry) throws IOException {
+        writeLocalHeader(entry.name(), entry.method() == STORED ? VERSION_STORED : VERSION_DEFLATED, FLAG_UTF8, entry.method(), entry.dosTime(), entry.crc(), entry.data().length, entry.size());
+        writeBytes(entry.data(), entry.data().length);
+    }
+
+    /**
+     * Compresses a new entry with the given content, unless the entry is a directory.
+     * Every entry is compressed as its own deflate stream, so entries can be compressed concurrently with one deflater per thread,
+     * and written in any order afterwards.
+     *
+     * @param name The name of the entry, directories end with a slash.
+     * @param content The content of the entry.
+     * @param dosTime The modification time, in the MS-DOS format used by zip files, for example {@link #STABLE_TIME}.
+     * @param deflater The deflater to compress with, which needs to use the {@code nowrap} format and is reset before use.
+     * @return The compressed entry.
+     */
+    public static CompressedEntry compress(String name, byte[] content, int dosTime, Deflater deflater) {
+        final CRC32 crc = new CRC32();
+        crc.update(content);
+
+        if (name.endsWith("/") && content.length == 0) {
+            return new CompressedEntry(name, STORED, dosTime, crc.getValue(), content.length, new byte[0]);
+        }
+
+        deflater.reset();
+        deflater.setInput(content);
+        deflater.finish();
+
+        byte[] compressed = new byte[Math.max(64, content.length / 2)];
+        int length = 0;
+        while (!deflater.finished()) {
+            if (length == compressed.length) {
+                compressed = Arrays.copyOf(compressed, compressed.length * 2);
+            }
+            length += deflater.deflate(compressed, length, compressed.length - length);
+        }
+        return new CompressedEntry(name, DEFLATED, dosTime, crc.getValue(), content.length, length == compressed.length ? compressed : Arrays.copyOf(compressed, length));
+    }
+
+    private void writeLocalHeader(String name, int version, int flags, int method, int dosTime, long crc, long compressedSize, long size) throws IOException {
+        if (closed) {
+            throw new IOException("The zip file is already closed");
+        }
+        if (!names.add(name)) {
+            throw new ZipException("duplicate entry: " + name);
+        }
+
+        final byte[] encodedName = name.getBytes(StandardCharsets.UTF_8);
+        if (encodedName.length > 0xFFFF) {
+            throw new ZipException("Entry name too long: %s".formatted(name));
+        }
+
+        final boolean zip64 = compressedSize >= ZipArchive.ZIP64_MAGIC || size >= ZipArchive.ZIP64_MAGIC;
+        if (zip64) {
+            version = Math.max(version, VERSION_ZIP64);
+        }
+        written.add(new CentralEntry(encodedName, version, flags, method, dosTime, crc, compressedSize, size, position));
+
+        ensure(ZipArchive.LOCAL_HEADER_SIZE + encodedName.length + (zip64 ? 20 : 0));
+        buffer.putInt(ZipArchive.LOCAL_HEADER);
+        buffer.putShort((short) version);
+        buffer.putShort((short) flags);
+        buffer.putShort((short) method);
+        buffer.putInt(dosTime);
+        buffer.putInt((int) crc);
+        buffer.putInt(zip64 ? (int) ZipArchive.ZIP64_MAGIC : (int) compressedSize);
+        buffer.putInt(zip64 ? (int) ZipArchive.ZIP64_MAGIC : (int) size);
+        buffer.putShort((short) encodedName.length);
+        buffer.putShort((short) (zip64 ? 20 : 0));
+        buffer.put(encodedName);
+        if (zip64) {
+            buffer.putShort((short) ZipArchive.ZIP64_EXTRA);
+            buffer.putShort((short) 16);
+            buffer.putLong(size);
+            buffer.putLong(compressedSize);
+        }
+        position += ZipArchive.LOCAL_HEADER_SIZE + encodedName.length + (zip64 ? 20 : 0);
+    }
+
+    private void writeCentralDirectory() throws IOException {
+        final long directoryOffset = position;
+        for (CentralEntry entry : written) {
+            final boolean largeSize = entry.size() >= ZipArchive.ZIP64_MAGIC;
+            final boolean largeCompressedSize = entry.compressedSize() >= ZipArchive.ZIP64_MAGIC;
+            final boolean largeOffset = entry.localHeaderOffset() >= ZipArchive.ZIP64_MAGIC;
+            final int extraLength = (largeSize ? 8 : 0) + (largeCompressedSize ? 8 : 0) + (largeOffset ? 8 : 0);
+            final int version = extraLength > 0 ? Math.max(entry.version(), VERSION_ZIP64) : entry.version();
+
+            ensure(ZipArchive.CENTRAL_HEADER_SIZE + entry.name().length + (extraLength > 0 ? extraLength + 4 : 0));
+            buffer.putInt(ZipArchive.CENTRAL_HEADER);
+            buffer.putShort((short) version); //Version made by
+            buffer.putShort((short) version);
+            buffer.putShort((short) entry.flags());
+            buffer.putShort((short) entry.method());
+            buffer.putInt(entry.dosTime());
+            buffer.putInt((int) entry.crc());
+            buffer.putInt(largeCompressedSize ? (int) ZipArchive.ZIP64_MAGIC : (int) entry.compressedSize());
+            buffer.putInt(largeSize ? (int) ZipArchive.ZIP64_MAGIC : (int) entry.size());
+            buffer.putShort((short) entry.name().length);
+            buffer.putShort((short) (extraLength > 0 ? extraLength + 4 : 0));
+            buffer.putShort((short) 0); //Comment length
+            buffer.putShort((short) 0); //Disk number
+            buffer.putShort((short) 0); //Internal attributes
+            buffer.putInt(0); //External attributes
+            buffer.putInt(largeOffset ? (int) ZipArchive.ZIP64_MAGIC : (int) entry.localHeaderOffset());
+            buffer.put(entry.name());
+            if (extraLength > 0) {
+                buffer.putShort((short) ZipArchive.ZIP64_EXTRA);
+                buffer.putShort((short) extraLength);
+                if (largeSize) {
+                    buffer.putLong(entry.size());
+                }
+                if (largeCompressedSize) {
+                    buffer.putLong(entry.compressedSize());
+                }
+                if (largeOffset) {
+                    buffer.putLong(entry.localHeaderOffset());
+                }
+            }
+            position += ZipArchive.CENTRAL_HEADER_SIZE + entry.name().length + (extraLength > 0 ? extraLength + 4 : 0);
+        }
+
+        final long directorySize = position - directoryOffset;
+        final boolean zip64 = written.size() >= ZipArchive.ZIP64_MAGIC_COUNT || directoryOffset >= ZipArchive.ZIP64_MAGIC || directorySize >= ZipArchive.ZIP64_MAGIC;
+        ensure(ZipArchive.ZIP64_END_SIZE + ZipArchive.ZIP64_LOCATOR_SIZE + ZipArchive.END_SIZE);
+        if (zip64) {
+            final long zip64EndOffset = position;
+            buffer.putInt(ZipArchive.ZIP64_END_HEADER);
+            buffer.putLong(ZipArchive.ZIP64_END_SIZE - 12);
+            buffer.putShort((short) VERSION_ZIP64); //Version made by
+            buffer.putShort((short) VERSION_ZIP64);
+            buffer.putInt(0); //Disk number
+            buffer.putInt(0); //Disk of the central directory
+            buffer.putLong(written.size());
+            buffer.putLong(written.size());
+            buffer.putLong(directorySize);
+            buffer.putLong(directoryOffset);
+
+            buffer.putInt(ZipArchive.ZIP64_LOCATOR);
+            buffer.putInt(0); //Disk of the zip64 end of central directory
+            buffer.putLong(zip64EndOffset);
+            buffer.putInt(1); //Total disks
+        }
+
+        buffer.putInt(ZipArchive.END_HEADER);
+        buffer.putShort((short) 0); //Disk number
+        buffer.putShort((short) 0); //Disk of the central directory
+        buffer.putShort((short) Math.min(written.size(), ZipArchive.ZIP64_MAGIC_COUNT));
+        buffer.putShort((short) Math.min(written.size(), ZipArchive.ZIP64_MAGIC_COUNT));
+        buffer.putInt((int) Math.min(directorySize, ZipArchive.ZIP64_MAGIC));
+        buffer.putInt((int) Math.min(directoryOffset, ZipArchive.ZIP64_MAGIC));
+        buffer.putShort((short) 0); //Comment length
+        flush();
+    }
+
+    private void writeBytes(byte[] data, int length) throws IOException {
+        if (length <= buffer.capacity()) {
+            ensure(length);
+            buffer.put(data, 0, length);
+        } else {
+            flush();
+            final ByteBuffer wrapped = ByteBuffer.wrap(data, 0, length);
+            while (wrapped.hasRemaining()) {
+                channel.write(wrapped);
+            }
+        }
+        position += length;
+    }
+
+    private void ensure(int length) throws IOException {
+        if (buffer.remaining() < length) {
+            flush();
+        }
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Converts the given time to the MS-DOS format used by zip files, in UTC.
+     *
+     * @param time The time in milliseconds since the epoch.
+     * @return The time in the MS-DOS format.
+     */
+    public static int toDosTime(long time) {
+        final LocalDateTime dateTime = LocalDateTime.ofInstant(Instant.ofEpochMilli(time), ZoneOffset.UTC);
+        if (dateTime.getYear() < 1980) {
+            return (1 << 21) | (1 << 16);
+        }
+        return (dateTime.getYear() - 1980) << 25
+                | dateTime.getMonthValue() << 21
+                | dateTime.getDayOfMonth() << 16
+                | dateTime.getHour() << 11
+                | dateTime.getMinute() << 5
+                | dateTime.getSecond() >> 1;
+    }
+
+    /**
+     * Converts the given time in the MS-DOS format used by zip files, in UTC, to milliseconds since the epoch.
+     *
+     * @param dosTime The time in the MS-DOS format.
+     * @return The time in milliseconds since the epoch.
+     */
+    public static long fromDosTime(int dosTime) {
+        try {
+            return LocalDateTime.of(
+                    (dosTime >>> 25) + 1980,
+                    dosTime >> 21 & 0xF,
+                    dosTime >> 16 & 0x1F,
+                    dosTime >> 11 & 0x1F,
+                    dosTime >> 5 & 0x3F,
+                    (dosTime & 0x1F) << 1
+            ).toInstant(ZoneOffset.UTC).toEpochMilli();
+        } catch (DateTimeException e) {
+            //Invalid times are common in zip files, which do not validate them.
+            return 0;
+        }
+    }
+
+    /**
+     * Writes the central directory and closes the file.
+     *
+     * @throws IOException If the central directory could not be written.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+
+        try {
+            writeCentralDirectory();
+        } finally {
+            closed = true;
+            deflater.end();
+            channel.close();
+        }
+    }
+
+    /**
+     * An entry which is compressed, but not written yet.
+     *
+     * @param name The name of the entry.
+     * @param method The compression method of the entry.
+     * @param dosTime The modification time, in the MS-DOS format used by zip files.
+     * @param crc The CRC-32 of the uncompressed content.
+     * @param size The size of the uncompressed content.
+     * @param data The compressed data.
+     */
+    public record CompressedEntry(String name, int method, int dosTime, long crc, long size, byte[] data) {}
+
+    private record CentralEntry(byte[] name, int version, int flags, int method, int dosTime, long crc, long compressedSize, long size, long localHeaderOffset) {}
+}
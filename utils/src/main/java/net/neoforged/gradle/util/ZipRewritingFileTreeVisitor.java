@@ -0,0 +1,49 @@
+package net.neoforged.gradle.util;
+
+import org.gradle.api.file.FileVisitDetails;
+import org.gradle.api.file.FileVisitor;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * A {@link FileVisitor} that builds a zip file
+ * Simply writing all visited files to the given {@link ZipRewriter} as individual entries, with a stable time
+ */
+public class ZipRewritingFileTreeVisitor implements FileVisitor {
+
+    protected final ZipRewriter outputZip;
+
+    public ZipRewritingFileTreeVisitor(ZipRewriter outputZip) {
+        this.outputZip = outputZip;
+    }
+
+    @Override
+    public void visitDir(FileVisitDetails fileVisitDetails) {
+        final String name = createDirectoryName(fileVisitDetails);
+        try {
+            outputZip.write(name, new byte[0]);
+        } catch (IOException zip) {
+            if (!zip.getMessage().equals("duplicate entry: " + name)) {
+                throw new RuntimeException("Could not create zip directory: " + fileVisitDetails.getRelativePath().getPathString(), zip);
+            }
+        }
+    }
+
+    protected String createDirectoryName(FileVisitDetails fileVisitDetails) {
+        return fileVisitDetails.getRelativePath().getPathString() + "/";
+    }
+
+    @Override
+    public void visitFile(FileVisitDetails fileVisitDetails) {
+        try (InputStream stream = fileVisitDetails.open()) {
+            outputZip.write(createFileName(fileVisitDetails), stream.readAllBytes());
+        } catch (IOException e) {
+            throw new RuntimeException("Could not create zip file: " + fileVisitDetails.getRelativePath().getPathString(), e);
+        }
+    }
+
+    protected String createFileName(FileVisitDetails fileVisitDetails) {
+        return fileVisitDetails.getRelativePath().getPathString();
+    }
+}
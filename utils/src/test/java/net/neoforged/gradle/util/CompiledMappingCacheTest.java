@@ -0,0 +1,101 @@
+package net.neoforged.gradle.util;
+
+import net.minecraftforge.srgutils.IMappingBuilder;
+import net.minecraftforge.srgutils.IMappingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CompiledMappingCacheTest {
+
+    @TempDir
+    File directory;
+
+    @Test
+    public void compiledMappingsMatchTheParsedMappings() throws IOException {
+        final File mappings = createMappings();
+        final CompiledMappingCache cache = new CompiledMappingCache(new File(directory, "cache"));
+
+        final IMappingFile parsed = cache.load(mappings);
+        final File compiled = cache.getCompiledFile(HashFunction.SHA256.hash(mappings));
+        assertTrue(compiled.isFile());
+
+        final IMappingFile loaded = cache.load(mappings);
+        assertEquals(describe(IMappingFile.load(mappings)), describe(parsed));
+        assertEquals(describe(parsed), describe(loaded));
+    }
+
+    @Test
+    public void brokenCompiledMappingsAreCompiledAgain() throws IOException {
+        final File mappings = createMappings();
+        final CompiledMappingCache cache = new CompiledMappingCache(new File(directory, "cache"));
+        final File compiled = cache.getCompiledFile(HashFunction.SHA256.hash(mappings));
+        Files.createDirectories(compiled.getParentFile().toPath());
+        Files.writeString(compiled.toPath(), "not compiled mappings");
+
+        assertEquals(describe(IMappingFile.load(mappings)), describe(cache.load(mappings)));
+        assertEquals(describe(IMappingFile.load(mappings)), describe(CompiledMappingCache.read(compiled.toPath())));
+    }
+
+    @Test
+    public void compiledMappingsAreFoundThroughTheHashIndex() throws IOException {
+        final File mappings = createMappings();
+        final CompiledMappingCache cache = new CompiledMappingCache(new File(directory, "cache"), FileHashIndex.load(new File(directory, "index.bin").toPath()));
+
+        final IMappingFile parsed = cache.load(mappings);
+        final IMappingFile loaded = cache.load(mappings);
+
+        //Only decoded once it is used
+        assertInstanceOf(CompiledMappingFile.class, loaded);
+        assertEquals(describe(parsed), describe(loaded));
+    }
+
+    @Test
+    public void storedMappingsAreKeyedByTheirContent() throws IOException {
+        final IMappingFile mappingFile = IMappingFile.load(createMappings());
+        final CompiledMappingCache cache = new CompiledMappingCache(new File(directory, "cache"));
+
+        final String hash = cache.store(mappingFile);
+
+        assertEquals(hash, cache.store(mappingFile));
+        assertEquals(describe(mappingFile), describe(CompiledMappingCache.read(cache.getCompiledFile(hash).toPath())));
+    }
+
+    private File createMappings() throws IOException {
+        final IMappingBuilder builder = IMappingBuilder.create("left", "right");
+        final IMappingBuilder.IClass foo = builder.addClass("a", "net/minecraft/Foo");
+        foo.field("a", "f_1_").descriptor("I");
+        foo.field("b", "f_2_");
+        foo.method("(ILa;)V", "a", "m_3_").parameter(0, "o", "p_3_0_");
+        foo.method("()V", "b", "m_4_").meta("is_static", "true");
+        builder.addClass("b", "net/minecraft/Bar").method("()La;", "a", "m_5_");
+
+        final File mappings = new File(directory, "mappings.tsrg");
+        builder.build().write(mappings.toPath(), IMappingFile.Format.TSRG2);
+        return mappings;
+    }
+
+    private static String describe(IMappingFile mappingFile) {
+        final List<String> lines = new ArrayList<>();
+        mappingFile.getClasses().stream().sorted(Comparator.comparing(IMappingFile.INode::getOriginal)).forEach(cls -> {
+            lines.add(cls.getOriginal() + " " + cls.getMapped() + " " + cls.getMetadata());
+            cls.getFields().stream().sorted(Comparator.comparing(IMappingFile.INode::getOriginal)).forEach(fld ->
+                    lines.add("  " + fld.getOriginal() + " " + fld.getDescriptor() + " " + fld.getMapped() + " " + fld.getMetadata()));
+            cls.getMethods().stream().sorted(Comparator.comparing(IMappingFile.INode::getOriginal)).forEach(mtd -> {
+                lines.add("  " + mtd.getOriginal() + " " + mtd.getDescriptor() + " " + mtd.getMapped() + " " + mtd.getMappedDescriptor() + " " + mtd.getMetadata());
+                mtd.getParameters().forEach(par -> lines.add("    " + par.getIndex() + " " + par.getOriginal() + " " + par.getMapped()));
+            });
+        });
+        return String.join("\n", lines);
+    }
+}
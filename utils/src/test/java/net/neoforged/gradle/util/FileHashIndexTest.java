@@ -0,0 +1,153 @@
+package net.neoforged.gradle.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class FileHashIndexTest {
+
+    private static final long OLD_TIMESTAMP = 1_000_000_000L;
+
+    @TempDir
+    File directory;
+
+    @Test
+    public void unchangedFilesAreOnlyHashedOnce() throws IOException {
+        final File file = createFile("file.txt", "content");
+        final FileHashIndex index = FileHashIndex.load(new File(directory, "index.bin").toPath());
+        final AtomicInteger computations = new AtomicInteger();
+
+        final String first = index.hash(file, "SHA-1", counting(computations));
+        final String second = index.hash(file, "SHA-1", counting(computations));
+
+        assertEquals(HashFunction.SHA1.hash("content"), first);
+        assertEquals(first, second);
+        assertEquals(1, computations.get());
+    }
+
+    @Test
+    public void changedFilesAreHashedAgain() throws IOException {
+        final File file = createFile("file.txt", "content");
+        final FileHashIndex index = FileHashIndex.load(new File(directory, "index.bin").toPath());
+        final AtomicInteger computations = new AtomicInteger();
+
+        index.hash(file, "SHA-1", counting(computations));
+        Files.writeString(file.toPath(), "other content");
+        assertTrue(file.setLastModified(OLD_TIMESTAMP));
+        final String changed = index.hash(file, "SHA-1", counting(computations));
+
+        assertEquals(HashFunction.SHA1.hash("other content"), changed);
+        assertEquals(2, computations.get());
+    }
+
+    @Test
+    public void algorithmsAreIndexedSeparately() throws IOException {
+        final File file = createFile("file.txt", "content");
+        final FileHashIndex index = FileHashIndex.load(new File(directory, "index.bin").toPath());
+        final AtomicInteger computations = new AtomicInteger();
+
+        index.hash(file, "SHA-1", counting(computations));
+        index.hash(file, "SHA-256", f -> {
+            computations.incrementAndGet();
+            return HashFunction.SHA256.hash(Files.readAllBytes(f.toPath()));
+        });
+
+        assertEquals(2, computations.get());
+    }
+
+    @Test
+    public void flushedDigestsAreReusedAfterLoading() throws IOException {
+        final File file = createFile("file.txt", "content");
+        final File indexFile = new File(directory, "index.bin");
+        final AtomicInteger computations = new AtomicInteger();
+
+        final FileHashIndex first = FileHashIndex.load(indexFile.toPath());
+        first.hash(file, "SHA-1", counting(computations));
+        first.flush();
+
+        final FileHashIndex second = FileHashIndex.load(indexFile.toPath());
+        second.hash(file, "SHA-1", counting(computations));
+
+        assertEquals(1, computations.get());
+    }
+
+    @Test
+    public void concurrentFlushesOfTheSameFileKeepAllDigests() throws Exception {
+        final File indexFile = new File(directory, "index.bin");
+        final int writers = 8;
+        final ExecutorService executor = Executors.newFixedThreadPool(writers);
+        try {
+            final List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < writers; i++) {
+                final File file = createFile("file" + i + ".txt", "content " + i);
+                futures.add(executor.submit(() -> {
+                    final FileHashIndex index = FileHashIndex.load(indexFile.toPath());
+                    index.hash(file, "SHA-1", counting(new AtomicInteger()));
+                    index.flush();
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        final FileHashIndex reloaded = FileHashIndex.load(indexFile.toPath());
+        final AtomicInteger computations = new AtomicInteger();
+        for (int i = 0; i < writers; i++) {
+            reloaded.hash(new File(directory, "file" + i + ".txt"), "SHA-1", counting(computations));
+        }
+
+        assertEquals(0, computations.get());
+    }
+
+    @Test
+    public void recentlyModifiedFilesAreNotIndexed() throws IOException {
+        final File file = createFile("file.txt", "content");
+        assertTrue(file.setLastModified(System.currentTimeMillis()));
+        final FileHashIndex index = FileHashIndex.load(new File(directory, "index.bin").toPath());
+        final AtomicInteger computations = new AtomicInteger();
+
+        index.hash(file, "SHA-1", counting(computations));
+        index.hash(file, "SHA-1", counting(computations));
+
+        assertEquals(2, computations.get());
+    }
+
+    @Test
+    public void corruptIndexIsIgnored() throws IOException {
+        final File file = createFile("file.txt", "content");
+        final File indexFile = createFile("index.bin", "not an index");
+        final FileHashIndex index = FileHashIndex.load(indexFile.toPath());
+
+        assertEquals(HashFunction.SHA1.hash("content"), index.hash(file, "SHA-1", f -> HashFunction.SHA1.hash(Files.readAllBytes(f.toPath()))));
+    }
+
+    private File createFile(String name, String content) throws IOException {
+        final File file = new File(directory, name);
+        Files.writeString(file.toPath(), content);
+        assertTrue(file.setLastModified(OLD_TIMESTAMP));
+        return file;
+    }
+
+    private static FileHashIndex.DigestComputer counting(AtomicInteger computations) {
+        return file -> {
+            computations.incrementAndGet();
+            return HashFunction.SHA1.hash(Files.readAllBytes(file.toPath()));
+        };
+    }
+}
@@ -0,0 +1,85 @@
+package net.neoforged.gradle.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class HashFunctionTest {
+
+    @TempDir
+    File directory;
+
+    @Test
+    public void smallFilesAreHashedLikeTheirContent() throws IOException {
+        final byte[] content = randomContent(1024);
+        final File file = createFile("small.bin", content);
+
+        for (HashFunction function : HashFunction.values()) {
+            assertEquals(expected(function, content), function.hash(file));
+        }
+    }
+
+    @Test
+    public void largeFilesAreHashedLikeTheirContent() throws IOException {
+        final byte[] content = randomContent(5 * 1024 * 1024 + 17);
+        final File file = createFile("large.bin", content);
+
+        assertEquals(expected(HashFunction.SHA1, content), HashFunction.SHA1.hash(file));
+        assertEquals(expected(HashFunction.SHA256, content), HashFunction.SHA256.hash(file));
+
+        //Nothing may keep the file open or mapped after it was hashed
+        Files.delete(file.toPath());
+    }
+
+    @Test
+    public void multipleFilesAreHashedLikeTheirConcatenatedContent() throws IOException {
+        final byte[] first = randomContent(100);
+        final byte[] second = randomContent(70_000);
+        final byte[] combined = new byte[first.length + second.length];
+        System.arraycopy(first, 0, combined, 0, first.length);
+        System.arraycopy(second, 0, combined, first.length, second.length);
+
+        final List<File> files = List.of(createFile("first.bin", first), new File(directory, "missing.bin"), createFile("second.bin", second));
+
+        assertEquals(expected(HashFunction.SHA1, combined), HashFunction.SHA1.hash(files));
+    }
+
+    @Test
+    public void streamsAreHashedLikeTheirContent() throws IOException {
+        final byte[] content = randomContent(200_000);
+
+        assertEquals(expected(HashFunction.MD5, content), HashFunction.MD5.hash(new ByteArrayInputStream(content)));
+    }
+
+    @Test
+    public void emptyFilesAreHashedLikeEmptyContent() throws IOException {
+        final File file = createFile("empty.bin", new byte[0]);
+
+        assertEquals(expected(HashFunction.SHA256, new byte[0]), HashFunction.SHA256.hash(file));
+    }
+
+    private File createFile(String name, byte[] content) throws IOException {
+        final File file = new File(directory, name);
+        Files.write(file.toPath(), content);
+        return file;
+    }
+
+    private static byte[] randomContent(int size) {
+        final byte[] content = new byte[size];
+        new Random(size).nextBytes(content);
+        return content;
+    }
+
+    private static String expected(HashFunction function, byte[] content) {
+        return function.pad(new BigInteger(1, function.get().digest(content)).toString(16));
+    }
+}
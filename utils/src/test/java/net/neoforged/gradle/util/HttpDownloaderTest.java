@@ -0,0 +1,151 @@
+package net.neoforged.gradle.util;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HttpDownloaderTest {
+
+    @TempDir
+    File directory;
+
+    private HttpServer server;
+    private final List<HttpDownloader> downloaders = new ArrayList<>();
+    private final Map<String, byte[]> files = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> failuresBeforeSuccess = new ConcurrentHashMap<>();
+    private final AtomicInteger requests = new AtomicInteger();
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.setExecutor(Executors.newFixedThreadPool(8));
+        server.createContext("/", this::handle);
+        server.start();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        downloaders.forEach(HttpDownloader::close);
+        server.stop(0);
+    }
+
+    private HttpDownloader downloader(int concurrency, int maxAttempts) {
+        final HttpDownloader downloader = new HttpDownloader(concurrency, maxAttempts, Duration.ofMillis(1));
+        downloaders.add(downloader);
+        return downloader;
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+        final String path = exchange.getRequestURI().getPath().substring(1);
+        final AtomicInteger failures = failuresBeforeSuccess.get(path);
+        if (failures != null && failures.getAndDecrement() > 0) {
+            exchange.sendResponseHeaders(503, -1);
+            exchange.close();
+            return;
+        }
+
+        final byte[] content = files.get(path);
+        if (content == null) {
+            exchange.sendResponseHeaders(404, -1);
+            exchange.close();
+            return;
+        }
+
+        exchange.sendResponseHeaders(200, content.length);
+        try (OutputStream body = exchange.getResponseBody()) {
+            body.write(content);
+        }
+    }
+
+    private HttpDownloader.Download serve(String name, String content) {
+        final byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+        files.put(name, bytes);
+        return new HttpDownloader.Download(uri(name), new File(directory, name), HashFunction.SHA1.hash(bytes));
+    }
+
+    private URI uri(String name) {
+        return URI.create("http://localhost:" + server.getAddress().getPort() + "/" + name);
+    }
+
+    @Test
+    public void allFilesAreDownloaded() throws IOException {
+        final List<HttpDownloader.Download> downloads = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            downloads.add(serve("file" + i, "content of file " + i));
+        }
+
+        final AtomicInteger transferred = new AtomicInteger();
+        downloader(8, 3).downloadAll(downloads, (download, wasTransferred) -> {
+            if (wasTransferred) {
+                transferred.incrementAndGet();
+            }
+        });
+
+        assertEquals(500, transferred.get());
+        for (int i = 0; i < 500; i++) {
+            assertEquals("content of file " + i, Files.readString(new File(directory, "file" + i).toPath()));
+        }
+    }
+
+    @Test
+    public void existingFilesAreNotDownloadedAgain() throws IOException {
+        final HttpDownloader.Download download = serve("existing", "existing content");
+        Files.writeString(download.target().toPath(), "existing content");
+
+        assertFalse(downloader(1, 3).download(download));
+        assertEquals(0, requests.get());
+    }
+
+    @Test
+    public void failedRequestsAreRetried() throws IOException {
+        final HttpDownloader.Download download = serve("flaky", "flaky content");
+        failuresBeforeSuccess.put("flaky", new AtomicInteger(2));
+
+        assertTrue(downloader(1, 3).download(download));
+        assertEquals(3, requests.get());
+        assertEquals("flaky content", Files.readString(download.target().toPath()));
+    }
+
+    @Test
+    public void missingFilesAreNotRetried() {
+        final HttpDownloader.Download download = new HttpDownloader.Download(uri("missing"), new File(directory, "missing"), null);
+
+        final IOException exception = assertThrows(IOException.class, () -> downloader(1, 3).download(download));
+        assertTrue(exception.getMessage().contains("404"));
+        assertEquals(1, requests.get());
+        assertFalse(download.target().exists());
+    }
+
+    @Test
+    public void filesWithTheWrongHashAreRejected() {
+        final HttpDownloader.Download served = serve("corrupt", "corrupt content");
+        final HttpDownloader.Download download = new HttpDownloader.Download(served.uri(), served.target(), HashFunction.SHA1.hash("other content"));
+
+        assertThrows(IOException.class, () -> downloader(1, 2).download(download));
+        assertEquals(2, requests.get());
+        assertFalse(download.target().exists());
+        assertArrayEquals(new String[0], directory.list());
+    }
+}
@@ -0,0 +1,139 @@
+package net.neoforged.gradle.util;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ResumableDownloaderTest {
+
+    @TempDir
+    Path directory;
+
+    private HttpServer server;
+    private volatile byte[] content;
+    private volatile String etag = "\"v1\"";
+    private final AtomicInteger interruptions = new AtomicInteger();
+    private final List<String> ranges = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", this::handle);
+        server.start();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        final String range = exchange.getRequestHeaders().getFirst("Range");
+        final String ifRange = exchange.getRequestHeaders().getFirst("If-Range");
+        ranges.add(range == null ? "" : range);
+
+        int offset = 0;
+        if (range != null && etag.equals(ifRange)) {
+            offset = Integer.parseInt(range.substring("bytes=".length(), range.length() - 1));
+            exchange.getResponseHeaders().add("Content-Range", "bytes %d-%d/%d".formatted(offset, content.length - 1, content.length));
+        }
+
+        exchange.getResponseHeaders().add("ETag", etag);
+        exchange.sendResponseHeaders(offset > 0 ? 206 : 200, content.length - offset);
+        final OutputStream body = exchange.getResponseBody();
+        if (interruptions.getAndDecrement() > 0) {
+            //Sends half of the file, and drops the connection
+            body.write(content, offset, (content.length - offset) / 2);
+            body.flush();
+            exchange.close();
+            return;
+        }
+        body.write(content, offset, content.length - offset);
+        body.close();
+    }
+
+    private ResumableDownloader.Request request(Path target, String sha1) throws IOException {
+        return new ResumableDownloader.Request(new URL("http://localhost:" + server.getAddress().getPort() + "/file"), target, sha1, false);
+    }
+
+    private static byte[] content(int size) {
+        final byte[] bytes = new byte[size];
+        for (int i = 0; i < size; i++) {
+            bytes[i] = (byte) (i * 31);
+        }
+        return bytes;
+    }
+
+    @Test
+    public void interruptedDownloadsAreResumed() throws IOException {
+        content = content(100_000);
+        interruptions.set(1);
+        final Path target = directory.resolve("file.jar");
+
+        assertTrue(new ResumableDownloader(3, Duration.ofMillis(1), null).download(request(target, HashFunction.SHA1.hash(content)), ResumableDownloader.Listener.NONE));
+
+        assertArrayEquals(content, Files.readAllBytes(target));
+        assertEquals(2, ranges.size());
+        assertEquals("", ranges.get(0));
+        assertEquals("bytes=50000-", ranges.get(1));
+        assertFalse(Files.exists(directory.resolve("file.jar.part")));
+        assertFalse(Files.exists(directory.resolve("file.jar.part.state")));
+    }
+
+    @Test
+    public void partialFilesAreResumedByLaterDownloads() throws IOException {
+        content = content(100_000);
+        interruptions.set(1);
+        final Path target = directory.resolve("file.jar");
+
+        assertThrows(IOException.class, () -> new ResumableDownloader(1, Duration.ofMillis(1), null).download(request(target, HashFunction.SHA1.hash(content)), ResumableDownloader.Listener.NONE));
+        assertTrue(Files.exists(directory.resolve("file.jar.part")));
+
+        new ResumableDownloader(1, Duration.ofMillis(1), null).download(request(target, HashFunction.SHA1.hash(content)), ResumableDownloader.Listener.NONE);
+        assertArrayEquals(content, Files.readAllBytes(target));
+        assertEquals("bytes=50000-", ranges.get(1));
+    }
+
+    @Test
+    public void changedFilesAreDownloadedAgain() throws IOException {
+        content = content(100_000);
+        interruptions.set(1);
+        final Path target = directory.resolve("file.jar");
+
+        assertThrows(IOException.class, () -> new ResumableDownloader(1, Duration.ofMillis(1), null).download(request(target, null), ResumableDownloader.Listener.NONE));
+
+        content = "changed content".getBytes(StandardCharsets.UTF_8);
+        etag = "\"v2\"";
+        new ResumableDownloader(1, Duration.ofMillis(1), null).download(request(target, null), ResumableDownloader.Listener.NONE);
+        assertArrayEquals(content, Files.readAllBytes(target));
+    }
+
+    @Test
+    public void filesWithTheWrongHashAreDiscarded() {
+        content = content(1_000);
+        final Path target = directory.resolve("file.jar");
+
+        assertThrows(IOException.class, () -> new ResumableDownloader(2, Duration.ofMillis(1), null).download(request(target, HashFunction.SHA1.hash("other content")), ResumableDownloader.Listener.NONE));
+        assertEquals(List.of("", ""), ranges);
+        assertFalse(Files.exists(target));
+        assertFalse(Files.exists(directory.resolve("file.jar.part")));
+    }
+}
@@ -0,0 +1,106 @@
+package net.neoforged.gradle.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ToolDaemonPoolTest {
+
+    @TempDir
+    File directory;
+
+    private ToolDaemonPool pool;
+    private ToolDaemonPool.Key key;
+
+    @BeforeEach
+    public void setUp() throws URISyntaxException {
+        pool = new ToolDaemonPool(Duration.ofMinutes(10), 2);
+        final File classes = new File(CountingTool.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+        final String java = new File(System.getProperty("java.home"), "bin/java").getAbsolutePath();
+        key = ToolDaemonPool.Key.of(List.of(classes), java, List.of("-Xmx64m"));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        pool.close();
+    }
+
+    @Test
+    public void daemonsAreReusedBetweenExecutions() throws IOException {
+        final File output = new File(directory, "console.log");
+        final ByteArrayOutputStream error = new ByteArrayOutputStream();
+
+        pool.execute(key, CountingTool.class.getName(), List.of("first"), output, error);
+        pool.execute(key, CountingTool.class.getName(), List.of("second"), output, error);
+
+        assertEquals("1 first\n2 second\n", Files.readString(output.toPath()));
+        assertEquals("error first\nerror second\n", error.toString(StandardCharsets.UTF_8));
+        assertEquals(1, pool.getIdleDaemonCount());
+    }
+
+    @Test
+    public void idleDaemonsAreEvicted() throws IOException {
+        final File output = new File(directory, "console.log");
+
+        pool.execute(key, CountingTool.class.getName(), List.of("first"), output, new ByteArrayOutputStream());
+        pool.setIdleTimeout(Duration.ZERO);
+        pool.evictIdle();
+        assertEquals(0, pool.getIdleDaemonCount());
+
+        pool.execute(key, CountingTool.class.getName(), List.of("second"), output, new ByteArrayOutputStream());
+        assertEquals("1 first\n1 second\n", Files.readString(output.toPath()));
+    }
+
+    @Test
+    public void failuresOfToolsAreReported() throws IOException {
+        final IOException exception = assertThrows(IOException.class, () -> pool.execute(key, FailingTool.class.getName(), List.of(), null, new ByteArrayOutputStream()));
+        assertTrue(exception.getMessage().contains("tool failure"));
+
+        //The daemon survives an exception of the tool
+        assertEquals(1, pool.getIdleDaemonCount());
+    }
+
+    @Test
+    public void toolsWhichExitEndTheirDaemon() throws IOException {
+        pool.execute(key, ExitingTool.class.getName(), List.of("0"), null, new ByteArrayOutputStream());
+        assertEquals(0, pool.getIdleDaemonCount());
+
+        final IOException exception = assertThrows(IOException.class, () -> pool.execute(key, ExitingTool.class.getName(), List.of("3"), null, new ByteArrayOutputStream()));
+        assertTrue(exception.getMessage().contains("exited with code 3"));
+        assertEquals(0, pool.getIdleDaemonCount());
+    }
+
+    public static final class CountingTool {
+        private static int executions = 0;
+
+        public static void main(String[] args) {
+            executions++;
+            System.out.println(executions + " " + args[0]);
+            System.err.println("error " + args[0]);
+        }
+    }
+
+    public static final class FailingTool {
+        public static void main(String[] args) {
+            throw new IllegalStateException("tool failure");
+        }
+    }
+
+    public static final class ExitingTool {
+        public static void main(String[] args) {
+            System.exit(Integer.parseInt(args[0]));
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package net.neoforged.gradle.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class VerifiedObjectIndexTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void missingIndexIsEmpty() {
+        final VerifiedObjectIndex index = VerifiedObjectIndex.load(directory.resolve("missing.bin"));
+
+        assertEquals(0, index.size());
+        assertFalse(index.contains(HashFunction.SHA1.hash("object")));
+    }
+
+    @Test
+    public void updatedHashesAreContained() throws IOException {
+        final Path file = directory.resolve("index.bin");
+        final List<String> first = new ArrayList<>();
+        final List<String> second = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            (i % 2 == 0 ? first : second).add(HashFunction.SHA1.hash("object " + i));
+        }
+
+        VerifiedObjectIndex.update(file, first);
+        VerifiedObjectIndex.update(file, second);
+        //Hashes which are already part of the index are only stored once
+        VerifiedObjectIndex.update(file, first);
+
+        final VerifiedObjectIndex index = VerifiedObjectIndex.load(file);
+        assertEquals(1000, index.size());
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(index.contains(HashFunction.SHA1.hash("object " + i)));
+        }
+        assertFalse(index.contains(HashFunction.SHA1.hash("object 1000")));
+        assertFalse(index.contains("not a hash"));
+    }
+
+    @Test
+    public void corruptIndexIsEmpty() throws IOException {
+        final Path file = directory.resolve("index.bin");
+        VerifiedObjectIndex.update(file, List.of(HashFunction.SHA1.hash("object")));
+
+        final byte[] content = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(content, content.length - 1));
+
+        assertEquals(0, VerifiedObjectIndex.load(file).size());
+    }
+}
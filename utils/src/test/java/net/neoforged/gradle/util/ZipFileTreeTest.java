@@ -0,0 +1,127 @@
+package net.neoforged.gradle.util;
+
+import org.gradle.api.file.FileVisitDetails;
+import org.gradle.api.file.FileVisitor;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ZipFileTreeTest {
+
+    @TempDir
+    File directory;
+
+    @Test
+    public void visitsDirectoriesAndFilesInZipOrder() throws IOException {
+        final RecordingVisitor visitor = new RecordingVisitor();
+        ZipFileTree.of(createZip()).visit(visitor);
+
+        assertEquals(List.of("dir:a", "file:a/A.java=class A", "file:a/data.txt=data", "file:root.txt=root"), visitor.visited);
+    }
+
+    @Test
+    public void onlyVisitsMatchingEntries() throws IOException {
+        final RecordingVisitor visitor = new RecordingVisitor();
+        ZipFileTree.of(createZip()).matching(filter -> filter.include("**/*.java")).visit(visitor);
+
+        //Like with Gradle file trees, directories which could contain matching files are visited as well.
+        assertEquals(List.of("dir:a", "file:a/A.java=class A"), visitor.visited);
+    }
+
+    @Test
+    public void stopsVisitingWhenRequested() throws IOException {
+        final List<String> visited = new ArrayList<>();
+        ZipFileTree.of(createZip()).visit(new FileVisitor() {
+            @Override
+            public void visitDir(FileVisitDetails dirDetails) {
+                visited.add(dirDetails.getPath());
+            }
+
+            @Override
+            public void visitFile(FileVisitDetails fileDetails) {
+                visited.add(fileDetails.getPath());
+                fileDetails.stopVisiting();
+            }
+        });
+
+        assertEquals(List.of("a", "a/A.java"), visited);
+    }
+
+    @Test
+    public void filesCanBeCopiedToTheFileSystem() throws IOException {
+        final File target = new File(directory, "extracted");
+        ZipFileTree.of(createZip()).visit(new CopyingFileTreeVisitor(target));
+
+        assertEquals("class A", Files.readString(new File(target, "a/A.java").toPath()));
+        assertEquals("root", Files.readString(new File(target, "root.txt").toPath()));
+    }
+
+    @Test
+    public void permissionsFollowTheModeOfTheEntries() throws IOException {
+        final List<String> permissions = new ArrayList<>();
+        ZipFileTree.of(createZip()).visit(new FileVisitor() {
+            @Override
+            public void visitDir(FileVisitDetails dirDetails) {
+                assertTrue(dirDetails.getPermissions().getOther().getExecute());
+                permissions.add(Integer.toOctalString(dirDetails.getPermissions().toUnixNumeric()));
+            }
+
+            @Override
+            public void visitFile(FileVisitDetails fileDetails) {
+                assertTrue(fileDetails.getPermissions().getUser().getWrite());
+                assertFalse(fileDetails.getPermissions().getGroup().getWrite());
+                permissions.add(Integer.toOctalString(fileDetails.getPermissions().toUnixNumeric()));
+            }
+        });
+
+        assertEquals(List.of("755", "644", "644", "644"), permissions);
+    }
+
+    private File createZip() throws IOException {
+        final File zip = new File(directory, "input.zip");
+        try (ZipOutputStream zos = new ZipOutputStream(new FileOutputStream(zip))) {
+            zos.putNextEntry(new ZipEntry("a/"));
+            zos.closeEntry();
+            write(zos, "a/A.java", "class A");
+            write(zos, "a/data.txt", "data");
+            write(zos, "root.txt", "root");
+        }
+        return zip;
+    }
+
+    private static void write(ZipOutputStream zos, String name, String content) throws IOException {
+        zos.putNextEntry(new ZipEntry(name));
+        zos.write(content.getBytes(StandardCharsets.UTF_8));
+        zos.closeEntry();
+    }
+
+    private static final class RecordingVisitor implements FileVisitor {
+        private final List<String> visited = new ArrayList<>();
+
+        @Override
+        public void visitDir(FileVisitDetails dirDetails) {
+            assertTrue(dirDetails.isDirectory());
+            visited.add("dir:" + dirDetails.getRelativePath().getPathString());
+        }
+
+        @Override
+        public void visitFile(FileVisitDetails fileDetails) {
+            final ByteArrayOutputStream content = new ByteArrayOutputStream();
+            fileDetails.copyTo(content);
+            assertEquals(content.size(), fileDetails.getSize());
+            visited.add("file:" + fileDetails.getRelativePath().getPathString() + "=" + content.toString(StandardCharsets.UTF_8));
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package net.neoforged.gradle.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ZipPipelineTest {
+
+    private static final int ENTRIES = 500;
+
+    @TempDir
+    File directory;
+
+    @Test
+    public void parallelOutputIsIdenticalToSerialOutput() throws IOException {
+        final File input = createInput();
+        final File serial = rewrite(input, "serial.jar", 1);
+        final File parallel = rewrite(input, "parallel.jar", 8);
+
+        assertArrayEquals(Files.readAllBytes(serial.toPath()), Files.readAllBytes(parallel.toPath()));
+    }
+
+    @Test
+    public void entriesAreWrittenInInputOrder() throws IOException {
+        final File output = rewrite(createInput(), "output.jar", 8);
+
+        final List<String> expected = new ArrayList<>();
+        for (int i = 0; i < ENTRIES; i++) {
+            if (i % 3 == 0) {
+                continue;
+            }
+            expected.add("entry" + i + ".txt");
+            if (i % 5 == 0) {
+                expected.add("entry" + i + ".upper");
+            }
+        }
+
+        try (ZipArchive archive = ZipArchive.open(output)) {
+            final List<String> names = new ArrayList<>();
+            archive.getEntries().forEach(entry -> names.add(entry.getName()));
+            assertEquals(expected, names);
+            assertEquals("CONTENT 10", new String(archive.read(archive.getEntry("entry10.upper")), StandardCharsets.UTF_8));
+            assertEquals(ZipRewriter.STABLE_TIME, archive.getEntry("entry10.upper").getDosTime());
+        }
+    }
+
+    @Test
+    public void failuresOfWorkersAreRethrown() throws IOException {
+        final File input = createInput();
+        try (ZipArchive archive = ZipArchive.open(input);
+             ZipRewriter rewriter = new ZipRewriter(new File(directory, "output.jar"))) {
+            final IOException exception = assertThrows(IOException.class, () -> ZipPipeline.rewrite(archive, rewriter, 4, (entry, output) -> {
+                if (entry.getName().equals("entry200.txt")) {
+                    throw new IOException("broken entry");
+                }
+                output.copy(entry);
+            }));
+            assertEquals("broken entry", exception.getMessage());
+        }
+    }
+
+    private File rewrite(File input, String name, int parallelism) throws IOException {
+        final File output = new File(directory, name);
+        try (ZipArchive archive = ZipArchive.open(input);
+             ZipRewriter rewriter = new ZipRewriter(output)) {
+            ZipPipeline.rewrite(archive, rewriter, parallelism, (entry, out) -> {
+                final int index = Integer.parseInt(entry.getName().substring(5, entry.getName().indexOf('.')));
+                if (index % 3 == 0) {
+                    return;
+                }
+                out.copy(entry);
+                if (index % 5 == 0) {
+                    out.write(entry.getName().replace(".txt", ".upper"), new String(out.read(entry), StandardCharsets.UTF_8).toUpperCase().getBytes(StandardCharsets.UTF_8));
+                }
+            });
+        }
+        return output;
+    }
+
+    private File createInput() throws IOException {
+        final File input = new File(directory, "input.jar");
+        try (ZipOutputStream zos = new ZipOutputStream(new FileOutputStream(input))) {
+            for (int i = 0; i < ENTRIES; i++) {
+                zos.putNextEntry(new ZipEntry("entry" + i + ".txt"));
+                zos.write(("content " + i).getBytes(StandardCharsets.UTF_8));
+                zos.closeEntry();
+            }
+        }
+        return input;
+    }
+}
@@ -0,0 +1,200 @@
+package net.neoforged.gradle.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ZipRewriterTest {
+
+    private static final byte[] CONTENT = "public class Test {}\n".repeat(100).getBytes(StandardCharsets.UTF_8);
+
+    private static final byte[] RANDOM = new byte[256 * 1024];
+
+    static {
+        new Random(42).nextBytes(RANDOM);
+    }
+
+    @TempDir
+    File directory;
+
+    @Test
+    public void copiedEntriesKeepTheirCompressedData() throws IOException {
+        final File input = createInput();
+        final File output = new File(directory, "output.jar");
+
+        try (ZipArchive archive = ZipArchive.open(input);
+             ZipRewriter rewriter = new ZipRewriter(output)) {
+            for (ZipArchive.Entry entry : archive.getEntries()) {
+                rewriter.copy(archive, entry);
+            }
+        }
+
+        try (ZipArchive original = ZipArchive.open(input);
+             ZipArchive copy = ZipArchive.open(output)) {
+            assertEquals(names(original), names(copy));
+            for (ZipArchive.Entry entry : original.getEntries()) {
+                final ZipArchive.Entry copied = copy.getEntry(entry.getName());
+                assertEquals(entry.getMethod(), copied.getMethod());
+                assertEquals(entry.getDosTime(), copied.getDosTime());
+                assertArrayEquals(original.readRaw(entry), copy.readRaw(copied));
+            }
+        }
+
+        try (ZipFile zip = new ZipFile(output)) {
+            assertArrayEquals(CONTENT, read(zip, "a/Deflated.java"));
+            assertArrayEquals(CONTENT, read(zip, "a/Stored.txt"));
+            assertArrayEquals(RANDOM, read(zip, "a/Random.bin"));
+            assertTrue(zip.getEntry("a/").isDirectory());
+        }
+    }
+
+    @Test
+    public void writtenEntriesAreReadableByZipFile() throws IOException {
+        final File output = new File(directory, "output.jar");
+        final byte[] large = new byte[1024 * 1024];
+        for (int i = 0; i < large.length; i++) {
+            large[i] = (byte) (i * 31 >> 7);
+        }
+
+        try (ZipRewriter rewriter = new ZipRewriter(output)) {
+            rewriter.write("dir/", new byte[0]);
+            rewriter.write("dir/Small.java", CONTENT);
+            rewriter.write("dir/Large.bin", large);
+            rewriter.write("dir/Empty.txt", new byte[0]);
+        }
+
+        try (ZipFile zip = new ZipFile(output)) {
+            assertTrue(zip.getEntry("dir/").isDirectory());
+            assertArrayEquals(CONTENT, read(zip, "dir/Small.java"));
+            assertArrayEquals(large, read(zip, "dir/Large.bin"));
+            assertArrayEquals(new byte[0], read(zip, "dir/Empty.txt"));
+            assertEquals(FileUtils.getStableEntry("dir/Small.java").getTime(), zip.getEntry("dir/Small.java").getTime());
+        }
+
+        try (ZipArchive archive = ZipArchive.open(output)) {
+            final ZipArchive.Entry entry = archive.getEntry("dir/Large.bin");
+            assertArrayEquals(large, archive.read(entry));
+            try (InputStream stream = archive.getInputStream(entry)) {
+                assertArrayEquals(large, stream.readAllBytes());
+            }
+
+            final CRC32 crc = new CRC32();
+            crc.update(large);
+            assertEquals(crc.getValue(), entry.getCrc());
+        }
+    }
+
+    @Test
+    public void copiedEntriesCanBeRestamped() throws IOException {
+        final File input = createInput();
+        final File output = new File(directory, "output.jar");
+
+        try (ZipArchive archive = ZipArchive.open(input);
+             ZipRewriter rewriter = new ZipRewriter(output)) {
+            rewriter.copy(archive, archive.getEntry("a/Deflated.java"), ZipRewriter.STABLE_TIME);
+        }
+
+        try (ZipFile zip = new ZipFile(output)) {
+            assertEquals(FileUtils.getStableEntry("a/Deflated.java").getTime(), zip.getEntry("a/Deflated.java").getTime());
+        }
+    }
+
+    @Test
+    public void duplicateEntriesAreRejected() throws IOException {
+        final File input = createInput();
+        final File output = new File(directory, "output.jar");
+
+        try (ZipArchive archive = ZipArchive.open(input);
+             ZipRewriter rewriter = new ZipRewriter(output)) {
+            rewriter.copy(archive, archive.getEntry("a/Stored.txt"));
+
+            final ZipException exception = assertThrows(ZipException.class, () -> rewriter.write("a/Stored.txt", CONTENT));
+            assertTrue(exception.getMessage().startsWith("duplicate entry:"));
+        }
+
+        try (ZipArchive archive = ZipArchive.open(output)) {
+            assertEquals(List.of("a/Stored.txt"), names(archive));
+            assertNull(archive.getEntry("a/Deflated.java"));
+        }
+    }
+
+    @Test
+    public void manyEntriesAreWrittenAsZip64() throws IOException {
+        final File output = new File(directory, "output.jar");
+        final int count = 70_000;
+
+        try (ZipRewriter rewriter = new ZipRewriter(output)) {
+            for (int i = 0; i < count; i++) {
+                rewriter.write("entry" + i + ".txt", new byte[] { (byte) i });
+            }
+        }
+
+        try (ZipArchive archive = ZipArchive.open(output)) {
+            assertEquals(count, archive.getEntries().size());
+            assertArrayEquals(new byte[] { (byte) 69_999 }, archive.read(archive.getEntry("entry69999.txt")));
+        }
+
+        try (ZipFile zip = new ZipFile(output)) {
+            assertEquals(count, zip.size());
+        }
+    }
+
+    private File createInput() throws IOException {
+        final File input = new File(directory, "input.jar");
+        try (ZipOutputStream zos = new ZipOutputStream(new FileOutputStream(input))) {
+            zos.putNextEntry(new ZipEntry("a/"));
+            zos.closeEntry();
+
+            zos.putNextEntry(new ZipEntry("a/Deflated.java"));
+            zos.write(CONTENT);
+            zos.closeEntry();
+
+            final ZipEntry stored = new ZipEntry("a/Stored.txt");
+            final CRC32 crc = new CRC32();
+            crc.update(CONTENT);
+            stored.setMethod(ZipEntry.STORED);
+            stored.setSize(CONTENT.length);
+            stored.setCrc(crc.getValue());
+            zos.putNextEntry(stored);
+            zos.write(CONTENT);
+            zos.closeEntry();
+
+            //Larger than the buffer of the rewriter, so it is transferred directly.
+            zos.putNextEntry(new ZipEntry("a/Random.bin"));
+            zos.write(RANDOM);
+            zos.closeEntry();
+        }
+        return input;
+    }
+
+    private static List<String> names(ZipArchive archive) {
+        final List<String> names = new ArrayList<>();
+        archive.getEntries().forEach(entry -> names.add(entry.getName()));
+        return names;
+    }
+
+    private static byte[] read(ZipFile zip, String name) throws IOException {
+        try (InputStream stream = zip.getInputStream(zip.getEntry(name))) {
+            return stream.readAllBytes();
+        }
+    }
+}
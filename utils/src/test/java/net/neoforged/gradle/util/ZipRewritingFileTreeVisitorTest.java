@@ -0,0 +1,77 @@
+package net.neoforged.gradle.util;
+
+import org.gradle.api.file.FileVisitDetails;
+import org.gradle.api.file.RelativePath;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ZipRewritingFileTreeVisitorTest {
+
+    @TempDir
+    File directory;
+
+    @Test
+    public void visitingADirectoryTwiceCreatesOneEntryInZip() throws IOException {
+        final File output = new File(directory, "output.zip");
+        final FileVisitDetails fileVisitDetails = details("some/path");
+
+        try (ZipRewriter target = new ZipRewriter(output)) {
+            final ZipRewritingFileTreeVisitor visitor = new ZipRewritingFileTreeVisitor(target);
+            visitor.visitDir(fileVisitDetails);
+            assertDoesNotThrow(() -> visitor.visitDir(fileVisitDetails));
+        }
+
+        try (ZipArchive archive = ZipArchive.open(output)) {
+            assertEquals(1, archive.getEntries().size());
+            assertTrue(archive.getEntry("some/path/").isDirectory());
+        }
+    }
+
+    @Test
+    public void visitingAFileWritesItsContentToZip() throws IOException {
+        final File output = new File(directory, "output.zip");
+        final FileVisitDetails fileVisitDetails = details("some/file.txt");
+        when(fileVisitDetails.open()).thenReturn(new ByteArrayInputStream("content".getBytes(StandardCharsets.UTF_8)));
+
+        try (ZipRewriter target = new ZipRewriter(output)) {
+            new ZipRewritingFileTreeVisitor(target).visitFile(fileVisitDetails);
+        }
+
+        try (ZipArchive archive = ZipArchive.open(output)) {
+            final ZipArchive.Entry entry = archive.getEntry("some/file.txt");
+            assertEquals("content", new String(archive.read(entry), StandardCharsets.UTF_8));
+            assertEquals(ZipRewriter.STABLE_TIME, entry.getDosTime());
+        }
+    }
+
+    @Test
+    public void visitingADuplicateFileThrowsAnException() throws IOException {
+        final File output = new File(directory, "output.zip");
+        final FileVisitDetails fileVisitDetails = details("some/file.txt");
+        when(fileVisitDetails.open()).thenAnswer(invocation -> new ByteArrayInputStream(new byte[0]));
+
+        try (ZipRewriter target = new ZipRewriter(output)) {
+            final ZipRewritingFileTreeVisitor visitor = new ZipRewritingFileTreeVisitor(target);
+            visitor.visitFile(fileVisitDetails);
+            assertThrows(RuntimeException.class, () -> visitor.visitFile(fileVisitDetails));
+        }
+    }
+
+    private static FileVisitDetails details(String path) {
+        final FileVisitDetails fileVisitDetails = mock(FileVisitDetails.class);
+        final RelativePath relativePath = mock(RelativePath.class);
+
+        when(fileVisitDetails.getRelativePath()).thenReturn(relativePath);
+        when(relativePath.getPathString()).thenReturn(path);
+        return fileVisitDetails;
+    }
+}
@@ -5,6 +5,7 @@ import com.google.common.collect.Iterators;
 import net.neoforged.gradle.common.runtime.extensions.CommonRuntimeExtension;
 import net.neoforged.gradle.common.tasks.UnpackBundledServer;
 import net.neoforged.gradle.common.util.ProjectUtils;
+import net.neoforged.gradle.common.services.metadata.MinecraftMetadataService;
 import net.neoforged.gradle.common.util.ConfigurationUtils;
 import net.neoforged.gradle.common.util.VersionJson;
 import net.neoforged.gradle.dsl.common.util.DistributionType;
@@ -81,7 +82,8 @@ public abstract class VanillaRuntimeExtension extends CommonRuntimeExtension<Van
             gameArtifactTasks.put(GameArtifact.SERVER_JAR, extractedBundleTask);
         }
 
-        final Provider<VersionJson> versionJson = artifactCache.cacheVersionManifest(spec.getMinecraftVersion()).map(TransformerUtils.guard(VersionJson::get));
+        final Provider<MinecraftMetadataService> metadataService = MinecraftMetadataService.register(spec.getProject());
+        final Provider<VersionJson> versionJson = artifactCache.cacheVersionManifest(spec.getMinecraftVersion()).map(TransformerUtils.guard(file -> metadataService.get().getVersionJson(file)));
 
         final Configuration minecraftDependenciesConfiguration = ConfigurationUtils.temporaryConfiguration(getProject(), "VanillaMinecraftDependenciesFor" + spec.getIdentifier());
         minecraftDependenciesConfiguration.getDependencies().addAllLater(
@@ -101,7 +103,7 @@ public abstract class VanillaRuntimeExtension extends CommonRuntimeExtension<Van
 
         return new VanillaRuntimeDefinition(spec, new LinkedHashMap<>(), sourceJarTask, rawJarTask, gameArtifactTasks, minecraftDependenciesConfiguration, taskProvider -> taskProvider.configure(vanillaRuntimeTask -> {
             configureCommonRuntimeTaskParameters(vanillaRuntimeTask, CommonRuntimeUtils.buildStepName(spec, vanillaRuntimeTask.getName()), spec, vanillaDirectory);
-        }), versionJson, createDownloadAssetsTasks(spec, versionJson), createExtractNativesTasks(spec, runtimeWorkingDirectory, versionJson), launchInformation);
+        }), versionJson, createDownloadAssetsTasks(spec, gameArtifactTasks.get(GameArtifact.VERSION_MANIFEST)), createExtractNativesTasks(spec, runtimeWorkingDirectory, gameArtifactTasks.get(GameArtifact.VERSION_MANIFEST)), launchInformation);
     }
 
     @Override
@@ -54,14 +54,14 @@ public class ParchmentStep implements IStep {
 
         return project.getTasks().register(CommonRuntimeUtils.buildTaskName(definition, "applyParchment"), DefaultExecute.class, task -> {
             // Provide the mappings via artifact
-            File mappingFile = ToolUtilities.resolveTool(project, parchment.getParchmentArtifact().get());
-            File toolExecutable = ToolUtilities.resolveTool(project, tools.getJST().get());
+            final Provider<File> mappingFile = ToolUtilities.resolveToolLazily(project, parchment.getParchmentArtifact().get());
+            final Provider<File> toolExecutable = ToolUtilities.resolveToolLazily(project, tools.getJST().get());
 
-            task.getArguments().putFile("mappings", project.provider(() -> mappingFile));
+            task.getArguments().putFile("mappings", mappingFile);
             task.getArguments().putRegularFile("libraries", listLibrariesOutput);
             task.getArguments().putRegularFile("input", inputProvidingTask.flatMap(WithOutput::getOutput));
 
-            task.getExecutingJar().set(toolExecutable);
+            task.getExecutingJar().fileProvider(toolExecutable);
             task.getProgramArguments().add("--libraries-list");
             task.getProgramArguments().add("{libraries}");
             task.getProgramArguments().add("--enable-parchment");